@@ -1,10 +1,16 @@
 package com.yas.commonlibrary.kafka.cdc;
 
+import com.yas.commonlibrary.kafka.cdc.config.BaseKafkaListenerConfig;
+import java.util.List;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.messaging.MessageHeaders;
 
 /**
@@ -19,6 +25,7 @@ public abstract class BaseCdcConsumer<K, V> {
     public static final String RECEIVED_MESSAGE_HEADERS = "## Received message - headers: {}";
     public static final String PROCESSING_RECORD_KEY_VALUE = "## Processing record - Key: {} | Value: {}";
     public static final String RECORD_PROCESSED_SUCCESSFULLY_KEY = "## Record processed successfully - Key: {} \n";
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(BaseCdcConsumer.class);
 
     protected void processMessage(V record, MessageHeaders headers, Consumer<V> consumer) {
         LOGGER.debug(RECEIVED_MESSAGE_HEADERS, headers);
@@ -33,4 +40,34 @@ public abstract class BaseCdcConsumer<K, V> {
         consumer.accept(key, value);
         LOGGER.debug(RECORD_PROCESSED_SUCCESSFULLY_KEY, key);
     }
+
+    /**
+     * Processes a polled batch on the given executor, in parallel across keys and in order for the same key.
+     * Meant for listeners bound to {@link BaseKafkaListenerConfig#batchKafkaListenerContainerFactory()}.
+     */
+    protected void processMessages(List<ConsumerRecord<K, V>> records, KeyHashedExecutor executor,
+                                   BiConsumer<K, V> consumer) {
+        LOGGER.debug("## Received batch of {} records", records.size());
+        executor.executeAll(records, ConsumerRecord::key, consumerRecord -> {
+            checkDeserialized(consumerRecord);
+            LOGGER.debug(PROCESSING_RECORD_KEY_VALUE, consumerRecord.key(), consumerRecord.value());
+            consumer.accept(consumerRecord.key(), consumerRecord.value());
+            LOGGER.debug(RECORD_PROCESSED_SUCCESSFULLY_KEY, consumerRecord.key());
+        });
+    }
+
+    /**
+     * Batch listeners receive records that failed to deserialize with a null key or value, which must not be
+     * taken for a tombstone: rethrows the deserialization failure instead.
+     */
+    protected static void checkDeserialized(ConsumerRecord<?, ?> consumerRecord) {
+        for (String header : List.of(SerializationUtils.KEY_DESERIALIZER_EXCEPTION_HEADER,
+            SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)) {
+            DeserializationException exception =
+                SerializationUtils.getExceptionFromHeader(consumerRecord, header, LOG_ACCESSOR);
+            if (exception != null) {
+                throw exception;
+            }
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package com.yas.commonlibrary.kafka.cdc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+/**
+ * Processes a batch of items in parallel on virtual threads while keeping items that share a key in order.
+ *
+ * <p>Items are hashed by key into a fixed number of lanes. Each lane runs its items sequentially, lanes run
+ * concurrently, and {@link #executeAll} only returns once every lane is done. Used from a batch listener this
+ * means offsets are committed only after the whole poll is processed.
+ *
+ * <p>When an item fails its lane stops, the other lanes finish, and a {@link BatchListenerFailedException}
+ * pointing at the lowest failed index is thrown. The container then commits everything before that index and
+ * redelivers the rest, so items of other keys after it may be processed again: handlers must be idempotent.
+ */
+public class KeyHashedExecutor implements AutoCloseable {
+
+    private final int lanes;
+    private final ExecutorService executorService;
+
+    public KeyHashedExecutor(int lanes) {
+        if (lanes < 1) {
+            throw new IllegalArgumentException("lanes must be at least 1");
+        }
+        this.lanes = lanes;
+        this.executorService = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    public <T> void executeAll(List<T> items, Function<T, ?> keyExtractor, Consumer<T> processor) {
+        if (items.isEmpty()) {
+            return;
+        }
+        List<List<Integer>> laneIndexes = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            laneIndexes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            laneIndexes.get(laneOf(keyExtractor.apply(items.get(i)))).add(i);
+        }
+
+        AtomicInteger failedIndex = new AtomicInteger(Integer.MAX_VALUE);
+        Throwable[] failures = new Throwable[items.size()];
+        List<Future<?>> futures = new ArrayList<>(lanes);
+        for (List<Integer> indexes : laneIndexes) {
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            futures.add(executorService.submit(() -> {
+                for (int index : indexes) {
+                    try {
+                        processor.accept(items.get(index));
+                    } catch (RuntimeException e) {
+                        failures[index] = e;
+                        failedIndex.accumulateAndGet(index, Math::min);
+                        return;
+                    }
+                }
+            }));
+        }
+        awaitAll(futures);
+
+        int index = failedIndex.get();
+        if (index != Integer.MAX_VALUE) {
+            throw new BatchListenerFailedException("Failed to process batch item " + index, failures[index], index);
+        }
+    }
+
+    int laneOf(Object key) {
+        return Math.floorMod(Objects.hashCode(key), lanes);
+    }
+
+    private static void awaitAll(List<Future<?>> futures) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while processing batch", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Unexpected failure while processing batch", e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executorService.close();
+    }
+}
@@ -1,23 +1,45 @@
 package com.yas.commonlibrary.kafka.cdc.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
 /**
  * Base configuration class for setting up Kafka consumers with typed deserialization.
  *
+ * <p>Factories created here honour {@code spring.kafka.listener.concurrency}, run consumer threads on virtual
+ * threads when {@code spring.threads.virtual.enabled} is set, and publish Kafka client metrics (including
+ * {@code records-lag}) plus per-listener processing timers to Micrometer when a {@link MeterRegistry} exists.
+ *
  * @param <V> The type of messages consumed.
  */
-public abstract class BaseKafkaListenerConfig<K, V> {
+public abstract class BaseKafkaListenerConfig<K, V> implements EnvironmentAware {
+
+    private static final String VIRTUAL_THREADS_ENABLED = "spring.threads.virtual.enabled";
+    // same dead letter topic as the @RetrySupportDql record listeners
+    private static final String DLT_SUFFIX = "-dlt";
 
     private final Class<K> keyType;
     private final Class<V> valueType;
     private final KafkaProperties kafkaProperties;
+    private Environment environment;
+    private MeterRegistry meterRegistry;
+    private KafkaOperations<?, ?> kafkaOperations;
 
     public BaseKafkaListenerConfig(Class<K> keyType, Class<V> type, KafkaProperties kafkaProperties) {
         this.valueType = type;
@@ -25,6 +47,21 @@ public abstract class BaseKafkaListenerConfig<K, V> {
         this.kafkaProperties = kafkaProperties;
     }
 
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Autowired(required = false)
+    public void setKafkaOperations(KafkaOperations<?, ?> kafkaOperations) {
+        this.kafkaOperations = kafkaOperations;
+    }
+
     /**
      * Abstract method to provide a custom instance of {@link ConcurrentKafkaListenerContainerFactory}.
      * (override method must be recognized as bean)
@@ -42,15 +79,58 @@ public abstract class BaseKafkaListenerConfig<K, V> {
     public ConcurrentKafkaListenerContainerFactory<K, V> kafkaListenerContainerFactory() {
         var factory = new ConcurrentKafkaListenerContainerFactory<K, V>();
         factory.setConsumerFactory(typeConsumerFactory(keyType, valueType));
+        var concurrency = kafkaProperties.getListener().getConcurrency();
+        if (concurrency != null) {
+            factory.setConcurrency(concurrency);
+        }
+        var containerProperties = factory.getContainerProperties();
+        containerProperties.setMicrometerEnabled(true);
+        if (isVirtualThreadsEnabled()) {
+            var executor = new SimpleAsyncTaskExecutor("kafka-" + valueType.getSimpleName() + "-");
+            executor.setVirtualThreads(true);
+            containerProperties.setListenerTaskExecutor(executor);
+        }
         return factory;
     }
 
+    /**
+     * Batch variant of {@link #kafkaListenerContainerFactory()}, for listeners that process a whole poll at once,
+     * e.g. through {@link com.yas.commonlibrary.kafka.cdc.BaseCdcConsumer#processMessages}. A record reported by
+     * a {@link org.springframework.kafka.listener.BatchListenerFailedException} is retried in place with an
+     * exponential backoff, so later updates for the same key are never applied before it, then published to the
+     * {@code <topic>-dlt} dead letter topic when a {@link KafkaOperations} bean exists, and skipped otherwise.
+     *
+     * @return concurrentKafkaListenerContainerFactory {@link ConcurrentKafkaListenerContainerFactory}.
+     */
+    public ConcurrentKafkaListenerContainerFactory<K, V> batchKafkaListenerContainerFactory() {
+        var factory = kafkaListenerContainerFactory();
+        factory.setBatchListener(true);
+        var backOff = new ExponentialBackOff(1000L, 2.0);
+        backOff.setMaxElapsedTime(60_000L);
+        factory.setCommonErrorHandler(kafkaOperations != null
+            ? new DefaultErrorHandler(new DeadLetterPublishingRecoverer(kafkaOperations,
+                // no partition, the dead letter topic may have fewer partitions than the source
+                (consumerRecord, exception) -> new TopicPartition(consumerRecord.topic() + DLT_SUFFIX, -1)), backOff)
+            : new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    private boolean isVirtualThreadsEnabled() {
+        return environment != null
+            && environment.getProperty(VIRTUAL_THREADS_ENABLED, Boolean.class, false);
+    }
+
     private ConsumerFactory<K, V> typeConsumerFactory(Class<K> keyClazz, Class<V> valueClazz) {
         Map<String, Object> props = buildConsumerProperties();
         // wrapper in case serialization/deserialization occur
         var keyDeserialize = new ErrorHandlingDeserializer<>(gettJsonDeserializer(keyClazz));
         var valueDeserialize = new ErrorHandlingDeserializer<>(gettJsonDeserializer(valueClazz));
-        return new DefaultKafkaConsumerFactory<>(props, keyDeserialize, valueDeserialize);
+        var consumerFactory = new DefaultKafkaConsumerFactory<>(props, keyDeserialize, valueDeserialize);
+        if (meterRegistry != null) {
+            // exposes kafka.consumer.* client metrics, e.g. records-lag-max per client id
+            consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        }
+        return consumerFactory;
     }
 
     private static <T> JsonDeserializer<T> gettJsonDeserializer(Class<T> clazz) {
@@ -5,6 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
 
+/**
+ * Row of the product table as published by Debezium. Timestamps use Debezium's default
+ * {@code MicroTimestamp} encoding (microseconds since epoch, UTC).
+ */
 @lombok.Getter
 @lombok.Setter
 @Builder
@@ -17,4 +21,34 @@ public class Product {
     @JsonProperty("is_published")
     private boolean isPublished;
 
+    private String name;
+
+    private String slug;
+
+    private Double price;
+
+    @JsonProperty("is_visible_individually")
+    private Boolean isVisibleIndividually;
+
+    @JsonProperty("is_allowed_to_order")
+    private Boolean isAllowedToOrder;
+
+    @JsonProperty("is_featured")
+    private Boolean isFeatured;
+
+    @JsonProperty("thumbnail_media_id")
+    private Long thumbnailMediaId;
+
+    @JsonProperty("brand_id")
+    private Long brandId;
+
+    @JsonProperty("stock_tracking_enabled")
+    private Boolean stockTrackingEnabled;
+
+    @JsonProperty("stock_quantity")
+    private Long stockQuantity;
+
+    @JsonProperty("created_on")
+    private Long createdOn;
+
 }
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 
 @lombok.Getter
 @lombok.Setter
+@lombok.EqualsAndHashCode
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,67 @@
+package com.yas.commonlibrary.kafka.cdc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+class KeyHashedExecutorTest {
+
+    private final KeyHashedExecutor executor = new KeyHashedExecutor(4);
+
+    record Item(long key, int sequence) {
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void executeAll_whenItemsShareKey_thenProcessInOrder() {
+        List<Item> items = IntStream.range(0, 1000)
+            .mapToObj(i -> new Item(i % 7, i))
+            .toList();
+        Map<Long, List<Integer>> processed = new ConcurrentHashMap<>();
+
+        executor.executeAll(items, Item::key, item -> processed
+            .computeIfAbsent(item.key(), k -> Collections.synchronizedList(new ArrayList<>()))
+            .add(item.sequence()));
+
+        assertThat(processed).hasSize(7);
+        processed.values().forEach(sequences -> assertThat(sequences).isSorted());
+        assertThat(processed.values().stream().mapToInt(List::size).sum()).isEqualTo(1000);
+    }
+
+    @Test
+    void executeAll_whenItemFails_thenThrowWithLowestFailedIndexAndStopItsLane() {
+        List<Item> items = List.of(new Item(1, 0), new Item(1, 1), new Item(1, 2), new Item(1, 3));
+        List<Integer> processed = Collections.synchronizedList(new ArrayList<>());
+
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+            () -> executor.executeAll(items, Item::key, item -> {
+                if (item.sequence() == 1) {
+                    throw new IllegalStateException("boom");
+                }
+                processed.add(item.sequence());
+            }));
+
+        assertThat(exception.getIndex()).isEqualTo(1);
+        assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+        assertThat(processed).containsExactly(0);
+    }
+
+    @Test
+    void laneOf_whenSameKey_thenSameLane() {
+        assertThat(executor.laneOf(42L)).isEqualTo(executor.laneOf(42L));
+        assertThat(executor.laneOf(null)).isBetween(0, 3);
+    }
+}
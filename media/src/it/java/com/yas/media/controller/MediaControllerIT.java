@@ -1,7 +1,9 @@
 package com.yas.media.controller;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
@@ -16,10 +18,10 @@ import com.yas.media.service.MediaService;
 import com.yas.media.viewmodel.MediaPostVm;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import javax.imageio.ImageIO;
 
 import jakarta.ws.rs.core.MediaType;
@@ -31,6 +33,9 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
@@ -53,8 +58,10 @@ class MediaControllerIT extends AbstractControllerIT {
     private MediaService mediaService;
     private Media media;
 
-    public static InputStream createFakeInputStream(String content) {
-        return new ByteArrayInputStream(content.getBytes());
+    public static Resource createFakeFile(String content) throws IOException {
+        Path file = Files.createTempFile("media", ".jpeg");
+        file.toFile().deleteOnExit();
+        return new FileSystemResource(Files.writeString(file, content));
     }
 
     @BeforeEach
@@ -315,9 +322,8 @@ class MediaControllerIT extends AbstractControllerIT {
     void test_getFile_shouldSuccess_ifProvideValidIdAndValidFileName() throws IOException {
         Long mediaId = media.getId();
         String fileName = media.getFileName();
-        when(fileSystemRepository.getFile(any())).thenReturn(createFakeInputStream("test"));
+        when(fileSystemRepository.getFile(any())).thenReturn(createFakeFile("test"));
 
-        System.out.println(fileSystemRepository.getFile("test") == null);
         given(getRequestSpecification())
             .pathParam("id", mediaId)
             .pathParam("fileName", fileName)
@@ -325,6 +331,50 @@ class MediaControllerIT extends AbstractControllerIT {
             .get("/v1/medias/{id}/file/{fileName}")
             .then()
             .statusCode(HttpStatus.OK.value())
+            .header(HttpHeaders.CONTENT_LENGTH, "4")
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .header(HttpHeaders.ETAG, notNullValue())
+            .header(HttpHeaders.CACHE_CONTROL, containsString("immutable"))
+            .body(equalTo("test"))
+            .log().ifValidationFails();
+    }
+
+    @Test
+    void test_getFile_shouldReturnPartialContent_ifProvideRange() throws IOException {
+        when(fileSystemRepository.getFile(any())).thenReturn(createFakeFile("test content"));
+
+        given(getRequestSpecification())
+            .pathParam("id", media.getId())
+            .pathParam("fileName", media.getFileName())
+            .header(HttpHeaders.RANGE, "bytes=5-")
+            .when()
+            .get("/v1/medias/{id}/file/{fileName}")
+            .then()
+            .statusCode(HttpStatus.PARTIAL_CONTENT.value())
+            .header(HttpHeaders.CONTENT_RANGE, "bytes 5-11/12")
+            .body(equalTo("content"))
+            .log().ifValidationFails();
+    }
+
+    @Test
+    void test_getFile_shouldReturnNotModified_ifProvideCurrentETag() throws IOException {
+        when(fileSystemRepository.getFile(any())).thenReturn(createFakeFile("test"));
+        String eTag = given(getRequestSpecification())
+            .pathParam("id", media.getId())
+            .pathParam("fileName", media.getFileName())
+            .when()
+            .get("/v1/medias/{id}/file/{fileName}")
+            .then()
+            .extract().header(HttpHeaders.ETAG);
+
+        given(getRequestSpecification())
+            .pathParam("id", media.getId())
+            .pathParam("fileName", media.getFileName())
+            .header(HttpHeaders.IF_NONE_MATCH, eTag)
+            .when()
+            .get("/v1/medias/{id}/file/{fileName}")
+            .then()
+            .statusCode(HttpStatus.NOT_MODIFIED.value())
             .log().ifValidationFails();
     }
 }
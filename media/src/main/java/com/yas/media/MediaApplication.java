@@ -1,13 +1,14 @@
 package com.yas.media;
 
 import com.yas.commonlibrary.config.CorsConfig;
+import com.yas.media.config.ImageVariantConfig;
 import com.yas.media.config.YasConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication(scanBasePackages = {"com.yas.media", "com.yas.commonlibrary"})
-@EnableConfigurationProperties({YasConfig.class, CorsConfig.class})
+@EnableConfigurationProperties({YasConfig.class, CorsConfig.class, ImageVariantConfig.class})
 public class MediaApplication {
 
     public static void main(String[] args) {
@@ -3,6 +3,7 @@ package com.yas.media.config;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 @Configuration
 @Getter
@@ -11,4 +12,7 @@ public class FilesystemConfig {
     @Value("${file.directory}")
     private String directory;
 
+    @Value("${file.max-size:10MB}")
+    private DataSize maxSize;
+
 }
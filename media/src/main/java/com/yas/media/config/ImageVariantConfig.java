@@ -0,0 +1,22 @@
+package com.yas.media.config;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Resized and re-encoded copies of the media images.
+ *
+ * @param directory    where generated variants are cached
+ * @param maxCacheSize total size of the cached variants, the least recently used ones are deleted beyond it
+ * @param sizes        widths and heights variants are generated with, ascending; a requested dimension is
+ *                     rounded up to the next one, so that each image has a small number of variants
+ */
+@ConfigurationProperties(prefix = "file.variant")
+public record ImageVariantConfig(
+    @DefaultValue("/images/.variants/") String directory,
+    @DefaultValue("1GB") DataSize maxCacheSize,
+    @DefaultValue({"64", "128", "256", "512", "1024", "2048"}) List<Integer> sizes
+) {
+}
@@ -13,8 +13,10 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +27,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @Validated
@@ -32,6 +35,10 @@ import org.springframework.web.bind.annotation.RestController;
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RequiredArgsConstructor
 public class MediaController {
+    // file URLs name the media id, whose file never changes
+    private static final CacheControl FILE_CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+
     private final MediaService mediaService;
 
     @PostMapping(path = "/medias", consumes = {MediaType.MULTIPART_FORM_DATA_VALUE})
@@ -73,12 +80,26 @@ public class MediaController {
 
     @Hidden
     @GetMapping("/medias/{id}/file/{fileName}")
-    public ResponseEntity<InputStreamResource> getFile(@PathVariable Long id, @PathVariable String fileName) {
-        MediaDto mediaDto = mediaService.getFile(id, fileName);
+    public ResponseEntity<Resource> getFile(@PathVariable Long id, @PathVariable String fileName,
+                                            @RequestParam(required = false) Integer width,
+                                            @RequestParam(required = false) Integer height,
+                                            @RequestParam(required = false) String format) {
+        // any of the variant parameters asks for a resized or re-encoded copy, cached once generated. Dimensions
+        // are rounded up to the configured variant sizes
+        MediaDto mediaDto = width == null && height == null && format == null
+            ? mediaService.getFile(id, fileName)
+            : mediaService.getFileVariant(id, fileName, width, height, format);
+        if (mediaDto.getContent() == null) {
+            return ResponseEntity.notFound().build();
+        }
 
+        // conditional requests get a 304 and Range requests a 206 from the ETag, Last-Modified and resource body
         return ResponseEntity.ok()
             .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
             .contentType(mediaDto.getMediaType())
-            .body(new InputStreamResource(mediaDto.getContent()));
+            .eTag(mediaDto.getETag())
+            .lastModified(mediaDto.getLastModified())
+            .cacheControl(FILE_CACHE_CONTROL)
+            .body(mediaDto.getContent());
     }
 }
@@ -1,5 +1,6 @@
 package com.yas.media.exception;
 
+import com.yas.commonlibrary.exception.BadRequestException;
 import com.yas.commonlibrary.exception.NotFoundException;
 import com.yas.commonlibrary.exception.UnsupportedMediaTypeException;
 import com.yas.media.viewmodel.ErrorVm;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 @ControllerAdvice
 @Slf4j
@@ -29,6 +31,23 @@ public class ControllerAdvisor {
         return buildErrorResponse(status, message, null, ex, request, 400, "Unsupported media type");
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorVm> handleBadRequestException(BadRequestException ex, WebRequest request) {
+        HttpStatus status = HttpStatus.BAD_REQUEST;
+        String message = ex.getMessage();
+
+        return buildErrorResponse(status, message, null, ex, request, 400, "");
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ErrorVm> handleMaxUploadSizeExceededException(MaxUploadSizeExceededException ex,
+                                                                        WebRequest request) {
+        HttpStatus status = HttpStatus.PAYLOAD_TOO_LARGE;
+        String message = String.format("File uploaded is larger than the maximum of %s bytes", ex.getMaxUploadSize());
+
+        return buildErrorResponse(status, message, null, ex, request, 413, "File too large");
+    }
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ErrorVm> handleNotFoundException(NotFoundException ex, WebRequest request) {
         HttpStatus status = HttpStatus.NOT_FOUND;
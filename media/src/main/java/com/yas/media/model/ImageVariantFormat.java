@@ -0,0 +1,34 @@
+package com.yas.media.model;
+
+import java.util.Arrays;
+import java.util.Optional;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats an image variant can be encoded to with the JDK image writers.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ImageVariantFormat {
+    JPEG("jpeg", "jpg", MediaType.IMAGE_JPEG, false),
+    PNG("png", "png", MediaType.IMAGE_PNG, true),
+    GIF("gif", "gif", MediaType.IMAGE_GIF, true);
+
+    private final String formatName;
+    private final String extension;
+    private final MediaType mediaType;
+    private final boolean alpha;
+
+    /**
+     * Finds the format by its name, such as {@code jpeg} or {@code jpg}, or by its media type.
+     */
+    public static Optional<ImageVariantFormat> of(String nameOrMediaType) {
+        String value = nameOrMediaType.trim().toLowerCase();
+        return Arrays.stream(values())
+            .filter(format -> format.formatName.equals(value) || format.extension.equals(value)
+                || format.mediaType.toString().equals(value))
+            .findFirst();
+    }
+}
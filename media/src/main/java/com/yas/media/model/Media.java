@@ -25,4 +25,6 @@ public class Media {
     private String filePath;
 
     private String mediaType;
+
+    private String contentHash;
 }
@@ -1,14 +1,17 @@
 package com.yas.media.model.dto;
 
-import java.io.InputStream;
+import java.time.Instant;
 import lombok.Builder;
 import lombok.Getter;
+import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 
 @Builder
 @Getter
 public class MediaDto {
 
-    private InputStream content;
+    private Resource content;
     private MediaType mediaType;
-}
\ No newline at end of file
+    private String eTag;
+    private Instant lastModified;
+}
@@ -4,62 +4,143 @@ import com.yas.media.config.FilesystemConfig;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import lombok.RequiredArgsConstructor;
-import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Repository;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
+/**
+ * Content-addressed file storage.
+ *
+ * <p>A file is stored under the SHA-256 hash of its content, in directories sharded by the first characters of
+ * the hash, so identical uploads share one file and different uploads never overwrite each other. A file may be
+ * referenced by several media, deleting it is left to the caller once no media references it.
+ */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class FileSystemRepository {
 
     private static final String DIRECTORY_DOES_NOT_EXIST = "Directory %s does not exist.";
+    private static final String TEMP_FILE_PREFIX = ".upload-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final FilesystemConfig filesystemConfig;
 
-    public String persistFile(String filename, byte[] content) throws IOException {
+    /**
+     * Streams the content to a temporary file in the storage directory, hashing it on the way, so the upload is
+     * never held in memory and is read once.
+     *
+     * @return the staged file, to be stored with {@link #storeFile(StagedFile)} and closed in any case
+     * @throws MaxUploadSizeExceededException if the content is larger than the configured maximum
+     */
+    public StagedFile stageFile(InputStream content) throws IOException {
 
         File directory = new File(filesystemConfig.getDirectory());
         checkExistingDirectory(directory);
         checkPermissions(directory);
 
-        Path filePath = buildFilePath(filename);
-        Files.write(filePath, content);
-        log.info("File saved: {}", filename);
+        Path tempFile = Files.createTempFile(directory.toPath(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        try {
+            String contentHash = copy(content, tempFile, filesystemConfig.getMaxSize().toBytes());
+            return new StagedFile(tempFile, contentHash);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Moves the staged file to the path of its content hash. When a file with the same content is already stored,
+     * it is kept and the staged file is left to be discarded on close.
+     *
+     * @return the path of the stored file
+     */
+    public String storeFile(StagedFile stagedFile) throws IOException {
+        Path filePath = Paths.get(contentPath(stagedFile.contentHash()));
+        if (Files.exists(filePath)) {
+            log.info("File content already stored: {}", stagedFile.contentHash());
+            return filePath.toString();
+        }
+        Files.createDirectories(filePath.getParent());
+        try {
+            Files.move(stagedFile.tempFile(), filePath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // stored meanwhile by a concurrent upload of the same content
+            log.info("File content already stored: {}", stagedFile.contentHash());
+            return filePath.toString();
+        }
+        log.info("File saved: {}", stagedFile.contentHash());
         return filePath.toString();
     }
 
-    @SneakyThrows
-    public InputStream getFile(String filePath) {
-        Path path = Paths.get(filePath);
-        if (!Files.exists(path)) {
-            throw new IllegalStateException(String.format(DIRECTORY_DOES_NOT_EXIST, filesystemConfig.getDirectory()));
+    /**
+     * Deletes a stored file, to be called once no media references it anymore.
+     */
+    public void deleteFile(String filePath) throws IOException {
+        if (Files.deleteIfExists(Paths.get(filePath))) {
+            log.info("File deleted: {}", filePath);
         }
+    }
 
-        try {
-            return Files.newInputStream(path);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to read file: " + filePath, e);
+    private static String copy(InputStream content, Path target, long maxSize) throws IOException {
+        MessageDigest digest = newDigest();
+        try (OutputStream out = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long size = 0;
+            for (int read = content.read(buffer); read != -1; read = content.read(buffer)) {
+                size += read;
+                if (size > maxSize) {
+                    throw new MaxUploadSizeExceededException(maxSize);
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
         }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
-    private Path buildFilePath(String filename) {
-        // Validate the filename
-        if (filename.contains("..") || filename.contains("/") || filename.contains("\\")) {
-            throw new IllegalArgumentException("Invalid filename");
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
         }
-        // Normalize the path
-        Path filePath = Paths.get(filesystemConfig.getDirectory(), filename).toAbsolutePath().normalize();
+    }
 
-        // Ensure the file is within the base directory
-        if (!filePath.startsWith(filesystemConfig.getDirectory())) {
-            throw new IllegalArgumentException("Invalid file path");
+    /**
+     * Opens the stored file as a resource, which reads it lazily and supports byte ranges.
+     */
+    public Resource getFile(String filePath) {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) {
+            throw new IllegalStateException(String.format(DIRECTORY_DOES_NOT_EXIST, filesystemConfig.getDirectory()));
         }
-        return filePath;
+        return new FileSystemResource(path);
+    }
+
+    /**
+     * Returns the path a content with the given hash is stored at.
+     */
+    public String contentPath(String contentHash) {
+        return Paths.get(filesystemConfig.getDirectory()).toAbsolutePath().normalize()
+            .resolve(contentHash.substring(0, 2))
+            .resolve(contentHash.substring(2, 4))
+            .resolve(contentHash)
+            .toString();
     }
 
     private void checkExistingDirectory(File directory) {
@@ -73,4 +154,15 @@ public class FileSystemRepository {
             throw new IllegalStateException("Directory " + directory.getAbsolutePath() + " is not accessible.");
         }
     }
+
+    /**
+     * An uploaded content written to a temporary file, deleted on close unless it was stored.
+     */
+    public record StagedFile(Path tempFile, String contentHash) implements AutoCloseable {
+
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(tempFile);
+        }
+    }
 }
@@ -0,0 +1,232 @@
+package com.yas.media.repository;
+
+import com.yas.media.config.ImageVariantConfig;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Disk cache of the generated image variants.
+ *
+ * <p>A variant is stored under its key, which names its source and parameters, in directories sharded by the
+ * first characters of the key. The total size is bounded: once above the limit the least recently used variants
+ * are deleted. The use order is kept in memory and rebuilt from the modification times on startup.
+ *
+ * <p>A variant may be evicted after it was returned but before it is read. Once opened it stays readable, as the
+ * file system keeps deleted files open, and if it is gone by the time it is opened it is generated again.
+ */
+@Slf4j
+@Repository
+public class ImageVariantRepository {
+
+    private static final String TEMP_FILE_PREFIX = ".variant-";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxCacheSize;
+    // guarded by itself, in use order, least recent first
+    private final LinkedHashMap<String, CachedVariant> variants = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, ReentrantLock> generating = new ConcurrentHashMap<>();
+    private long cacheSize;
+
+    public ImageVariantRepository(ImageVariantConfig imageVariantConfig) {
+        this.directory = Paths.get(imageVariantConfig.directory()).toAbsolutePath().normalize();
+        this.maxCacheSize = imageVariantConfig.maxCacheSize().toBytes();
+        loadVariants();
+    }
+
+    /**
+     * Returns the cached variant of the key, generating it first when missing. A variant is generated once even
+     * when requested concurrently.
+     *
+     * @param key       identifies the source image and the variant parameters, letters and digits only
+     * @param extension file extension of the variant
+     * @param writer    writes the variant when it is not cached
+     */
+    public Resource getOrCreate(String key, String extension, VariantWriter writer) throws IOException {
+        return new VariantResource(getOrCreatePath(key, extension, writer), key, extension, writer);
+    }
+
+    private Path getOrCreatePath(String key, String extension, VariantWriter writer) throws IOException {
+        Path path = variantPath(key, extension);
+        if (isCached(key, path)) {
+            return path;
+        }
+        ReentrantLock lock = generating.computeIfAbsent(key, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            if (isCached(key, path)) {
+                return path;
+            }
+            Files.createDirectories(path.getParent());
+            Path tempFile = Files.createTempFile(path.getParent(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+            try {
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    writer.write(out);
+                }
+                Files.move(tempFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            add(key, path, Files.size(path));
+            return path;
+        } finally {
+            lock.unlock();
+            generating.remove(key, lock);
+        }
+    }
+
+    private boolean isCached(String key, Path path) {
+        synchronized (variants) {
+            // a lookup moves the variant to the most recently used end
+            if (variants.get(key) == null) {
+                return false;
+            }
+        }
+        if (Files.exists(path)) {
+            return true;
+        }
+        // deleted outside of the cache
+        remove(key);
+        return false;
+    }
+
+    private void add(String key, Path path, long size) {
+        synchronized (variants) {
+            CachedVariant previous = variants.put(key, new CachedVariant(path, size));
+            cacheSize += size - (previous == null ? 0 : previous.size());
+            Iterator<Map.Entry<String, CachedVariant>> leastRecentlyUsed = variants.entrySet().iterator();
+            while (cacheSize > maxCacheSize && leastRecentlyUsed.hasNext()) {
+                Map.Entry<String, CachedVariant> entry = leastRecentlyUsed.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                leastRecentlyUsed.remove();
+                cacheSize -= entry.getValue().size();
+                // within the lock, or a generation of the same key seeing it evicted could be deleted instead
+                delete(entry.getValue().path());
+            }
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (variants) {
+            CachedVariant removed = variants.remove(key);
+            if (removed != null) {
+                cacheSize -= removed.size();
+            }
+        }
+    }
+
+    private void loadVariants() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile)
+                .map(ImageVariantRepository::readAttributes)
+                .sorted(Comparator.comparing(file -> file.attributes().lastModifiedTime()))
+                .forEach(file -> {
+                    String fileName = file.path().getFileName().toString();
+                    if (fileName.startsWith(TEMP_FILE_PREFIX)) {
+                        // left by a generation that did not complete
+                        delete(file.path());
+                        return;
+                    }
+                    int extensionStart = fileName.lastIndexOf('.');
+                    String key = extensionStart < 0 ? fileName : fileName.substring(0, extensionStart);
+                    add(key, file.path(), file.attributes().size());
+                });
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to load the cached image variants of {}", directory, e);
+        }
+        log.info("Loaded {} bytes of cached image variants", cacheSize);
+    }
+
+    private Path variantPath(String key, String extension) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key + "." + extension);
+    }
+
+    private static FileAttributes readAttributes(Path path) {
+        try {
+            return new FileAttributes(path, Files.readAttributes(path, BasicFileAttributes.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete the cached image variant {}", path, e);
+        }
+    }
+
+    /**
+     * Writes the content of a variant.
+     */
+    @FunctionalInterface
+    public interface VariantWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private record CachedVariant(Path path, long size) {
+    }
+
+    /**
+     * A cached variant, generated again when it was evicted before being opened.
+     */
+    private final class VariantResource extends FileSystemResource {
+
+        private final String key;
+        private final String extension;
+        private final VariantWriter writer;
+
+        private VariantResource(Path path, String key, String extension, VariantWriter writer) {
+            super(path);
+            this.key = key;
+            this.extension = extension;
+            this.writer = writer;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return Files.newInputStream(getFile().toPath());
+            } catch (NoSuchFileException e) {
+                return Files.newInputStream(getOrCreatePath(key, extension, writer));
+            }
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            try {
+                return Files.size(getFile().toPath());
+            } catch (NoSuchFileException e) {
+                return Files.size(getOrCreatePath(key, extension, writer));
+            }
+        }
+    }
+
+    private record FileAttributes(Path path, BasicFileAttributes attributes) {
+    }
+}
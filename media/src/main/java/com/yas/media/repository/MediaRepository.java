@@ -11,4 +11,13 @@ public interface MediaRepository extends JpaRepository<Media, Long> {
     @Query(value = "select new com.yas.media.viewmodel.NoFileMediaVm(m.id, m.caption, m.fileName, m.mediaType) "
         + "from Media m where m.id = ?1")
     NoFileMediaVm findByIdWithoutFileInReturn(Long id);
+
+    long countByFilePath(String filePath);
+
+    /**
+     * Serializes the changes to the media referencing a stored file until the end of the transaction, so that the
+     * file is not deleted while a new media starts referencing it.
+     */
+    @Query(value = "select 1 from pg_advisory_xact_lock(hashtext(?1))", nativeQuery = true)
+    Integer lockFilePath(String filePath);
 }
@@ -13,4 +13,6 @@ public interface MediaService {
     void removeMedia(Long id);
 
     MediaDto getFile(Long id, String fileName);
+
+    MediaDto getFileVariant(Long id, String fileName, Integer width, Integer height, String format);
 }
@@ -1,21 +1,34 @@
 package com.yas.media.service;
 
+import com.yas.commonlibrary.exception.BadRequestException;
 import com.yas.commonlibrary.exception.NotFoundException;
+import com.yas.media.config.ImageVariantConfig;
 import com.yas.media.config.YasConfig;
+import com.yas.media.model.ImageVariantFormat;
 import com.yas.media.model.Media;
 import com.yas.media.model.dto.MediaDto;
 import com.yas.media.model.dto.MediaDto.MediaDtoBuilder;
 import com.yas.media.repository.FileSystemRepository;
+import com.yas.media.repository.FileSystemRepository.StagedFile;
+import com.yas.media.repository.ImageVariantRepository;
 import com.yas.media.repository.MediaRepository;
+import com.yas.media.utils.ImageResizer;
 import com.yas.media.utils.StringUtils;
 import com.yas.media.viewmodel.MediaPostVm;
 import com.yas.media.viewmodel.MediaVm;
 import com.yas.media.viewmodel.NoFileMediaVm;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import org.springframework.core.io.Resource;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 @RequiredArgsConstructor
@@ -25,6 +38,9 @@ public class MediaServiceImpl implements MediaService {
     private final MediaRepository mediaRepository;
     private final FileSystemRepository fileSystemRepository;
     private final YasConfig yasConfig;
+    private final ImageVariantRepository imageVariantRepository;
+    private final ImageVariantConfig imageVariantConfig;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     @SneakyThrows
@@ -38,20 +54,44 @@ public class MediaServiceImpl implements MediaService {
         } else {
             media.setFileName(mediaPostVm.multipartFile().getOriginalFilename());
         }
-        String filePath = fileSystemRepository.persistFile(media.getFileName(),
-            mediaPostVm.multipartFile().getBytes());
-        media.setFilePath(filePath);
+        try (InputStream content = mediaPostVm.multipartFile().getInputStream();
+             StagedFile stagedFile = fileSystemRepository.stageFile(content)) {
+            media.setContentHash(stagedFile.contentHash());
+            return transactionTemplate.execute(status -> saveWithFile(media, stagedFile));
+        }
+    }
 
+    @SneakyThrows
+    private Media saveWithFile(Media media, StagedFile stagedFile) {
+        String filePath = fileSystemRepository.contentPath(stagedFile.contentHash());
+        // held until the commit, so that removing the last other media of this content cannot delete the file
+        mediaRepository.lockFilePath(filePath);
+        media.setFilePath(fileSystemRepository.storeFile(stagedFile));
         return mediaRepository.save(media);
     }
 
     @Override
     public void removeMedia(Long id) {
-        NoFileMediaVm noFileMediaVm = mediaRepository.findByIdWithoutFileInReturn(id);
-        if (noFileMediaVm == null) {
-            throw new NotFoundException(String.format("Media %s is not found", id));
+        String filePath = transactionTemplate.execute(status -> {
+            Media media = mediaRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException(String.format("Media %s is not found", id)));
+            mediaRepository.deleteById(id);
+            return media.getFilePath();
+        });
+        if (filePath != null) {
+            // counted once the removal is committed, under the lock taken by the uploads of the same content
+            transactionTemplate.execute(status -> deleteUnreferencedFile(filePath));
         }
-        mediaRepository.deleteById(id);
+    }
+
+    @SneakyThrows
+    private boolean deleteUnreferencedFile(String filePath) {
+        mediaRepository.lockFilePath(filePath);
+        if (mediaRepository.countByFilePath(filePath) > 0) {
+            return false;
+        }
+        fileSystemRepository.deleteFile(filePath);
+        return true;
     }
 
     @Override
@@ -74,6 +114,7 @@ public class MediaServiceImpl implements MediaService {
     }
 
     @Override
+    @SneakyThrows
     public MediaDto getFile(Long id, String fileName) {
 
         MediaDtoBuilder builder = MediaDto.builder();
@@ -83,11 +124,67 @@ public class MediaServiceImpl implements MediaService {
             return builder.build();
         }
         MediaType mediaType = MediaType.valueOf(media.getMediaType());
-        InputStream fileContent = fileSystemRepository.getFile(media.getFilePath());
+        Resource fileContent = fileSystemRepository.getFile(media.getFilePath());
+        long lastModified = fileContent.lastModified();
 
         return builder
             .content(fileContent)
             .mediaType(mediaType)
+            .eTag(media.getContentHash() != null
+                ? "\"" + media.getContentHash() + "\""
+                // files stored before content addressing are never rewritten either
+                : String.format("\"%x-%x\"", fileContent.contentLength(), lastModified))
+            .lastModified(Instant.ofEpochMilli(lastModified))
+            .build();
+    }
+
+    @Override
+    @SneakyThrows
+    public MediaDto getFileVariant(Long id, String fileName, Integer requestedWidth, Integer requestedHeight,
+                                   String format) {
+        Integer width = toVariantSize(requestedWidth);
+        Integer height = toVariantSize(requestedHeight);
+        Media media = mediaRepository.findById(id).orElse(null);
+        if (media == null || !fileName.equalsIgnoreCase(media.getFileName())) {
+            return MediaDto.builder().build();
+        }
+        ImageVariantFormat variantFormat = ImageVariantFormat.of(format != null ? format : media.getMediaType())
+            .orElseThrow(() -> new BadRequestException(String.format("Image format %s is not supported", format)));
+        Resource source = fileSystemRepository.getFile(media.getFilePath());
+        long lastModified = source.lastModified();
+        String key = sha256Hex(String.join(":", media.getFilePath(),
+            Long.toString(source.contentLength()), Long.toString(lastModified),
+            String.valueOf(width), String.valueOf(height), variantFormat.name()));
+        Resource variant = imageVariantRepository.getOrCreate(key, variantFormat.getExtension(),
+            out -> ImageResizer.resize(source.getFile().toPath(), width, height, variantFormat, out));
+
+        return MediaDto.builder()
+            .content(variant)
+            .mediaType(variantFormat.getMediaType())
+            .eTag("\"" + key + "\"")
+            .lastModified(Instant.ofEpochMilli(lastModified))
             .build();
     }
+
+    @SneakyThrows
+    private static String sha256Hex(String value) {
+        return HexFormat.of().formatHex(
+            MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Rounds a requested dimension up to the next configured size, which bounds the resizing work and the cache
+     * entries a client can cause per image.
+     */
+    private Integer toVariantSize(Integer dimension) {
+        if (dimension == null) {
+            return null;
+        }
+        List<Integer> sizes = imageVariantConfig.sizes();
+        return sizes.stream()
+            .filter(size -> dimension >= 1 && size >= dimension)
+            .min(Integer::compare)
+            .orElseThrow(() -> new BadRequestException(String.format("Image dimensions must be between 1 and %s",
+                sizes.stream().max(Integer::compare).orElse(0))));
+    }
 }
@@ -2,10 +2,12 @@ package com.yas.media.utils;
 
 import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
-import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
-import lombok.SneakyThrows;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import org.springframework.web.multipart.MultipartFile;
 
 
@@ -21,7 +23,6 @@ public class FileTypeValidator implements ConstraintValidator<ValidFileType, Mul
     }
 
     @Override
-    @SneakyThrows
     public boolean isValid(MultipartFile file, ConstraintValidatorContext context) {
         if (file == null || file.getContentType() == null) {
             context.disableDefaultConstraintViolation();
@@ -30,12 +31,7 @@ public class FileTypeValidator implements ConstraintValidator<ValidFileType, Mul
         }
         for (String type : allowedTypes) {
             if (type.equals(file.getContentType())) {
-                try {
-                    BufferedImage image = ImageIO.read(file.getInputStream());
-                    return image != null;
-                } catch (IOException e) {
-                    return false;
-                }
+                return isImage(file);
             }
         }
 
@@ -43,4 +39,27 @@ public class FileTypeValidator implements ConstraintValidator<ValidFileType, Mul
         context.buildConstraintViolationWithTemplate(message).addConstraintViolation();
         return false;
     }
+
+    /**
+     * Checks that an image reader recognises the file and can read its dimensions, which only reads the header
+     * instead of decoding the whole image.
+     */
+    private static boolean isImage(MultipartFile file) {
+        // caches in memory only the bytes read, the header
+        try (ImageInputStream input = new MemoryCacheImageInputStream(file.getInputStream())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return false;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return reader.getWidth(0) > 0 && reader.getHeight(0) > 0;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package com.yas.media.utils;
+
+import com.yas.media.model.ImageVariantFormat;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Resizes and re-encodes images with the JDK image readers and writers.
+ */
+public final class ImageResizer {
+
+    private ImageResizer() {
+    }
+
+    /**
+     * Writes the image scaled down to fit in the given box, keeping its aspect ratio; images are never scaled up.
+     *
+     * @param source    image file
+     * @param maxWidth  width of the box, {@code null} to only bound the height
+     * @param maxHeight height of the box, {@code null} to only bound the width
+     * @param format    format written
+     * @param out       receives the encoded image
+     */
+    public static void resize(Path source, Integer maxWidth, Integer maxHeight, ImageVariantFormat format,
+                              OutputStream out) throws IOException {
+        BufferedImage image;
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No image reader for " + source);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                double scale = scale(sourceWidth, sourceHeight, maxWidth, maxHeight);
+                int width = Math.max(1, (int) Math.round(sourceWidth * scale));
+                int height = Math.max(1, (int) Math.round(sourceHeight * scale));
+
+                // decode every nth pixel only, down to twice the target size, a large photo is never fully
+                // decoded for a thumbnail
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(sourceWidth / (2 * width), sourceHeight / (2 * height)));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                image = scale(reader.read(0, param), width, height, format.isAlpha());
+            } finally {
+                reader.dispose();
+            }
+        }
+        if (!ImageIO.write(image, format.getFormatName(), out)) {
+            throw new IOException("No image writer for " + format.getFormatName());
+        }
+    }
+
+    private static double scale(int sourceWidth, int sourceHeight, Integer maxWidth, Integer maxHeight) {
+        double scale = 1;
+        if (maxWidth != null) {
+            scale = Math.min(scale, (double) maxWidth / sourceWidth);
+        }
+        if (maxHeight != null) {
+            scale = Math.min(scale, (double) maxHeight / sourceHeight);
+        }
+        return scale;
+    }
+
+    /**
+     * Scales in steps of at most one half, which keeps bilinear interpolation from skipping source pixels.
+     */
+    private static BufferedImage scale(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage scaled = image;
+        int currentWidth = image.getWidth();
+        int currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            scaled = draw(scaled, currentWidth, currentHeight, alpha);
+        } while (currentWidth != width || currentHeight != height);
+        return scaled;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height, boolean alpha) {
+        BufferedImage target = new BufferedImage(width, height,
+            alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            if (!alpha) {
+                // formats without transparency get a white background instead of black
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+            }
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+}
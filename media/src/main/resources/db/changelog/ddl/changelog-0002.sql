@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset media:issue-002
+ALTER TABLE media ADD COLUMN content_hash varchar(64) NULL;
+CREATE INDEX media_file_path_idx ON media (file_path);
@@ -1,17 +1,22 @@
 package com.yas.media;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import com.yas.media.config.FilesystemConfig;
 import com.yas.media.repository.FileSystemRepository;
+import com.yas.media.repository.FileSystemRepository.StagedFile;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,11 +24,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 @Slf4j
 class FileSystemRepositoryTest {
 
     private static final String TEST_URL = "src/test/resources/test-directory";
+    private static final String CONTENT_HASH = "0a3666a0710c08aa6d0de92ce72beeb5b93124cce1bf3701c9d6cdeb543cb73e";
 
     @Mock
     private FilesystemConfig filesystemConfig;
@@ -57,26 +65,83 @@ class FileSystemRepositoryTest {
     }
 
     @Test
-    void testPersistFile_whenDirectoryNotExist_thenThrowsException() {
+    void testStageFile_whenDirectoryNotExist_thenThrowsException() {
         String directoryPath = "non-exist-directory";
-        String filename = "test-file.png";
         byte[] content = "test-content".getBytes();
 
         when(filesystemConfig.getDirectory()).thenReturn(directoryPath);
 
-        assertThrows(IllegalStateException.class, () -> fileSystemRepository.persistFile(filename, content));
+        assertThrows(IllegalStateException.class,
+            () -> fileSystemRepository.stageFile(new ByteArrayInputStream(content)));
     }
 
     @Test
-    void testPersistFile_filePathNotContainsDirectory() {
+    void testStoreFile_whenContentFits_thenMovesFileToItsHashPath() throws IOException {
+        byte[] content = "test-content".getBytes();
+        Path directory = Files.createDirectories(Paths.get(TEST_URL).toAbsolutePath());
 
-        String filename = "test-file.png";
+        when(filesystemConfig.getDirectory()).thenReturn(directory.toString());
+        when(filesystemConfig.getMaxSize()).thenReturn(DataSize.ofBytes(content.length));
+
+        String filePath;
+        try (StagedFile stagedFile = fileSystemRepository.stageFile(new ByteArrayInputStream(content))) {
+            assertEquals(CONTENT_HASH, stagedFile.contentHash());
+            filePath = fileSystemRepository.storeFile(stagedFile);
+        }
+
+        assertEquals(directory.resolve("0a/36").resolve(CONTENT_HASH).toString(), filePath);
+        assertArrayEquals(content, Files.readAllBytes(Paths.get(filePath)));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testStoreFile_whenContentAlreadyStored_thenKeepsOneFile() throws IOException {
         byte[] content = "test-content".getBytes();
+        Path directory = Files.createDirectories(Paths.get(TEST_URL).toAbsolutePath());
 
-        File directory = new File(TEST_URL);
-        directory.mkdirs();
-        when(filesystemConfig.getDirectory()).thenReturn(TEST_URL);
-        assertThrows(IllegalArgumentException.class, () -> fileSystemRepository.persistFile(filename, content));
+        when(filesystemConfig.getDirectory()).thenReturn(directory.toString());
+        when(filesystemConfig.getMaxSize()).thenReturn(DataSize.ofBytes(content.length));
+
+        String firstPath;
+        try (StagedFile stagedFile = fileSystemRepository.stageFile(new ByteArrayInputStream(content))) {
+            firstPath = fileSystemRepository.storeFile(stagedFile);
+        }
+        String secondPath;
+        try (StagedFile stagedFile = fileSystemRepository.stageFile(new ByteArrayInputStream(content))) {
+            secondPath = fileSystemRepository.storeFile(stagedFile);
+        }
+
+        assertEquals(firstPath, secondPath);
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void testStageFile_whenContentTooLarge_thenThrowsAndLeavesNoFile() throws IOException {
+        byte[] content = "test-content".getBytes();
+        Path directory = Files.createDirectories(Paths.get(TEST_URL).toAbsolutePath());
+
+        when(filesystemConfig.getDirectory()).thenReturn(directory.toString());
+        when(filesystemConfig.getMaxSize()).thenReturn(DataSize.ofBytes(content.length - 1));
+
+        assertThrows(MaxUploadSizeExceededException.class,
+            () -> fileSystemRepository.stageFile(new ByteArrayInputStream(content)));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testDeleteFile_whenFileExists_thenDeletesIt() throws IOException {
+        Path filePath = Files.createDirectories(Paths.get(TEST_URL)).resolve("test-file");
+        Files.write(filePath, "test-content".getBytes());
+
+        fileSystemRepository.deleteFile(filePath.toString());
+
+        assertFalse(Files.exists(filePath));
     }
 
     @Test
@@ -91,7 +156,7 @@ class FileSystemRepositoryTest {
         Files.createDirectories(filePath.getParent());
         Files.write(filePath, content);
 
-        InputStream inputStream = fileSystemRepository.getFile(filePathStr);
+        InputStream inputStream = fileSystemRepository.getFile(filePathStr).getInputStream();
         byte[] fileContent = inputStream.readAllBytes();
         assertArrayEquals(content, fileContent);
     }
@@ -0,0 +1,68 @@
+package com.yas.media;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.yas.media.utils.FileTypeValidator;
+import com.yas.media.utils.ValidFileType;
+import jakarta.validation.ConstraintValidatorContext;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.mock.web.MockMultipartFile;
+
+class FileTypeValidatorTest {
+
+    private FileTypeValidator fileTypeValidator;
+    private ConstraintValidatorContext context;
+
+    @BeforeEach
+    void setUp() {
+        ValidFileType validFileType = mock(ValidFileType.class);
+        when(validFileType.allowedTypes()).thenReturn(new String[] {"image/png"});
+        when(validFileType.message()).thenReturn("File type not allowed");
+        fileTypeValidator = new FileTypeValidator();
+        fileTypeValidator.initialize(validFileType);
+        context = mock(ConstraintValidatorContext.class, Answers.RETURNS_DEEP_STUBS);
+    }
+
+    @Test
+    void isValid_whenImage_thenTrue() throws IOException {
+        assertTrue(fileTypeValidator.isValid(
+            new MockMultipartFile("file", "example.png", "image/png", png(64, 48)), context));
+    }
+
+    @Test
+    void isValid_whenOnlyImageHeaderIsReadable_thenTrue() throws IOException {
+        // the pixels are not decoded, a file cut after its header is still recognised
+        byte[] header = Arrays.copyOf(png(64, 48), 40);
+
+        assertTrue(fileTypeValidator.isValid(
+            new MockMultipartFile("file", "example.png", "image/png", header), context));
+    }
+
+    @Test
+    void isValid_whenNotAnImage_thenFalse() {
+        assertFalse(fileTypeValidator.isValid(
+            new MockMultipartFile("file", "example.png", "image/png", "not an image".getBytes()), context));
+    }
+
+    @Test
+    void isValid_whenTypeNotAllowed_thenFalse() throws IOException {
+        assertFalse(fileTypeValidator.isValid(
+            new MockMultipartFile("file", "example.png", "image/bmp", png(64, 48)), context));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
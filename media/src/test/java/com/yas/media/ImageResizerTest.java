@@ -0,0 +1,64 @@
+package com.yas.media;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.yas.media.model.ImageVariantFormat;
+import com.yas.media.utils.ImageResizer;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageResizerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resize_whenBoxIsSmaller_thenFitsKeepingAspectRatio() throws IOException {
+        Path source = image(800, 600, "png");
+
+        BufferedImage resized = resize(source, 200, 200, ImageVariantFormat.JPEG);
+
+        assertEquals(200, resized.getWidth());
+        assertEquals(150, resized.getHeight());
+    }
+
+    @Test
+    void resize_whenOnlyHeightIsGiven_thenScalesWidthAlong() throws IOException {
+        Path source = image(800, 600, "jpeg");
+
+        BufferedImage resized = resize(source, null, 60, ImageVariantFormat.PNG);
+
+        assertEquals(80, resized.getWidth());
+        assertEquals(60, resized.getHeight());
+    }
+
+    @Test
+    void resize_whenBoxIsLarger_thenKeepsSize() throws IOException {
+        Path source = image(40, 30, "gif");
+
+        BufferedImage resized = resize(source, 400, 400, ImageVariantFormat.PNG);
+
+        assertEquals(40, resized.getWidth());
+        assertEquals(30, resized.getHeight());
+    }
+
+    private Path image(int width, int height, String format) throws IOException {
+        Path file = Files.createTempFile(directory, "source", "." + format);
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, file.toFile());
+        return file;
+    }
+
+    private static BufferedImage resize(Path source, Integer width, Integer height, ImageVariantFormat format)
+        throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageResizer.resize(source, width, height, format, out);
+        return ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.yas.media;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.yas.media.config.ImageVariantConfig;
+import com.yas.media.repository.ImageVariantRepository;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.unit.DataSize;
+
+class ImageVariantRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void getOrCreate_whenCached_thenDoesNotGenerateAgain() throws IOException {
+        ImageVariantRepository repository = repository(100);
+        AtomicInteger generations = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            Resource variant = repository.getOrCreate("abcdef", "png", out -> {
+                generations.incrementAndGet();
+                out.write(new byte[] {1, 2, 3});
+            });
+            assertArrayEquals(new byte[] {1, 2, 3}, variant.getContentAsByteArray());
+        }
+
+        assertEquals(1, generations.get());
+        assertTrue(Files.exists(directory.resolve("ab/cd/abcdef.png")));
+    }
+
+    @Test
+    void getOrCreate_whenCacheIsFull_thenEvictsLeastRecentlyUsed() throws IOException {
+        ImageVariantRepository repository = repository(20);
+        Resource first = repository.getOrCreate("aaaa01", "png", out -> out.write(new byte[8]));
+        Resource second = repository.getOrCreate("aaaa02", "png", out -> out.write(new byte[8]));
+        // used again, the second one is now the least recently used
+        repository.getOrCreate("aaaa01", "png", out -> out.write(new byte[8]));
+
+        Resource third = repository.getOrCreate("aaaa03", "png", out -> out.write(new byte[8]));
+
+        assertTrue(first.exists());
+        assertFalse(second.exists());
+        assertTrue(third.exists());
+    }
+
+    @Test
+    void getOrCreate_whenEvictedBeforeRead_thenGeneratesAgain() throws IOException {
+        ImageVariantRepository repository = repository(10);
+        AtomicInteger generations = new AtomicInteger();
+        Resource first = repository.getOrCreate("aaaa01", "png", out -> {
+            generations.incrementAndGet();
+            out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        });
+        repository.getOrCreate("aaaa02", "png", out -> out.write(new byte[8]));
+        assertFalse(first.exists());
+
+        try (InputStream in = first.getInputStream()) {
+            assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}, in.readAllBytes());
+        }
+        assertEquals(2, generations.get());
+    }
+
+    @Test
+    void getOrCreate_whenRestarted_thenKnowsCachedVariants() throws IOException {
+        repository(100).getOrCreate("abcdef", "png", out -> out.write(new byte[] {1}));
+        AtomicInteger generations = new AtomicInteger();
+
+        repository(100).getOrCreate("abcdef", "png", out -> generations.incrementAndGet());
+
+        assertEquals(0, generations.get());
+    }
+
+    private ImageVariantRepository repository(long maxCacheSize) {
+        return new ImageVariantRepository(
+            new ImageVariantConfig(directory.toString(), DataSize.ofBytes(maxCacheSize), List.of(256, 2048)));
+    }
+}
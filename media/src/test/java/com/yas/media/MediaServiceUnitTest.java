@@ -1,36 +1,60 @@
 package com.yas.media;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.yas.commonlibrary.exception.BadRequestException;
 import com.yas.commonlibrary.exception.NotFoundException;
+import com.yas.media.config.ImageVariantConfig;
 import com.yas.media.config.YasConfig;
 import com.yas.media.model.Media;
 import com.yas.media.model.dto.MediaDto;
 import com.yas.media.model.dto.MediaDto.MediaDtoBuilder;
 import com.yas.media.repository.FileSystemRepository;
+import com.yas.media.repository.FileSystemRepository.StagedFile;
+import com.yas.media.repository.ImageVariantRepository;
 import com.yas.media.repository.MediaRepository;
 import com.yas.media.service.MediaServiceImpl;
 import com.yas.media.viewmodel.MediaPostVm;
 import com.yas.media.viewmodel.MediaVm;
 import com.yas.media.viewmodel.NoFileMediaVm;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 class MediaServiceUnitTest {
+    private static final String CONTENT_HASH = "0a3666a0710c08aa6d0de92ce72beeb5b93124cce1bf3701c9d6cdeb543cb73e";
+    private static final String FILE_PATH = "/images/0a/36/" + CONTENT_HASH;
+    private static final List<Integer> VARIANT_SIZES = List.of(64, 128, 256, 512, 1024, 2048);
+
     @Mock
     private MediaRepository mediaRepository;
     @Mock
@@ -39,13 +63,25 @@ class MediaServiceUnitTest {
     private YasConfig yasConfig;
     @Mock
     private MediaDtoBuilder builder;
+    @Mock
+    private ImageVariantRepository imageVariantRepository;
+    @Mock
+    private ImageVariantConfig imageVariantConfig;
+    @Mock
+    private TransactionTemplate transactionTemplate;
     @InjectMocks
     private MediaServiceImpl mediaService;
     private Media media;
 
     @BeforeEach
-    void setUp() {
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
         MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        when(fileSystemRepository.stageFile(any())).thenReturn(new StagedFile(Path.of("missing"), CONTENT_HASH));
+        when(fileSystemRepository.contentPath(CONTENT_HASH)).thenReturn(FILE_PATH);
+        when(fileSystemRepository.storeFile(any())).thenReturn(FILE_PATH);
         media = new Media();
         media.setId(1L);
         media.setCaption("test");
@@ -84,14 +120,43 @@ class MediaServiceUnitTest {
     }
 
     @Test
-    void removeMedia_whenValidId_thenRemoveSuccess() {
-        NoFileMediaVm noFileMediaVm = new NoFileMediaVm(1L, "Test", "fileName", "image/png");
-        when(mediaRepository.findByIdWithoutFileInReturn(1L)).thenReturn(noFileMediaVm);
-        doNothing().when(mediaRepository).deleteById(1L);
+    void removeMedia_whenLastReference_thenRemoveMediaAndFile() throws IOException {
+        media.setFilePath(FILE_PATH);
+        when(mediaRepository.findById(1L)).thenReturn(Optional.of(media));
+        when(mediaRepository.countByFilePath(FILE_PATH)).thenReturn(0L);
+
+        mediaService.removeMedia(1L);
+
+        verify(mediaRepository, times(1)).deleteById(1L);
+        verify(mediaRepository).lockFilePath(FILE_PATH);
+        verify(fileSystemRepository).deleteFile(FILE_PATH);
+    }
+
+    @Test
+    void removeMedia_whenFileStillReferenced_thenKeepFile() throws IOException {
+        media.setFilePath(FILE_PATH);
+        when(mediaRepository.findById(1L)).thenReturn(Optional.of(media));
+        when(mediaRepository.countByFilePath(FILE_PATH)).thenReturn(1L);
 
         mediaService.removeMedia(1L);
 
         verify(mediaRepository, times(1)).deleteById(1L);
+        verify(fileSystemRepository, never()).deleteFile(anyString());
+    }
+
+    @Test
+    void saveMedia_whenContentStaged_thenStoreUnderContentHashWithLock() throws IOException {
+        MultipartFile multipartFile = new MockMultipartFile("file", "example.png", "image/png", new byte[] {});
+        when(mediaRepository.save(any(Media.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Media mediaSave = mediaService.saveMedia(new MediaPostVm("media", multipartFile, null));
+
+        assertEquals(CONTENT_HASH, mediaSave.getContentHash());
+        assertEquals(FILE_PATH, mediaSave.getFilePath());
+        InOrder inOrder = inOrder(mediaRepository, fileSystemRepository);
+        inOrder.verify(mediaRepository).lockFilePath(FILE_PATH);
+        inOrder.verify(fileSystemRepository).storeFile(any());
+        inOrder.verify(mediaRepository).save(mediaSave);
     }
 
     @Test
@@ -231,4 +296,102 @@ class MediaServiceUnitTest {
         assertEquals(expectedDto.getMediaType(), mediaDto.getMediaType());
         assertEquals(expectedDto.getContent(), mediaDto.getContent());
     }
+
+    @Test
+    void getFile_whenValidIdAndFileName_thenReturnFileWithValidators() throws IOException {
+        Path file = Files.createTempFile("media", ".jpeg");
+        try {
+            Files.writeString(file, "test-content");
+            Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(1_700_000_000)));
+            media.setFilePath(file.toString());
+            when(mediaRepository.findById(1L)).thenReturn(Optional.of(media));
+            when(fileSystemRepository.getFile(file.toString())).thenReturn(new FileSystemResource(file));
+
+            MediaDto mediaDto = mediaService.getFile(1L, "file");
+
+            assertEquals(MediaType.IMAGE_JPEG, mediaDto.getMediaType());
+            assertEquals("\"c-18bcfe56800\"", mediaDto.getETag());
+            assertEquals(Instant.ofEpochSecond(1_700_000_000), mediaDto.getLastModified());
+            assertEquals(12, mediaDto.getContent().contentLength());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void getFile_whenContentHashed_thenETagIsContentHash() throws IOException {
+        Path file = Files.createTempFile("media", ".jpeg");
+        try {
+            media.setFilePath(file.toString());
+            media.setContentHash(CONTENT_HASH);
+            when(mediaRepository.findById(1L)).thenReturn(Optional.of(media));
+            when(fileSystemRepository.getFile(file.toString())).thenReturn(new FileSystemResource(file));
+
+            MediaDto mediaDto = mediaService.getFile(1L, "file");
+
+            assertEquals("\"" + CONTENT_HASH + "\"", mediaDto.getETag());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void getFileVariant_whenValidIdAndFileName_thenReturnCachedVariant() throws IOException {
+        Path file = Files.createTempFile("media", ".jpeg");
+        try {
+            Files.writeString(file, "test-content");
+            media.setFilePath(file.toString());
+            Resource variant = new FileSystemResource(file);
+            when(imageVariantConfig.sizes()).thenReturn(VARIANT_SIZES);
+            when(mediaRepository.findById(1L)).thenReturn(Optional.of(media));
+            when(fileSystemRepository.getFile(file.toString())).thenReturn(new FileSystemResource(file));
+            when(imageVariantRepository.getOrCreate(anyString(), eq("png"), any())).thenReturn(variant);
+
+            MediaDto mediaDto = mediaService.getFileVariant(1L, "file", 200, null, "png");
+
+            assertEquals(MediaType.IMAGE_PNG, mediaDto.getMediaType());
+            assertEquals(variant, mediaDto.getContent());
+            assertNotNull(mediaDto.getETag());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void getFileVariant_whenDimensionIsNotASize_thenRoundsUpToNextSize() throws IOException {
+        Path file = Files.createTempFile("media", ".jpeg");
+        try {
+            Files.writeString(file, "test-content");
+            media.setFilePath(file.toString());
+            when(imageVariantConfig.sizes()).thenReturn(VARIANT_SIZES);
+            when(mediaRepository.findById(1L)).thenReturn(Optional.of(media));
+            when(fileSystemRepository.getFile(file.toString())).thenReturn(new FileSystemResource(file));
+            when(imageVariantRepository.getOrCreate(anyString(), eq("png"), any()))
+                .thenReturn(new FileSystemResource(file));
+
+            String roundedUp = mediaService.getFileVariant(1L, "file", 200, null, "png").getETag();
+            String exact = mediaService.getFileVariant(1L, "file", 256, null, "png").getETag();
+            String larger = mediaService.getFileVariant(1L, "file", 257, null, "png").getETag();
+
+            assertEquals(exact, roundedUp);
+            assertNotEquals(exact, larger);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void getFileVariant_whenDimensionTooLarge_thenThrowsBadRequestException() {
+        when(imageVariantConfig.sizes()).thenReturn(VARIANT_SIZES);
+
+        assertThrows(BadRequestException.class, () -> mediaService.getFileVariant(1L, "file", 4096, null, null));
+    }
+
+    @Test
+    void getFileVariant_whenFormatNotSupported_thenThrowsBadRequestException() {
+        when(imageVariantConfig.sizes()).thenReturn(VARIANT_SIZES);
+        when(mediaRepository.findById(1L)).thenReturn(Optional.of(media));
+
+        assertThrows(BadRequestException.class, () -> mediaService.getFileVariant(1L, "file", 200, null, "tiff"));
+    }
 }
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
@@ -24,6 +25,7 @@ import com.yas.product.repository.ProductOptionRepository;
 import com.yas.product.repository.ProductOptionValueRepository;
 import com.yas.product.repository.ProductRepository;
 import com.yas.product.viewmodel.NoFileMediaVm;
+import com.yas.product.viewmodel.product.ProductEsDetailVm;
 import com.yas.product.viewmodel.product.ProductFeatureGetVm;
 import com.yas.product.viewmodel.product.ProductListGetFromCategoryVm;
 import com.yas.product.viewmodel.product.ProductListGetVm;
@@ -422,6 +424,18 @@ class ProductServiceIT {
         assertEquals("product4", newResponse.get(4).name());
     }
 
+    @Test
+    void getProductEsDetailById_whenMediaServiceFails_returnDetailWithoutThumbnailUrl() {
+        Product product = products.getFirst();
+        when(mediaService.getMedia(1L)).thenThrow(new IllegalStateException("503 Service Unavailable"));
+
+        ProductEsDetailVm detail = productService.getProductEsDetailById(product.getId());
+
+        assertEquals(product.getName(), detail.name());
+        assertEquals(1L, detail.thumbnailMediaId());
+        assertNull(detail.thumbnailUrl());
+    }
+
     @Test
     void testGetLatestProducts_WhenCountLessThen1_returnEmpty() {
         List<ProductListVm> newResponse = productService.getLatestProducts(-1);
@@ -276,6 +276,13 @@ public class ProductController {
         return ResponseEntity.ok(productService.getLatestProducts(count));
     }
 
+    @GetMapping("/storefront/products/published-ids")
+    public ResponseEntity<List<Long>> getPublishedProductIds(
+        @RequestParam(value = "afterId", defaultValue = "0", required = false) long afterId,
+        @RequestParam(value = "pageSize", defaultValue = "500", required = false) int pageSize) {
+        return ResponseEntity.ok(productService.getPublishedProductIds(afterId, pageSize));
+    }
+
     @GetMapping("/storefront/products/detail/{productId}")
     public ResponseEntity<ProductDetailInfoVm> getProductDetailById(@PathVariable("productId") long productId) {
         return ResponseEntity.ok(productDetailService.getProductDetailById(productId));
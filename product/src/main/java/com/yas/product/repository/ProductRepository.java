@@ -80,4 +80,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     @Query("SELECT p FROM Product p WHERE p.id IN :productIds AND p.isPublished = TRUE")
     Page<Product> findAllPublishedProductsByIds(@Param("productIds") List<Long> productIds, Pageable pageable);
+
+    @Query("SELECT p.id FROM Product p WHERE p.isPublished = TRUE AND p.id > :afterId ORDER BY p.id ASC")
+    List<Long> findPublishedProductIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
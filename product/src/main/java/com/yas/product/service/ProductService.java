@@ -29,6 +29,7 @@ import com.yas.product.repository.ProductRelatedRepository;
 import com.yas.product.repository.ProductRepository;
 import com.yas.product.utils.Constants;
 import com.yas.product.viewmodel.ImageVm;
+import com.yas.product.viewmodel.NoFileMediaVm;
 import com.yas.product.viewmodel.product.ProductCheckoutListVm;
 import com.yas.product.viewmodel.product.ProductDetailGetVm;
 import com.yas.product.viewmodel.product.ProductDetailVm;
@@ -82,6 +83,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class ProductService {
     private static final String NONE_GROUP = "None group";
+    private static final int MAX_PUBLISHED_PRODUCT_IDS_PAGE_SIZE = 1000;
     private final ProductRepository productRepository;
     private final MediaService mediaService;
     private final BrandRepository brandRepository;
@@ -710,6 +712,18 @@ public class ProductService {
                 .toList();
     }
 
+    /**
+     * Returns the ids of published products greater than {@code afterId}, in ascending order. Paging by the last
+     * id seen keeps every page an index range scan and lets a reader resume from the last id it processed.
+     */
+    public List<Long> getPublishedProductIds(long afterId, int pageSize) {
+        if (pageSize <= 0) {
+            return List.of();
+        }
+        return productRepository.findPublishedProductIdsAfter(afterId,
+            PageRequest.of(0, Math.min(pageSize, MAX_PUBLISHED_PRODUCT_IDS_PAGE_SIZE)));
+    }
+
     public List<ProductThumbnailVm> getProductsByBrand(String brandSlug) {
         List<ProductThumbnailVm> productThumbnailVms = new ArrayList<>();
         Brand brand = brandRepository
@@ -721,11 +735,16 @@ public class ProductService {
                 product.getId(),
                 product.getName(),
                 product.getSlug(),
-                mediaService.getMedia(product.getThumbnailMediaId()).url()));
+                getThumbnailUrl(product.getThumbnailMediaId())));
         }
         return productThumbnailVms;
     }
 
+    private String getThumbnailUrl(Long thumbnailMediaId) {
+        return mediaService.getMedia(thumbnailMediaId).variantUrl(
+            Constants.MediaVariant.THUMBNAIL_WIDTH, Constants.MediaVariant.THUMBNAIL_HEIGHT);
+    }
+
     public ProductListGetFromCategoryVm getProductsFromCategory(int pageNo, int pageSize, String categorySlug) {
         List<ProductThumbnailVm> productThumbnailVms = new ArrayList<>();
         Pageable pageable = PageRequest.of(pageNo, pageSize);
@@ -742,7 +761,7 @@ public class ProductService {
                 product.getId(),
                 product.getName(),
                 product.getSlug(),
-                mediaService.getMedia(product.getThumbnailMediaId()).url()));
+                getThumbnailUrl(product.getThumbnailMediaId())));
         }
         return new ProductListGetFromCategoryVm(
             productThumbnailVms,
@@ -758,7 +777,7 @@ public class ProductService {
         List<Product> products = productRepository.findAllByIdIn(productIds);
         return products.stream().map(product -> {
 
-            String thumbnailUrl = mediaService.getMedia(product.getThumbnailMediaId()).url();
+            String thumbnailUrl = getThumbnailUrl(product.getThumbnailMediaId());
             if (StringUtils.isNotEmpty(thumbnailUrl) || Objects.isNull(product.getParent())) {
                 return new ProductThumbnailGetVm(
                     product.getId(),
@@ -774,7 +793,7 @@ public class ProductService {
                 product.getId(),
                 product.getName(),
                 product.getSlug(),
-                parentProduct.map(pr -> mediaService.getMedia(pr.getThumbnailMediaId()).url())
+                parentProduct.map(pr -> getThumbnailUrl(pr.getThumbnailMediaId()))
                     .orElse(""),
                 product.getPrice());
         }).toList();
@@ -790,7 +809,7 @@ public class ProductService {
                 product.getId(),
                 product.getName(),
                 product.getSlug(),
-                mediaService.getMedia(product.getThumbnailMediaId()).url(),
+                getThumbnailUrl(product.getThumbnailMediaId()),
                 product.getPrice()));
         }
         return new ProductFeatureGetVm(productThumbnailVms, productPage.getTotalPages());
@@ -900,7 +919,7 @@ public class ProductService {
                 product.getId(),
                 product.getName(),
                 product.getSlug(),
-                mediaService.getMedia(product.getThumbnailMediaId()).url(),
+                getThumbnailUrl(product.getThumbnailMediaId()),
                 product.getPrice()));
         }
 
@@ -997,16 +1016,20 @@ public class ProductService {
             );
 
         Long thumbnailMediaId = null;
+        String thumbnailUrl = null;
         if (null != product.getThumbnailMediaId()) {
             thumbnailMediaId = product.getThumbnailMediaId();
+            thumbnailUrl = getIndexedThumbnailUrl(thumbnailMediaId);
         }
         List<String> categoryNames = product.getProductCategories().stream().map(productCategory
             -> productCategory.getCategory().getName()).toList();
         List<String> attributeNames = product.getAttributeValues().stream().map(attributeValue
             -> attributeValue.getProductAttribute().getName()).toList();
 
+        Long brandId = null;
         String brandName = null;
         if (null != product.getBrand()) {
+            brandId = product.getBrand().getId();
             brandName = product.getBrand().getName();
         }
 
@@ -1019,12 +1042,29 @@ public class ProductService {
             product.isAllowedToOrder(),
             product.isFeatured(),
             thumbnailMediaId,
+            thumbnailUrl,
+            product.isStockTrackingEnabled(),
+            product.getStockQuantity(),
+            brandId,
             brandName,
             categoryNames,
             attributeNames
         );
     }
 
+    /**
+     * The product is still indexed when the media service is unavailable, only without its thumbnail.
+     */
+    private String getIndexedThumbnailUrl(Long thumbnailMediaId) {
+        try {
+            NoFileMediaVm media = mediaService.getMedia(thumbnailMediaId);
+            return media != null ? media.url() : null;
+        } catch (RuntimeException e) {
+            log.warn("Could not get thumbnail media {}, indexing without thumbnail", thumbnailMediaId, e);
+            return null;
+        }
+    }
+
     public List<ProductListVm> getRelatedProductsBackoffice(Long id) {
         Product product = productRepository.findById(id)
             .orElseThrow(() -> new NotFoundException(Constants.ErrorCode.PRODUCT_NOT_FOUND, id));
@@ -1061,7 +1101,7 @@ public class ProductService {
                     relatedProduct.getId(),
                     relatedProduct.getName(),
                     relatedProduct.getSlug(),
-                    mediaService.getMedia(relatedProduct.getThumbnailMediaId()).url(),
+                    getThumbnailUrl(relatedProduct.getThumbnailMediaId()),
                     relatedProduct.getPrice());
             })
             .toList();
@@ -36,4 +36,11 @@ public final class Constants {
         public static final String NO_MATCHING_PRODUCT_OPTIONS = "NO_MATCHING_PRODUCT_OPTIONS";
         public static final String MAKE_SURE_LENGTH_GREATER_THAN_WIDTH = "MAKE_SURE_LENGTH_GREATER_THAN_WIDTH";
     }
+
+    public final class MediaVariant {
+        // listing tiles are at most 256px wide, twice that stays sharp on high density screens. Must be one of the
+        // media variant sizes (file.variant.sizes), which requested dimensions are rounded up to
+        public static final int THUMBNAIL_WIDTH = 512;
+        public static final int THUMBNAIL_HEIGHT = 512;
+    }
 }
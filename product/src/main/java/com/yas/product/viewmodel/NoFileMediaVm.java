@@ -1,4 +1,20 @@
 package com.yas.product.viewmodel;
 
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+
 public record NoFileMediaVm(Long id, String caption, String fileName, String mediaType, String url) {
+
+    /**
+     * URL of a copy of the image scaled down by the media service to fit in the given box.
+     */
+    public String variantUrl(int width, int height) {
+        if (StringUtils.isBlank(url)) {
+            return url;
+        }
+        return UriComponentsBuilder.fromUriString(url)
+            .queryParam("width", width)
+            .queryParam("height", height)
+            .build().toUriString();
+    }
 }
@@ -12,6 +12,10 @@ public record ProductEsDetailVm(
         boolean isAllowedToOrder,
         boolean isFeatured,
         Long thumbnailMediaId,
+        String thumbnailUrl,
+        boolean stockTrackingEnabled,
+        Long stockQuantity,
+        Long brandId,
         String brand,
         List<String> categories,
         List<String> attributes) {
@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset product:issue-0012
+ALTER TABLE product REPLICA IDENTITY FULL;
\ No newline at end of file
@@ -291,6 +291,20 @@ class ProductControllerTest {
         verify(productService, times(1)).getLatestProducts(1);
     }
 
+    @Test
+    void testGetPublishedProductIds_Success() throws Exception {
+        when(productService.getPublishedProductIds(10L, 2)).thenReturn(List.of(11L, 12L));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/storefront/products/published-ids")
+                        .param("afterId", "10")
+                        .param("pageSize", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(11L))
+                .andExpect(jsonPath("$[1]").value(12L));
+
+        verify(productService, times(1)).getPublishedProductIds(10L, 2);
+    }
+
     @Test
     void testGetProductDetailById() throws Exception {
         mockMvc.perform(MockMvcRequestBuilders.get("/storefront/products/detail/{productId}", 1))
@@ -1,20 +1,28 @@
 package com.yas.recommendation.controller;
 
+import com.yas.recommendation.customer.CustomerRecommendationService;
 import com.yas.recommendation.vector.common.query.VectorQuery;
 import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.vector.product.query.HybridRecommendationService;
+import com.yas.recommendation.vector.product.query.RelatedProductCache;
 import com.yas.recommendation.viewmodel.RelatedProductVm;
 import java.util.Arrays;
 import java.util.List;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -31,6 +39,15 @@ class EmbeddingQueryControllerTest {
     @MockBean
     private VectorQuery<ProductDocument, RelatedProductVm> relatedProductSearch;
 
+    @MockBean
+    private RelatedProductCache relatedProductCache;
+
+    @MockBean
+    private HybridRecommendationService hybridRecommendationService;
+
+    @MockBean
+    private CustomerRecommendationService customerRecommendationService;
+
     @BeforeEach
     void setUp() {
         // Prepare some mock data to be returned by the relatedProductSearch
@@ -43,7 +60,7 @@ class EmbeddingQueryControllerTest {
         List<RelatedProductVm> mockProducts = Arrays.asList(product1, product2);
 
         // Mock the behavior of relatedProductSearch
-        Mockito.when(relatedProductSearch.similaritySearch(anyLong())).thenReturn(mockProducts);
+        Mockito.when(relatedProductCache.getRelatedProducts(anyLong())).thenReturn(mockProducts);
     }
 
     @Test
@@ -59,11 +76,45 @@ class EmbeddingQueryControllerTest {
     @Test
     void shouldReturnEmptyList_whenNoSimilarProductsFound() throws Exception {
         // Mock empty search results
-        Mockito.when(relatedProductSearch.similaritySearch(anyLong())).thenReturn(Arrays.asList());
+        Mockito.when(relatedProductCache.getRelatedProducts(anyLong())).thenReturn(Arrays.asList());
 
         // Perform a GET request to /embedding/product/{id}/similarity
         mockMvc.perform(get("/embedding/product/2/similarity"))
                 .andExpect(status().isOk())  // Expect HTTP 200 OK status
                 .andExpect(jsonPath("$", hasSize(0)));  // Expect empty JSON array
     }
+
+    @Test
+    void shouldReturnRecommendations_whenVectorWeightProvided() throws Exception {
+        RelatedProductVm product = new RelatedProductVm();
+        product.setName("Bought Together");
+        Mockito.when(hybridRecommendationService.recommend(eq(1L), eq(0.3))).thenReturn(List.of(product));
+
+        mockMvc.perform(get("/embedding/product/1/recommendations").param("vectorWeight", "0.3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Bought Together")));
+    }
+
+    @Test
+    void shouldReturnCustomerRecommendations_whenOwnCustomerRequested() throws Exception {
+        RelatedProductVm product = new RelatedProductVm();
+        product.setName("For You");
+        Mockito.when(customerRecommendationService.recommend("customer-1")).thenReturn(List.of(product));
+
+        mockMvc.perform(get("/embedding/customer/customer-1/recommendations")
+                        .principal(new TestingAuthenticationToken("customer-1", null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("For You")));
+    }
+
+    @Test
+    void shouldDenyCustomerRecommendations_whenAnotherCustomerRequested() {
+        // Security filters are off, so the denial surfaces as the handler's exception
+        assertThatThrownBy(() -> mockMvc.perform(get("/embedding/customer/customer-2/recommendations")
+                        .principal(new TestingAuthenticationToken("customer-1", null))))
+                .hasRootCauseInstanceOf(AccessDeniedException.class);
+        Mockito.verify(customerRecommendationService, Mockito.never()).recommend(anyString());
+    }
 }
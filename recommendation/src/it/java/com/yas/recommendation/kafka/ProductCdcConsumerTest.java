@@ -7,8 +7,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,7 +38,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -97,7 +97,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Verify consumer
         waitForConsumer(2, 1, 0, 0);
-        verify(productVectorSyncService, times(1)).createProductVector(any(Product.class));
+        verify(productVectorSyncService, times(1)).upsertProductVectors(anyCollection());
 
         //Verify data
         List<Map<String, Object>> results = findAll();
@@ -113,7 +113,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
         long productId = 1L;
 
         // When
-        when(embeddingModel.embed(any(Document.class))).thenReturn(randomEmbed());
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> randomEmbeds(invocation.getArgument(0)));
 
         // Simulate Product Detail API response
         final URI url = UriComponentsBuilder.fromHttpUrl(recommendationConfig.getApiUrl())
@@ -133,7 +133,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Then
         waitForConsumer(2, 1, 4, 6);
-        verify(productVectorSyncService, times(4)).createProductVector(any(Product.class));
+        verify(productVectorSyncService, atLeast(2)).upsertProductVectors(anyCollection());
     }
 
     @DisplayName("When having product create event, data must sync as create and can search similar product.")
@@ -147,7 +147,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
         // When
         when(embeddingSearchConfiguration.topK()).thenReturn(10);
         when(embeddingSearchConfiguration.similarityThreshold()).thenReturn(-1D); // force to query all data, not depend on vector compare operation
-        when(embeddingModel.embed(any(Document.class))).thenReturn(randomEmbed());
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> randomEmbeds(invocation.getArgument(0)));
 
         // Simulate Product Detail API response
         final URI url = UriComponentsBuilder.fromHttpUrl(recommendationConfig.getApiUrl())
@@ -165,7 +165,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Then
         waitForConsumer(2, 1, 0, 0);
-        verify(productVectorSyncService, times(1)).createProductVector(any(Product.class));
+        verify(productVectorSyncService, times(1)).upsertProductVectors(anyCollection());
 
         // Given
         long productId2 = 2L;
@@ -187,7 +187,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Verify consumer
         waitForConsumer(2, 1, 0, 0);
-        verify(productVectorSyncService, times(2)).createProductVector(any(Product.class));
+        verify(productVectorSyncService, times(2)).upsertProductVectors(anyCollection());
 
         //Verify data
         List<Map<String, Object>> results = findAll();
@@ -209,7 +209,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Verify consumer
         waitForConsumer(2, 1, 0, 0);
-        verify(productVectorSyncService, times(1)).createProductVector(any(Product.class));
+        verify(productVectorSyncService, times(1)).upsertProductVectors(anyCollection());
 
         //Verify data
         List<Map<String, Object>> results = findAll();
@@ -219,7 +219,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
         ProductDetailVm response = getProductDetailVmUpdate(productId);
 
         // When
-        when(embeddingModel.embed(any(Document.class))).thenReturn(randomEmbed());
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> randomEmbeds(invocation.getArgument(0)));
 
         // Simulate Product Detail API response
         final URI url = UriComponentsBuilder.fromHttpUrl(recommendationConfig.getApiUrl())
@@ -238,7 +238,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Verify consumer
         waitForConsumer(2, 2, 0, 0);
-        verify(productVectorSyncService, times(1)).updateProductVector(any(Product.class));
+        verify(productVectorSyncService, times(2)).upsertProductVectors(anyCollection());
 
         //Verify data
         results = findAll();
@@ -257,7 +257,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Verify consumer
         waitForConsumer(2, 1, 0, 0);
-        verify(productVectorSyncService, times(1)).createProductVector(any(Product.class));
+        verify(productVectorSyncService, times(1)).upsertProductVectors(anyCollection());
 
         //Verify data
         List<Map<String, Object>> results = findAll();
@@ -274,7 +274,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
 
         // Verify consumer
         waitForConsumer(2, 2, 0, 0);
-        verify(productVectorSyncService, times(1)).deleteProductVector((anyLong()));
+        verify(productVectorSyncService, times(1)).deleteProductVectors(anyCollection());
 
         //Verify data
         results = findAll();
@@ -287,7 +287,7 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
         ProductDetailVm response = getProductDetailVm(productId);
 
         // When
-        when(embeddingModel.embed(any(Document.class))).thenReturn(randomEmbed());
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> randomEmbeds(invocation.getArgument(0)));
 
         // Simulate Product Detail API response
         final URI url = UriComponentsBuilder.fromHttpUrl(recommendationConfig.getApiUrl())
@@ -371,6 +371,10 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
         );
     }
 
+    private static List<float[]> randomEmbeds(List<String> texts) {
+        return texts.stream().map(text -> randomEmbed()).toList();
+    }
+
     private static float @NotNull [] randomEmbed() {
         int size = 1536;
         float[] floatArray = new float[size];
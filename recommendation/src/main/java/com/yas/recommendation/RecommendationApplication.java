@@ -1,12 +1,28 @@
 package com.yas.recommendation;
 
+import com.yas.recommendation.configuration.BackfillConfig;
+import com.yas.recommendation.configuration.CoOccurrenceConfig;
+import com.yas.recommendation.configuration.CustomerProfileConfig;
+import com.yas.recommendation.configuration.EmbeddingBatchConfig;
 import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
+import com.yas.recommendation.configuration.RelatedProductCacheConfig;
+import com.yas.recommendation.configuration.VectorIndexConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties(EmbeddingSearchConfiguration.class)
+@EnableScheduling
+@EnableConfigurationProperties({
+    EmbeddingSearchConfiguration.class,
+    RelatedProductCacheConfig.class,
+    EmbeddingBatchConfig.class,
+    BackfillConfig.class,
+    CoOccurrenceConfig.class,
+    CustomerProfileConfig.class,
+    VectorIndexConfig.class
+})
 public class RecommendationApplication {
 
     public static void main(String[] args) {
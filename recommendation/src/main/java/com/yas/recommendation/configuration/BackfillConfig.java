@@ -0,0 +1,23 @@
+package com.yas.recommendation.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Product vector backfill settings.
+ *
+ * @param pageSize                   number of product ids read from the product service per page, a checkpoint is
+ *                                   saved after each page
+ * @param formattingConcurrency      number of product details fetched and formatted concurrently
+ * @param embeddingConcurrency       number of embedding requests in flight
+ * @param embeddingRequestsPerSecond upper bound of embedding requests per second, {@code 0} for no limit
+ * @param resumeOnStartup            whether a backfill interrupted by a shutdown is resumed when the service starts
+ */
+@ConfigurationProperties(prefix = "yas.recommendation.backfill")
+public record BackfillConfig(
+    @DefaultValue("500") int pageSize,
+    @DefaultValue("16") int formattingConcurrency,
+    @DefaultValue("2") int embeddingConcurrency,
+    @DefaultValue("5") double embeddingRequestsPerSecond,
+    @DefaultValue("true") boolean resumeOnStartup
+) {}
@@ -0,0 +1,20 @@
+package com.yas.recommendation.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Co-purchase ("frequently bought together") settings.
+ *
+ * @param maxRecentOrders  number of orders whose products are kept to pair the order items that arrive later
+ * @param snapshotInterval delay between two snapshots of the changed counts to Postgres
+ * @param vectorWeight     weight of the vector similarity in hybrid recommendations, the co-purchase score gets
+ *                         the rest
+ */
+@ConfigurationProperties(prefix = "yas.recommendation.co-occurrence")
+public record CoOccurrenceConfig(
+    @DefaultValue("50000") int maxRecentOrders,
+    @DefaultValue("PT1M") Duration snapshotInterval,
+    @DefaultValue("0.5") double vectorWeight
+) {}
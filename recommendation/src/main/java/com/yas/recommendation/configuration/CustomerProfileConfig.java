@@ -0,0 +1,33 @@
+package com.yas.recommendation.configuration;
+
+import com.yas.recommendation.constant.InteractionType;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Customer preference vector settings.
+ *
+ * @param halfLife             time after which an interaction weighs half as much in the preference vector
+ * @param cartedWeight         weight of a product added to the cart
+ * @param purchasedWeight      weight of a purchased product
+ * @param recommendationTtl    how long the recommendations of a customer are cached, unless their preference
+ *                             vector changes first
+ * @param maxCachedCustomers   number of customers whose recommendations are cached
+ */
+@ConfigurationProperties(prefix = "yas.recommendation.customer-profile")
+public record CustomerProfileConfig(
+    @DefaultValue("P30D") Duration halfLife,
+    @DefaultValue("1") double cartedWeight,
+    @DefaultValue("3") double purchasedWeight,
+    @DefaultValue("PT5M") Duration recommendationTtl,
+    @DefaultValue("10000") int maxCachedCustomers
+) {
+
+    public double weightOf(InteractionType type) {
+        return switch (type) {
+            case CARTED -> cartedWeight;
+            case PURCHASED -> purchasedWeight;
+        };
+    }
+}
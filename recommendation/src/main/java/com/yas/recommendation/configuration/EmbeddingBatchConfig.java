@@ -0,0 +1,12 @@
+package com.yas.recommendation.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Embedding batch settings.
+ *
+ * @param size maximum number of documents sent to the embedding model in one request
+ */
+@ConfigurationProperties(prefix = "yas.recommendation.embedding-batch")
+public record EmbeddingBatchConfig(@DefaultValue("32") int size) {}
@@ -1,6 +1,22 @@
 package com.yas.recommendation.configuration;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
+/**
+ * Similarity search settings.
+ *
+ * @param similarityThreshold minimum cosine distance a neighbour must have to the searched document
+ * @param topK                number of neighbours returned
+ * @param overFetchFactor     the index scan fetches {@code topK * overFetchFactor} candidates, so that enough
+ *                            remain after the threshold and exclusions are applied
+ * @param efSearch            default {@code hnsw.ef_search}, i.e. the size of the HNSW candidate list; it is
+ *                            raised to the number of fetched candidates when lower
+ */
 @ConfigurationProperties(prefix = "yas.recommendation.embedding-based.search")
-public record EmbeddingSearchConfiguration(Double similarityThreshold, int topK) {}
+public record EmbeddingSearchConfiguration(
+    Double similarityThreshold,
+    int topK,
+    @DefaultValue("4") int overFetchFactor,
+    @DefaultValue("0") int efSearch
+) {}
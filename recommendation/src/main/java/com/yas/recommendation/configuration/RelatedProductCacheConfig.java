@@ -0,0 +1,19 @@
+package com.yas.recommendation.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Related products cache settings.
+ *
+ * @param enabled    whether related products are served from the cache
+ * @param maxEntries number of products whose neighbours are kept, least recently used ones are evicted first
+ * @param ttl        how long the neighbours of a product are kept, unless a vector write invalidates them first
+ */
+@ConfigurationProperties(prefix = "yas.recommendation.related-product-cache")
+public record RelatedProductCacheConfig(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10000") int maxEntries,
+    @DefaultValue("PT10M") Duration ttl
+) {}
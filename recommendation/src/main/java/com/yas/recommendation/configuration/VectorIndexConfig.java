@@ -0,0 +1,28 @@
+package com.yas.recommendation.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * In-process product vector index settings.
+ *
+ * @param enabled         whether related products are served from an in-memory HNSW index, rebuilt from the
+ *                        vector table on startup, instead of pgvector; the quantised vectors take one byte per
+ *                        dimension off heap, see {@code -XX:MaxDirectMemorySize}
+ * @param m               number of neighbours per node and layer
+ * @param efConstruction  number of candidates explored when a vector is added
+ * @param efSearch        default number of candidates explored per query
+ * @param maxDeletedRatio share of replaced or removed vectors still held by the index above which it is rebuilt
+ * @param rebuildInterval period of the full rebuild from the vector table; it also bounds how long the index of
+ *                        a replica lags the vector writes applied by the replica consuming the product topic
+ */
+@ConfigurationProperties(prefix = "yas.recommendation.vector-index")
+public record VectorIndexConfig(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("16") int m,
+    @DefaultValue("100") int efConstruction,
+    @DefaultValue("64") int efSearch,
+    @DefaultValue("0.2") double maxDeletedRatio,
+    @DefaultValue("PT6H") Duration rebuildInterval
+) {}
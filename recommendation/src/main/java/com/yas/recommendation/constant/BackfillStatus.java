@@ -0,0 +1,8 @@
+package com.yas.recommendation.constant;
+
+public enum BackfillStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.yas.recommendation.constant;
+
+/**
+ * Customer interactions with a product that feed the customer preference vector.
+ */
+public enum InteractionType {
+    CARTED,
+    PURCHASED
+}
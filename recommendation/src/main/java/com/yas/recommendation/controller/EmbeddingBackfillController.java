@@ -0,0 +1,44 @@
+package com.yas.recommendation.controller;
+
+import com.yas.recommendation.vector.product.service.ProductVectorBackfillService;
+import com.yas.recommendation.viewmodel.BackfillStatusVm;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for populating the vector store of the existing catalog.
+ */
+@RestController
+@RequestMapping("backoffice/embedding")
+public class EmbeddingBackfillController {
+
+    private final ProductVectorBackfillService productVectorBackfillService;
+
+    public EmbeddingBackfillController(ProductVectorBackfillService productVectorBackfillService) {
+        this.productVectorBackfillService = productVectorBackfillService;
+    }
+
+    @PostMapping("/product/backfill")
+    public ResponseEntity<BackfillStatusVm> startProductBackfill(
+        @RequestParam(value = "reembed", defaultValue = "false") boolean reembed,
+        @RequestParam(value = "restart", defaultValue = "false") boolean restart
+    ) {
+        return ResponseEntity.accepted()
+            .body(BackfillStatusVm.fromModel(productVectorBackfillService.start(reembed, restart)));
+    }
+
+    @GetMapping("/product/backfill")
+    public ResponseEntity<BackfillStatusVm> getProductBackfillStatus() {
+        return ResponseEntity.of(productVectorBackfillService.getStatus().map(BackfillStatusVm::fromModel));
+    }
+
+    @DeleteMapping("/product/backfill")
+    public ResponseEntity<BackfillStatusVm> cancelProductBackfill() {
+        return ResponseEntity.of(productVectorBackfillService.cancel().map(BackfillStatusVm::fromModel));
+    }
+}
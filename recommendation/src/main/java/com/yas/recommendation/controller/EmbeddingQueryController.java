@@ -1,12 +1,20 @@
 package com.yas.recommendation.controller;
 
+import com.yas.recommendation.customer.CustomerRecommendationService;
 import com.yas.recommendation.vector.common.query.VectorQuery;
 import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.vector.product.query.HybridRecommendationService;
+import com.yas.recommendation.vector.product.query.RelatedProductCache;
+import com.yas.recommendation.vector.product.query.RelatedProductFilter;
 import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.security.Principal;
 import java.util.List;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -17,13 +25,59 @@ import org.springframework.web.bind.annotation.RestController;
 public class EmbeddingQueryController {
 
     private final VectorQuery<ProductDocument, RelatedProductVm> relatedProductSearch;
+    private final RelatedProductCache relatedProductCache;
+    private final HybridRecommendationService hybridRecommendationService;
+    private final CustomerRecommendationService customerRecommendationService;
 
-    public EmbeddingQueryController(VectorQuery<ProductDocument, RelatedProductVm> relatedProductSearch) {
+    public EmbeddingQueryController(VectorQuery<ProductDocument, RelatedProductVm> relatedProductSearch,
+                                    RelatedProductCache relatedProductCache,
+                                    HybridRecommendationService hybridRecommendationService,
+                                    CustomerRecommendationService customerRecommendationService) {
         this.relatedProductSearch = relatedProductSearch;
+        this.relatedProductCache = relatedProductCache;
+        this.hybridRecommendationService = hybridRecommendationService;
+        this.customerRecommendationService = customerRecommendationService;
     }
 
+    /**
+     * Products similar to this one, optionally restricted to a category, brand, price band or flags.
+     */
     @GetMapping("/product/{id}/similarity")
-    public List<RelatedProductVm> searchProduct(@PathVariable("id") Long productId) {
-        return relatedProductSearch.similaritySearch(productId);
+    public List<RelatedProductVm> searchProduct(
+        @PathVariable("id") Long productId,
+        @RequestParam(value = "efSearch", required = false) Integer efSearch,
+        RelatedProductFilter filter
+    ) {
+        Filter.Expression expression = filter.toExpression();
+        if (expression != null) {
+            return relatedProductSearch.similaritySearch(productId, efSearch, expression);
+        }
+        if (efSearch == null) {
+            return relatedProductCache.getRelatedProducts(productId);
+        }
+        // An explicit search width asks for a fresh query
+        return relatedProductSearch.similaritySearch(productId, efSearch);
+    }
+
+    /**
+     * Similar products blended with products frequently bought together with this one.
+     */
+    @GetMapping("/product/{id}/recommendations")
+    public List<RelatedProductVm> recommendProducts(
+        @PathVariable("id") Long productId,
+        @RequestParam(value = "vectorWeight", required = false) Double vectorWeight
+    ) {
+        return hybridRecommendationService.recommend(productId, vectorWeight);
+    }
+
+    /**
+     * Products matching the preferences of the signed-in customer, learnt from their carts and orders.
+     */
+    @GetMapping("/customer/{id}/recommendations")
+    public List<RelatedProductVm> recommendForCustomer(@PathVariable("id") String customerId, Principal principal) {
+        if (!customerId.equals(principal.getName())) {
+            throw new AccessDeniedException("Recommendations of another customer");
+        }
+        return customerRecommendationService.recommend(customerId);
     }
 }
@@ -0,0 +1,7 @@
+package com.yas.recommendation.cooccurrence;
+
+/**
+ * Number of orders in which two products were bought together.
+ */
+public record CoOccurrence(long productId, long relatedProductId, int count) {
+}
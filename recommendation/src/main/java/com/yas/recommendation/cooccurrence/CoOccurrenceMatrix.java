@@ -0,0 +1,115 @@
+package com.yas.recommendation.cooccurrence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Symmetric, sparse count of how many orders contain each pair of products. Each product has a row of
+ * {@link LongIntHashMap} from co-purchased product id to count.
+ *
+ * <p>Order items arrive one at a time, so the products already seen for recent orders are kept: when an item is
+ * added, its product is paired with every product seen before in the same order. The number of recent orders
+ * is bounded, items of an order arriving after the order was evicted are counted as a new order.
+ *
+ * <p>Rows changed since the last {@link #drainDirty()} are tracked for incremental snapshots. Not thread-safe.
+ */
+public class CoOccurrenceMatrix {
+
+    private static final long[] NO_PRODUCTS = new long[0];
+
+    private final Map<Long, LongIntHashMap> rows = new HashMap<>();
+    private final Map<Long, long[]> recentOrders;
+    private final Set<Long> dirtyProducts = new HashSet<>();
+
+    public CoOccurrenceMatrix(int maxRecentOrders) {
+        this.recentOrders = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > maxRecentOrders;
+            }
+        };
+    }
+
+    /**
+     * Counts the product of a new order item against the products already seen in the same order. A product
+     * ordered twice in one order is only counted once.
+     */
+    public void addOrderItem(long orderId, long productId) {
+        long[] orderProducts = recentOrders.getOrDefault(orderId, NO_PRODUCTS);
+        for (long orderProduct : orderProducts) {
+            if (orderProduct == productId) {
+                return;
+            }
+        }
+        for (long orderProduct : orderProducts) {
+            increment(orderProduct, productId);
+            increment(productId, orderProduct);
+        }
+        long[] updated = Arrays.copyOf(orderProducts, orderProducts.length + 1);
+        updated[orderProducts.length] = productId;
+        recentOrders.put(orderId, updated);
+    }
+
+    public int count(long productId, long relatedProductId) {
+        LongIntHashMap row = rows.get(productId);
+        return row == null ? 0 : row.get(relatedProductId);
+    }
+
+    /**
+     * Products most often bought with the given one, highest count first.
+     */
+    public List<CoOccurrence> topRelated(long productId, int limit) {
+        LongIntHashMap row = rows.get(productId);
+        if (row == null || limit <= 0) {
+            return List.of();
+        }
+        List<CoOccurrence> related = new ArrayList<>(row.size());
+        row.forEach((relatedProductId, count) -> related.add(new CoOccurrence(productId, relatedProductId, count)));
+        related.sort(Comparator.comparingInt(CoOccurrence::count).reversed()
+            .thenComparingLong(CoOccurrence::relatedProductId));
+        return related.size() > limit ? List.copyOf(related.subList(0, limit)) : related;
+    }
+
+    /**
+     * Sets a count read from a snapshot, without marking the row changed.
+     */
+    public void load(long productId, long relatedProductId, int count) {
+        rows.computeIfAbsent(productId, k -> new LongIntHashMap()).put(relatedProductId, count);
+    }
+
+    /**
+     * Returns every count of the rows changed since the previous call.
+     */
+    public List<CoOccurrence> drainDirty() {
+        List<CoOccurrence> changed = new ArrayList<>();
+        for (Long productId : dirtyProducts) {
+            rows.get(productId).forEach((relatedProductId, count) ->
+                changed.add(new CoOccurrence(productId, relatedProductId, count)));
+        }
+        dirtyProducts.clear();
+        return changed;
+    }
+
+    /**
+     * Marks rows changed again, e.g. after a snapshot of them failed.
+     */
+    public void markDirty(List<CoOccurrence> coOccurrences) {
+        coOccurrences.forEach(coOccurrence -> dirtyProducts.add(coOccurrence.productId()));
+    }
+
+    public int productCount() {
+        return rows.size();
+    }
+
+    private void increment(long productId, long relatedProductId) {
+        rows.computeIfAbsent(productId, k -> new LongIntHashMap()).addTo(relatedProductId, 1);
+        dirtyProducts.add(productId);
+    }
+}
@@ -0,0 +1,156 @@
+package com.yas.recommendation.cooccurrence;
+
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
+import com.yas.recommendation.configuration.CoOccurrenceConfig;
+import com.yas.recommendation.kafka.message.OrderItem;
+import com.yas.recommendation.kafka.message.OrderItemCdcMessage;
+import com.yas.recommendation.kafka.message.OrderItemMsgKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the co-purchase matrix in memory, fed by order item CDC events, and snapshots the changed counts to
+ * Postgres periodically.
+ *
+ * <p>The offsets of the applied events are kept with the matrix and saved with each snapshot. On startup the
+ * matrix is loaded from the snapshot and the consumer seeks to the saved offsets, so no event is counted twice
+ * or lost. Only the products of the recent orders are not snapshotted: an order whose items straddle a restart
+ * is counted as two orders.
+ *
+ * <p>Every instance reads all order item partitions, so each holds the whole matrix and they all snapshot the
+ * same counts. A snapshot is only written when its offsets are not behind the stored ones for any partition,
+ * otherwise its pairs stay dirty until this instance has caught up, see {@link CoOccurrenceSnapshotRepository}.
+ */
+@Slf4j
+@Service
+public class CoOccurrenceService implements InitializingBean {
+
+    private final CoOccurrenceSnapshotRepository snapshotRepository;
+    private final CoOccurrenceMatrix matrix;
+    private final Map<TopicPartition, Long> appliedOffsets = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<TopicPartition, Long> savedOffsets = Map.of();
+
+    public CoOccurrenceService(CoOccurrenceSnapshotRepository snapshotRepository, CoOccurrenceConfig config) {
+        this.snapshotRepository = snapshotRepository;
+        this.matrix = new CoOccurrenceMatrix(config.maxRecentOrders());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        lock.writeLock().lock();
+        try {
+            snapshotRepository.loadInto(matrix);
+            appliedOffsets.putAll(snapshotRepository.findOffsets());
+            savedOffsets = Map.copyOf(appliedOffsets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded co-occurrences of {} products", matrix.productCount());
+    }
+
+    /**
+     * Applies a polled batch of order item events. Only created order items count, snapshot reads included.
+     */
+    public void record(List<ConsumerRecord<OrderItemMsgKey, OrderItemCdcMessage>> records) {
+        lock.writeLock().lock();
+        try {
+            for (ConsumerRecord<OrderItemMsgKey, OrderItemCdcMessage> consumerRecord : records) {
+                TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+                Long applied = appliedOffsets.get(partition);
+                if (applied != null && consumerRecord.offset() < applied) {
+                    // redelivered after a failed batch, already counted
+                    continue;
+                }
+                OrderItem orderItem = getCreatedOrderItem(consumerRecord.value());
+                if (orderItem != null) {
+                    matrix.addOrderItem(orderItem.getOrderId(), orderItem.getProductId());
+                }
+                appliedOffsets.put(partition, consumerRecord.offset() + 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Products most often bought together with the given one, highest count first.
+     */
+    public List<CoOccurrence> topRelated(long productId, int limit) {
+        lock.readLock().lock();
+        try {
+            return matrix.topRelated(productId, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Offsets of the next events to apply, by partition.
+     */
+    public Map<TopicPartition, Long> getAppliedOffsets() {
+        lock.readLock().lock();
+        try {
+            return Map.copyOf(appliedOffsets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${yas.recommendation.co-occurrence.snapshot-interval:PT1M}",
+        fixedDelayString = "${yas.recommendation.co-occurrence.snapshot-interval:PT1M}"
+    )
+    public void snapshot() {
+        List<CoOccurrence> changed;
+        Map<TopicPartition, Long> offsets;
+        lock.writeLock().lock();
+        try {
+            changed = matrix.drainDirty();
+            offsets = Map.copyOf(appliedOffsets);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (changed.isEmpty() && offsets.equals(savedOffsets)) {
+            return;
+        }
+        boolean saved = false;
+        try {
+            saved = snapshotRepository.save(changed, offsets);
+            if (saved) {
+                savedOffsets = offsets;
+                log.debug("Saved {} co-occurrence counts", changed.size());
+            } else {
+                log.debug("Another instance saved a later co-occurrence snapshot, retrying with the next one");
+            }
+        } catch (RuntimeException e) {
+            log.error("Co-occurrence snapshot failed, retrying with the next one", e);
+        }
+        if (!saved) {
+            lock.writeLock().lock();
+            try {
+                matrix.markDirty(changed);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static OrderItem getCreatedOrderItem(OrderItemCdcMessage message) {
+        if (message == null || message.getAfter() == null) {
+            return null;
+        }
+        boolean created = message.getOp() == Operation.CREATE || message.getOp() == Operation.READ;
+        OrderItem orderItem = message.getAfter();
+        return created && orderItem.getOrderId() != null && orderItem.getProductId() != null ? orderItem : null;
+    }
+}
@@ -0,0 +1,111 @@
+package com.yas.recommendation.cooccurrence;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Snapshot of the co-occurrence counts in Postgres, together with the order item offsets they include, so that
+ * the in-memory matrix is rebuilt from it on startup and the topic is read again only from those offsets.
+ */
+@Repository
+public class CoOccurrenceSnapshotRepository implements InitializingBean {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CoOccurrenceSnapshotRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS product_co_occurrence (
+                product_id bigint NOT NULL,
+                related_product_id bigint NOT NULL,
+                count integer NOT NULL,
+                PRIMARY KEY (product_id, related_product_id)
+            )""");
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS product_co_occurrence_offset (
+                topic varchar(255) NOT NULL,
+                partition integer NOT NULL,
+                next_offset bigint NOT NULL,
+                PRIMARY KEY (topic, partition)
+            )""");
+    }
+
+    /**
+     * Writes the changed counts and the offsets they include in one transaction, unless the snapshot already
+     * includes events of some partition past these offsets.
+     *
+     * <p>Every instance builds the same matrix from all partitions and snapshots it. The counts are absolute, so a
+     * snapshot from an instance lagging behind the stored one would set them back; saves are serialized with an
+     * advisory lock and only move the stored offsets forward.
+     *
+     * @return whether the snapshot was written
+     */
+    @Transactional
+    public boolean save(List<CoOccurrence> coOccurrences, Map<TopicPartition, Long> offsets) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(hashtext('product_co_occurrence'))");
+        boolean behind = findOffsets().entrySet().stream()
+            .anyMatch(stored -> offsets.getOrDefault(stored.getKey(), 0L) < stored.getValue());
+        if (behind) {
+            return false;
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO product_co_occurrence (product_id, related_product_id, count) VALUES (?, ?, ?)
+                ON CONFLICT (product_id, related_product_id) DO UPDATE SET count = EXCLUDED.count
+                """,
+            coOccurrences,
+            1000,
+            (ps, coOccurrence) -> {
+                ps.setLong(1, coOccurrence.productId());
+                ps.setLong(2, coOccurrence.relatedProductId());
+                ps.setInt(3, coOccurrence.count());
+            });
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO product_co_occurrence_offset (topic, partition, next_offset) VALUES (?, ?, ?)
+                ON CONFLICT (topic, partition) DO UPDATE SET next_offset = EXCLUDED.next_offset
+                """,
+            List.copyOf(offsets.entrySet()),
+            offsets.size(),
+            (ps, offset) -> {
+                ps.setString(1, offset.getKey().topic());
+                ps.setInt(2, offset.getKey().partition());
+                ps.setLong(3, offset.getValue());
+            });
+        return true;
+    }
+
+    /**
+     * Loads every stored count into the matrix, streaming the rows.
+     */
+    @Transactional(readOnly = true)
+    public void loadInto(CoOccurrenceMatrix matrix) {
+        jdbcTemplate.query(connection -> {
+            // Postgres only streams with a fetch size inside a transaction
+            var statement = connection.prepareStatement(
+                "SELECT product_id, related_product_id, count FROM product_co_occurrence");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            matrix.load(rs.getLong(1), rs.getLong(2), rs.getInt(3));
+        });
+    }
+
+    public Map<TopicPartition, Long> findOffsets() {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        jdbcTemplate.query("SELECT topic, partition, next_offset FROM product_co_occurrence_offset", rs -> {
+            offsets.put(new TopicPartition(rs.getString(1), rs.getInt(2)), rs.getLong(3));
+        });
+        return offsets;
+    }
+}
@@ -0,0 +1,7 @@
+package com.yas.recommendation.customer;
+
+import com.yas.recommendation.constant.InteractionType;
+import java.time.Instant;
+
+public record CustomerInteraction(String customerId, Long productId, InteractionType type, Instant occurredAt) {
+}
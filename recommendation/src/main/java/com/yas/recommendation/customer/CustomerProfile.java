@@ -0,0 +1,52 @@
+package com.yas.recommendation.customer;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Preference vector of a customer: the average of the embeddings of the products they interacted with, each
+ * weighted by the kind of interaction and halved every {@code halfLife} since it happened.
+ *
+ * <p>Only the average, its total weight and the time of the latest interaction are kept. Decaying the total
+ * weight to the time of a new interaction decays every interaction averaged so far, so the vector is updated
+ * in {@code O(dimensions)} per interaction.
+ *
+ * @param embedding {@code null} until the first interaction
+ */
+public record CustomerProfile(String customerId, float[] embedding, double weight, Instant updatedAt) {
+
+    public static CustomerProfile empty(String customerId) {
+        return new CustomerProfile(customerId, null, 0, null);
+    }
+
+    /**
+     * Returns the profile with the product embedding averaged in. An interaction older than the profile, e.g.
+     * delivered late, is decayed to the time of the profile instead.
+     */
+    public CustomerProfile add(float[] productEmbedding, double interactionWeight, Instant occurredAt,
+                               Duration halfLife) {
+        // a profile from another embedding model cannot be averaged with the new one, start over
+        if (embedding == null || weight <= 0 || embedding.length != productEmbedding.length) {
+            return new CustomerProfile(customerId, productEmbedding.clone(), interactionWeight, occurredAt);
+        }
+        double profileWeight = weight;
+        double addedWeight = interactionWeight;
+        Instant latest = updatedAt;
+        if (occurredAt.isAfter(updatedAt)) {
+            profileWeight *= decay(Duration.between(updatedAt, occurredAt), halfLife);
+            latest = occurredAt;
+        } else {
+            addedWeight *= decay(Duration.between(occurredAt, updatedAt), halfLife);
+        }
+        double totalWeight = profileWeight + addedWeight;
+        float[] averaged = new float[embedding.length];
+        for (int i = 0; i < averaged.length; i++) {
+            averaged[i] = (float) ((embedding[i] * profileWeight + productEmbedding[i] * addedWeight) / totalWeight);
+        }
+        return new CustomerProfile(customerId, averaged, totalWeight, latest);
+    }
+
+    static double decay(Duration elapsed, Duration halfLife) {
+        return Math.pow(0.5, elapsed.toMillis() / (double) halfLife.toMillis());
+    }
+}
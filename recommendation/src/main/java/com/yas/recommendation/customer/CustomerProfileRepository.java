@@ -0,0 +1,127 @@
+package com.yas.recommendation.customer;
+
+import com.pgvector.PGvector;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Customer preference vectors, stored as pgvector values next to the product vectors, and the offsets of the
+ * interaction events already averaged into them.
+ */
+@Repository
+public class CustomerProfileRepository implements InitializingBean {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerProfileRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS customer_profile (
+                customer_id varchar(255) NOT NULL PRIMARY KEY,
+                embedding vector,
+                weight double precision NOT NULL,
+                updated_at timestamp with time zone
+            )""");
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS customer_profile_offset (
+                topic varchar(255) NOT NULL,
+                partition integer NOT NULL,
+                next_offset bigint NOT NULL,
+                PRIMARY KEY (topic, partition)
+            )""");
+    }
+
+    public Optional<float[]> findEmbedding(String customerId) {
+        return jdbcTemplate.query(
+                "SELECT embedding FROM customer_profile WHERE customer_id = ? AND embedding IS NOT NULL",
+                (rs, rowNum) -> new PGvector(rs.getString("embedding")).toArray(),
+                customerId)
+            .stream()
+            .findFirst();
+    }
+
+    /**
+     * Reads the profiles of the customers for update, creating the missing ones empty, so that interactions
+     * consumed concurrently from different topics are not lost. Must run in a transaction.
+     */
+    public Map<String, CustomerProfile> lockProfiles(Collection<String> customerIds) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO customer_profile (customer_id, weight) VALUES (?, 0)
+                ON CONFLICT (customer_id) DO NOTHING
+                """,
+            List.copyOf(customerIds),
+            customerIds.size(),
+            (ps, customerId) -> ps.setString(1, customerId));
+        Map<String, CustomerProfile> profiles = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT customer_id, embedding, weight, updated_at FROM customer_profile
+                WHERE customer_id = ANY(?)
+                ORDER BY customer_id
+                FOR UPDATE
+                """,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", customerIds.toArray())),
+            rs -> {
+                String embedding = rs.getString("embedding");
+                Timestamp updatedAt = rs.getTimestamp("updated_at");
+                profiles.put(rs.getString("customer_id"), new CustomerProfile(
+                    rs.getString("customer_id"),
+                    embedding != null ? new PGvector(embedding).toArray() : null,
+                    rs.getDouble("weight"),
+                    updatedAt != null ? updatedAt.toInstant() : null));
+            });
+        return profiles;
+    }
+
+    public void saveProfiles(Collection<CustomerProfile> profiles) {
+        jdbcTemplate.batchUpdate(
+            "UPDATE customer_profile SET embedding = ?, weight = ?, updated_at = ? WHERE customer_id = ?",
+            List.copyOf(profiles),
+            profiles.size(),
+            (ps, profile) -> {
+                ps.setObject(1, new PGvector(profile.embedding()));
+                ps.setDouble(2, profile.weight());
+                ps.setTimestamp(3, Timestamp.from(profile.updatedAt()));
+                ps.setString(4, profile.customerId());
+            });
+    }
+
+    /**
+     * Offsets of the next events to apply, for the given partitions that have any.
+     */
+    public Map<TopicPartition, Long> findOffsets(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        jdbcTemplate.query("SELECT topic, partition, next_offset FROM customer_profile_offset", rs -> {
+            TopicPartition partition = new TopicPartition(rs.getString("topic"), rs.getInt("partition"));
+            if (partitions.contains(partition)) {
+                offsets.put(partition, rs.getLong("next_offset"));
+            }
+        });
+        return offsets;
+    }
+
+    public void saveOffsets(Map<TopicPartition, Long> offsets) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO customer_profile_offset (topic, partition, next_offset) VALUES (?, ?, ?)
+                ON CONFLICT (topic, partition) DO UPDATE SET next_offset = EXCLUDED.next_offset
+                """,
+            List.copyOf(offsets.entrySet()),
+            offsets.size(),
+            (ps, offset) -> {
+                ps.setString(1, offset.getKey().topic());
+                ps.setInt(2, offset.getKey().partition());
+                ps.setLong(3, offset.getValue());
+            });
+    }
+}
@@ -0,0 +1,121 @@
+package com.yas.recommendation.customer;
+
+import com.yas.recommendation.configuration.CustomerProfileConfig;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the customer preference vectors from cart and order CDC events, see {@link CustomerProfile}.
+ *
+ * <p>A polled batch is applied in one transaction together with its offsets, so a batch redelivered after a
+ * failure is not averaged in twice. Products without a stored vector, i.e. unpublished ones, are ignored.
+ */
+@Slf4j
+@Service
+public class CustomerProfileService {
+
+    private final CustomerProfileRepository customerProfileRepository;
+    private final JdbcVectorService jdbcVectorService;
+    private final CustomerRecommendationService customerRecommendationService;
+    private final CustomerProfileConfig config;
+    private final TransactionTemplate transactionTemplate;
+
+    public CustomerProfileService(
+        CustomerProfileRepository customerProfileRepository,
+        JdbcVectorService jdbcVectorService,
+        CustomerRecommendationService customerRecommendationService,
+        CustomerProfileConfig config,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.customerProfileRepository = customerProfileRepository;
+        this.jdbcVectorService = jdbcVectorService;
+        this.customerRecommendationService = customerRecommendationService;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Applies a polled batch of CDC events.
+     *
+     * @param toInteraction maps an event and its timestamp to an interaction, or to {@code null} when the event
+     *                      is not one
+     */
+    public <K, V> void record(
+        List<ConsumerRecord<K, V>> records,
+        BiFunction<V, Instant, CustomerInteraction> toInteraction
+    ) {
+        Set<String> updatedCustomers = transactionTemplate.execute(status -> {
+            Set<TopicPartition> partitions = records.stream()
+                .map(consumerRecord -> new TopicPartition(consumerRecord.topic(), consumerRecord.partition()))
+                .collect(Collectors.toSet());
+            Map<TopicPartition, Long> offsets = new HashMap<>(customerProfileRepository.findOffsets(partitions));
+            List<CustomerInteraction> interactions = new ArrayList<>();
+            for (ConsumerRecord<K, V> consumerRecord : records) {
+                TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+                Long applied = offsets.get(partition);
+                if (applied != null && consumerRecord.offset() < applied) {
+                    // redelivered after a failed batch, already applied
+                    continue;
+                }
+                CustomerInteraction interaction = consumerRecord.value() == null ? null
+                    : toInteraction.apply(consumerRecord.value(), Instant.ofEpochMilli(consumerRecord.timestamp()));
+                if (isValid(interaction)) {
+                    interactions.add(interaction);
+                }
+                offsets.put(partition, consumerRecord.offset() + 1);
+            }
+            Set<String> customers = apply(interactions);
+            customerProfileRepository.saveOffsets(offsets);
+            return customers;
+        });
+        customerRecommendationService.evict(updatedCustomers);
+    }
+
+    private Set<String> apply(List<CustomerInteraction> interactions) {
+        if (interactions.isEmpty()) {
+            return Set.of();
+        }
+        Map<Long, float[]> embeddings = jdbcVectorService.findEmbeddings(ProductDocument.class,
+            interactions.stream().map(CustomerInteraction::productId).collect(Collectors.toSet()));
+        List<CustomerInteraction> embedded = interactions.stream()
+            .filter(interaction -> embeddings.containsKey(interaction.productId()))
+            .toList();
+        if (embedded.isEmpty()) {
+            return Set.of();
+        }
+        Map<String, CustomerProfile> profiles = customerProfileRepository.lockProfiles(
+            embedded.stream().map(CustomerInteraction::customerId).collect(Collectors.toSet()));
+        for (CustomerInteraction interaction : embedded) {
+            profiles.compute(interaction.customerId(), (customerId, profile) ->
+                (profile != null ? profile : CustomerProfile.empty(customerId)).add(
+                    embeddings.get(interaction.productId()),
+                    config.weightOf(interaction.type()),
+                    interaction.occurredAt(),
+                    config.halfLife()));
+        }
+        customerProfileRepository.saveProfiles(profiles.values());
+        log.debug("Averaged {} interactions into {} customer profiles", embedded.size(), profiles.size());
+        return profiles.keySet();
+    }
+
+    private static boolean isValid(CustomerInteraction interaction) {
+        return interaction != null
+            && interaction.customerId() != null
+            && !interaction.customerId().isBlank()
+            && interaction.productId() != null;
+    }
+}
@@ -0,0 +1,100 @@
+package com.yas.recommendation.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.CustomerProfileConfig;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recommends products nearest to the preference vector of a customer. The vector is stored, so a request is a
+ * k-NN query without an embedding call; the results are cached per customer for a short time and dropped as
+ * soon as the vector changes.
+ */
+@Service
+public class CustomerRecommendationService {
+
+    private final CustomerProfileRepository customerProfileRepository;
+    private final JdbcVectorService jdbcVectorService;
+    private final ObjectMapper objectMapper;
+    private final CustomerProfileConfig config;
+    private final Clock clock;
+    private final Map<String, Entry> entries;
+    // customer id -> token of the latest read computing its recommendations; removed by an eviction, so that a
+    // read racing with a vector update does not cache recommendations from the old vector
+    private final Map<String, Object> pendingReads = new HashMap<>();
+
+    @Autowired
+    public CustomerRecommendationService(
+        CustomerProfileRepository customerProfileRepository,
+        JdbcVectorService jdbcVectorService,
+        ObjectMapper objectMapper,
+        CustomerProfileConfig config
+    ) {
+        this(customerProfileRepository, jdbcVectorService, objectMapper, config, Clock.systemUTC());
+    }
+
+    CustomerRecommendationService(
+        CustomerProfileRepository customerProfileRepository,
+        JdbcVectorService jdbcVectorService,
+        ObjectMapper objectMapper,
+        CustomerProfileConfig config,
+        Clock clock
+    ) {
+        this.customerProfileRepository = customerProfileRepository;
+        this.jdbcVectorService = jdbcVectorService;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > config.maxCachedCustomers();
+            }
+        };
+    }
+
+    /**
+     * Products nearest to the preference vector of the customer, empty until they interacted with a product.
+     */
+    public List<RelatedProductVm> recommend(String customerId) {
+        Instant now = clock.instant();
+        Object readToken = new Object();
+        synchronized (this) {
+            Entry entry = entries.get(customerId);
+            if (entry != null && now.isBefore(entry.expiresAt())) {
+                return entry.products();
+            }
+            pendingReads.put(customerId, readToken);
+        }
+        List<RelatedProductVm> products = customerProfileRepository.findEmbedding(customerId)
+            .map(embedding -> jdbcVectorService.similarityToEmbedding(embedding).stream()
+                .map(document -> objectMapper.convertValue(document.getMetadata(), RelatedProductVm.class))
+                .toList())
+            .orElse(List.of());
+        synchronized (this) {
+            if (pendingReads.remove(customerId, readToken) && config.recommendationTtl().isPositive()) {
+                entries.put(customerId, new Entry(products, now.plus(config.recommendationTtl())));
+            }
+        }
+        return products;
+    }
+
+    public synchronized void evict(Collection<String> customerIds) {
+        customerIds.forEach(customerId -> {
+            entries.remove(customerId);
+            pendingReads.remove(customerId);
+        });
+    }
+
+    private record Entry(List<RelatedProductVm> products, Instant expiresAt) {
+    }
+}
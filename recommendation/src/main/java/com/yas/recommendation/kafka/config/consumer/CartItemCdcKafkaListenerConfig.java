@@ -0,0 +1,40 @@
+package com.yas.recommendation.kafka.config.consumer;
+
+import com.yas.commonlibrary.kafka.cdc.config.BaseKafkaListenerConfig;
+import com.yas.recommendation.kafka.message.CartItemCdcMessage;
+import com.yas.recommendation.kafka.message.CartItemMsgKey;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+
+/**
+ * Cart item CDC kafka listener, support convert cart item cdc message to java object.
+ */
+@EnableKafka
+@Configuration
+public class CartItemCdcKafkaListenerConfig extends BaseKafkaListenerConfig<CartItemMsgKey, CartItemCdcMessage> {
+
+    public static final String CART_ITEM_CDC_LISTENER_CONTAINER_FACTORY = "cartItemCdcListenerContainerFactory";
+
+    public static final String CART_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY =
+        "cartItemCdcBatchListenerContainerFactory";
+
+    public CartItemCdcKafkaListenerConfig(KafkaProperties kafkaProperties) {
+        super(CartItemMsgKey.class, CartItemCdcMessage.class, kafkaProperties);
+    }
+
+    @Bean(name = CART_ITEM_CDC_LISTENER_CONTAINER_FACTORY)
+    @Override
+    public ConcurrentKafkaListenerContainerFactory<CartItemMsgKey, CartItemCdcMessage> listenerContainerFactory() {
+        return super.kafkaListenerContainerFactory();
+    }
+
+    @Bean(name = CART_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<CartItemMsgKey, CartItemCdcMessage>
+        batchListenerContainerFactory() {
+        return super.batchKafkaListenerContainerFactory();
+    }
+
+}
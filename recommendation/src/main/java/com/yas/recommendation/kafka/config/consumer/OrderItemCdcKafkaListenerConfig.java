@@ -0,0 +1,40 @@
+package com.yas.recommendation.kafka.config.consumer;
+
+import com.yas.commonlibrary.kafka.cdc.config.BaseKafkaListenerConfig;
+import com.yas.recommendation.kafka.message.OrderItemCdcMessage;
+import com.yas.recommendation.kafka.message.OrderItemMsgKey;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+
+/**
+ * Order item CDC kafka listener, support convert order item cdc message to java object.
+ */
+@EnableKafka
+@Configuration
+public class OrderItemCdcKafkaListenerConfig extends BaseKafkaListenerConfig<OrderItemMsgKey, OrderItemCdcMessage> {
+
+    public static final String ORDER_ITEM_CDC_LISTENER_CONTAINER_FACTORY = "orderItemCdcListenerContainerFactory";
+
+    public static final String ORDER_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY =
+        "orderItemCdcBatchListenerContainerFactory";
+
+    public OrderItemCdcKafkaListenerConfig(KafkaProperties kafkaProperties) {
+        super(OrderItemMsgKey.class, OrderItemCdcMessage.class, kafkaProperties);
+    }
+
+    @Bean(name = ORDER_ITEM_CDC_LISTENER_CONTAINER_FACTORY)
+    @Override
+    public ConcurrentKafkaListenerContainerFactory<OrderItemMsgKey, OrderItemCdcMessage> listenerContainerFactory() {
+        return super.kafkaListenerContainerFactory();
+    }
+
+    @Bean(name = ORDER_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<OrderItemMsgKey, OrderItemCdcMessage>
+        batchListenerContainerFactory() {
+        return super.batchKafkaListenerContainerFactory();
+    }
+
+}
@@ -0,0 +1,80 @@
+package com.yas.recommendation.kafka.consumer;
+
+import static com.yas.recommendation.kafka.config.consumer.CartItemCdcKafkaListenerConfig.CART_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY;
+import static com.yas.recommendation.kafka.config.consumer.OrderItemCdcKafkaListenerConfig.ORDER_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY;
+
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
+import com.yas.recommendation.constant.InteractionType;
+import com.yas.recommendation.customer.CustomerInteraction;
+import com.yas.recommendation.customer.CustomerProfileService;
+import com.yas.recommendation.kafka.message.CartItem;
+import com.yas.recommendation.kafka.message.CartItemCdcMessage;
+import com.yas.recommendation.kafka.message.CartItemMsgKey;
+import com.yas.recommendation.kafka.message.OrderItem;
+import com.yas.recommendation.kafka.message.OrderItemCdcMessage;
+import com.yas.recommendation.kafka.message.OrderItemMsgKey;
+import java.time.Instant;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cart and order item CDC consumer feeding the customer preference vectors. Only created rows are interactions,
+ * snapshot reads included; changed quantities and removals are not.
+ */
+@Slf4j
+@Component
+public class CustomerProfileConsumer {
+
+    private final CustomerProfileService customerProfileService;
+
+    public CustomerProfileConsumer(CustomerProfileService customerProfileService) {
+        this.customerProfileService = customerProfileService;
+    }
+
+    @KafkaListener(
+        id = "cart-item-customer-profile-recommendation",
+        groupId = "customer-profile",
+        topics = "${cart-item.topic.name}",
+        containerFactory = CART_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY
+    )
+    public void processCartItems(List<ConsumerRecord<CartItemMsgKey, CartItemCdcMessage>> records) {
+        log.debug("## Received batch of {} cart item records", records.size());
+        customerProfileService.record(records, CustomerProfileConsumer::toInteraction);
+    }
+
+    @KafkaListener(
+        id = "order-item-customer-profile-recommendation",
+        groupId = "customer-profile",
+        topics = "${order-item.topic.name}",
+        containerFactory = ORDER_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY
+    )
+    public void processOrderItems(List<ConsumerRecord<OrderItemMsgKey, OrderItemCdcMessage>> records) {
+        log.debug("## Received batch of {} order item records for customer profiles", records.size());
+        customerProfileService.record(records, CustomerProfileConsumer::toInteraction);
+    }
+
+    static CustomerInteraction toInteraction(CartItemCdcMessage message, Instant occurredAt) {
+        CartItem cartItem = message.getAfter();
+        if (!isCreated(message.getOp()) || cartItem == null) {
+            return null;
+        }
+        return new CustomerInteraction(cartItem.getCustomerId(), cartItem.getProductId(), InteractionType.CARTED,
+            occurredAt);
+    }
+
+    static CustomerInteraction toInteraction(OrderItemCdcMessage message, Instant occurredAt) {
+        OrderItem orderItem = message.getAfter();
+        if (!isCreated(message.getOp()) || orderItem == null) {
+            return null;
+        }
+        return new CustomerInteraction(orderItem.getCreatedBy(), orderItem.getProductId(), InteractionType.PURCHASED,
+            occurredAt);
+    }
+
+    private static boolean isCreated(Operation operation) {
+        return operation == Operation.CREATE || operation == Operation.READ;
+    }
+}
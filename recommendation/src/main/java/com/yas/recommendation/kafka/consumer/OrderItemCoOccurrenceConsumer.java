@@ -0,0 +1,151 @@
+package com.yas.recommendation.kafka.consumer;
+
+import static com.yas.recommendation.kafka.config.consumer.OrderItemCdcKafkaListenerConfig.ORDER_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY;
+
+import com.yas.recommendation.cooccurrence.CoOccurrenceService;
+import com.yas.recommendation.kafka.message.OrderItemCdcMessage;
+import com.yas.recommendation.kafka.message.OrderItemMsgKey;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Order item CDC consumer feeding the co-purchase matrix.
+ *
+ * <p>Every instance reads all partitions with a manually assigned consumer instead of sharing a consumer group,
+ * so that its matrix counts the items of an order even when they are spread over partitions owned by different
+ * instances. Partitions start from the offsets already applied to the matrix, see {@link CoOccurrenceService}.
+ */
+@Slf4j
+@Component
+public class OrderItemCoOccurrenceConsumer implements SmartLifecycle {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration RESTART_DELAY = Duration.ofSeconds(5);
+
+    private final CoOccurrenceService coOccurrenceService;
+    private final ConsumerFactory<OrderItemMsgKey, OrderItemCdcMessage> consumerFactory;
+    private final String topic;
+    private volatile Consumer<OrderItemMsgKey, OrderItemCdcMessage> consumer;
+    private volatile boolean running;
+
+    @SuppressWarnings("unchecked")
+    public OrderItemCoOccurrenceConsumer(
+        CoOccurrenceService coOccurrenceService,
+        @Qualifier(ORDER_ITEM_CDC_BATCH_LISTENER_CONTAINER_FACTORY)
+        ConcurrentKafkaListenerContainerFactory<OrderItemMsgKey, OrderItemCdcMessage> containerFactory,
+        @Value("${order-item.topic.name}") String topic
+    ) {
+        this.coOccurrenceService = coOccurrenceService;
+        this.consumerFactory =
+            (ConsumerFactory<OrderItemMsgKey, OrderItemCdcMessage>) containerFactory.getConsumerFactory();
+        this.topic = topic;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.ofVirtual().name("order-item-co-occurrence").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Consumer<OrderItemMsgKey, OrderItemCdcMessage> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            Consumer<OrderItemMsgKey, OrderItemCdcMessage> current = createConsumer();
+            consumer = current;
+            try (current) {
+                tail(current);
+            } catch (WakeupException e) {
+                log.debug("Order item co-occurrence consumer stopped");
+            } catch (Exception e) {
+                log.error("Order item co-occurrence consumer failed, restarting in {}", RESTART_DELAY, e);
+                sleep(RESTART_DELAY);
+            } finally {
+                consumer = null;
+            }
+        }
+    }
+
+    private void tail(Consumer<OrderItemMsgKey, OrderItemCdcMessage> consumer) {
+        List<PartitionInfo> infos = consumer.partitionsFor(topic);
+        if (infos == null || infos.isEmpty()) {
+            log.warn("Topic {} does not exist yet, retrying in {}", topic, RESTART_DELAY);
+            sleep(RESTART_DELAY);
+            return;
+        }
+        List<TopicPartition> partitions = infos.stream()
+            .map(info -> new TopicPartition(info.topic(), info.partition()))
+            .toList();
+        consumer.assign(partitions);
+        consumer.seekToBeginning(partitions);
+        Map<TopicPartition, Long> appliedOffsets = coOccurrenceService.getAppliedOffsets();
+        partitions.forEach(partition -> {
+            Long offset = appliedOffsets.get(partition);
+            if (offset != null) {
+                consumer.seek(partition, offset);
+            }
+        });
+
+        while (running) {
+            ConsumerRecords<OrderItemMsgKey, OrderItemCdcMessage> records = consumer.poll(POLL_TIMEOUT);
+            if (!records.isEmpty()) {
+                log.debug("## Received batch of {} order item records", records.count());
+                coOccurrenceService.record(toList(records));
+            }
+        }
+    }
+
+    private Consumer<OrderItemMsgKey, OrderItemCdcMessage> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // assigned partitions never join or commit to this group
+        return consumerFactory.createConsumer("order-item-co-occurrence-" + UUID.randomUUID(), null, null,
+            overrides);
+    }
+
+    private static List<ConsumerRecord<OrderItemMsgKey, OrderItemCdcMessage>> toList(
+        ConsumerRecords<OrderItemMsgKey, OrderItemCdcMessage> records) {
+        List<ConsumerRecord<OrderItemMsgKey, OrderItemCdcMessage>> list = new ArrayList<>(records.count());
+        records.forEach(list::add);
+        return list;
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
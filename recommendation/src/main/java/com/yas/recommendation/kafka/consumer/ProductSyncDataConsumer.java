@@ -1,22 +1,21 @@
 package com.yas.recommendation.kafka.consumer;
 
-import static com.yas.recommendation.kafka.config.consumer.ProductCdcKafkaListenerConfig.PRODUCT_CDC_LISTENER_CONTAINER_FACTORY;
+import static com.yas.recommendation.kafka.config.consumer.ProductCdcKafkaListenerConfig.PRODUCT_CDC_BATCH_LISTENER_CONTAINER_FACTORY;
 
 import com.yas.commonlibrary.kafka.cdc.BaseCdcConsumer;
-import com.yas.commonlibrary.kafka.cdc.RetrySupportDql;
 import com.yas.commonlibrary.kafka.cdc.message.ProductCdcMessage;
 import com.yas.commonlibrary.kafka.cdc.message.ProductMsgKey;
-import jakarta.validation.Valid;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.MessageHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Headers;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
 import org.springframework.stereotype.Component;
 
 /**
- * Product synchronize data consumer for pgvector.
+ * Product synchronize data consumer for pgvector. Consumes a poll at a time so that the products of a batch
+ * are embedded together, see {@link ProductSyncService#syncAll(List)}. A record that cannot be processed is
+ * reported by its index, so the container retries and finally dead-letters that record only.
  */
 @Component
 public class ProductSyncDataConsumer extends BaseCdcConsumer<ProductMsgKey, ProductCdcMessage> {
@@ -31,14 +30,25 @@ public class ProductSyncDataConsumer extends BaseCdcConsumer<ProductMsgKey, Prod
         id = "product-sync-recommendation",
         groupId = "product-sync",
         topics = "${product.topic.name}",
-        containerFactory = PRODUCT_CDC_LISTENER_CONTAINER_FACTORY
+        containerFactory = PRODUCT_CDC_BATCH_LISTENER_CONTAINER_FACTORY
     )
-    @RetrySupportDql(listenerContainerFactory = PRODUCT_CDC_LISTENER_CONTAINER_FACTORY)
-    public void processMessage(
-        @Header(KafkaHeaders.RECEIVED_KEY) ProductMsgKey key,
-        @Payload(required = false) @Valid ProductCdcMessage productCdcMessage,
-        @Headers MessageHeaders headers
-    ) {
-        processMessage(key, productCdcMessage, headers, productSyncService::sync);
+    public void processMessages(List<ConsumerRecord<ProductMsgKey, ProductCdcMessage>> records) {
+        LOGGER.debug("## Received batch of {} records", records.size());
+        int deserialized = 0;
+        DeserializationException deserializationException = null;
+        for (; deserialized < records.size(); deserialized++) {
+            try {
+                checkDeserialized(records.get(deserialized));
+            } catch (DeserializationException e) {
+                deserializationException = e;
+                break;
+            }
+        }
+        // the records before the undeserializable one are committed with it, so they are synchronized first
+        productSyncService.syncAll(records.subList(0, deserialized));
+        if (deserializationException != null) {
+            throw new BatchListenerFailedException(deserializationException.getMessage(), deserializationException,
+                deserialized);
+        }
     }
 }
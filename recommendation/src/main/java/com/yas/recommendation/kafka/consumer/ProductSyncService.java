@@ -5,7 +5,15 @@ import static com.yas.commonlibrary.kafka.cdc.message.Operation.DELETE;
 import com.yas.commonlibrary.kafka.cdc.message.ProductCdcMessage;
 import com.yas.commonlibrary.kafka.cdc.message.ProductMsgKey;
 import com.yas.recommendation.vector.product.service.ProductVectorSyncService;
+import com.yas.recommendation.vector.common.store.VectorUpsertException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
 /**
@@ -42,4 +50,58 @@ public class ProductSyncService {
         }
     }
 
+    /**
+     * Synchronize a polled batch of Product CDC messages. Only the last event per product is applied, and the
+     * resulting upserts and deletes are each written in one pass so that products are embedded in batches.
+     *
+     * @param records the polled CDC records, in offset order.
+     * @throws BatchListenerFailedException when some products could not be fetched, after the others were
+     *     synchronized. It points at the earliest record that has to be delivered again, so the container commits
+     *     the records before it and retries, then dead-letters, only that record onwards.
+     */
+    public void syncAll(List<ConsumerRecord<ProductMsgKey, ProductCdcMessage>> records) {
+        Map<Long, ProductCdcMessage> latestByProduct = new LinkedHashMap<>();
+        Map<Long, Integer> latestIndexByProduct = new HashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<ProductMsgKey, ProductCdcMessage> consumerRecord = records.get(i);
+            Long productId = consumerRecord.key().getId();
+            latestByProduct.remove(productId);
+            latestByProduct.put(productId, consumerRecord.value());
+            latestIndexByProduct.put(productId, i);
+        }
+
+        List<Long> upsertIds = new ArrayList<>();
+        List<Long> deleteIds = new ArrayList<>();
+        latestByProduct.forEach((productId, productCdcMessage) -> {
+            boolean isHardDeleteEvent = productCdcMessage == null || DELETE.equals(productCdcMessage.getOp());
+            if (isHardDeleteEvent) {
+                log.warn("Having hard delete event for product: '{}'", productId);
+                deleteIds.add(productId);
+            } else if (productCdcMessage.getAfter() != null) {
+                var operation = productCdcMessage.getOp();
+                boolean isPublished = productCdcMessage.getAfter().isPublished();
+                switch (operation) {
+                    case CREATE, READ -> {
+                        if (isPublished) {
+                            upsertIds.add(productId);
+                        }
+                    }
+                    case UPDATE -> (isPublished ? upsertIds : deleteIds).add(productId);
+                    default -> log.warn("Unsupported operation '{}' for product: '{}'", operation, productId);
+                }
+            }
+        });
+        if (!deleteIds.isEmpty()) {
+            productVectorSyncService.deleteProductVectors(deleteIds);
+        }
+        if (!upsertIds.isEmpty()) {
+            try {
+                productVectorSyncService.upsertProductVectors(upsertIds);
+            } catch (VectorUpsertException e) {
+                int failedIndex = e.getFailedIds().stream().mapToInt(latestIndexByProduct::get).min().orElseThrow();
+                throw new BatchListenerFailedException(e.getMessage(), e, failedIndex);
+            }
+        }
+    }
+
 }
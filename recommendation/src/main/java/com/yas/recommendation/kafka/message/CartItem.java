@@ -0,0 +1,27 @@
+package com.yas.recommendation.kafka.message;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of the cart_item table as published by Debezium, only the columns used for recommendations.
+ */
+@lombok.Getter
+@lombok.Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CartItem {
+
+    @JsonProperty("customer_id")
+    private String customerId;
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    private Integer quantity;
+}
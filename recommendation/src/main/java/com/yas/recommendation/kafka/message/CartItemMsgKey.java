@@ -0,0 +1,21 @@
+package com.yas.recommendation.kafka.message;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+@lombok.Getter
+@lombok.Setter
+@lombok.EqualsAndHashCode
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartItemMsgKey {
+
+    @JsonProperty("customer_id")
+    private String customerId;
+
+    @JsonProperty("product_id")
+    private Long productId;
+}
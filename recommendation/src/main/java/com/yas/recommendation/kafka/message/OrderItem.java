@@ -0,0 +1,31 @@
+package com.yas.recommendation.kafka.message;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of the order_item table as published by Debezium, only the columns used for recommendations.
+ */
+@lombok.Getter
+@lombok.Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OrderItem {
+
+    private Long id;
+
+    @JsonProperty("order_id")
+    private Long orderId;
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    /* Id of the customer who placed the order */
+    @JsonProperty("created_by")
+    private String createdBy;
+}
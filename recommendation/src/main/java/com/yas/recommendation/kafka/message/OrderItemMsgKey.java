@@ -0,0 +1,15 @@
+package com.yas.recommendation.kafka.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+@lombok.Getter
+@lombok.Setter
+@lombok.EqualsAndHashCode
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemMsgKey {
+    private Long id;
+}
@@ -3,6 +3,7 @@ package com.yas.recommendation.service;
 import com.yas.recommendation.configuration.RecommendationConfig;
 import com.yas.recommendation.viewmodel.ProductDetailVm;
 import java.net.URI;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
@@ -38,4 +39,28 @@ public class ProductService {
                 })
                 .getBody();
     }
+
+    /**
+     * Retrieves a page of published product ids greater than {@code afterId}, in ascending order.
+     *
+     * @param afterId  the last product id already read, {@code 0} for the first page
+     * @param pageSize the maximum number of ids to return
+     * @return the product ids, empty once every published product was read
+     */
+    public List<Long> getPublishedProductIds(long afterId, int pageSize) {
+        final URI url = UriComponentsBuilder
+                .fromHttpUrl(config.getApiUrl())
+                .path("/storefront/products/published-ids")
+                .queryParam("afterId", afterId)
+                .queryParam("pageSize", pageSize)
+                .buildAndExpand()
+                .toUri();
+
+        return restClient.get()
+                .uri(url)
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<List<Long>>() {
+                })
+                .getBody();
+    }
 }
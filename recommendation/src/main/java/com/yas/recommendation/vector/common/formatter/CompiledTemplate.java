@@ -0,0 +1,132 @@
+package com.yas.recommendation.vector.common.formatter;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.util.StringUtils;
+
+/**
+ * A content template parsed once into literal and field segments, which formats entities of one type by reading
+ * their fields directly, without converting the entity to a map and substituting variables on every call.
+ *
+ * <p>Placeholders are field names in braces, e.g. {@code {name}}, resolved against the record components or
+ * getters of the entity type. The output matches the map based
+ * {@link DocumentFormatter#format(Map, String, com.fasterxml.jackson.databind.ObjectMapper)}, so that stored
+ * content hashes stay valid: values are written with {@code toString()} unless a field formatter is given, a
+ * placeholder whose field is unknown or {@code null} is written as is, and HTML tags are stripped from the
+ * result.
+ *
+ * @param <E> type of the formatted entity
+ */
+public final class CompiledTemplate<E> {
+
+    private static final char PLACEHOLDER_START = '{';
+    private static final char PLACEHOLDER_END = '}';
+
+    private final List<Segment> segments;
+    private final int literalLength;
+
+    private CompiledTemplate(List<Segment> segments) {
+        this.segments = List.copyOf(segments);
+        this.literalLength = segments.stream()
+            .mapToInt(segment -> segment instanceof Literal literal ? literal.text().length() : 16)
+            .sum();
+    }
+
+    /**
+     * Parses the template for the given entity type.
+     *
+     * @param template        the content template
+     * @param entityType      type of the formatted entities
+     * @param fieldFormatters formatters of field values by field name, for fields that are not written with
+     *                        {@code toString()}; they also receive {@code null} values
+     */
+    public static <E> CompiledTemplate<E> compile(
+        String template,
+        Class<E> entityType,
+        Map<String, Function<Object, String>> fieldFormatters
+    ) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int position = 0;
+        while (position < template.length()) {
+            int start = template.indexOf(PLACEHOLDER_START, position);
+            int end = start < 0 ? -1 : template.indexOf(PLACEHOLDER_END, start + 1);
+            if (end < 0) {
+                literal.append(template, position, template.length());
+                break;
+            }
+            literal.append(template, position, start);
+            String fieldName = template.substring(start + 1, end);
+            Optional<Method> accessor = findAccessor(entityType, fieldName);
+            if (accessor.isPresent()) {
+                if (!literal.isEmpty()) {
+                    segments.add(new Literal(literal.toString()));
+                    literal.setLength(0);
+                }
+                segments.add(new Field(fieldName, accessor.get(), fieldFormatters.get(fieldName)));
+            } else {
+                literal.append(template, start, end + 1);
+            }
+            position = end + 1;
+        }
+        if (!literal.isEmpty()) {
+            segments.add(new Literal(literal.toString()));
+        }
+        return new CompiledTemplate<>(segments);
+    }
+
+    public String format(E entity) {
+        HtmlTagStripper out = new HtmlTagStripper(literalLength);
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Literal literal -> out.append(literal.text());
+                case Field field -> out.append(field.format(entity));
+            }
+        }
+        return out.toString();
+    }
+
+    private static Optional<Method> findAccessor(Class<?> entityType, String fieldName) {
+        if (entityType.isRecord()) {
+            return Arrays.stream(entityType.getRecordComponents())
+                .filter(component -> component.getName().equals(fieldName))
+                .map(RecordComponent::getAccessor)
+                .findFirst();
+        }
+        String capitalized = StringUtils.capitalize(fieldName);
+        return Arrays.stream(entityType.getMethods())
+            .filter(method -> method.getParameterCount() == 0)
+            .filter(method -> method.getName().equals("get" + capitalized)
+                || method.getName().equals("is" + capitalized))
+            .findFirst();
+    }
+
+    private sealed interface Segment permits Literal, Field {
+    }
+
+    private record Literal(String text) implements Segment {
+    }
+
+    private record Field(String name, Method accessor, Function<Object, String> formatter) implements Segment {
+
+        String format(Object entity) {
+            Object value;
+            try {
+                value = accessor.invoke(entity);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot read field '%s'".formatted(name), e);
+            }
+            if (formatter != null) {
+                return formatter.apply(value);
+            }
+            // A missing value is left unresolved, as the map based substitution does
+            return value == null ? PLACEHOLDER_START + name + PLACEHOLDER_END : value.toString();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.yas.recommendation.vector.common.formatter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 
 public interface DocumentFormatter {
@@ -10,6 +11,21 @@ public interface DocumentFormatter {
 
     String format(Map<String, Object> entityMap, final String template, ObjectMapper objectMapper);
 
+    /**
+     * Parses the template once for entities of the given type, see {@link CompiledTemplate}. The result is the
+     * same as {@link #format(Map, String, ObjectMapper)} on the entity converted to a map.
+     */
+    default <E> CompiledTemplate<E> compile(String template, Class<E> entityType) {
+        return CompiledTemplate.compile(template, entityType, fieldFormatters());
+    }
+
+    /**
+     * Formatters of the fields that a compiled template does not write with {@code toString()}, by field name.
+     */
+    default Map<String, Function<Object, String>> fieldFormatters() {
+        return Map.of();
+    }
+
     default String removeHtmlTags(String input) {
         if (input == null || input.isEmpty()) {
             return input;
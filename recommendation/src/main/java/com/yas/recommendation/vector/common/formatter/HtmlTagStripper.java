@@ -0,0 +1,44 @@
+package com.yas.recommendation.vector.common.formatter;
+
+/**
+ * Appends text while dropping HTML tags, with the same result as removing every match of
+ * {@link DocumentFormatter#HTML_TAG_PATTERN} from the whole text afterwards, but in a single pass and without
+ * building the unstripped text first.
+ *
+ * <p>Text from a {@code <} is kept until a {@code >} closes it, and then truncated. A {@code <} that is never
+ * closed stays in the output, as it does not match the pattern either.
+ */
+final class HtmlTagStripper {
+
+    private final StringBuilder out;
+    private int tagStart = -1;
+
+    HtmlTagStripper(int capacity) {
+        this.out = new StringBuilder(capacity);
+    }
+
+    HtmlTagStripper append(CharSequence text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (tagStart >= 0) {
+                if (c == '>') {
+                    out.setLength(tagStart);
+                    tagStart = -1;
+                    continue;
+                }
+            } else if (c == '<') {
+                tagStart = out.length();
+            }
+            out.append(c);
+        }
+        return this;
+    }
+
+    /**
+     * Returns the stripped text, trimmed.
+     */
+    @Override
+    public String toString() {
+        return out.toString().trim();
+    }
+}
@@ -0,0 +1,431 @@
+package com.yas.recommendation.vector.common.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory HNSW (hierarchical navigable small world) graph over {@link QuantizedVectors}, for approximate
+ * nearest neighbour search by cosine distance.
+ *
+ * <p>Each node is linked to up to {@code m} neighbours per layer, {@code 2 * m} on the bottom layer, chosen
+ * with the neighbour selection heuristic of the HNSW paper. Searches start from the single node of the top
+ * layer and descend greedily, then explore {@code ef} candidates on the bottom layer.
+ *
+ * <p>Replacing or removing a key only marks its node deleted: deleted nodes are still traversed, so the graph
+ * stays connected, but never returned. They are reclaimed when the index is rebuilt, see {@link #deletedRatio()}.
+ * Putting a vector that quantises to the codes already stored for the key keeps the existing node.
+ *
+ * <p>Searches run concurrently with each other; writes are serialised and exclude searches.
+ */
+public final class HnswIndex {
+
+    private final QuantizedVectors vectors;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+    private final Map<Long, Integer> nodesByKey = new HashMap<>();
+    private long[] keys = new long[1024];
+    // links[node][layer] holds the neighbour count followed by the neighbours
+    private int[][][] links = new int[1024][][];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int size;
+    private int entryPoint = -1;
+    private int topLayer = -1;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param dimensions     number of dimensions of the indexed vectors
+     * @param m              number of neighbours per node and layer; higher improves recall and costs memory
+     * @param efConstruction number of candidates explored when linking a new node
+     */
+    public HnswIndex(int dimensions, int m, int efConstruction) {
+        this(dimensions, m, efConstruction, new SplittableRandom());
+    }
+
+    HnswIndex(int dimensions, int m, int efConstruction, SplittableRandom random) {
+        if (m < 2) {
+            throw new IllegalArgumentException("m must be at least 2");
+        }
+        this.vectors = new QuantizedVectors(dimensions);
+        this.m = m;
+        this.efConstruction = Math.max(m, efConstruction);
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = random;
+    }
+
+    public int dimensions() {
+        return vectors.dimensions();
+    }
+
+    /**
+     * Number of keys that can be found.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(long key) {
+        lock.readLock().lock();
+        try {
+            return nodesByKey.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Share of the nodes that are deleted but still held, between 0 and 1.
+     */
+    public double deletedRatio() {
+        lock.readLock().lock();
+        try {
+            return size == 0 ? 0 : (double) deletedCount / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Off-heap bytes used by the quantised vectors.
+     */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return vectors.offHeapBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a vector, replacing the previous vector of the key.
+     *
+     * @return {@code false} when the key already held the same quantised vector and nothing was added
+     */
+    public boolean put(long key, float[] vector) {
+        byte[] codes = vectors.quantise(vector);
+        float inverseNorm = QuantizedVectors.inverseNorm(codes);
+        lock.writeLock().lock();
+        try {
+            Integer previous = nodesByKey.get(key);
+            if (previous != null) {
+                if (Arrays.equals(vectors.get(previous), codes)) {
+                    return false;
+                }
+                markDeleted(previous);
+            }
+            int node = size;
+            int layer = randomLayer();
+            ensureCapacity(node + 1);
+            vectors.set(node, codes);
+            keys[node] = key;
+            links[node] = new int[layer + 1][];
+            for (int l = 0; l <= layer; l++) {
+                links[node][l] = new int[maxLinks(l) + 1];
+            }
+            size++;
+            nodesByKey.put(key, node);
+            link(node, codes, inverseNorm, layer);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodesByKey.remove(key);
+            if (node != null) {
+                markDeleted(node);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Nearest neighbours of a vector, closest first.
+     *
+     * @param ef number of candidates explored on the bottom layer, raised to {@code k} when lower
+     */
+    public List<Neighbour> search(float[] vector, int k, int ef) {
+        byte[] codes = vectors.quantise(vector);
+        lock.readLock().lock();
+        try {
+            return search(codes, QuantizedVectors.inverseNorm(codes), k, ef, -1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nearest neighbours of the vector stored for a key, without the key itself, closest first; empty when the
+     * key is not indexed.
+     */
+    public List<Neighbour> searchByKey(long key, int k, int ef) {
+        lock.readLock().lock();
+        try {
+            Integer node = nodesByKey.get(key);
+            if (node == null) {
+                return List.of();
+            }
+            byte[] codes = vectors.get(node);
+            return search(codes, QuantizedVectors.inverseNorm(codes), k, ef, node);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Neighbour> search(byte[] codes, float inverseNorm, int k, int ef, int excludedNode) {
+        if (entryPoint < 0 || k <= 0) {
+            return List.of();
+        }
+        int current = greedyDescent(codes, inverseNorm, topLayer, 1);
+        // one more candidate, the excluded node is usually the closest one
+        PriorityQueue<Neighbour> found = searchLayer(codes, inverseNorm, current, Math.max(ef, k + 1), 0);
+        List<Neighbour> nearest = new ArrayList<>(found.size());
+        while (!found.isEmpty()) {
+            Neighbour candidate = found.poll();
+            if (candidate.node != excludedNode && !deleted.get(candidate.node)) {
+                nearest.add(candidate);
+            }
+        }
+        nearest.sort(Comparator.comparingDouble(Neighbour::distance));
+        return nearest.size() > k ? List.copyOf(nearest.subList(0, k)) : nearest;
+    }
+
+    private void link(int node, byte[] codes, float inverseNorm, int layer) {
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLayer = layer;
+            return;
+        }
+        int current = greedyDescent(codes, inverseNorm, topLayer, layer + 1);
+        for (int l = Math.min(layer, topLayer); l >= 0; l--) {
+            PriorityQueue<Neighbour> candidates = searchLayer(codes, inverseNorm, current, efConstruction, l);
+            List<Neighbour> sorted = drainSorted(candidates);
+            List<Neighbour> selected = selectNeighbours(sorted, m);
+            for (Neighbour neighbour : selected) {
+                addLink(node, neighbour.node, l);
+                addReverseLink(neighbour.node, node, l);
+            }
+            if (!sorted.isEmpty()) {
+                current = sorted.getFirst().node;
+            }
+        }
+        if (layer > topLayer) {
+            entryPoint = node;
+            topLayer = layer;
+        }
+    }
+
+    /**
+     * Walks down from the top layer to {@code lowestLayer}, moving to the closest neighbour while it improves.
+     */
+    private int greedyDescent(byte[] codes, float inverseNorm, int fromLayer, int lowestLayer) {
+        int current = entryPoint;
+        float currentDistance = vectors.distance(codes, inverseNorm, current);
+        for (int l = fromLayer; l >= lowestLayer; l--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                int[] neighbours = links[current][l];
+                for (int i = 1; i <= neighbours[0]; i++) {
+                    float distance = vectors.distance(codes, inverseNorm, neighbours[i]);
+                    if (distance < currentDistance) {
+                        current = neighbours[i];
+                        currentDistance = distance;
+                        improved = true;
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer.
+     *
+     * @return up to {@code ef} closest nodes found, farthest first
+     */
+    private PriorityQueue<Neighbour> searchLayer(byte[] codes, float inverseNorm, int entry, int ef, int layer) {
+        Visited seen = visited.get();
+        seen.reset(size);
+        PriorityQueue<Neighbour> candidates = new PriorityQueue<>(Comparator.comparingDouble(Neighbour::distance));
+        PriorityQueue<Neighbour> found = new PriorityQueue<>(
+            Comparator.comparingDouble(Neighbour::distance).reversed());
+        Neighbour start = new Neighbour(entry, keys[entry], vectors.distance(codes, inverseNorm, entry));
+        seen.add(entry);
+        candidates.add(start);
+        found.add(start);
+        while (!candidates.isEmpty()) {
+            Neighbour closest = candidates.poll();
+            if (found.size() >= ef && closest.distance > found.peek().distance) {
+                break;
+            }
+            int[] neighbours = links[closest.node][layer];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (!seen.add(neighbour)) {
+                    continue;
+                }
+                float distance = vectors.distance(codes, inverseNorm, neighbour);
+                if (found.size() < ef || distance < found.peek().distance) {
+                    Neighbour candidate = new Neighbour(neighbour, keys[neighbour], distance);
+                    candidates.add(candidate);
+                    found.add(candidate);
+                    if (found.size() > ef) {
+                        found.poll();
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Keeps a candidate only when it is closer to the new node than to every neighbour kept so far, which
+     * spreads the links in different directions. Skipped candidates fill the remaining links.
+     */
+    private List<Neighbour> selectNeighbours(List<Neighbour> sortedCandidates, int count) {
+        List<Neighbour> selected = new ArrayList<>(count);
+        List<Neighbour> skipped = new ArrayList<>();
+        for (Neighbour candidate : sortedCandidates) {
+            if (selected.size() >= count) {
+                break;
+            }
+            byte[] candidateCodes = vectors.get(candidate.node);
+            float candidateInverseNorm = QuantizedVectors.inverseNorm(candidateCodes);
+            boolean diverse = true;
+            for (Neighbour kept : selected) {
+                if (vectors.distance(candidateCodes, candidateInverseNorm, kept.node) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : skipped).add(candidate);
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < count; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    private void addLink(int node, int neighbour, int layer) {
+        int[] nodeLinks = links[node][layer];
+        nodeLinks[++nodeLinks[0]] = neighbour;
+    }
+
+    private void addReverseLink(int node, int newNeighbour, int layer) {
+        int[] nodeLinks = links[node][layer];
+        if (nodeLinks[0] < nodeLinks.length - 1) {
+            nodeLinks[++nodeLinks[0]] = newNeighbour;
+            return;
+        }
+        // full: select again among the current links and the new one
+        byte[] codes = vectors.get(node);
+        float inverseNorm = QuantizedVectors.inverseNorm(codes);
+        List<Neighbour> candidates = new ArrayList<>(nodeLinks[0] + 1);
+        for (int i = 1; i <= nodeLinks[0]; i++) {
+            candidates.add(new Neighbour(nodeLinks[i], keys[nodeLinks[i]],
+                vectors.distance(codes, inverseNorm, nodeLinks[i])));
+        }
+        candidates.add(new Neighbour(newNeighbour, keys[newNeighbour],
+            vectors.distance(codes, inverseNorm, newNeighbour)));
+        candidates.sort(Comparator.comparingDouble(Neighbour::distance));
+        List<Neighbour> selected = selectNeighbours(candidates, nodeLinks.length - 1);
+        nodeLinks[0] = selected.size();
+        for (int i = 0; i < selected.size(); i++) {
+            nodeLinks[i + 1] = selected.get(i).node;
+        }
+    }
+
+    private void markDeleted(int node) {
+        if (!deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    private static List<Neighbour> drainSorted(PriorityQueue<Neighbour> farthestFirst) {
+        Neighbour[] sorted = new Neighbour[farthestFirst.size()];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            sorted[i] = farthestFirst.poll();
+        }
+        return Arrays.asList(sorted);
+    }
+
+    private int randomLayer() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private int maxLinks(int layer) {
+        return layer == 0 ? 2 * m : m;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int newCapacity = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, newCapacity);
+            links = Arrays.copyOf(links, newCapacity);
+        }
+    }
+
+    /**
+     * A search result.
+     *
+     * @param node     position of the vector in the index
+     * @param key      key the vector was added with
+     * @param distance approximate cosine distance to the searched vector
+     */
+    public record Neighbour(int node, long key, float distance) {
+    }
+
+    /**
+     * Nodes visited by one search, reset in constant time by bumping the generation.
+     */
+    private static final class Visited {
+        private int[] generations = new int[0];
+        private int generation;
+
+        void reset(int capacity) {
+            if (generations.length < capacity) {
+                generations = new int[Math.max(capacity, generations.length * 2)];
+                generation = 0;
+            }
+            if (++generation == Integer.MAX_VALUE) {
+                Arrays.fill(generations, 0);
+                generation = 1;
+            }
+        }
+
+        boolean add(int node) {
+            if (generations[node] == generation) {
+                return false;
+            }
+            generations[node] = generation;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.yas.recommendation.vector.common.index;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Off-heap store of int8 scalar-quantised vectors, addressed by node number.
+ *
+ * <p>Each vector is scaled so that its largest component maps to 127 and rounded, i.e. one byte per dimension
+ * instead of four. Cosine distance does not depend on the scale, so only the codes and the inverse of their
+ * norm are kept, the latter on heap. Codes live in direct buffers of about 64 MB, allocated as the index grows,
+ * outside of the Java heap and its garbage collection.
+ *
+ * <p>Not thread-safe for writes; reads may run concurrently with each other.
+ */
+final class QuantizedVectors {
+
+    private static final int CHUNK_BYTES = 64 << 20;
+
+    private final int dimensions;
+    private final int vectorsPerChunk;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private float[] inverseNorms = new float[1024];
+
+    QuantizedVectors(int dimensions) {
+        this.dimensions = dimensions;
+        this.vectorsPerChunk = Math.max(1, CHUNK_BYTES / dimensions);
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Quantises a vector, e.g. a query, to codes comparable with the stored ones.
+     */
+    byte[] quantise(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException(
+                "Expected %d dimensions but got %d".formatted(dimensions, vector.length));
+        }
+        float maxAbs = 0;
+        for (float component : vector) {
+            maxAbs = Math.max(maxAbs, Math.abs(component));
+        }
+        byte[] codes = new byte[dimensions];
+        if (maxAbs > 0) {
+            float scale = 127 / maxAbs;
+            for (int i = 0; i < dimensions; i++) {
+                codes[i] = (byte) Math.round(vector[i] * scale);
+            }
+        }
+        return codes;
+    }
+
+    static float inverseNorm(byte[] codes) {
+        long sumOfSquares = 0;
+        for (byte code : codes) {
+            sumOfSquares += code * code;
+        }
+        return sumOfSquares == 0 ? 0 : (float) (1 / Math.sqrt(sumOfSquares));
+    }
+
+    void set(int node, byte[] codes) {
+        int chunk = node / vectorsPerChunk;
+        while (chunks.size() <= chunk) {
+            chunks.add(ByteBuffer.allocateDirect(vectorsPerChunk * dimensions));
+        }
+        if (node >= inverseNorms.length) {
+            inverseNorms = Arrays.copyOf(inverseNorms, Math.max(node + 1, inverseNorms.length * 2));
+        }
+        chunks.get(chunk).put((node % vectorsPerChunk) * dimensions, codes);
+        inverseNorms[node] = inverseNorm(codes);
+    }
+
+    byte[] get(int node) {
+        byte[] codes = new byte[dimensions];
+        chunks.get(node / vectorsPerChunk).get((node % vectorsPerChunk) * dimensions, codes);
+        return codes;
+    }
+
+    /**
+     * Cosine distance between quantised codes and a stored vector; 1 when either is the zero vector.
+     */
+    float distance(byte[] codes, float codesInverseNorm, int node) {
+        ByteBuffer chunk = chunks.get(node / vectorsPerChunk);
+        int offset = (node % vectorsPerChunk) * dimensions;
+        int dot = 0;
+        for (int i = 0; i < dimensions; i++) {
+            dot += codes[i] * chunk.get(offset + i);
+        }
+        return 1 - dot * codesInverseNorm * inverseNorms[node];
+    }
+
+    /**
+     * Off-heap bytes used by the codes.
+     */
+    long offHeapBytes() {
+        return (long) chunks.size() * vectorsPerChunk * dimensions;
+    }
+}
@@ -9,12 +9,13 @@ import org.springframework.ai.document.Document;
 import org.springframework.jdbc.core.RowMapper;
 
 /**
- * Document Row Mapper.
+ * Document Row Mapper, for queries that select the distance to the searched document as {@value #SIMILARITY}.
  */
 class DocumentRowMapper implements RowMapper<Document> {
     public static final String ID = "id";
     public static final String CONTENT = "content";
     public static final String METADATA = "metadata";
+    public static final String SIMILARITY = "similarity";
     private final ObjectMapper objectMapper;
 
     public DocumentRowMapper(ObjectMapper objectMapper) {
@@ -27,6 +28,8 @@ class DocumentRowMapper implements RowMapper<Document> {
         String id = rs.getString(ID);
         String content = rs.getString(CONTENT);
         Map<String, Object> metadata = objectMapper.readValue(rs.getObject(METADATA).toString(), Map.class);
+        // the cosine distance to the searched document, named similarity in the queries
+        metadata.put(JdbcVectorService.DISTANCE_METADATA, rs.getDouble(SIMILARITY));
         return new Document(id, content, metadata);
     }
 }
@@ -1,50 +1,296 @@
 package com.yas.recommendation.vector.common.query;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pgvector.PGvector;
 import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
 import com.yas.recommendation.vector.common.document.BaseDocument;
 import com.yas.recommendation.vector.common.document.DocumentMetadata;
+import com.yas.recommendation.vector.common.store.SimpleVectorRepository;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import lombok.SneakyThrows;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.PgVectorFilterExpressionConverter;
+import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.PreparedStatementSetter;
 import org.springframework.jdbc.core.StatementCreatorUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Jdbc Vector service support native query vector search for document.
  */
 @Service
-class JdbcVectorService {
+public class JdbcVectorService {
 
     public static final String DEFAULT_DOCID_PREFIX = "PRODUCT";
 
-    @Value("${spring.ai.vectorstore.pgvector.table-name:vector_store}")
-    private String vectorTableName;
+    /* Metadata of the returned documents holding their cosine distance to the searched document */
+    public static final String DISTANCE_METADATA = "distance";
+
+    /* Upper bound accepted by pgvector for hnsw.ef_search */
+    static final int MAX_EF_SEARCH = 1000;
+
+    /* Growth of the candidate limit when the filtered candidates are fewer than topK */
+    static final int CANDIDATE_GROWTH_FACTOR = 4;
+
+    private static final int VECTOR_FETCH_SIZE = 1000;
+
+    private final String vectorTableName;
 
     /* Using JdbcTemplate to keep consistency with Spring AI implementation, instead of using JPA, JdbcClient */
     private final JdbcTemplate jdbcClient;
+    private final TransactionTemplate transactionTemplate;
     private final DocumentRowMapper documentRowMapper;
+    private final ObjectMapper objectMapper;
     private final EmbeddingSearchConfiguration embeddingSearchConfiguration;
+    private final PgVectorFilterExpressionConverter filterExpressionConverter = new PgVectorFilterExpressionConverter();
 
     public JdbcVectorService(
             JdbcTemplate jdbcClient,
+            PlatformTransactionManager transactionManager,
             ObjectMapper objectMapper,
-            EmbeddingSearchConfiguration embeddingSearchConfiguration
+            EmbeddingSearchConfiguration embeddingSearchConfiguration,
+            @Value("${spring.ai.vectorstore.pgvector.table-name:vector_store}") String vectorTableName
     ) {
         this.jdbcClient = jdbcClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
         this.documentRowMapper = new DocumentRowMapper(objectMapper);
+        this.objectMapper = objectMapper;
         this.embeddingSearchConfiguration = embeddingSearchConfiguration;
+        this.vectorTableName = vectorTableName;
     }
 
     public <D extends BaseDocument> List<Document> similarityProduct(Long id, Class<D> docType) {
+        return similarityProduct(id, docType, null);
+    }
+
+    /**
+     * Finds the nearest neighbours of the stored document.
+     *
+     * @param efSearch size of the HNSW candidate list for this request, {@code null} to use the configured one
+     */
+    public <D extends BaseDocument> List<Document> similarityProduct(Long id, Class<D> docType, Integer efSearch) {
+        return similarityProduct(id, docType, efSearch, null);
+    }
+
+    /**
+     * Finds the nearest neighbours of the stored document whose metadata matches the filter.
+     *
+     * <p>The filter is applied to the candidates read from the index. When it leaves fewer than {@code topK}
+     * documents, the candidates are fetched again, {@value #CANDIDATE_GROWTH_FACTOR} times as many each round,
+     * up to {@value #MAX_EF_SEARCH}, the most an HNSW scan returns. Fewer than {@code topK} documents are only
+     * returned when a filter matches almost nothing close to the document.
+     *
+     * @param efSearch size of the HNSW candidate list for this request, {@code null} to use the configured one
+     * @param filter   metadata filter, e.g. built with
+     *                 {@link org.springframework.ai.vectorstore.filter.FilterExpressionBuilder}, or {@code null}
+     */
+    public <D extends BaseDocument> List<Document> similarityProduct(
+            Long id,
+            Class<D> docType,
+            Integer efSearch,
+            Filter.Expression filter
+    ) {
         String docIdPrefix = getDocIdPrefix(docType);
         UUID idStr = generateUuid(docIdPrefix, id);
+        int candidateLimit = getCandidateLimit();
+        int effectiveEfSearch = getEffectiveEfSearch(efSearch, candidateLimit);
+        String jsonPathFilter = filter != null ? filterExpressionConverter.convertExpression(filter) : null;
+        int topK = embeddingSearchConfiguration.topK();
+
+        return transactionTemplate.execute(status -> {
+            int limit = candidateLimit;
+            int limitEfSearch = effectiveEfSearch;
+            while (true) {
+                // SET does not take bind parameters; the value is a validated int
+                jdbcClient.execute("SET LOCAL hnsw.ef_search = %d".formatted(limitEfSearch));
+                List<Document> documents = jdbcClient.query(getFormattedQuery(jsonPathFilter != null),
+                    getPreparedStatementSetter(idStr, limit, jsonPathFilter), documentRowMapper);
+                if (documents.size() >= topK || limit >= MAX_EF_SEARCH) {
+                    return documents;
+                }
+                limit = Math.min(MAX_EF_SEARCH, limit * CANDIDATE_GROWTH_FACTOR);
+                limitEfSearch = Math.max(limitEfSearch, limit);
+            }
+        });
+    }
+
+    /**
+     * Reads the given documents with their distance to the stored document, for candidates that do not come
+     * from the index, e.g. co-purchased products.
+     *
+     * @param candidateIds entity ids of the documents to read; ids without a stored document are skipped
+     */
+    public <D extends BaseDocument> List<Document> distanceToProducts(
+            Long id,
+            Class<D> docType,
+            Collection<Long> candidateIds
+    ) {
+        if (candidateIds.isEmpty()) {
+            return List.of();
+        }
+        String docIdPrefix = getDocIdPrefix(docType);
+        Object[] candidateUuids = candidateIds.stream()
+                .map(candidateId -> generateUuid(docIdPrefix, candidateId))
+                .toArray();
+        return jdbcClient.query("""
+                WITH entity AS (
+                    SELECT embedding FROM %1$s WHERE id = ?
+                )
+                SELECT
+                    vs.id,
+                    vs.content,
+                    vs.metadata,
+                    vs.embedding <=> (SELECT embedding FROM entity) AS similarity
+                FROM
+                    %1$s vs
+                WHERE
+                    vs.id = ANY(?)
+                """.formatted(vectorTableName),
+                ps -> {
+                    StatementCreatorUtils.setParameterValue(ps, 1, Integer.MIN_VALUE, generateUuid(docIdPrefix, id));
+                    ps.setArray(2, ps.getConnection().createArrayOf("uuid", candidateUuids));
+                },
+                documentRowMapper);
+    }
+
+    /**
+     * Finds the stored documents nearest to an embedding computed elsewhere, e.g. a customer preference vector.
+     */
+    public List<Document> similarityToEmbedding(float[] embedding) {
+        int candidateLimit = getCandidateLimit();
+        int effectiveEfSearch = getEffectiveEfSearch(null, candidateLimit);
+        PGvector vector = new PGvector(embedding);
+
+        return transactionTemplate.execute(status -> {
+            jdbcClient.execute("SET LOCAL hnsw.ef_search = %d".formatted(effectiveEfSearch));
+            return jdbcClient.query("""
+                    WITH candidates AS (
+                        SELECT
+                            vs.id,
+                            vs.content,
+                            vs.metadata,
+                            vs.embedding <=> ? AS similarity
+                        FROM
+                            %s vs
+                        ORDER BY
+                            vs.embedding <=> ?
+                        LIMIT ?
+                    )
+                    SELECT
+                        id,
+                        content,
+                        metadata,
+                        similarity
+                    FROM
+                        candidates
+                    WHERE similarity > ?
+                    ORDER BY
+                        similarity
+                    LIMIT ?
+                    """.formatted(vectorTableName),
+                    ps -> {
+                        ps.setObject(1, vector);
+                        ps.setObject(2, vector);
+                        ps.setInt(3, candidateLimit);
+                        StatementCreatorUtils.setParameterValue(ps, 4, Integer.MIN_VALUE,
+                                embeddingSearchConfiguration.similarityThreshold());
+                        ps.setInt(5, embeddingSearchConfiguration.topK());
+                    },
+                    documentRowMapper);
+        });
+    }
+
+    /**
+     * Reads the stored embeddings of the given entities.
+     *
+     * @return embeddings by entity id; entities without a stored document are missing
+     */
+    public <D extends BaseDocument> Map<Long, float[]> findEmbeddings(Class<D> docType, Collection<Long> ids) {
+        Map<Long, float[]> embeddings = new HashMap<>();
+        if (ids.isEmpty()) {
+            return embeddings;
+        }
+        String docIdPrefix = getDocIdPrefix(docType);
+        Map<String, Long> idsByUuid = new HashMap<>();
+        ids.forEach(id -> idsByUuid.put(generateUuid(docIdPrefix, id).toString(), id));
+        jdbcClient.query("SELECT id, embedding FROM %s WHERE id = ANY(?)".formatted(vectorTableName),
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid",
+                        idsByUuid.keySet().stream().map(UUID::fromString).toArray())),
+                rs -> {
+                    embeddings.put(idsByUuid.get(rs.getString("id")),
+                            new PGvector(rs.getString("embedding")).toArray());
+                });
+        return embeddings;
+    }
+
+    /**
+     * Streams every stored document of the type with its embedding.
+     */
+    public <D extends BaseDocument> void forEachVector(Class<D> docType, Consumer<StoredVector> action) {
+        transactionTemplate.executeWithoutResult(status -> jdbcClient.query(
+                con -> {
+                    // the PostgreSQL driver only streams with a fetch size inside a transaction
+                    var ps = con.prepareStatement("SELECT metadata, embedding FROM %s WHERE metadata->>'%s' = ?"
+                            .formatted(vectorTableName, SimpleVectorRepository.TYPE_METADATA));
+                    ps.setFetchSize(VECTOR_FETCH_SIZE);
+                    ps.setString(1, getDocIdPrefix(docType));
+                    return ps;
+                },
+                rs -> {
+                    action.accept(toStoredVector(rs.getString("metadata"), rs.getString("embedding")));
+                }));
+    }
+
+    /**
+     * Reads the stored documents of the given entities with their embeddings; entities without a stored
+     * document are skipped.
+     */
+    public <D extends BaseDocument> List<StoredVector> findVectors(Class<D> docType, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String docIdPrefix = getDocIdPrefix(docType);
+        Object[] uuids = ids.stream().map(id -> generateUuid(docIdPrefix, id)).toArray();
+        return jdbcClient.query("SELECT metadata, embedding FROM %s WHERE id = ANY(?)".formatted(vectorTableName),
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", uuids)),
+                (rs, rowNum) -> toStoredVector(rs.getString("metadata"), rs.getString("embedding")));
+    }
 
-        return jdbcClient.query(getFormattedQuery(), getPreparedStatementSetter(idStr), documentRowMapper);
+    @SneakyThrows
+    private StoredVector toStoredVector(String metadataJson, String embedding) {
+        Map<String, Object> metadata = objectMapper.readValue(metadataJson, new TypeReference<>() {});
+        Long entityId = ((Number) metadata.get(SimpleVectorRepository.FIELD_ID)).longValue();
+        return new StoredVector(entityId, metadata, new PGvector(embedding).toArray());
+    }
+
+    /**
+     * Number of nearest neighbours read from the index: the self match plus {@code topK} over-fetched by the
+     * configured factor, so that the threshold applied afterwards still leaves {@code topK} rows.
+     */
+    int getCandidateLimit() {
+        int topK = embeddingSearchConfiguration.topK();
+        int overFetchFactor = Math.max(1, embeddingSearchConfiguration.overFetchFactor());
+        return Math.min(MAX_EF_SEARCH, topK * overFetchFactor + 1);
+    }
+
+    /**
+     * An HNSW scan returns at most {@code ef_search} rows, so it is never set below the candidate limit.
+     */
+    int getEffectiveEfSearch(Integer requestedEfSearch, int candidateLimit) {
+        int efSearch = requestedEfSearch != null ? requestedEfSearch : embeddingSearchConfiguration.efSearch();
+        return Math.min(MAX_EF_SEARCH, Math.max(efSearch, candidateLimit));
     }
 
     private String getDocIdPrefix(Class<?> docType) {
@@ -58,44 +304,68 @@ class JdbcVectorService {
         return UUID.nameUUIDFromBytes("%s-%s".formatted(docIdPrefix, id).getBytes());
     }
 
-    private PreparedStatementSetter getPreparedStatementSetter(UUID idStr) {
+    private PreparedStatementSetter getPreparedStatementSetter(UUID idStr, int candidateLimit, String jsonPathFilter) {
         return ps -> {
-            StatementCreatorUtils.setParameterValue(ps, 1, Integer.MIN_VALUE, idStr);
-            StatementCreatorUtils.setParameterValue(ps, 2, Integer.MIN_VALUE, idStr);
-            StatementCreatorUtils.setParameterValue(ps, 3, Integer.MIN_VALUE,
+            int index = 1;
+            StatementCreatorUtils.setParameterValue(ps, index++, Integer.MIN_VALUE, idStr);
+            StatementCreatorUtils.setParameterValue(ps, index++, Integer.MIN_VALUE, candidateLimit);
+            StatementCreatorUtils.setParameterValue(ps, index++, Integer.MIN_VALUE, idStr);
+            StatementCreatorUtils.setParameterValue(ps, index++, Integer.MIN_VALUE,
                     embeddingSearchConfiguration.similarityThreshold());
-            StatementCreatorUtils.setParameterValue(ps, 4, Integer.MIN_VALUE,
+            if (jsonPathFilter != null) {
+                StatementCreatorUtils.setParameterValue(ps, index++, Integer.MIN_VALUE, jsonPathFilter);
+            }
+            StatementCreatorUtils.setParameterValue(ps, index, Integer.MIN_VALUE,
                     embeddingSearchConfiguration.topK());
         };
     }
 
-    private String getFormattedQuery() {
+    /**
+     * The candidates are a pure k-NN scan, {@code ORDER BY embedding <=> constant LIMIT n}, which is the only
+     * shape the HNSW index can serve. The searched document and the distance threshold are filtered out of
+     * the candidates afterwards; filtering inside the scan would force a sequential scan over all vectors.
+     */
+    String getFormattedQuery() {
+        return getFormattedQuery(false);
+    }
+
+    /**
+     * The metadata filter is the JSON path of {@link PgVectorFilterExpressionConverter}, as the vector store uses
+     * it, but bound as a parameter.
+     */
+    String getFormattedQuery(boolean filtered) {
         return """
                 WITH entity AS (
                     SELECT
-                        id,
-                        content,
-                        metadata,
                         embedding
                     FROM
-                        %s
+                        %1$s
                     WHERE
                         id = ?
+                ),
+                candidates AS (
+                    SELECT
+                        vs.id,
+                        vs.content,
+                        vs.metadata,
+                        vs.embedding <=> (SELECT embedding FROM entity) AS similarity
+                    FROM
+                        %1$s vs
+                    ORDER BY
+                        vs.embedding <=> (SELECT embedding FROM entity)
+                    LIMIT ?
                 )
                 SELECT
-                    vs.id,
-                    vs.content,
-                    vs.metadata,
-                    (vs.embedding <=> entity.embedding) AS similarity
+                    id,
+                    content,
+                    metadata,
+                    similarity
                 FROM
-                    vector_store vs
-                JOIN
-                    entity ON true
-                WHERE vs.id <> ? AND (vs.embedding <=> entity.embedding) > ?
+                    candidates
+                WHERE id <> ? AND similarity > ?%2$s
                 ORDER BY
                     similarity
                 LIMIT ?
-                """.formatted(vectorTableName);
+                """.formatted(vectorTableName, filtered ? " AND metadata::jsonb @@ ?::jsonpath" : "");
     }
 }
-
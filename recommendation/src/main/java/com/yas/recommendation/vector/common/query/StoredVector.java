@@ -0,0 +1,11 @@
+package com.yas.recommendation.vector.common.query;
+
+import java.util.Map;
+
+/**
+ * A row of the vector table with its embedding, for consumers that keep their own copy of the vectors.
+ *
+ * @param entityId id of the entity the document was built from
+ */
+public record StoredVector(Long entityId, Map<String, Object> metadata, float[] embedding) {
+}
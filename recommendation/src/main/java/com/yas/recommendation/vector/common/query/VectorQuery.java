@@ -7,6 +7,7 @@ import java.util.List;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -47,7 +48,33 @@ public abstract class VectorQuery<D extends BaseDocument, P> {
      *      result will not include specified product.
      */
     public List<P> similaritySearch(Long id) {
-        return toResult(jdbcVectorService.similarityProduct(id, this.getDocType()));
+        return similaritySearch(id, null);
+    }
+
+    /**
+     * Performs a similarity search based on a product ID stored in db, with a request specific HNSW
+     * candidate list size. Larger values trade latency for recall.
+     *
+     * @param id       the ID of the product for which to perform the similarity search.
+     * @param efSearch the {@code hnsw.ef_search} to use, or {@code null} for the configured default.
+     * @return a list of product results that are similar to the specified product in db,
+     *      result will not include specified product.
+     */
+    public List<P> similaritySearch(Long id, Integer efSearch) {
+        return toResult(jdbcVectorService.similarityProduct(id, this.getDocType(), efSearch));
+    }
+
+    /**
+     * Performs a similarity search restricted to documents whose metadata matches the filter. Candidates are
+     * over-fetched until {@code topK} of them match, see {@link JdbcVectorService}.
+     *
+     * @param id       the ID of the product for which to perform the similarity search.
+     * @param efSearch the {@code hnsw.ef_search} to use, or {@code null} for the configured default.
+     * @param filter   the metadata filter, or {@code null} for none.
+     * @return a list of matching product results that are similar to the specified product in db.
+     */
+    public List<P> similaritySearch(Long id, Integer efSearch, Filter.Expression filter) {
+        return toResult(jdbcVectorService.similarityProduct(id, this.getDocType(), efSearch, filter));
     }
 
     /**
@@ -0,0 +1,46 @@
+package com.yas.recommendation.vector.common.store;
+
+import com.yas.recommendation.constant.BackfillStatus;
+import java.time.Instant;
+
+/**
+ * Progress of a backfill job, saved after each page so that an interrupted job resumes after the last entity it
+ * wrote.
+ *
+ * @param jobName   name of the backfill job
+ * @param lastId    id of the last entity written, entities are read in ascending id order
+ * @param processed number of entities read so far
+ * @param embedded  number of entities that were embedded
+ * @param failed    number of entities that could not be fetched or formatted and were skipped
+ * @param status    state of the job
+ * @param reembed   whether unchanged entities are embedded again
+ * @param startedAt when the job was started from the first entity
+ * @param updatedAt when the checkpoint was last saved
+ */
+public record BackfillCheckpoint(
+    String jobName,
+    long lastId,
+    long processed,
+    long embedded,
+    long failed,
+    BackfillStatus status,
+    boolean reembed,
+    Instant startedAt,
+    Instant updatedAt
+) {
+
+    public static BackfillCheckpoint start(String jobName, boolean reembed) {
+        Instant now = Instant.now();
+        return new BackfillCheckpoint(jobName, 0, 0, 0, 0, BackfillStatus.RUNNING, reembed, now, now);
+    }
+
+    public BackfillCheckpoint advance(long lastId, long processed, long embedded, long failed) {
+        return new BackfillCheckpoint(jobName, lastId, this.processed + processed, this.embedded + embedded,
+            this.failed + failed, status, reembed, startedAt, Instant.now());
+    }
+
+    public BackfillCheckpoint withStatus(BackfillStatus status) {
+        return new BackfillCheckpoint(jobName, lastId, processed, embedded, failed, status, reembed, startedAt,
+            Instant.now());
+    }
+}
@@ -0,0 +1,79 @@
+package com.yas.recommendation.vector.common.store;
+
+import com.yas.recommendation.constant.BackfillStatus;
+import java.sql.Timestamp;
+import java.util.Optional;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Stores {@link BackfillCheckpoint} rows next to the vector table. The table is created on startup, the same way
+ * the vector store initializes its own schema.
+ */
+@Repository
+public class BackfillCheckpointRepository implements InitializingBean {
+
+    private static final RowMapper<BackfillCheckpoint> ROW_MAPPER = (rs, rowNum) -> new BackfillCheckpoint(
+        rs.getString("job_name"),
+        rs.getLong("last_id"),
+        rs.getLong("processed"),
+        rs.getLong("embedded"),
+        rs.getLong("failed"),
+        BackfillStatus.valueOf(rs.getString("status")),
+        rs.getBoolean("reembed"),
+        rs.getTimestamp("started_at").toInstant(),
+        rs.getTimestamp("updated_at").toInstant()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BackfillCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        jdbcTemplate.execute("""
+            CREATE TABLE IF NOT EXISTS vector_backfill_checkpoint (
+                job_name varchar(64) PRIMARY KEY,
+                last_id bigint NOT NULL,
+                processed bigint NOT NULL,
+                embedded bigint NOT NULL,
+                failed bigint NOT NULL,
+                status varchar(16) NOT NULL,
+                reembed boolean NOT NULL,
+                started_at timestamptz NOT NULL,
+                updated_at timestamptz NOT NULL
+            )""");
+    }
+
+    public Optional<BackfillCheckpoint> findByJobName(String jobName) {
+        return jdbcTemplate.query("SELECT * FROM vector_backfill_checkpoint WHERE job_name = ?", ROW_MAPPER, jobName)
+            .stream()
+            .findFirst();
+    }
+
+    public void save(BackfillCheckpoint checkpoint) {
+        jdbcTemplate.update("""
+            INSERT INTO vector_backfill_checkpoint
+                (job_name, last_id, processed, embedded, failed, status, reembed, started_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (job_name) DO UPDATE
+            SET last_id = EXCLUDED.last_id, processed = EXCLUDED.processed, embedded = EXCLUDED.embedded,
+                failed = EXCLUDED.failed, status = EXCLUDED.status, reembed = EXCLUDED.reembed,
+                started_at = EXCLUDED.started_at, updated_at = EXCLUDED.updated_at
+            """,
+            checkpoint.jobName(),
+            checkpoint.lastId(),
+            checkpoint.processed(),
+            checkpoint.embedded(),
+            checkpoint.failed(),
+            checkpoint.status().name(),
+            checkpoint.reembed(),
+            Timestamp.from(checkpoint.startedAt()),
+            Timestamp.from(checkpoint.updatedAt())
+        );
+    }
+}
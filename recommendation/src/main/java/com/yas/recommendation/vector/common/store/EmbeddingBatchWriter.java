@@ -0,0 +1,200 @@
+package com.yas.recommendation.vector.common.store;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pgvector.PGvector;
+import com.yas.recommendation.configuration.EmbeddingBatchConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes documents to the vector table with one embedding request per batch instead of one per document.
+ *
+ * <p>Only the document content is embedded, the metadata is stored alongside for filtering and display. Every
+ * document carries a SHA-256 of its content in its {@value #CONTENT_HASH_METADATA} metadata. When the stored
+ * hash matches, the embedding is still valid and only the metadata is refreshed, so a change of e.g. the price
+ * or stock alone does not cost an embedding request.
+ */
+@Slf4j
+@Component
+public class EmbeddingBatchWriter {
+
+    public static final String CONTENT_HASH_METADATA = "contentHash";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EmbeddingModel embeddingModel;
+    private final ObjectMapper objectMapper;
+    private final EmbeddingBatchConfig embeddingBatchConfig;
+    private final String vectorTableName;
+
+    public EmbeddingBatchWriter(
+        JdbcTemplate jdbcTemplate,
+        EmbeddingModel embeddingModel,
+        ObjectMapper objectMapper,
+        EmbeddingBatchConfig embeddingBatchConfig,
+        @Value("${spring.ai.vectorstore.pgvector.table-name:vector_store}") String vectorTableName
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.embeddingModel = embeddingModel;
+        this.objectMapper = objectMapper;
+        this.embeddingBatchConfig = embeddingBatchConfig;
+        this.vectorTableName = vectorTableName;
+    }
+
+    /**
+     * Inserts or replaces the documents, embedding only those whose content changed.
+     *
+     * @return the ids of the documents that were embedded
+     */
+    public Set<String> upsert(List<Document> documents) {
+        return upsert(documents, false);
+    }
+
+    /**
+     * Inserts or replaces the documents.
+     *
+     * @param reembed whether unchanged documents are embedded too, e.g. after the embedding model changed
+     * @return the ids of the documents that were embedded
+     */
+    public Set<String> upsert(List<Document> documents, boolean reembed) {
+        if (documents.isEmpty()) {
+            return Set.of();
+        }
+        Map<String, String> storedHashes = reembed
+            ? Map.of()
+            : findContentHashes(documents.stream().map(Document::getId).toList());
+        List<Document> changed = new ArrayList<>();
+        List<String> changedContents = new ArrayList<>();
+        List<Document> unchanged = new ArrayList<>();
+        for (Document document : documents) {
+            String content = embeddingContent(document);
+            String contentHash = sha256(content);
+            document.getMetadata().put(CONTENT_HASH_METADATA, contentHash);
+            if (contentHash.equals(storedHashes.get(document.getId()))) {
+                unchanged.add(document);
+            } else {
+                changed.add(document);
+                changedContents.add(content);
+            }
+        }
+
+        int batchSize = Math.max(1, embeddingBatchConfig.size());
+        for (int from = 0; from < changed.size(); from += batchSize) {
+            int to = Math.min(changed.size(), from + batchSize);
+            List<float[]> embeddings = embeddingModel.embed(changedContents.subList(from, to));
+            insert(changed.subList(from, to), embeddings);
+        }
+        updateMetadata(unchanged);
+        log.debug("Upserted {} documents, {} embedded, {} unchanged", documents.size(), changed.size(),
+            unchanged.size());
+        return changed.stream().map(Document::getId).collect(Collectors.toSet());
+    }
+
+    public void delete(Collection<String> documentIds) {
+        if (documentIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM %s WHERE id = ANY(?)".formatted(vectorTableName),
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", toUuids(documentIds))));
+    }
+
+    /**
+     * SHA-256 of the text handed to the embedding model.
+     */
+    public static String contentHash(Document document) {
+        return sha256(embeddingContent(document));
+    }
+
+    @SneakyThrows(NoSuchAlgorithmException.class)
+    private static String sha256(String content) {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest);
+    }
+
+    private static String embeddingContent(Document document) {
+        return document.getContent();
+    }
+
+    private Map<String, String> findContentHashes(List<String> documentIds) {
+        Map<String, String> contentHashes = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT id, metadata->>'%s' AS content_hash FROM %s WHERE id = ANY(?)"
+                .formatted(CONTENT_HASH_METADATA, vectorTableName),
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", toUuids(documentIds))),
+            rs -> {
+                contentHashes.put(rs.getString("id"), rs.getString("content_hash"));
+            }
+        );
+        return contentHashes;
+    }
+
+    private void insert(List<Document> documents, List<float[]> embeddings) {
+        Object[] ids = new Object[documents.size()];
+        Object[] contents = new Object[documents.size()];
+        Object[] metadata = new Object[documents.size()];
+        Object[] vectors = new Object[documents.size()];
+        for (int i = 0; i < documents.size(); i++) {
+            Document document = documents.get(i);
+            ids[i] = UUID.fromString(document.getId());
+            contents[i] = document.getContent();
+            metadata[i] = toJson(document.getMetadata());
+            vectors[i] = new PGvector(embeddings.get(i)).toString();
+        }
+        // one row per array element, so the whole batch is one statement and one round trip
+        jdbcTemplate.update("""
+                INSERT INTO %s (id, content, metadata, embedding)
+                SELECT n.id, n.content, n.metadata::json, n.embedding::vector
+                FROM unnest(?::uuid[], ?::text[], ?::text[], ?::text[]) AS n(id, content, metadata, embedding)
+                ON CONFLICT (id) DO UPDATE
+                SET content = EXCLUDED.content, metadata = EXCLUDED.metadata, embedding = EXCLUDED.embedding
+                """.formatted(vectorTableName),
+            ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids));
+                ps.setArray(2, ps.getConnection().createArrayOf("text", contents));
+                ps.setArray(3, ps.getConnection().createArrayOf("text", metadata));
+                ps.setArray(4, ps.getConnection().createArrayOf("text", vectors));
+            });
+    }
+
+    private void updateMetadata(List<Document> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+        Object[] ids = documents.stream().map(document -> UUID.fromString(document.getId())).toArray();
+        Object[] metadata = documents.stream().map(document -> toJson(document.getMetadata())).toArray();
+        jdbcTemplate.update("""
+                UPDATE %s t SET metadata = n.metadata::json
+                FROM unnest(?::uuid[], ?::text[]) AS n(id, metadata)
+                WHERE t.id = n.id
+                """.formatted(vectorTableName),
+            ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids));
+                ps.setArray(2, ps.getConnection().createArrayOf("text", metadata));
+            });
+    }
+
+    @SneakyThrows
+    private String toJson(Map<String, Object> metadata) {
+        return objectMapper.writeValueAsString(metadata);
+    }
+
+    private static Object[] toUuids(Collection<String> documentIds) {
+        return documentIds.stream().map(UUID::fromString).toArray();
+    }
+}
@@ -1,23 +1,34 @@
 package com.yas.recommendation.vector.common.store;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
 import com.yas.recommendation.vector.common.document.BaseDocument;
 import com.yas.recommendation.vector.common.document.DefaultIdGenerator;
 import com.yas.recommendation.vector.common.document.DocumentMetadata;
+import com.yas.recommendation.vector.common.formatter.CompiledTemplate;
 import com.yas.recommendation.vector.common.formatter.DocumentFormatter;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import lombok.SneakyThrows;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.document.id.IdGenerator;
-import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.ai.vectorstore.filter.Filter;
-import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.ai.vectorstore.filter.FilterExpressionTextParser;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
 /**
  * Abstract class for managing vector store operations for documents.
@@ -32,12 +43,13 @@ public abstract class SimpleVectorRepository<D extends BaseDocument, E> implemen
     public static final String TYPE_METADATA = "type";
 
     private ObjectMapper objectMapper;
-    private EmbeddingSearchConfiguration embeddingSearchConfiguration;
+    private JdbcVectorService jdbcVectorService;
+    private EmbeddingBatchWriter embeddingBatchWriter;
 
     private final Class<D> docType;
     private final VectorStore vectorStore;
     private final DocumentMetadata documentMetadata;
-    private final DocumentFormatter documentFormatter;
+    private final CompiledTemplate<E> contentTemplate;
 
     /**
      * Constructor for SimpleVectorRepository.
@@ -52,7 +64,9 @@ public abstract class SimpleVectorRepository<D extends BaseDocument, E> implemen
         this.docType = docType;
         this.vectorStore = vectorStore;
         this.documentMetadata = docType.getAnnotation(DocumentMetadata.class);
-        this.documentFormatter = documentMetadata.documentFormatter().getDeclaredConstructor().newInstance();
+        DocumentFormatter documentFormatter =
+                documentMetadata.documentFormatter().getDeclaredConstructor().newInstance();
+        this.contentTemplate = documentFormatter.compile(documentMetadata.contentFormat(), getEntityType());
     }
 
     /**
@@ -63,19 +77,77 @@ public abstract class SimpleVectorRepository<D extends BaseDocument, E> implemen
      *
      * @param entityId the ID of the entity to fetch and add to the vector database
      */
-    @lombok.SneakyThrows
     public void add(Long entityId) {
+        vectorStore.add(List.of(buildDocument(entityId)));
+    }
+
+    /**
+     * Adds or replaces the records of the given entities through the {@link EmbeddingBatchWriter}: entities are
+     * fetched concurrently, embedded in batches, and not embedded again when their content did not change.
+     *
+     * <p>An entity that cannot be fetched does not hold back the others: the remaining entities are written and
+     * the failures are reported afterwards.
+     *
+     * @param entityIds the IDs of the entities to fetch and upsert in the vector database
+     * @return the IDs of the entities whose content changed and was embedded
+     * @throws VectorUpsertException when some entities could not be fetched, after the others were written
+     */
+    public Set<Long> upsertAll(Collection<Long> entityIds) {
+        Map<Long, CompletableFuture<Document>> futures = new LinkedHashMap<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            entityIds.forEach(entityId -> futures.put(entityId,
+                CompletableFuture.supplyAsync(() -> buildDocument(entityId), executor)));
+        }
+        List<Document> documents = new ArrayList<>(futures.size());
+        Map<String, Long> entityIdsByDocumentId = new HashMap<>();
+        Map<Long, Throwable> failures = new LinkedHashMap<>();
+        futures.forEach((entityId, future) -> {
+            try {
+                Document document = future.join();
+                documents.add(document);
+                entityIdsByDocumentId.put(document.getId(), entityId);
+            } catch (CompletionException e) {
+                failures.put(entityId, e.getCause());
+            }
+        });
+        Set<Long> embedded = embeddingBatchWriter.upsert(documents).stream()
+            .map(entityIdsByDocumentId::get)
+            .collect(Collectors.toSet());
+        if (!failures.isEmpty()) {
+            throw new VectorUpsertException(failures, embedded);
+        }
+        return embedded;
+    }
+
+    /**
+     * Deletes the records of the given entities in one statement.
+     *
+     * @param entityIds the IDs of the entities to be deleted from the vector store
+     */
+    public void deleteAll(Collection<Long> entityIds) {
+        embeddingBatchWriter.delete(entityIds.stream().map(id -> getIdGenerator(id).generateId()).toList());
+    }
+
+    /**
+     * Fetches the entity and formats it as a document, without storing it.
+     *
+     * @param entityId the ID of the entity to fetch
+     * @return the document to store
+     */
+    @SneakyThrows
+    public Document buildDocument(Long entityId) {
         final var entity = getEntity(entityId);
-        final var entityContentMap = objectMapper.convertValue(entity, Map.class);
 
         D document = docType.getDeclaredConstructor().newInstance();
-        document.setContent(documentFormatter.format(entityContentMap, documentMetadata.contentFormat(), objectMapper));
+        document.setContent(contentTemplate.format(entity));
+
+        // The metadata is stored as JSON, so it still needs the map form of the entity
+        final var entityContentMap = objectMapper.convertValue(entity, Map.class);
 
         entityContentMap.put(TYPE_METADATA, documentMetadata.docIdPrefix());
         document.setMetadata(entityContentMap);
 
-        final IdGenerator idGenerator = getIdGenerator(entityId);
-        vectorStore.add(List.of(document.toDocument(idGenerator)));
+        return document.toDocument(getIdGenerator(entityId));
     }
 
     /**
@@ -109,28 +181,42 @@ public abstract class SimpleVectorRepository<D extends BaseDocument, E> implemen
      */
     @Override
     public List<D> search(Long id) {
-        final var entity = getEntity(id);
-        final var entityContentMap = objectMapper.convertValue(entity, Map.class);
-        final var content = documentFormatter.format(entityContentMap, documentMetadata.contentFormat(), objectMapper);
-        return vectorStore.similaritySearch(
-                        SearchRequest
-                                .query(content)
-                                .withTopK(embeddingSearchConfiguration.topK())
-                                .withFilterExpression(this.excludeSameEntityExpression(id))
-                                .withSimilarityThreshold(embeddingSearchConfiguration.similarityThreshold())
-                )
+        return search(id, (Filter.Expression) null);
+    }
+
+    /**
+     * Performs a similarity search based on the embedding already stored for the entity, so neither the entity
+     * nor an embedding of it is requested again.
+     *
+     * @param id     the ID of the entity for which to perform the similarity search.
+     * @param filter metadata filter the results must match, or {@code null}.
+     * @return a list of documents that are similar to the specified entity, not including it.
+     */
+    @Override
+    public List<D> search(Long id, Filter.Expression filter) {
+        return jdbcVectorService.similarityProduct(id, docType, null, filter)
                 .stream()
                 .map(this::toBaseDocument)
                 .toList();
     }
 
-    public IdGenerator getIdGenerator(Long entityId) {
-        return new DefaultIdGenerator(documentMetadata.docIdPrefix(), entityId);
+    /**
+     * Same as {@link #search(Long, Filter.Expression)} with a filter in the vector store's text syntax, e.g.
+     * {@code "brandName == 'Apple' && price < 1000"}.
+     */
+    public List<D> search(Long id, String filter) {
+        return search(id, StringUtils.hasText(filter) ? new FilterExpressionTextParser().parse(filter) : null);
     }
 
-    private Filter.Expression excludeSameEntityExpression(Long id) {
-        FilterExpressionBuilder b = new FilterExpressionBuilder();
-        return b.ne(FIELD_ID, id).build();
+    @SuppressWarnings("unchecked")
+    private Class<E> getEntityType() {
+        Class<?>[] typeArguments = GenericTypeResolver.resolveTypeArguments(getClass(), SimpleVectorRepository.class);
+        Assert.state(typeArguments != null && typeArguments[1] != null, "Entity type cannot be resolved");
+        return (Class<E>) typeArguments[1];
+    }
+
+    public IdGenerator getIdGenerator(Long entityId) {
+        return new DefaultIdGenerator(documentMetadata.docIdPrefix(), entityId);
     }
 
     @SneakyThrows
@@ -147,7 +233,12 @@ public abstract class SimpleVectorRepository<D extends BaseDocument, E> implemen
     }
 
     @Autowired
-    private void setEmbeddingSearchConfiguration(EmbeddingSearchConfiguration embeddingSearchConfiguration) {
-        this.embeddingSearchConfiguration = embeddingSearchConfiguration;
+    private void setEmbeddingBatchWriter(EmbeddingBatchWriter embeddingBatchWriter) {
+        this.embeddingBatchWriter = embeddingBatchWriter;
+    }
+
+    @Autowired
+    private void setJdbcVectorService(JdbcVectorService jdbcVectorService) {
+        this.jdbcVectorService = jdbcVectorService;
     }
 }
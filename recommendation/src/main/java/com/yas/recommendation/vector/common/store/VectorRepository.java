@@ -1,12 +1,17 @@
 package com.yas.recommendation.vector.common.store;
 
 import com.yas.recommendation.vector.common.document.BaseDocument;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import org.springframework.ai.vectorstore.filter.Filter;
 
 public interface VectorRepository<D extends BaseDocument, E> {
 
     List<D> search(Long id);
 
+    List<D> search(Long id, Filter.Expression filter);
+
     E getEntity(Long entityId);
 
     void add(Long entityId);
@@ -15,4 +20,8 @@ public interface VectorRepository<D extends BaseDocument, E> {
 
     void update(Long entityId);
 
+    Set<Long> upsertAll(Collection<Long> entityIds);
+
+    void deleteAll(Collection<Long> entityIds);
+
 }
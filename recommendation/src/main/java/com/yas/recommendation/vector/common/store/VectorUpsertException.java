@@ -0,0 +1,30 @@
+package com.yas.recommendation.vector.common.store;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Thrown by {@link SimpleVectorRepository#upsertAll} when some entities could not be fetched. The other entities
+ * of the call have been written, those in {@link #getEmbeddedIds()} with a new embedding.
+ */
+public class VectorUpsertException extends RuntimeException {
+
+    private final Set<Long> failedIds;
+    private final Set<Long> embeddedIds;
+
+    public VectorUpsertException(Map<Long, Throwable> failures, Set<Long> embeddedIds) {
+        super("%d entities could not be upserted: %s".formatted(failures.size(), failures.keySet()),
+            failures.values().iterator().next());
+        this.failedIds = Set.copyOf(failures.keySet());
+        this.embeddedIds = Set.copyOf(embeddedIds);
+        failures.values().stream().skip(1).forEach(this::addSuppressed);
+    }
+
+    public Set<Long> getFailedIds() {
+        return failedIds;
+    }
+
+    public Set<Long> getEmbeddedIds() {
+        return embeddedIds;
+    }
+}
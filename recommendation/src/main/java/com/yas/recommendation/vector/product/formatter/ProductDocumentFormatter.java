@@ -6,6 +6,7 @@ import com.yas.recommendation.viewmodel.CategoryVm;
 import com.yas.recommendation.viewmodel.ProductAttributeValueVm;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.text.StringSubstitutor;
 
@@ -14,14 +15,25 @@ import org.apache.commons.text.StringSubstitutor;
  */
 public class ProductDocumentFormatter implements DocumentFormatter {
 
+    private static final String ATTRIBUTE_VALUES = "attributeValues";
+    private static final String CATEGORIES = "categories";
+
     @Override
     public String format(Map<String, Object> entityMap, String template, ObjectMapper objectMapper) {
-        entityMap.compute("attributeValues", (k, attributeValues) -> formatAttributes(attributeValues, objectMapper));
-        entityMap.compute("categories", (k, categoriesValues) -> formatCategories(categoriesValues, objectMapper));
+        entityMap.compute(ATTRIBUTE_VALUES, (k, attributeValues) -> formatAttributes(attributeValues, objectMapper));
+        entityMap.compute(CATEGORIES, (k, categoriesValues) -> formatCategories(categoriesValues, objectMapper));
         StringSubstitutor sub = new StringSubstitutor(entityMap, "{", "}");
         return removeHtmlTags(sub.replace(template));
     }
 
+    @Override
+    public Map<String, Function<Object, String>> fieldFormatters() {
+        return Map.of(
+            ATTRIBUTE_VALUES, attributeValues -> joinAttributes(castList(attributeValues)),
+            CATEGORIES, categories -> joinCategories(castList(categories))
+        );
+    }
+
     private String formatAttributes(Object attributeValues, ObjectMapper objectMapper) {
         if (attributeValues == null) {
             return "[]";
@@ -31,9 +43,7 @@ public class ProductDocumentFormatter implements DocumentFormatter {
                 .map(item -> objectMapper.convertValue(item, ProductAttributeValueVm.class))
                 .toList();
 
-        return productAttributeValueList.stream()
-                .map(attr -> attr.nameProductAttribute() + ": " + attr.value())
-                .collect(Collectors.joining(", ", "[", "]"));
+        return joinAttributes(productAttributeValueList);
     }
 
     private String formatCategories(Object categories, ObjectMapper objectMapper) {
@@ -46,9 +56,30 @@ public class ProductDocumentFormatter implements DocumentFormatter {
                 .map(item -> objectMapper.convertValue(item, CategoryVm.class))
                 .toList();
 
-        return categoriesList.stream()
+        return joinCategories(categoriesList);
+    }
+
+    private static String joinAttributes(List<ProductAttributeValueVm> attributeValues) {
+        if (attributeValues == null) {
+            return "[]";
+        }
+        return attributeValues.stream()
+                .map(attr -> attr.nameProductAttribute() + ": " + attr.value())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String joinCategories(List<CategoryVm> categories) {
+        if (categories == null) {
+            return "[]";
+        }
+        return categories.stream()
                 .map(CategoryVm::name)
                 .collect(Collectors.joining(", ", "[", "]"));
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> castList(Object value) {
+        return (List<T>) value;
+    }
+
 }
@@ -0,0 +1,92 @@
+package com.yas.recommendation.vector.product.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.CoOccurrenceConfig;
+import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
+import com.yas.recommendation.cooccurrence.CoOccurrence;
+import com.yas.recommendation.cooccurrence.CoOccurrenceService;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import com.yas.recommendation.vector.common.store.SimpleVectorRepository;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.ai.document.Document;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recommends products by blending content similarity with co-purchases ("frequently bought together").
+ *
+ * <p>Candidates are the nearest neighbours of the product plus its most co-purchased products. Each one is scored
+ * {@code w * similarity + (1 - w) * count / maxCount}, where similarity is the cosine similarity of the stored
+ * embeddings, also computed for co-purchased products outside the neighbours. Co-purchased products without a
+ * stored vector, i.e. unpublished ones, are left out.
+ */
+@Service
+public class HybridRecommendationService {
+
+    private final JdbcVectorService jdbcVectorService;
+    private final CoOccurrenceService coOccurrenceService;
+    private final ObjectMapper objectMapper;
+    private final EmbeddingSearchConfiguration embeddingSearchConfiguration;
+    private final CoOccurrenceConfig coOccurrenceConfig;
+
+    public HybridRecommendationService(
+        JdbcVectorService jdbcVectorService,
+        CoOccurrenceService coOccurrenceService,
+        ObjectMapper objectMapper,
+        EmbeddingSearchConfiguration embeddingSearchConfiguration,
+        CoOccurrenceConfig coOccurrenceConfig
+    ) {
+        this.jdbcVectorService = jdbcVectorService;
+        this.coOccurrenceService = coOccurrenceService;
+        this.objectMapper = objectMapper;
+        this.embeddingSearchConfiguration = embeddingSearchConfiguration;
+        this.coOccurrenceConfig = coOccurrenceConfig;
+    }
+
+    /**
+     * Returns the top K recommendations for a product, best first.
+     *
+     * @param vectorWeight weight of the content similarity between 0 and 1, {@code null} for the configured one
+     */
+    public List<RelatedProductVm> recommend(Long productId, Double vectorWeight) {
+        double weight = Math.clamp(vectorWeight != null ? vectorWeight : coOccurrenceConfig.vectorWeight(), 0, 1);
+        int topK = embeddingSearchConfiguration.topK();
+
+        Map<Long, Document> documents = new LinkedHashMap<>();
+        jdbcVectorService.similarityProduct(productId, ProductDocument.class)
+            .forEach(document -> documents.put(entityId(document), document));
+
+        List<CoOccurrence> coPurchased = coOccurrenceService.topRelated(productId, topK);
+        Map<Long, Integer> counts = new HashMap<>();
+        coPurchased.forEach(coOccurrence -> counts.put(coOccurrence.relatedProductId(), coOccurrence.count()));
+        List<Long> missing = counts.keySet().stream().filter(id -> !documents.containsKey(id)).toList();
+        jdbcVectorService.distanceToProducts(productId, ProductDocument.class, missing)
+            .forEach(document -> documents.put(entityId(document), document));
+
+        double maxCount = coPurchased.isEmpty() ? 1 : coPurchased.getFirst().count();
+        Map<Long, Double> scores = new HashMap<>();
+        documents.forEach((id, document) -> {
+            double similarity = 1 - ((Number) document.getMetadata().get(JdbcVectorService.DISTANCE_METADATA))
+                .doubleValue();
+            double coPurchaseScore = counts.getOrDefault(id, 0) / maxCount;
+            scores.put(id, weight * similarity + (1 - weight) * coPurchaseScore);
+        });
+
+        return documents.entrySet().stream()
+            .filter(entry -> !entry.getKey().equals(productId))
+            .sorted(Comparator.comparingDouble((Map.Entry<Long, Document> entry) -> scores.get(entry.getKey()))
+                .reversed())
+            .limit(topK)
+            .map(entry -> objectMapper.convertValue(entry.getValue().getMetadata(), RelatedProductVm.class))
+            .toList();
+    }
+
+    private static Long entityId(Document document) {
+        return ((Number) document.getMetadata().get(SimpleVectorRepository.FIELD_ID)).longValue();
+    }
+}
@@ -0,0 +1,232 @@
+package com.yas.recommendation.vector.product.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
+import com.yas.recommendation.configuration.VectorIndexConfig;
+import com.yas.recommendation.vector.common.index.HnswIndex;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import com.yas.recommendation.vector.common.query.StoredVector;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read replica of the product vectors in an in-process {@link HnswIndex}, so that related products are found
+ * without a database round trip.
+ *
+ * <p>The index is built from the vector table in the background on startup; until it is ready, and for
+ * products it does not hold, callers fall back to pgvector. Vector writes are applied through
+ * {@link #upsert(Collection)} and {@link #delete(Collection)}; those arriving during a build are recorded and
+ * read again once the build is done. The index is rebuilt once replaced and removed vectors pass
+ * {@code max-deleted-ratio} of its nodes, and every {@code rebuild-interval}.
+ *
+ * <p>Writes only reach the index of the instance consuming the product topic partition. Other replicas see
+ * them on their next periodic rebuild, and serve the neighbours of their last build until then.
+ */
+@Slf4j
+@Component
+public class ProductVectorIndex {
+
+    private final JdbcVectorService jdbcVectorService;
+    private final ObjectMapper objectMapper;
+    private final EmbeddingSearchConfiguration embeddingSearchConfiguration;
+    private final VectorIndexConfig config;
+
+    private final Map<Long, RelatedProductVm> products = new ConcurrentHashMap<>();
+    private final Set<Long> pendingProductIds = new HashSet<>();
+    private volatile HnswIndex index;
+    private volatile boolean built;
+    private boolean building;
+
+    public ProductVectorIndex(
+        JdbcVectorService jdbcVectorService,
+        ObjectMapper objectMapper,
+        EmbeddingSearchConfiguration embeddingSearchConfiguration,
+        VectorIndexConfig config
+    ) {
+        this.jdbcVectorService = jdbcVectorService;
+        this.objectMapper = objectMapper;
+        this.embeddingSearchConfiguration = embeddingSearchConfiguration;
+        this.config = config;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (config.enabled()) {
+            buildInBackground();
+        }
+    }
+
+    @Scheduled(
+        initialDelayString = "${yas.recommendation.vector-index.rebuild-interval:PT6H}",
+        fixedDelayString = "${yas.recommendation.vector-index.rebuild-interval:PT6H}"
+    )
+    public void rebuildPeriodically() {
+        if (config.enabled() && built) {
+            buildInBackground();
+        }
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /**
+     * Related products from the index, or empty when the index cannot answer and pgvector should.
+     *
+     * @param efSearch number of candidates explored, {@code null} for the configured one
+     */
+    public Optional<List<RelatedProductVm>> search(Long productId, Integer efSearch) {
+        HnswIndex current = index;
+        if (current == null || !current.contains(productId)) {
+            return Optional.empty();
+        }
+        double threshold = embeddingSearchConfiguration.similarityThreshold();
+        List<RelatedProductVm> related = current.searchByKey(productId, embeddingSearchConfiguration.topK(),
+                efSearch != null ? efSearch : config.efSearch())
+            .stream()
+            .filter(neighbour -> neighbour.distance() > threshold)
+            .map(neighbour -> products.get(neighbour.key()))
+            .filter(Objects::nonNull)
+            .toList();
+        return Optional.of(related);
+    }
+
+    /**
+     * Reads the given products from the vector table into the index; products without a vector are removed.
+     */
+    public void upsert(Collection<Long> productIds) {
+        if (!config.enabled() || deferDuringBuild(productIds)) {
+            return;
+        }
+        HnswIndex current = index;
+        if (current == null && !built) {
+            return;
+        }
+        List<StoredVector> vectors = jdbcVectorService.findVectors(ProductDocument.class, productIds);
+        if (current == null) {
+            // the catalog was empty when the index was built
+            if (vectors.isEmpty()) {
+                return;
+            }
+            current = createIfAbsent(vectors.getFirst().embedding().length);
+        }
+        Set<Long> missing = new HashSet<>(productIds);
+        for (StoredVector vector : vectors) {
+            put(current, vector);
+            missing.remove(vector.entityId());
+        }
+        remove(current, missing);
+        rebuildWhenMostlyDeleted(current);
+    }
+
+    public void delete(Collection<Long> productIds) {
+        if (!config.enabled() || deferDuringBuild(productIds)) {
+            return;
+        }
+        HnswIndex current = index;
+        if (current != null) {
+            remove(current, productIds);
+            rebuildWhenMostlyDeleted(current);
+        }
+    }
+
+    /**
+     * Builds a new index from the vector table and swaps it in, e.g. to reclaim replaced vectors.
+     */
+    public void build() {
+        synchronized (pendingProductIds) {
+            if (building) {
+                return;
+            }
+            building = true;
+        }
+        try {
+            long start = System.nanoTime();
+            HnswIndex[] rebuilt = new HnswIndex[1];
+            jdbcVectorService.forEachVector(ProductDocument.class, vector -> {
+                if (rebuilt[0] == null) {
+                    rebuilt[0] = new HnswIndex(vector.embedding().length, config.m(), config.efConstruction());
+                }
+                put(rebuilt[0], vector);
+            });
+            index = rebuilt[0];
+            built = true;
+            log.info("Built product vector index with {} vectors, {} MB off heap, in {} ms",
+                rebuilt[0] != null ? rebuilt[0].size() : 0,
+                rebuilt[0] != null ? rebuilt[0].offHeapBytes() >> 20 : 0,
+                (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Product vector index build failed, related products are read from pgvector", e);
+        } finally {
+            Set<Long> pending;
+            synchronized (pendingProductIds) {
+                building = false;
+                pending = Set.copyOf(pendingProductIds);
+                pendingProductIds.clear();
+            }
+            upsert(pending);
+        }
+    }
+
+    private void buildInBackground() {
+        Thread.ofVirtual().name("product-vector-index").start(this::build);
+    }
+
+    private void rebuildWhenMostlyDeleted(HnswIndex current) {
+        double deletedRatio = current.deletedRatio();
+        if (deletedRatio > config.maxDeletedRatio()) {
+            log.info("{}% of the product vector index is replaced or removed vectors, rebuilding",
+                Math.round(deletedRatio * 100));
+            buildInBackground();
+        }
+    }
+
+    private HnswIndex createIfAbsent(int dimensions) {
+        synchronized (pendingProductIds) {
+            if (index == null) {
+                index = new HnswIndex(dimensions, config.m(), config.efConstruction());
+            }
+            return index;
+        }
+    }
+
+    private boolean deferDuringBuild(Collection<Long> productIds) {
+        synchronized (pendingProductIds) {
+            if (building) {
+                pendingProductIds.addAll(productIds);
+            }
+            return building;
+        }
+    }
+
+    private void put(HnswIndex target, StoredVector vector) {
+        if (vector.embedding().length != target.dimensions()) {
+            log.warn("Skipping product {} with {} dimensions in a {} dimensions index", vector.entityId(),
+                vector.embedding().length, target.dimensions());
+            return;
+        }
+        // metadata-only updates keep the node, the graph only changes when the embedding does
+        products.put(vector.entityId(), objectMapper.convertValue(vector.metadata(), RelatedProductVm.class));
+        target.put(vector.entityId(), vector.embedding());
+    }
+
+    private void remove(HnswIndex target, Collection<Long> productIds) {
+        productIds.forEach(productId -> {
+            target.remove(productId);
+            products.remove(productId);
+        });
+    }
+}
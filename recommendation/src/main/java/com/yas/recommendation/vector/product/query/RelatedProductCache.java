@@ -0,0 +1,193 @@
+package com.yas.recommendation.vector.product.query;
+
+import com.yas.recommendation.configuration.RelatedProductCacheConfig;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory cache of the top-K related products per product, so that a product page view is a key
+ * lookup instead of a k-NN query.
+ *
+ * <p>Neighbours only change when a vector is written. {@link #onVectorUpserted(Long)} recomputes the
+ * neighbours of the written product right away and marks stale every cached product that listed it before,
+ * or that it is now close to. {@link #onVectorDeleted(Long)} drops the product and marks stale the products
+ * that listed it. Stale entries are recomputed on their next read.
+ *
+ * <p>That invalidation is approximate, since k-NN is not symmetric, and only happens on the instance that
+ * applied the vector write. Every entry therefore also expires after {@code ttl}, which bounds how long
+ * other replicas serve outdated neighbours.
+ */
+@Component
+public class RelatedProductCache {
+
+    private final RelatedProductQuery relatedProductQuery;
+    private final RelatedProductCacheConfig config;
+    private final Clock clock;
+    private final Map<Long, Entry> entries;
+    // product id -> cached products that list it as a neighbour
+    private final Map<Long, Set<Long>> listedBy = new HashMap<>();
+    // bumped on every invalidation, so that a read racing with a vector write does not cache an old result
+    private long generation;
+
+    @Autowired
+    public RelatedProductCache(RelatedProductQuery relatedProductQuery, RelatedProductCacheConfig config) {
+        this(relatedProductQuery, config, Clock.systemUTC());
+    }
+
+    RelatedProductCache(RelatedProductQuery relatedProductQuery, RelatedProductCacheConfig config, Clock clock) {
+        this.relatedProductQuery = relatedProductQuery;
+        this.config = config;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > config.maxEntries()) {
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public List<RelatedProductVm> getRelatedProducts(Long productId) {
+        if (!config.enabled()) {
+            return relatedProductQuery.similaritySearch(productId);
+        }
+        Instant now = clock.instant();
+        long readGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(productId);
+            if (entry != null && !entry.stale && now.isBefore(entry.expiresAt)) {
+                return entry.products;
+            }
+            readGeneration = generation;
+        }
+        List<RelatedProductVm> products = relatedProductQuery.similaritySearch(productId);
+        synchronized (this) {
+            if (readGeneration == generation) {
+                put(productId, products, now);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Recomputes the neighbours of a product whose vector was added or replaced.
+     */
+    public void onVectorUpserted(Long productId) {
+        if (!config.enabled()) {
+            return;
+        }
+        synchronized (this) {
+            generation++;
+            markListingProductsStale(productId);
+        }
+        Instant now = clock.instant();
+        List<RelatedProductVm> products = relatedProductQuery.similaritySearch(productId);
+        synchronized (this) {
+            generation++;
+            put(productId, products, now);
+            // the product may now rank above one of its neighbours' cached items
+            products.stream()
+                .map(RelatedProductVm::getProductId)
+                .filter(Objects::nonNull)
+                .forEach(this::markStale);
+        }
+    }
+
+    /**
+     * Marks stale the products listing a product whose metadata changed but whose embedding did not; its own
+     * neighbours are unchanged, so no query is run.
+     */
+    public synchronized void onMetadataUpdated(Long productId) {
+        if (!config.enabled()) {
+            return;
+        }
+        generation++;
+        markListingProductsStale(productId);
+    }
+
+    public synchronized void onVectorDeleted(Long productId) {
+        if (!config.enabled()) {
+            return;
+        }
+        generation++;
+        Entry removed = entries.remove(productId);
+        if (removed != null) {
+            unindex(productId, removed);
+        }
+        markListingProductsStale(productId);
+    }
+
+    /**
+     * Marks every cached product stale, for bulk writes where recomputing each written product is not worth it.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.values().forEach(entry -> entry.stale = true);
+    }
+
+    private void put(Long productId, List<RelatedProductVm> products, Instant now) {
+        Entry previous = entries.remove(productId);
+        if (previous != null) {
+            unindex(productId, previous);
+        }
+        Entry entry = new Entry(List.copyOf(products), now.plus(config.ttl()));
+        entries.put(productId, entry);
+        entry.products.stream()
+            .map(RelatedProductVm::getProductId)
+            .filter(Objects::nonNull)
+            .forEach(neighbourId -> listedBy.computeIfAbsent(neighbourId, k -> new HashSet<>()).add(productId));
+    }
+
+    private void unindex(Long productId, Entry entry) {
+        entry.products.stream()
+            .map(RelatedProductVm::getProductId)
+            .filter(Objects::nonNull)
+            .forEach(neighbourId -> {
+                Set<Long> listing = listedBy.get(neighbourId);
+                if (listing != null) {
+                    listing.remove(productId);
+                    if (listing.isEmpty()) {
+                        listedBy.remove(neighbourId);
+                    }
+                }
+            });
+    }
+
+    private void markListingProductsStale(Long productId) {
+        Set<Long> listing = listedBy.get(productId);
+        if (listing != null) {
+            Set.copyOf(listing).forEach(this::markStale);
+        }
+    }
+
+    private void markStale(Long productId) {
+        Entry entry = entries.get(productId);
+        if (entry != null) {
+            entry.stale = true;
+        }
+    }
+
+    private static final class Entry {
+        private final List<RelatedProductVm> products;
+        private final Instant expiresAt;
+        private boolean stale;
+
+        private Entry(List<RelatedProductVm> products, Instant expiresAt) {
+            this.products = products;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
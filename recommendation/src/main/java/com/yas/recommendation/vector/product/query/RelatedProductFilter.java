@@ -0,0 +1,56 @@
+package com.yas.recommendation.vector.product.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+/**
+ * Storefront restrictions on related products, matched against the product metadata stored with each vector.
+ * Every criterion is optional; stock levels are not part of the metadata, {@code orderable} is the closest
+ * availability flag.
+ *
+ * @param categoryId the product must be in this category
+ * @param brandId    the product must be of this brand
+ * @param minPrice   lowest price, inclusive
+ * @param maxPrice   highest price, inclusive
+ * @param published  required published flag
+ * @param orderable  required allowed-to-order flag
+ */
+public record RelatedProductFilter(
+    Long categoryId,
+    Long brandId,
+    Double minPrice,
+    Double maxPrice,
+    Boolean published,
+    Boolean orderable
+) {
+
+    /**
+     * The filter expression, or {@code null} when no criterion is set.
+     */
+    public Filter.Expression toExpression() {
+        FilterExpressionBuilder b = new FilterExpressionBuilder();
+        List<FilterExpressionBuilder.Op> criteria = new ArrayList<>();
+        if (categoryId != null) {
+            // any element of the categories array
+            criteria.add(b.eq("categories[*].id", categoryId));
+        }
+        if (brandId != null) {
+            criteria.add(b.eq("brandId", brandId));
+        }
+        if (minPrice != null) {
+            criteria.add(b.gte("price", minPrice));
+        }
+        if (maxPrice != null) {
+            criteria.add(b.lte("price", maxPrice));
+        }
+        if (published != null) {
+            criteria.add(b.eq("isPublished", published));
+        }
+        if (orderable != null) {
+            criteria.add(b.eq("isAllowedToOrder", orderable));
+        }
+        return criteria.stream().reduce(b::and).map(FilterExpressionBuilder.Op::build).orElse(null);
+    }
+}
@@ -3,17 +3,27 @@ package com.yas.recommendation.vector.product.query;
 import com.yas.recommendation.vector.common.query.VectorQuery;
 import com.yas.recommendation.vector.product.document.ProductDocument;
 import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.util.List;
 import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.stereotype.Service;
 
 /**
  * Service for performing related product searches using vector similarity.
  * Extends {@link VectorQuery} for {@link RelatedProductVm} results.
+ * Searches are answered by the in-process {@link ProductVectorIndex} when it is enabled and ready.
  */
 @Service
 public class RelatedProductQuery extends VectorQuery<ProductDocument, RelatedProductVm> {
 
-    protected RelatedProductQuery(VectorStore vectorStore) {
+    private final ProductVectorIndex productVectorIndex;
+
+    protected RelatedProductQuery(VectorStore vectorStore, ProductVectorIndex productVectorIndex) {
         super(ProductDocument.class, RelatedProductVm.class);
+        this.productVectorIndex = productVectorIndex;
+    }
+
+    @Override
+    public List<RelatedProductVm> similaritySearch(Long id, Integer efSearch) {
+        return productVectorIndex.search(id, efSearch).orElseGet(() -> super.similaritySearch(id, efSearch));
     }
 }
@@ -0,0 +1,261 @@
+package com.yas.recommendation.vector.product.service;
+
+import com.yas.recommendation.configuration.BackfillConfig;
+import com.yas.recommendation.configuration.EmbeddingBatchConfig;
+import com.yas.recommendation.constant.BackfillStatus;
+import com.yas.recommendation.service.ProductService;
+import com.yas.recommendation.vector.common.store.BackfillCheckpoint;
+import com.yas.recommendation.vector.common.store.BackfillCheckpointRepository;
+import com.yas.recommendation.vector.common.store.EmbeddingBatchWriter;
+import com.yas.recommendation.vector.product.query.ProductVectorIndex;
+import com.yas.recommendation.vector.product.query.RelatedProductCache;
+import com.yas.recommendation.vector.product.store.ProductVectorRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Populates the product vectors for the whole catalog, e.g. for a new environment or after the embedding model
+ * changed.
+ *
+ * <p>Published product ids are read from the product service a page at a time, in ascending order. The product
+ * details of a page are fetched and formatted by up to {@code formattingConcurrency} tasks; as soon as a batch of
+ * documents is formatted it is handed to the embedding side, which runs up to {@code embeddingConcurrency}
+ * requests at a time under a requests-per-second limit, and writes each batch in one statement. A checkpoint with
+ * the last product id is saved after each page, so a cancelled, failed or interrupted job resumes where it
+ * stopped.
+ */
+@Slf4j
+@Service
+public class ProductVectorBackfillService {
+
+    static final String JOB_NAME = "product-vector";
+
+    private final ProductService productService;
+    private final ProductVectorRepository productVectorRepository;
+    private final EmbeddingBatchWriter embeddingBatchWriter;
+    private final BackfillCheckpointRepository checkpointRepository;
+    private final RelatedProductCache relatedProductCache;
+    private final ProductVectorIndex productVectorIndex;
+    private final BackfillConfig backfillConfig;
+    private final EmbeddingBatchConfig embeddingBatchConfig;
+    private final RequestRateLimiter embeddingRateLimiter;
+
+    private final Counter embeddedCounter;
+    private final Counter unchangedCounter;
+    private final Counter failedCounter;
+    private final Timer embeddingBatchTimer;
+
+    private Thread worker;
+    private volatile boolean cancelRequested;
+    private volatile BackfillCheckpoint current;
+
+    public ProductVectorBackfillService(
+        ProductService productService,
+        ProductVectorRepository productVectorRepository,
+        EmbeddingBatchWriter embeddingBatchWriter,
+        BackfillCheckpointRepository checkpointRepository,
+        RelatedProductCache relatedProductCache,
+        ProductVectorIndex productVectorIndex,
+        BackfillConfig backfillConfig,
+        EmbeddingBatchConfig embeddingBatchConfig,
+        MeterRegistry meterRegistry
+    ) {
+        this.productService = productService;
+        this.productVectorRepository = productVectorRepository;
+        this.embeddingBatchWriter = embeddingBatchWriter;
+        this.checkpointRepository = checkpointRepository;
+        this.relatedProductCache = relatedProductCache;
+        this.productVectorIndex = productVectorIndex;
+        this.backfillConfig = backfillConfig;
+        this.embeddingBatchConfig = embeddingBatchConfig;
+        this.embeddingRateLimiter = new RequestRateLimiter(backfillConfig.embeddingRequestsPerSecond());
+
+        this.embeddedCounter = backfillCounter(meterRegistry, "embedded");
+        this.unchangedCounter = backfillCounter(meterRegistry, "unchanged");
+        this.failedCounter = backfillCounter(meterRegistry, "failed");
+        this.embeddingBatchTimer = Timer.builder("yas.recommendation.backfill.embedding.batch")
+            .description("Time to embed and write one batch of product documents")
+            .register(meterRegistry);
+        Gauge.builder("yas.recommendation.backfill.last.product.id", this,
+                service -> service.current != null ? service.current.lastId() : 0)
+            .description("Last product id written by the product vector backfill")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts the backfill in the background, or returns the status of the one already running.
+     *
+     * @param reembed whether products whose content did not change are embedded again; ignored when an unfinished
+     *                job is resumed, which keeps its own setting
+     * @param restart whether to start from the first product even if an unfinished job can be resumed
+     */
+    public synchronized BackfillCheckpoint start(boolean reembed, boolean restart) {
+        if (worker != null && worker.isAlive()) {
+            return current;
+        }
+        BackfillCheckpoint checkpoint = checkpointRepository.findByJobName(JOB_NAME)
+            .filter(existing -> !restart && existing.status() != BackfillStatus.COMPLETED)
+            .map(existing -> existing.withStatus(BackfillStatus.RUNNING))
+            .orElseGet(() -> BackfillCheckpoint.start(JOB_NAME, reembed));
+        checkpointRepository.save(checkpoint);
+        current = checkpoint;
+        cancelRequested = false;
+        log.info("Starting product vector backfill after product {}", checkpoint.lastId());
+        worker = Thread.ofVirtual().name("product-vector-backfill").start(() -> run(checkpoint));
+        return checkpoint;
+    }
+
+    /**
+     * Stops the running backfill after the page in progress. The job can be resumed with {@link #start}.
+     */
+    public Optional<BackfillCheckpoint> cancel() {
+        cancelRequested = true;
+        return getStatus();
+    }
+
+    public Optional<BackfillCheckpoint> getStatus() {
+        return Optional.ofNullable(current).or(() -> checkpointRepository.findByJobName(JOB_NAME));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (!backfillConfig.resumeOnStartup()) {
+            return;
+        }
+        checkpointRepository.findByJobName(JOB_NAME)
+            .filter(checkpoint -> checkpoint.status() == BackfillStatus.RUNNING)
+            .ifPresent(checkpoint -> start(checkpoint.reembed(), false));
+    }
+
+    void run(BackfillCheckpoint initial) {
+        BackfillCheckpoint checkpoint = initial;
+        Semaphore formattingPermits = new Semaphore(Math.max(1, backfillConfig.formattingConcurrency()));
+        Semaphore embeddingPermits = new Semaphore(Math.max(1, backfillConfig.embeddingConcurrency()));
+        try (var formattingPool = Executors.newVirtualThreadPerTaskExecutor();
+             var embeddingPool = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (!cancelRequested) {
+                List<Long> productIds = productService.getPublishedProductIds(checkpoint.lastId(),
+                    backfillConfig.pageSize());
+                if (productIds == null || productIds.isEmpty()) {
+                    checkpoint = checkpoint.withStatus(BackfillStatus.COMPLETED);
+                    break;
+                }
+                PageResult result = writePage(productIds, checkpoint.reembed(), formattingPool, formattingPermits,
+                    embeddingPool, embeddingPermits);
+                checkpoint = checkpoint.advance(productIds.getLast(), productIds.size(), result.embedded(),
+                    result.failed());
+                checkpointRepository.save(checkpoint);
+                current = checkpoint;
+                productVectorIndex.upsert(productIds);
+                relatedProductCache.invalidateAll();
+            }
+            if (cancelRequested) {
+                checkpoint = checkpoint.withStatus(BackfillStatus.CANCELLED);
+            }
+        } catch (RuntimeException e) {
+            log.error("Product vector backfill failed after product {}", checkpoint.lastId(), e);
+            checkpoint = checkpoint.withStatus(BackfillStatus.FAILED);
+        } finally {
+            checkpointRepository.save(checkpoint);
+            current = checkpoint;
+        }
+        log.info("Product vector backfill {} after product {}: {} processed, {} embedded, {} failed",
+            checkpoint.status(), checkpoint.lastId(), checkpoint.processed(), checkpoint.embedded(),
+            checkpoint.failed());
+    }
+
+    private PageResult writePage(
+        List<Long> productIds,
+        boolean reembed,
+        ExecutorService formattingPool,
+        Semaphore formattingPermits,
+        ExecutorService embeddingPool,
+        Semaphore embeddingPermits
+    ) {
+        List<CompletableFuture<Document>> documents = productIds.stream()
+            .map(productId -> CompletableFuture.supplyAsync(
+                () -> withPermit(formattingPermits, () -> buildDocument(productId)), formattingPool))
+            .toList();
+
+        int batchSize = Math.max(1, embeddingBatchConfig.size());
+        int failed = 0;
+        List<CompletableFuture<Integer>> writes = new ArrayList<>();
+        List<Document> batch = new ArrayList<>(batchSize);
+        for (CompletableFuture<Document> document : documents) {
+            Document formatted = document.join();
+            if (formatted == null) {
+                failed++;
+                continue;
+            }
+            batch.add(formatted);
+            if (batch.size() == batchSize) {
+                writes.add(writeBatch(batch, reembed, embeddingPool, embeddingPermits));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writes.add(writeBatch(batch, reembed, embeddingPool, embeddingPermits));
+        }
+        int embedded = writes.stream().mapToInt(CompletableFuture::join).sum();
+
+        embeddedCounter.increment(embedded);
+        unchangedCounter.increment((double) productIds.size() - failed - embedded);
+        failedCounter.increment(failed);
+        return new PageResult(embedded, failed);
+    }
+
+    private CompletableFuture<Integer> writeBatch(
+        List<Document> batch,
+        boolean reembed,
+        ExecutorService embeddingPool,
+        Semaphore embeddingPermits
+    ) {
+        return CompletableFuture.supplyAsync(() -> withPermit(embeddingPermits, () -> {
+            embeddingRateLimiter.acquire();
+            return embeddingBatchTimer.record(() -> embeddingBatchWriter.upsert(batch, reembed).size());
+        }), embeddingPool);
+    }
+
+    private Document buildDocument(Long productId) {
+        try {
+            return productVectorRepository.buildDocument(productId);
+        } catch (RuntimeException e) {
+            // The product may have been unpublished since its id was read; it is synced by CDC anyway
+            log.warn("Skipping product {} in backfill: {}", productId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static <T> T withPermit(Semaphore permits, Supplier<T> task) {
+        permits.acquireUninterruptibly();
+        try {
+            return task.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Counter backfillCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("yas.recommendation.backfill.products")
+            .description("Products processed by the product vector backfill")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record PageResult(int embedded, int failed) {}
+}
@@ -1,7 +1,13 @@
 package com.yas.recommendation.vector.product.service;
 
 import com.yas.commonlibrary.kafka.cdc.message.Product;
+import com.yas.recommendation.vector.common.store.VectorUpsertException;
+import com.yas.recommendation.vector.product.query.ProductVectorIndex;
+import com.yas.recommendation.vector.product.query.RelatedProductCache;
 import com.yas.recommendation.vector.product.store.ProductVectorRepository;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -14,6 +20,8 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ProductVectorSyncService {
     private final ProductVectorRepository productVectorRepository;
+    private final RelatedProductCache relatedProductCache;
+    private final ProductVectorIndex productVectorIndex;
 
     /**
      * Creates a product vector if the product is published.
@@ -22,20 +30,21 @@ public class ProductVectorSyncService {
      */
     public void createProductVector(Product product) {
         if (product.isPublished()) {
-            productVectorRepository.add(product.getId());
+            upsertProductVectors(List.of(product.getId()));
         }
     }
 
     /**
      * Updates a product vector if the product is published; deletes it otherwise.
+     * The product is only embedded again when its formatted content changed.
      *
      * @param product {@link Product} the product to be synchronized.
      */
     public void updateProductVector(Product product) {
         if (product.isPublished()) {
-            productVectorRepository.update(product.getId());
+            upsertProductVectors(List.of(product.getId()));
         } else {
-            productVectorRepository.delete(product.getId());
+            deleteProductVector(product.getId());
         }
     }
 
@@ -45,7 +54,57 @@ public class ProductVectorSyncService {
      * @param productId The unique identifier of the product whose vector is to be deleted.
      */
     public void deleteProductVector(Long productId) {
-        productVectorRepository.delete(productId);
+        deleteProductVectors(List.of(productId));
+    }
+
+    /**
+     * Creates or updates the vectors of the given products, embedding them in batches.
+     *
+     * @param productIds the products to be synchronized.
+     * @throws VectorUpsertException when some products could not be fetched, after the others were synchronized
+     */
+    public void upsertProductVectors(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        Set<Long> embedded;
+        try {
+            embedded = productVectorRepository.upsertAll(productIds);
+        } catch (VectorUpsertException e) {
+            List<Long> upserted = productIds.stream().filter(id -> !e.getFailedIds().contains(id)).toList();
+            onVectorsUpserted(upserted, e.getEmbeddedIds());
+            throw e;
+        }
+        onVectorsUpserted(productIds, embedded);
+    }
+
+    /**
+     * Deletes the vectors of the given products.
+     *
+     * @param productIds the products whose vectors are to be deleted.
+     */
+    public void deleteProductVectors(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        productVectorRepository.deleteAll(productIds);
+        productVectorIndex.delete(productIds);
+        productIds.forEach(relatedProductCache::onVectorDeleted);
+    }
+
+    private void onVectorsUpserted(Collection<Long> productIds, Set<Long> embedded) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        // the index first, the cache recomputes the neighbours from it
+        productVectorIndex.upsert(productIds);
+        productIds.forEach(productId -> {
+            if (embedded.contains(productId)) {
+                relatedProductCache.onVectorUpserted(productId);
+            } else {
+                relatedProductCache.onMetadataUpdated(productId);
+            }
+        });
     }
 
 }
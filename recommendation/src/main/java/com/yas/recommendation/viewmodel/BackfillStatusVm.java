@@ -0,0 +1,35 @@
+package com.yas.recommendation.viewmodel;
+
+import com.yas.recommendation.constant.BackfillStatus;
+import com.yas.recommendation.vector.common.store.BackfillCheckpoint;
+import java.time.Duration;
+import java.time.Instant;
+
+public record BackfillStatusVm(
+    BackfillStatus status,
+    boolean reembed,
+    long lastProductId,
+    long processed,
+    long embedded,
+    long failed,
+    double productsPerSecond,
+    Instant startedAt,
+    Instant updatedAt
+) {
+
+    public static BackfillStatusVm fromModel(BackfillCheckpoint checkpoint) {
+        long elapsedMillis = Duration.between(checkpoint.startedAt(), checkpoint.updatedAt()).toMillis();
+        double productsPerSecond = elapsedMillis > 0 ? checkpoint.processed() * 1000.0 / elapsedMillis : 0;
+        return new BackfillStatusVm(
+            checkpoint.status(),
+            checkpoint.reembed(),
+            checkpoint.lastId(),
+            checkpoint.processed(),
+            checkpoint.embedded(),
+            checkpoint.failed(),
+            productsPerSecond,
+            checkpoint.startedAt(),
+            checkpoint.updatedAt()
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package com.yas.recommendation.configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+class SecurityConfigTest {
+
+    private final SecurityConfig securityConfig = new SecurityConfig();
+
+    @Test
+    void jwtAuthenticationConverter_whenRealmRoles_mapToAuthorities() {
+        Jwt jwt = jwt(Map.of("sub", "customer-1", "realm_access", Map.of("roles", List.of("ADMIN"))));
+
+        assertThat(securityConfig.jwtAuthenticationConverterForKeycloak().convert(jwt).getAuthorities())
+            .extracting(GrantedAuthority::getAuthority)
+            .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void jwtAuthenticationConverter_whenNoRealmAccess_returnNoAuthorities() {
+        Jwt jwt = jwt(Map.of("sub", "service-account"));
+
+        assertThat(securityConfig.jwtAuthenticationConverterForKeycloak().convert(jwt).getAuthorities()).isEmpty();
+    }
+
+    private static Jwt jwt(Map<String, Object> claims) {
+        return new Jwt("token", Instant.now(), Instant.now().plusSeconds(60), Map.of("alg", "none"), claims);
+    }
+}
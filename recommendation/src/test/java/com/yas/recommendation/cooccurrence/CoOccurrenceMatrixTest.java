@@ -0,0 +1,74 @@
+package com.yas.recommendation.cooccurrence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class CoOccurrenceMatrixTest {
+
+    @Test
+    void addOrderItem_whenSameOrder_countPairsBothWays() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(10);
+
+        matrix.addOrderItem(1L, 10L);
+        matrix.addOrderItem(1L, 20L);
+        matrix.addOrderItem(1L, 30L);
+        matrix.addOrderItem(2L, 10L);
+        matrix.addOrderItem(2L, 20L);
+
+        assertThat(matrix.count(10L, 20L)).isEqualTo(2);
+        assertThat(matrix.count(20L, 10L)).isEqualTo(2);
+        assertThat(matrix.count(10L, 30L)).isEqualTo(1);
+        assertThat(matrix.topRelated(10L, 5))
+            .containsExactly(new CoOccurrence(10L, 20L, 2), new CoOccurrence(10L, 30L, 1));
+    }
+
+    @Test
+    void addOrderItem_whenProductRepeatedInOrder_countOnce() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(10);
+
+        matrix.addOrderItem(1L, 10L);
+        matrix.addOrderItem(1L, 20L);
+        matrix.addOrderItem(1L, 20L);
+
+        assertThat(matrix.count(10L, 20L)).isEqualTo(1);
+        assertThat(matrix.count(20L, 20L)).isZero();
+    }
+
+    @Test
+    void addOrderItem_whenOrderEvicted_countItemsAsNewOrder() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(1);
+
+        matrix.addOrderItem(1L, 10L);
+        matrix.addOrderItem(2L, 20L);
+        matrix.addOrderItem(1L, 30L);
+
+        assertThat(matrix.count(10L, 30L)).isZero();
+    }
+
+    @Test
+    void drainDirty_returnChangedRowsOnce() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(10);
+        matrix.load(50L, 60L, 4);
+        matrix.addOrderItem(1L, 10L);
+        matrix.addOrderItem(1L, 20L);
+
+        List<CoOccurrence> dirty = matrix.drainDirty();
+
+        assertThat(dirty).containsExactlyInAnyOrder(new CoOccurrence(10L, 20L, 1), new CoOccurrence(20L, 10L, 1));
+        assertThat(matrix.drainDirty()).isEmpty();
+        assertThat(matrix.count(50L, 60L)).isEqualTo(4);
+    }
+
+    @Test
+    void topRelated_whenLimited_returnHighestCounts() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(10);
+        matrix.load(10L, 20L, 1);
+        matrix.load(10L, 30L, 5);
+        matrix.load(10L, 40L, 3);
+
+        assertThat(matrix.topRelated(10L, 2)).extracting(CoOccurrence::relatedProductId).containsExactly(30L, 40L);
+        assertThat(matrix.topRelated(99L, 2)).isEmpty();
+    }
+}
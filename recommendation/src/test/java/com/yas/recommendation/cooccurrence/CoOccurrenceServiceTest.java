@@ -0,0 +1,77 @@
+package com.yas.recommendation.cooccurrence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
+import com.yas.recommendation.configuration.CoOccurrenceConfig;
+import com.yas.recommendation.kafka.message.OrderItem;
+import com.yas.recommendation.kafka.message.OrderItemCdcMessage;
+import com.yas.recommendation.kafka.message.OrderItemMsgKey;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class CoOccurrenceServiceTest {
+
+    private static final String TOPIC = "dborder.public.order_item";
+
+    private CoOccurrenceSnapshotRepository snapshotRepository;
+
+    private CoOccurrenceService coOccurrenceService;
+
+    @BeforeEach
+    void setUp() {
+        snapshotRepository = mock(CoOccurrenceSnapshotRepository.class);
+        coOccurrenceService = new CoOccurrenceService(snapshotRepository,
+            new CoOccurrenceConfig(100, Duration.ofMinutes(1), 0.5));
+        coOccurrenceService.afterPropertiesSet();
+    }
+
+    @Test
+    void snapshot_whenLaterSnapshotStored_keepPairsForNextSnapshot() {
+        coOccurrenceService.record(List.of(consumerRecord(0, 1L, 10L), consumerRecord(1, 1L, 20L)));
+        when(snapshotRepository.save(anyList(), anyMap())).thenReturn(false, true);
+
+        coOccurrenceService.snapshot();
+        coOccurrenceService.snapshot();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CoOccurrence>> captor = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository, times(2)).save(captor.capture(),
+            eq(Map.of(new TopicPartition(TOPIC, 0), 2L)));
+        assertThat(captor.getAllValues().get(1)).containsExactlyInAnyOrderElementsOf(captor.getAllValues().get(0))
+            .isNotEmpty();
+    }
+
+    @Test
+    void record_whenRedelivered_skipAppliedOffsets() {
+        coOccurrenceService.record(List.of(consumerRecord(0, 1L, 10L), consumerRecord(1, 1L, 20L)));
+        coOccurrenceService.record(List.of(consumerRecord(1, 1L, 20L)));
+
+        assertThat(coOccurrenceService.topRelated(10L, 5))
+            .extracting(CoOccurrence::count)
+            .containsExactly(1);
+        assertThat(coOccurrenceService.getAppliedOffsets()).containsEntry(new TopicPartition(TOPIC, 0), 2L);
+    }
+
+    private static ConsumerRecord<OrderItemMsgKey, OrderItemCdcMessage> consumerRecord(long offset, long orderId,
+                                                                                       long productId) {
+        OrderItemCdcMessage message = OrderItemCdcMessage.builder()
+            .op(Operation.CREATE)
+            .after(OrderItem.builder().id(offset).orderId(orderId).productId(productId).build())
+            .build();
+        return new ConsumerRecord<>(TOPIC, 0, offset, OrderItemMsgKey.builder().id(offset).build(), message);
+    }
+}
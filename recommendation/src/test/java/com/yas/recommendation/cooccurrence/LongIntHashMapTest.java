@@ -0,0 +1,55 @@
+package com.yas.recommendation.cooccurrence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LongIntHashMapTest {
+
+    @Test
+    void get_whenMissing_returnZero() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThat(map.get(42L)).isZero();
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void addTo_whenCalledRepeatedly_accumulate() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        map.addTo(7L, 1);
+        int value = map.addTo(7L, 2);
+
+        assertThat(value).isEqualTo(3);
+        assertThat(map.get(7L)).isEqualTo(3);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void put_whenGrowingPastCapacity_keepAllEntries() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 1; key <= 1000; key++) {
+            map.put(key * 31, (int) key);
+        }
+
+        Map<Long, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(entries).hasSize(1000);
+        for (long key = 1; key <= 1000; key++) {
+            assertThat(map.get(key * 31)).isEqualTo((int) key);
+        }
+    }
+
+    @Test
+    void put_whenKeyIsZero_throwIllegalArgumentException() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThatThrownBy(() -> map.put(0L, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.yas.recommendation.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class CustomerProfileTest {
+
+    private static final Duration HALF_LIFE = Duration.ofDays(30);
+    private static final Instant NOW = Instant.parse("2024-01-31T00:00:00Z");
+
+    @Test
+    void add_whenEmpty_startFromProductEmbedding() {
+        CustomerProfile profile = CustomerProfile.empty("customer").add(new float[]{1, 0}, 3, NOW, HALF_LIFE);
+
+        assertThat(profile.embedding()).containsExactly(1, 0);
+        assertThat(profile.weight()).isEqualTo(3);
+        assertThat(profile.updatedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void add_whenSameTime_weightedAverage() {
+        CustomerProfile profile = CustomerProfile.empty("customer")
+            .add(new float[]{1, 0}, 1, NOW, HALF_LIFE)
+            .add(new float[]{0, 1}, 3, NOW, HALF_LIFE);
+
+        assertThat(profile.embedding()[0]).isCloseTo(0.25f, within(1e-6f));
+        assertThat(profile.embedding()[1]).isCloseTo(0.75f, within(1e-6f));
+        assertThat(profile.weight()).isEqualTo(4);
+    }
+
+    @Test
+    void add_whenOneHalfLifeLater_halveOlderInteractions() {
+        CustomerProfile profile = CustomerProfile.empty("customer")
+            .add(new float[]{1, 0}, 2, NOW.minus(HALF_LIFE), HALF_LIFE)
+            .add(new float[]{0, 1}, 1, NOW, HALF_LIFE);
+
+        assertThat(profile.embedding()[0]).isCloseTo(0.5f, within(1e-6f));
+        assertThat(profile.embedding()[1]).isCloseTo(0.5f, within(1e-6f));
+        assertThat(profile.weight()).isCloseTo(2, within(1e-9));
+        assertThat(profile.updatedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void add_whenOlderThanProfile_decayAddedInteractionAndKeepTime() {
+        CustomerProfile profile = CustomerProfile.empty("customer")
+            .add(new float[]{1, 0}, 1, NOW, HALF_LIFE)
+            .add(new float[]{0, 1}, 2, NOW.minus(HALF_LIFE), HALF_LIFE);
+
+        assertThat(profile.embedding()[0]).isCloseTo(0.5f, within(1e-6f));
+        assertThat(profile.updatedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void add_whenDimensionsDiffer_startOver() {
+        CustomerProfile profile = CustomerProfile.empty("customer")
+            .add(new float[]{1, 0}, 1, NOW, HALF_LIFE)
+            .add(new float[]{0, 0, 1}, 1, NOW, HALF_LIFE);
+
+        assertThat(profile.embedding()).containsExactly(0, 0, 1);
+        assertThat(profile.weight()).isEqualTo(1);
+    }
+}
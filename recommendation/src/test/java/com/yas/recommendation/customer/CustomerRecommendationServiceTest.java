@@ -0,0 +1,138 @@
+package com.yas.recommendation.customer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.CustomerProfileConfig;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+
+class CustomerRecommendationServiceTest {
+
+    private static final float[] EMBEDDING = {1, 0};
+
+    private CustomerProfileRepository customerProfileRepository;
+    private JdbcVectorService jdbcVectorService;
+    private MutableClock clock;
+    private CustomerRecommendationService customerRecommendationService;
+
+    @BeforeEach
+    void setUp() {
+        customerProfileRepository = mock(CustomerProfileRepository.class);
+        jdbcVectorService = mock(JdbcVectorService.class);
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        CustomerProfileConfig config = new CustomerProfileConfig(Duration.ofDays(30), 1, 3, Duration.ofMinutes(5),
+            100);
+        customerRecommendationService = new CustomerRecommendationService(customerProfileRepository,
+            jdbcVectorService, new ObjectMapper(), config, clock);
+    }
+
+    @Test
+    void recommend_whenNoProfile_returnEmptyWithoutQuery() {
+        when(customerProfileRepository.findEmbedding("customer")).thenReturn(Optional.empty());
+
+        assertThat(customerRecommendationService.recommend("customer")).isEmpty();
+        verify(jdbcVectorService, never()).similarityToEmbedding(any());
+    }
+
+    @Test
+    void recommend_whenCachedAndNotExpired_doNotQueryAgain() {
+        givenProfileNearProduct(7L);
+
+        customerRecommendationService.recommend("customer");
+        clock.advance(Duration.ofMinutes(4));
+        List<RelatedProductVm> result = customerRecommendationService.recommend("customer");
+
+        assertThat(result).extracting(RelatedProductVm::getProductId).containsExactly(7L);
+        verify(jdbcVectorService, times(1)).similarityToEmbedding(EMBEDDING);
+    }
+
+    @Test
+    void recommend_whenExpired_queryAgain() {
+        givenProfileNearProduct(7L);
+
+        customerRecommendationService.recommend("customer");
+        clock.advance(Duration.ofMinutes(5));
+        customerRecommendationService.recommend("customer");
+
+        verify(jdbcVectorService, times(2)).similarityToEmbedding(EMBEDDING);
+    }
+
+    @Test
+    void recommend_whenEvicted_queryAgain() {
+        givenProfileNearProduct(7L);
+
+        customerRecommendationService.recommend("customer");
+        customerRecommendationService.evict(Set.of("customer"));
+        customerRecommendationService.recommend("customer");
+
+        verify(jdbcVectorService, times(2)).similarityToEmbedding(EMBEDDING);
+    }
+
+    @Test
+    void recommend_whenEvictedWhileQuerying_doNotCache() {
+        givenProfileNearProduct(7L);
+        when(customerProfileRepository.findEmbedding("customer")).thenAnswer(invocation -> {
+            // the vector is updated while the first read queries with the old one
+            customerRecommendationService.evict(Set.of("customer"));
+            return Optional.of(EMBEDDING);
+        }).thenReturn(Optional.of(EMBEDDING));
+
+        customerRecommendationService.recommend("customer");
+        customerRecommendationService.recommend("customer");
+        customerRecommendationService.recommend("customer");
+
+        verify(jdbcVectorService, times(2)).similarityToEmbedding(EMBEDDING);
+    }
+
+    private void givenProfileNearProduct(Long productId) {
+        when(customerProfileRepository.findEmbedding("customer")).thenReturn(Optional.of(EMBEDDING));
+        when(jdbcVectorService.similarityToEmbedding(EMBEDDING))
+            .thenReturn(List.of(new Document("content", Map.of("id", productId, "distance", 0.1))));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
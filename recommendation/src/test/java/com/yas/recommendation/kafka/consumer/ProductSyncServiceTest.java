@@ -0,0 +1,85 @@
+package com.yas.recommendation.kafka.consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
+import com.yas.commonlibrary.kafka.cdc.message.Product;
+import com.yas.commonlibrary.kafka.cdc.message.ProductCdcMessage;
+import com.yas.commonlibrary.kafka.cdc.message.ProductMsgKey;
+import com.yas.recommendation.vector.common.store.VectorUpsertException;
+import com.yas.recommendation.vector.product.service.ProductVectorSyncService;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+class ProductSyncServiceTest {
+
+    private static final String TOPIC = "dbproduct.public.product";
+
+    private ProductVectorSyncService productVectorSyncService;
+
+    private ProductSyncService productSyncService;
+
+    @BeforeEach
+    void setUp() {
+        productVectorSyncService = mock(ProductVectorSyncService.class);
+        productSyncService = new ProductSyncService(productVectorSyncService);
+    }
+
+    @Test
+    void syncAll_whenSameProductTwice_applyLatestOnly() {
+        productSyncService.syncAll(List.of(
+            consumerRecord(0, 1L, Operation.CREATE, true),
+            consumerRecord(1, 2L, Operation.CREATE, true),
+            consumerRecord(2, 1L, Operation.UPDATE, false)
+        ));
+
+        verify(productVectorSyncService).deleteProductVectors(List.of(1L));
+        verify(productVectorSyncService).upsertProductVectors(List.of(2L));
+    }
+
+    @Test
+    void syncAll_whenProductCannotBeFetched_failAtItsLatestRecord() {
+        doThrow(new VectorUpsertException(Map.of(2L, new IllegalStateException("404 Not Found")), Set.of()))
+            .when(productVectorSyncService).upsertProductVectors(anyCollection());
+
+        BatchListenerFailedException exception = catchThrowableOfType(() -> productSyncService.syncAll(List.of(
+            consumerRecord(0, 1L, Operation.CREATE, true),
+            consumerRecord(1, 2L, Operation.CREATE, true),
+            consumerRecord(2, 3L, Operation.CREATE, true),
+            consumerRecord(3, 2L, Operation.UPDATE, true)
+        )), BatchListenerFailedException.class);
+
+        assertThat(exception.getIndex()).isEqualTo(3);
+        assertThat(exception.getCause()).isInstanceOf(VectorUpsertException.class);
+        verify(productVectorSyncService).upsertProductVectors(List.of(1L, 3L, 2L));
+    }
+
+    @Test
+    void syncAll_whenEmpty_doNothing() {
+        productSyncService.syncAll(List.of());
+
+        verify(productVectorSyncService, never()).upsertProductVectors(anyCollection());
+        verify(productVectorSyncService, never()).deleteProductVectors(anyCollection());
+    }
+
+    private static ConsumerRecord<ProductMsgKey, ProductCdcMessage> consumerRecord(long offset, long productId,
+                                                                                   Operation operation,
+                                                                                   boolean isPublished) {
+        ProductCdcMessage message = ProductCdcMessage.builder()
+            .op(operation)
+            .after(Product.builder().id(productId).isPublished(isPublished).build())
+            .build();
+        return new ConsumerRecord<>(TOPIC, 0, offset, ProductMsgKey.builder().id(productId).build(), message);
+    }
+}
@@ -4,8 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -14,6 +18,7 @@ import com.azure.ai.openai.OpenAIClient;
 import com.yas.recommendation.config.KafkaIntegrationTestConfiguration;
 import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
 import com.yas.recommendation.service.ProductService;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
 import com.yas.recommendation.vector.product.document.ProductDocument;
 import com.yas.recommendation.vector.product.store.ProductVectorRepository;
 import com.yas.recommendation.viewmodel.ProductDetailVm;
@@ -29,6 +34,7 @@ import org.mockito.Mock;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.vectorstore.SearchRequest;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -51,6 +57,9 @@ public class ProductVectorRepositoryTest extends BaseVectorRepositoryTest<Produc
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private JdbcVectorService jdbcVectorService;
+
     @Autowired
     private ProductVectorRepository productVectorRepository;
 
@@ -89,32 +98,45 @@ public class ProductVectorRepositoryTest extends BaseVectorRepositoryTest<Produc
         );
     }
 
-    @DisplayName("When performing search similarity, search query must be handle correctly")
+    @DisplayName("When performing search similarity, stored embedding must be reused without fetching product")
     @Test
     public void testSearchDocument() {
         // Given
         var productId = 1L;
-        ProductDetailVm searchedProduct = getProductDetailVm(productId);
 
         // When
-        when(productService.getProductDetail(productId)).thenReturn(searchedProduct);
-
         Document similarDocument = new Document("content", Map.of("id", "2"));
-        doReturn(List.of(similarDocument)).when(vectorStore).similaritySearch(any(SearchRequest.class));
+        doReturn(List.of(similarDocument)).when(jdbcVectorService)
+            .similarityProduct(productId, ProductDocument.class, null, null);
         List<ProductDocument> productDocuments = productVectorRepository.search(productId);
 
         // Then
-        ArgumentCaptor<SearchRequest> searchRequestCaptor = ArgumentCaptor.forClass(SearchRequest.class);
-        verify(vectorStore).similaritySearch(searchRequestCaptor.capture());
-        assertSearchRequest(searchRequestCaptor.getValue(), searchedProduct);
+        verify(productService, never()).getProductDetail(anyLong());
+        verify(vectorStore, never()).similaritySearch(any(SearchRequest.class));
 
         assertEquals(1, productDocuments.size());
         assertEquals(similarDocument.getContent(), productDocuments.getFirst().getContent());
-        assertEquals(similarDocument.getContent(), productDocuments.getFirst().getContent());
-        assertEquals(similarDocument.getMetadata().keySet(), productDocuments.getFirst().getMetadata().keySet());
         assertEquals(similarDocument.getMetadata().entrySet(), productDocuments.getFirst().getMetadata().entrySet());
     }
 
+    @DisplayName("When performing search similarity with a filter, filter must be passed to the vector query")
+    @Test
+    public void testSearchDocumentWithFilter() {
+        // Given
+        var productId = 1L;
+        doReturn(List.of()).when(jdbcVectorService)
+            .similarityProduct(eq(productId), eq(ProductDocument.class), isNull(), any(Filter.Expression.class));
+
+        // When
+        productVectorRepository.search(productId, "brandName == 'Apple' && price < 1000");
+
+        // Then
+        ArgumentCaptor<Filter.Expression> filterCaptor = ArgumentCaptor.forClass(Filter.Expression.class);
+        verify(jdbcVectorService).similarityProduct(eq(productId), eq(ProductDocument.class), isNull(),
+            filterCaptor.capture());
+        assertEquals(Filter.ExpressionType.AND, filterCaptor.getValue().type());
+    }
+
     @DisplayName("When creating document, document must be created as metadata defined")
     @Test
     public void testAddDocument() {
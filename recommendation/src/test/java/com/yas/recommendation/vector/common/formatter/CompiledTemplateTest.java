@@ -0,0 +1,66 @@
+package com.yas.recommendation.vector.common.formatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CompiledTemplateTest {
+
+    private static final DocumentFormatter FORMATTER = new DefaultDocumentFormatter();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "",
+        "  plain text  ",
+        "<p>Hello <b>world</b></p>",
+        "a < b and c > d",
+        "unclosed <tag",
+        "a<b<c>d",
+        "<<>>",
+        ">only closing",
+        "<br/>trailing<br/>  "
+    })
+    void htmlTagStripper_whenAppending_matchRegexRemoval(String text) {
+        String expected = FORMATTER.removeHtmlTags(text);
+
+        assertThat(new HtmlTagStripper(0).append(text)).hasToString(expected);
+    }
+
+    @Test
+    void htmlTagStripper_whenTagSpansAppends_removeWholeTag() {
+        HtmlTagStripper stripper = new HtmlTagStripper(0).append("bold <b").append(" class=\"x\">text");
+
+        assertThat(stripper).hasToString("bold text");
+    }
+
+    @Test
+    void format_whenComparedToMapSubstitution_produceSameContent() {
+        Item item = new Item("<i>Desk</i>", null, 12.5, List.of("a", "b"));
+        String template = "{name}| {description}| Price: {price}| {tags}| {unknown}| {";
+
+        String expected = FORMATTER.format(objectMapper.convertValue(item, Map.class), template, objectMapper);
+
+        assertThat(FORMATTER.compile(template, Item.class).format(item))
+            .isEqualTo(expected)
+            .isEqualTo("Desk| {description}| Price: 12.5| [a, b]| {unknown}| {");
+    }
+
+    @Test
+    void format_whenFieldFormatterGiven_applyItToNullValues() {
+        CompiledTemplate<Item> template = CompiledTemplate.compile("{name}: {tags}", Item.class,
+            Map.of("tags", tags -> tags == null ? "none" : String.join("/", (List<String>) tags).toUpperCase()));
+
+        assertThat(template.format(new Item("Desk", null, null, null))).isEqualTo("Desk: none");
+        assertThat(template.format(new Item("Desk", null, null, List.of("a", "b")))).isEqualTo("Desk: A/B");
+    }
+
+    record Item(String name, String description, Double price, List<String> tags) {
+    }
+}
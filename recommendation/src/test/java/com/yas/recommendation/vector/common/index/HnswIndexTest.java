@@ -0,0 +1,130 @@
+package com.yas.recommendation.vector.common.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+    private static final int VECTORS = 2000;
+
+    private float[][] vectors;
+    private HnswIndex index;
+
+    @BeforeEach
+    void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        vectors = new float[VECTORS][];
+        index = new HnswIndex(DIMENSIONS, 16, 100, new SplittableRandom(7));
+        for (int i = 0; i < VECTORS; i++) {
+            vectors[i] = randomVector(random);
+            index.put(i + 1L, vectors[i]);
+        }
+    }
+
+    @Test
+    void search_whenComparedToExactSearch_findMostNeighbours() {
+        SplittableRandom random = new SplittableRandom(1);
+        double recall = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Long> exact = exactNearest(query, 10, -1);
+
+            Set<Long> found = new HashSet<>();
+            index.search(query, 10, 100).forEach(neighbour -> found.add(neighbour.key()));
+
+            found.retainAll(exact);
+            recall += found.size() / 10.0;
+        }
+
+        assertThat(recall / queries).isGreaterThan(0.9);
+    }
+
+    @Test
+    void searchByKey_excludeKeyAndSortByDistance() {
+        List<HnswIndex.Neighbour> neighbours = index.searchByKey(5L, 10, 64);
+
+        assertThat(neighbours).hasSize(10)
+            .extracting(HnswIndex.Neighbour::key).doesNotContain(5L);
+        assertThat(neighbours).isSortedAccordingTo(Comparator.comparingDouble(HnswIndex.Neighbour::distance));
+    }
+
+    @Test
+    void searchByKey_whenVectorIsDuplicated_returnDuplicateFirst() {
+        index.put(VECTORS + 1L, vectors[99]);
+
+        List<HnswIndex.Neighbour> neighbours = index.searchByKey(100L, 1, 64);
+
+        assertThat(neighbours).extracting(HnswIndex.Neighbour::key).containsExactly(VECTORS + 1L);
+        assertThat(neighbours.getFirst().distance()).isLessThan(1e-3f);
+    }
+
+    @Test
+    void remove_whenRemoved_neverReturnKey() {
+        index.put(VECTORS + 1L, vectors[99]);
+        index.remove(VECTORS + 1L);
+
+        assertThat(index.contains(VECTORS + 1L)).isFalse();
+        assertThat(index.size()).isEqualTo(VECTORS);
+        assertThat(index.search(vectors[99], 5, 64)).extracting(HnswIndex.Neighbour::key)
+            .doesNotContain(VECTORS + 1L)
+            .startsWith(100L);
+        assertThat(index.searchByKey(VECTORS + 1L, 5, 64)).isEmpty();
+    }
+
+    @Test
+    void put_whenKeyExists_replaceVector() {
+        assertThat(index.put(1L, vectors[99])).isTrue();
+
+        assertThat(index.size()).isEqualTo(VECTORS);
+        assertThat(index.deletedRatio()).isEqualTo(1.0 / (VECTORS + 1));
+        assertThat(index.searchByKey(100L, 1, 64)).extracting(HnswIndex.Neighbour::key).containsExactly(1L);
+    }
+
+    @Test
+    void put_whenVectorUnchanged_keepNode() {
+        assertThat(index.put(1L, vectors[0].clone())).isFalse();
+
+        assertThat(index.deletedRatio()).isZero();
+        assertThat(index.searchByKey(1L, 1, 64)).isNotEmpty();
+    }
+
+    private Set<Long> exactNearest(float[] query, int k, int excluded) {
+        Set<Long> nearest = new HashSet<>();
+        IntStream.range(0, VECTORS)
+            .filter(i -> i != excluded)
+            .boxed()
+            .sorted(Comparator.comparingDouble(i -> cosineDistance(query, vectors[i])))
+            .limit(k)
+            .forEach(i -> nearest.add(i + 1L));
+        return nearest;
+    }
+
+    private static double cosineDistance(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return 1 - dot / Math.sqrt(normA * normB);
+    }
+
+    private static float[] randomVector(SplittableRandom random) {
+        float[] vector = new float[DIMENSIONS];
+        Arrays.setAll(new double[DIMENSIONS], i -> vector[i] = (float) random.nextGaussian());
+        return vector;
+    }
+}
@@ -0,0 +1,105 @@
+package com.yas.recommendation.vector.common.query;
+
+import static com.yas.recommendation.vector.common.query.PgvectorBenchmark.QUERIES;
+import static com.yas.recommendation.vector.common.query.PgvectorBenchmark.percentile;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/**
+ * Compares the previous related-product query, which filters on the distance inside the scan, with the
+ * k-NN query of {@link JdbcVectorService} on synthetic vectors in a local pgvector container.
+ *
+ * <p>Opt-in, see {@link PgvectorBenchmark}:
+ * {@code mvn test -Dtest=JdbcVectorServiceBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@OptInBenchmark
+class JdbcVectorServiceBenchmarkTest {
+
+    private static final int VECTORS = Integer.getInteger("benchmark.vectors", 500_000);
+    private static final int TOP_K = 10;
+
+    private static final String PREVIOUS_QUERY = """
+        WITH entity AS (
+            SELECT id, content, metadata, embedding FROM vector_store WHERE id = ?
+        )
+        SELECT vs.id, vs.content, vs.metadata, (vs.embedding <=> entity.embedding) AS similarity
+        FROM vector_store vs
+        JOIN entity ON true
+        WHERE vs.id <> ? AND (vs.embedding <=> entity.embedding) > ?
+        ORDER BY similarity
+        LIMIT ?
+        """;
+
+    private static PgvectorBenchmark benchmark;
+
+    @BeforeAll
+    static void setUp() {
+        benchmark = PgvectorBenchmark.start(VECTORS);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        benchmark.close();
+    }
+
+    @Test
+    void similarityProduct_comparedToPreviousQuery() {
+        JdbcTemplate jdbcTemplate = benchmark.getJdbcTemplate();
+        JdbcVectorService service = new JdbcVectorService(jdbcTemplate,
+            new DataSourceTransactionManager(benchmark.getDataSource()), new ObjectMapper(),
+            new EmbeddingSearchConfiguration(-1D, TOP_K, 4, 40), "vector_store");
+
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+            "EXPLAIN " + service.getFormattedQuery(), String.class, UUID.randomUUID(), 41, UUID.randomUUID(), -1D,
+            TOP_K));
+        assertThat(plan).contains("vector_store_embedding_idx");
+
+        Random random = new Random(42);
+        long[] productIds = random.longs(QUERIES, 1, VECTORS + 1L).toArray();
+        long[] previousNanos = new long[QUERIES];
+        long[] knnNanos = new long[QUERIES];
+        double recall = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            UUID id = PgvectorBenchmark.documentId(productIds[i]);
+
+            long start = System.nanoTime();
+            List<String> exact = jdbcTemplate.queryForList(PREVIOUS_QUERY, id, id, -1D, TOP_K)
+                .stream().map(row -> row.get("id").toString()).toList();
+            previousNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<Document> approximate = service.similarityProduct(productIds[i], ProductDocument.class);
+            knnNanos[i] = System.nanoTime() - start;
+
+            Set<String> found = new HashSet<>();
+            approximate.forEach(document -> found.add(document.getId()));
+            recall += exact.isEmpty() ? 1 : exact.stream().filter(found::contains).count() / (double) exact.size();
+        }
+        recall /= QUERIES;
+
+        log.info("vectors={} dimensions={} queries={}", VECTORS, PgvectorBenchmark.DIMENSIONS, QUERIES);
+        log.info("previous query: p50={}ms p95={}ms", percentile(previousNanos, 50), percentile(previousNanos, 95));
+        log.info("k-NN query:     p50={}ms p95={}ms recall@{}={}", percentile(knnNanos, 50),
+            percentile(knnNanos, 95), TOP_K, recall);
+
+        // Uniform random vectors are a worst case for graph indexes, so recall only gets a loose bound
+        assertThat(recall).isGreaterThan(0.1);
+        assertThat(percentile(knnNanos, 50)).isLessThan(percentile(previousNanos, 50));
+    }
+}
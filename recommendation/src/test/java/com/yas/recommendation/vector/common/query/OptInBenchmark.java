@@ -0,0 +1,17 @@
+package com.yas.recommendation.vector.common.query;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Marks a benchmark that only runs with {@code -Dbenchmark=true}, e.g.
+ * {@code mvn test -Dtest=JdbcVectorServiceBenchmarkTest -Dbenchmark=true}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public @interface OptInBenchmark {
+}
@@ -0,0 +1,102 @@
+package com.yas.recommendation.vector.common.query;
+
+import java.util.Arrays;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Local pgvector container holding a {@code vector_store} table of synthetic product vectors, shared by the
+ * vector query benchmarks.
+ *
+ * <p>The benchmarks are opt-in because loading and indexing the vectors takes a while: they run with
+ * {@code -Dbenchmark=true}, and the size can be changed with {@code -Dbenchmark.vectors},
+ * {@code -Dbenchmark.dimensions} and {@code -Dbenchmark.queries}.
+ */
+public final class PgvectorBenchmark implements AutoCloseable {
+
+    public static final int DIMENSIONS = Integer.getInteger("benchmark.dimensions", 1536);
+    public static final int QUERIES = Integer.getInteger("benchmark.queries", 200);
+
+    private final PostgreSQLContainer<?> postgres;
+    private final SingleConnectionDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    private PgvectorBenchmark(PostgreSQLContainer<?> postgres) {
+        this.postgres = postgres;
+        this.dataSource = new SingleConnectionDataSource(postgres.getJdbcUrl(), postgres.getUsername(),
+            postgres.getPassword(), true);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Starts the container and loads {@code vectors} random product vectors with an HNSW index.
+     */
+    public static PgvectorBenchmark start(int vectors) {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("pgvector/pgvector:pg16")
+            .asCompatibleSubstituteFor("postgres"))
+            .withCommand("postgres", "-c", "maintenance_work_mem=2GB", "-c", "shared_buffers=1GB");
+        postgres.start();
+        PgvectorBenchmark benchmark = new PgvectorBenchmark(postgres);
+        benchmark.load(vectors);
+        return benchmark;
+    }
+
+    public SingleConnectionDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * Id of the stored document of a product, as generated by DefaultIdGenerator.
+     */
+    public static UUID documentId(long productId) {
+        return UUID.nameUUIDFromBytes("PRODUCT-%d".formatted(productId).getBytes());
+    }
+
+    /**
+     * Percentile of the measured durations, in milliseconds.
+     */
+    public static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    @Override
+    public void close() {
+        dataSource.destroy();
+        postgres.stop();
+    }
+
+    private void load(int vectors) {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS vector");
+        jdbcTemplate.execute("""
+            CREATE TABLE vector_store (
+                id uuid PRIMARY KEY,
+                content text,
+                metadata json,
+                embedding vector(%d)
+            )""".formatted(DIMENSIONS));
+        // Vectors are generated server side, shipping 500k x 1536 floats as text would dominate the run.
+        // Ids are the version 3 UUIDs of DefaultIdGenerator, i.e. md5 with the version and variant bits set.
+        jdbcTemplate.execute("""
+            INSERT INTO vector_store (id, content, metadata, embedding)
+            SELECT
+                overlay(overlay(md5('PRODUCT-' || g) placing '3' from 13)
+                    placing substr('89ab', (('x' || substr(md5('PRODUCT-' || g), 17, 1))::bit(4)::int & 3) + 1, 1)
+                    from 17)::uuid,
+                'product ' || g,
+                json_build_object('id', g, 'name', 'product ' || g, 'type', 'PRODUCT'),
+                (SELECT array_agg(random()::real) FROM generate_series(1, %d) WHERE g > 0)::vector
+            FROM generate_series(1, %d) g""".formatted(DIMENSIONS, vectors));
+        jdbcTemplate.execute("CREATE INDEX ON vector_store USING hnsw (embedding vector_cosine_ops)");
+        jdbcTemplate.execute("ANALYZE vector_store");
+    }
+}
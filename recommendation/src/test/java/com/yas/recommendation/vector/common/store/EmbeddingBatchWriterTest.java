@@ -0,0 +1,125 @@
+package com.yas.recommendation.vector.common.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.EmbeddingBatchConfig;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+class EmbeddingBatchWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private EmbeddingModel embeddingModel;
+
+    private EmbeddingBatchWriter embeddingBatchWriter;
+
+    private final Map<String, String> storedHashes = new HashMap<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        embeddingModel = mock(EmbeddingModel.class);
+        embeddingBatchWriter = new EmbeddingBatchWriter(jdbcTemplate, embeddingModel, new ObjectMapper(),
+            new EmbeddingBatchConfig(2), "vector_store");
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Map.Entry<String, String> stored : storedHashes.entrySet()) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getString("id")).thenReturn(stored.getKey());
+                when(resultSet.getString("content_hash")).thenReturn(stored.getValue());
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(PreparedStatementSetter.class), any(RowCallbackHandler.class));
+        when(embeddingModel.embed(anyList())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            return texts.stream().map(text -> new float[] {text.length()}).toList();
+        });
+    }
+
+    @Test
+    void upsert_whenNothingStored_embedInBatches() {
+        List<Document> documents = List.of(document(1, "first"), document(2, "second"), document(3, "third"));
+
+        Set<String> embedded = embeddingBatchWriter.upsert(documents);
+
+        assertThat(embedded).containsExactlyInAnyOrderElementsOf(documents.stream().map(Document::getId).toList());
+        verify(embeddingModel, times(2)).embed(anyList());
+        verify(jdbcTemplate, times(2)).update(contains("INSERT INTO vector_store"), any(PreparedStatementSetter.class));
+        verify(jdbcTemplate, never())
+            .update(contains("UPDATE vector_store t SET metadata"), any(PreparedStatementSetter.class));
+        assertThat(documents).allSatisfy(document -> assertThat(document.getMetadata())
+            .containsKey(EmbeddingBatchWriter.CONTENT_HASH_METADATA));
+    }
+
+    @Test
+    void upsert_whenContentUnchanged_onlyRefreshMetadata() {
+        Document unchanged = document(1, "first");
+        Document changed = document(2, "second");
+        storedHashes.put(unchanged.getId(), EmbeddingBatchWriter.contentHash(unchanged));
+        storedHashes.put(changed.getId(), "previous-hash");
+
+        Set<String> embedded = embeddingBatchWriter.upsert(List.of(unchanged, changed));
+
+        assertThat(embedded).containsExactly(changed.getId());
+        verify(embeddingModel, times(1)).embed(List.of("second"));
+        verify(jdbcTemplate, times(1)).update(contains("INSERT INTO vector_store"), any(PreparedStatementSetter.class));
+        verify(jdbcTemplate, times(1))
+            .update(contains("UPDATE vector_store t SET metadata"), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void upsert_whenOnlyMetadataChanged_doNotEmbed() {
+        Document stored = document(1, "first");
+        storedHashes.put(stored.getId(), EmbeddingBatchWriter.contentHash(stored));
+        Document repriced = document(1, "first");
+        repriced.getMetadata().put("price", 899.0);
+
+        Set<String> embedded = embeddingBatchWriter.upsert(List.of(repriced));
+
+        assertThat(embedded).isEmpty();
+        verify(embeddingModel, never()).embed(anyList());
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO vector_store"), any(PreparedStatementSetter.class));
+        verify(jdbcTemplate, times(1))
+            .update(contains("UPDATE vector_store t SET metadata"), any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    void upsert_whenEmpty_doNothing() {
+        assertThat(embeddingBatchWriter.upsert(List.of())).isEmpty();
+
+        verify(embeddingModel, never()).embed(anyList());
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+    }
+
+    private static Document document(long id, String content) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("id", id);
+        return new Document(UUID.nameUUIDFromBytes("PRODUCT-%d".formatted(id).getBytes()).toString(), content,
+            metadata);
+    }
+}
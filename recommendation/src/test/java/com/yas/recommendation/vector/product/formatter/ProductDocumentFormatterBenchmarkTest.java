@@ -0,0 +1,78 @@
+package com.yas.recommendation.vector.product.formatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.vector.common.formatter.CompiledTemplate;
+import com.yas.recommendation.vector.common.query.OptInBenchmark;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.viewmodel.CategoryVm;
+import com.yas.recommendation.viewmodel.ProductAttributeValueVm;
+import com.yas.recommendation.viewmodel.ProductDetailVm;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the CPU time per document of the map based formatting, as done before for every stored product, with
+ * the compiled template.
+ *
+ * <p>Opt-in: {@code mvn test -Dtest=ProductDocumentFormatterBenchmarkTest -Dbenchmark=true}. The number of
+ * documents per round can be changed with {@code -Dbenchmark.documents}.
+ */
+@Slf4j
+@OptInBenchmark
+class ProductDocumentFormatterBenchmarkTest {
+
+    private static final int DOCUMENTS = Integer.getInteger("benchmark.documents", 200_000);
+    private static final int ROUNDS = 5;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ProductDocumentFormatter formatter = new ProductDocumentFormatter();
+
+    @Test
+    void format_comparedToMapFormatting() {
+        ProductDetailVm product = ProductDocumentFormatterTest.product(
+            List.of(new CategoryVm(1L, "Phones", null, "phones", null, null, null, true),
+                new CategoryVm(2L, "Apple", null, "apple", null, null, null, true)),
+            List.of(new ProductAttributeValueVm(1L, "Color", "<b>Black</b>"),
+                new ProductAttributeValueVm(2L, "RAM", "8GB"),
+                new ProductAttributeValueVm(3L, "Storage", "128GB"))
+        );
+        CompiledTemplate<ProductDetailVm> template =
+            formatter.compile(ProductDocument.CONTENT_FORMAT, ProductDetailVm.class);
+
+        double mapNanos = nanosPerDocument(p -> formatter.format(objectMapper.convertValue(p, Map.class),
+            ProductDocument.CONTENT_FORMAT, objectMapper).length(), product);
+        double compiledNanos = nanosPerDocument(p -> template.format(p).length(), product);
+
+        log.info("documents={} rounds={}", DOCUMENTS, ROUNDS);
+        log.info("map formatting:    {} ns/document", Math.round(mapNanos));
+        log.info("compiled template: {} ns/document", Math.round(compiledNanos));
+
+        assertThat(compiledNanos).isLessThan(mapNanos / 2);
+    }
+
+    /**
+     * Best round after a warm-up round, the sum of the lengths is kept so the work cannot be eliminated.
+     */
+    private static double nanosPerDocument(ToIntFunction<ProductDetailVm> format, ProductDetailVm product) {
+        long best = Long.MAX_VALUE;
+        long blackhole = 0;
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < DOCUMENTS; i++) {
+                blackhole += format.applyAsInt(product);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round > 0) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        assertThat(blackhole).isPositive();
+        return best / (double) DOCUMENTS;
+    }
+}
@@ -0,0 +1,78 @@
+package com.yas.recommendation.vector.product.formatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.viewmodel.CategoryVm;
+import com.yas.recommendation.viewmodel.ProductAttributeValueVm;
+import com.yas.recommendation.viewmodel.ProductDetailVm;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ProductDocumentFormatterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ProductDocumentFormatter formatter = new ProductDocumentFormatter();
+
+    @Test
+    void compile_whenProductIsComplete_produceSameContentAsMapFormatting() {
+        ProductDetailVm product = product(
+            List.of(new CategoryVm(1L, "Phones", null, "phones", null, null, null, true)),
+            List.of(new ProductAttributeValueVm(1L, "Color", "<b>Black</b>"), new ProductAttributeValueVm(2L, "RAM",
+                "8GB"))
+        );
+
+        String content = formatter.compile(ProductDocument.CONTENT_FORMAT, ProductDetailVm.class).format(product);
+
+        assertThat(content).isEqualTo(formatWithMap(product));
+        assertThat(content).contains("Price: 999.99", "[Phones]", "[Color: Black, RAM: 8GB]").doesNotContain("<");
+    }
+
+    @Test
+    void compile_whenFieldsAreMissing_produceSameContentAsMapFormatting() {
+        ProductDetailVm product = product(null, List.of());
+
+        String content = formatter.compile(ProductDocument.CONTENT_FORMAT, ProductDetailVm.class).format(product);
+
+        assertThat(content).isEqualTo(formatWithMap(product));
+        assertThat(content).contains("{metaKeyword}", "| []|");
+    }
+
+    private String formatWithMap(ProductDetailVm product) {
+        return formatter.format(objectMapper.convertValue(product, Map.class), ProductDocument.CONTENT_FORMAT,
+            objectMapper);
+    }
+
+    static ProductDetailVm product(List<CategoryVm> categories, List<ProductAttributeValueVm> attributeValues) {
+        return new ProductDetailVm(
+            1L,
+            "IPhone 14 Pro",
+            "<p>Latest iPhone model</p>",
+            "The iPhone 14 Pro comes with the latest technology...",
+            "<ul><li>6.1-inch display</li><li>A16 Bionic chip</li></ul>",
+            "IPH14PRO",
+            "0123456789012",
+            "iphone-14-pro",
+            true,
+            true,
+            true,
+            true,
+            true,
+            999.99,
+            101L,
+            categories,
+            "iPhone 14 Pro",
+            null,
+            "Buy the latest iPhone 14 Pro...",
+            1L,
+            "Apple",
+            attributeValues,
+            null,
+            null,
+            null
+        );
+    }
+}
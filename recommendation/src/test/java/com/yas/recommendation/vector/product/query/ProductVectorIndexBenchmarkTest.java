@@ -0,0 +1,122 @@
+package com.yas.recommendation.vector.product.query;
+
+import static com.yas.recommendation.vector.common.query.PgvectorBenchmark.QUERIES;
+import static com.yas.recommendation.vector.common.query.PgvectorBenchmark.percentile;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
+import com.yas.recommendation.configuration.VectorIndexConfig;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import com.yas.recommendation.vector.common.query.OptInBenchmark;
+import com.yas.recommendation.vector.common.query.PgvectorBenchmark;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+/**
+ * Compares related-product queries answered by the in-process {@link ProductVectorIndex} with the pgvector HNSW
+ * query of {@link JdbcVectorService}, for recall against an exact scan and for latency, on synthetic vectors in a
+ * local pgvector container.
+ *
+ * <p>Opt-in, see {@link PgvectorBenchmark}:
+ * {@code mvn test -Dtest=ProductVectorIndexBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@OptInBenchmark
+class ProductVectorIndexBenchmarkTest {
+
+    private static final int VECTORS = Integer.getInteger("benchmark.vectors", 100_000);
+    private static final int TOP_K = 10;
+
+    private static final String EXACT_QUERY = """
+        WITH entity AS (
+            SELECT embedding FROM vector_store WHERE id = ?
+        )
+        SELECT (vs.metadata->>'id')::bigint AS id
+        FROM vector_store vs
+        JOIN entity ON true
+        WHERE vs.id <> ?
+        ORDER BY (vs.embedding <=> entity.embedding) + 0
+        LIMIT ?
+        """;
+
+    private static PgvectorBenchmark benchmark;
+
+    @BeforeAll
+    static void setUp() {
+        benchmark = PgvectorBenchmark.start(VECTORS);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        benchmark.close();
+    }
+
+    @Test
+    void search_comparedToPgvector() {
+        EmbeddingSearchConfiguration searchConfiguration = new EmbeddingSearchConfiguration(-1D, TOP_K, 4, 40);
+        JdbcTemplate jdbcTemplate = benchmark.getJdbcTemplate();
+        JdbcVectorService jdbcVectorService = new JdbcVectorService(jdbcTemplate,
+            new DataSourceTransactionManager(benchmark.getDataSource()), new ObjectMapper(), searchConfiguration,
+            "vector_store");
+        ProductVectorIndex productVectorIndex = new ProductVectorIndex(jdbcVectorService, new ObjectMapper(),
+            searchConfiguration, new VectorIndexConfig(true, 16, 100, 64, 0.2, Duration.ofHours(6)));
+
+        long buildStart = System.nanoTime();
+        productVectorIndex.build();
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        assertThat(productVectorIndex.isReady()).isTrue();
+
+        Random random = new Random(42);
+        long[] productIds = random.longs(QUERIES, 1, VECTORS + 1L).toArray();
+        long[] pgvectorNanos = new long[QUERIES];
+        long[] indexNanos = new long[QUERIES];
+        double pgvectorRecall = 0;
+        double indexRecall = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            UUID id = PgvectorBenchmark.documentId(productIds[i]);
+            Set<Long> exact = new HashSet<>(jdbcTemplate.queryForList(EXACT_QUERY, Long.class, id, id, TOP_K));
+
+            long start = System.nanoTime();
+            Set<Long> fromPgvector = new HashSet<>();
+            jdbcVectorService.similarityProduct(productIds[i], ProductDocument.class).forEach(document ->
+                fromPgvector.add(((Number) document.getMetadata().get("id")).longValue()));
+            pgvectorNanos[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<RelatedProductVm> fromIndex = productVectorIndex.search(productIds[i], null).orElseThrow();
+            indexNanos[i] = System.nanoTime() - start;
+
+            pgvectorRecall += recall(exact, fromPgvector);
+            indexRecall += recall(exact, new HashSet<>(fromIndex.stream().map(RelatedProductVm::getProductId)
+                .toList()));
+        }
+
+        log.info("vectors={} dimensions={} queries={} index build={}ms", VECTORS, PgvectorBenchmark.DIMENSIONS,
+            QUERIES, buildMillis);
+        log.info("pgvector: p50={}ms p95={}ms recall@{}={}", percentile(pgvectorNanos, 50),
+            percentile(pgvectorNanos, 95), TOP_K, pgvectorRecall / QUERIES);
+        log.info("index:    p50={}ms p95={}ms recall@{}={}", percentile(indexNanos, 50),
+            percentile(indexNanos, 95), TOP_K, indexRecall / QUERIES);
+
+        // Uniform random vectors are a worst case for graph indexes, so recall only gets a loose bound
+        assertThat(indexRecall / QUERIES).isGreaterThan(0.1);
+        assertThat(percentile(indexNanos, 50)).isLessThan(percentile(pgvectorNanos, 50));
+    }
+
+    private static double recall(Set<Long> exact, Set<Long> found) {
+        return exact.isEmpty() ? 1 : exact.stream().filter(found::contains).count() / (double) exact.size();
+    }
+}
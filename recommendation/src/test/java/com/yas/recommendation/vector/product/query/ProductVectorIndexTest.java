@@ -0,0 +1,112 @@
+package com.yas.recommendation.vector.product.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yas.recommendation.configuration.EmbeddingSearchConfiguration;
+import com.yas.recommendation.configuration.VectorIndexConfig;
+import com.yas.recommendation.vector.common.query.JdbcVectorService;
+import com.yas.recommendation.vector.common.query.StoredVector;
+import com.yas.recommendation.vector.product.document.ProductDocument;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ProductVectorIndexTest {
+
+    private JdbcVectorService jdbcVectorService;
+    private ProductVectorIndex productVectorIndex;
+
+    @BeforeEach
+    void setUp() {
+        jdbcVectorService = mock(JdbcVectorService.class);
+        productVectorIndex = new ProductVectorIndex(jdbcVectorService, new ObjectMapper(),
+            new EmbeddingSearchConfiguration(-1D, 2, 4, 40),
+            new VectorIndexConfig(true, 8, 32, 16, 0.2, Duration.ofHours(6)));
+    }
+
+    @Test
+    void search_whenNotBuilt_fallBack() {
+        assertThat(productVectorIndex.isReady()).isFalse();
+        assertThat(productVectorIndex.search(1L, null)).isEmpty();
+    }
+
+    @Test
+    void search_whenBuilt_returnNearestProducts() {
+        givenStoredVectors(vector(1L, 1, 0), vector(2L, 0.9f, 0.1f), vector(3L, 0, 1), vector(4L, 0.8f, 0.2f));
+
+        productVectorIndex.build();
+
+        assertThat(productVectorIndex.search(1L, null)).hasValueSatisfying(related ->
+            assertThat(related).extracting(RelatedProductVm::getProductId).containsExactly(2L, 4L));
+        assertThat(productVectorIndex.search(99L, null)).isEmpty();
+    }
+
+    @Test
+    void upsert_whenVectorMissing_removeProduct() {
+        givenStoredVectors(vector(1L, 1, 0), vector(2L, 0.9f, 0.1f), vector(3L, 0, 1));
+        productVectorIndex.build();
+        when(jdbcVectorService.findVectors(ProductDocument.class, List.of(2L, 5L)))
+            .thenReturn(List.of(vector(5L, 1, 0.05f)));
+
+        productVectorIndex.upsert(List.of(2L, 5L));
+
+        assertThat(productVectorIndex.search(2L, null)).isEmpty();
+        assertThat(productVectorIndex.search(1L, null)).hasValueSatisfying(related ->
+            assertThat(related).extracting(RelatedProductVm::getProductId).containsExactly(5L, 3L));
+    }
+
+    @Test
+    void upsert_whenMostVectorsReplaced_rebuild() {
+        givenStoredVectors(vector(1L, 1, 0), vector(2L, 0.9f, 0.1f), vector(3L, 0, 1));
+        productVectorIndex.build();
+        when(jdbcVectorService.findVectors(ProductDocument.class, List.of(1L)))
+            .thenReturn(List.of(vector(1L, 1, 0)));
+        when(jdbcVectorService.findVectors(ProductDocument.class, List.of(2L)))
+            .thenReturn(List.of(vector(2L, 0.5f, 0.5f)));
+
+        productVectorIndex.upsert(List.of(1L));
+        verify(jdbcVectorService, times(1)).forEachVector(eq(ProductDocument.class), any());
+
+        productVectorIndex.upsert(List.of(2L));
+        verify(jdbcVectorService, timeout(5000).times(2)).forEachVector(eq(ProductDocument.class), any());
+    }
+
+    @Test
+    void upsert_whenDisabled_doNothing() {
+        productVectorIndex = new ProductVectorIndex(jdbcVectorService, new ObjectMapper(),
+            new EmbeddingSearchConfiguration(-1D, 2, 4, 40),
+            new VectorIndexConfig(false, 8, 32, 16, 0.2, Duration.ofHours(6)));
+
+        productVectorIndex.upsert(List.of(1L));
+        productVectorIndex.delete(List.of(1L));
+
+        verify(jdbcVectorService, never()).findVectors(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenStoredVectors(StoredVector... vectors) {
+        doAnswer(invocation -> {
+            Consumer<StoredVector> action = invocation.getArgument(1);
+            List.of(vectors).forEach(action);
+            return null;
+        }).when(jdbcVectorService).forEachVector(eq(ProductDocument.class), any(Consumer.class));
+    }
+
+    private static StoredVector vector(Long productId, float... embedding) {
+        return new StoredVector(productId, Map.of("id", productId, "name", "product " + productId), embedding);
+    }
+}
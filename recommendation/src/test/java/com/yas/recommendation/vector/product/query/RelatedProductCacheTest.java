@@ -0,0 +1,156 @@
+package com.yas.recommendation.vector.product.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yas.recommendation.configuration.RelatedProductCacheConfig;
+import com.yas.recommendation.viewmodel.RelatedProductVm;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RelatedProductCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private RelatedProductQuery relatedProductQuery;
+
+    private Clock clock;
+
+    private RelatedProductCache relatedProductCache;
+
+    @BeforeEach
+    void setUp() {
+        relatedProductQuery = mock(RelatedProductQuery.class);
+        clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+        relatedProductCache = new RelatedProductCache(relatedProductQuery, new RelatedProductCacheConfig(true, 2, TTL),
+            clock);
+    }
+
+    @Test
+    void getRelatedProducts_whenCached_doNotQueryAgain() {
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related(2L, 3L));
+
+        relatedProductCache.getRelatedProducts(1L);
+        List<RelatedProductVm> result = relatedProductCache.getRelatedProducts(1L);
+
+        assertThat(result).extracting(RelatedProductVm::getProductId).containsExactly(2L, 3L);
+        verify(relatedProductQuery, times(1)).similaritySearch(1L);
+    }
+
+    @Test
+    void getRelatedProducts_whenExpired_queryAgain() {
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related(2L));
+        relatedProductCache.getRelatedProducts(1L);
+
+        when(clock.instant()).thenReturn(NOW.plus(TTL).minusSeconds(1));
+        relatedProductCache.getRelatedProducts(1L);
+        verify(relatedProductQuery, times(1)).similaritySearch(1L);
+
+        when(clock.instant()).thenReturn(NOW.plus(TTL));
+        relatedProductCache.getRelatedProducts(1L);
+        verify(relatedProductQuery, times(2)).similaritySearch(1L);
+    }
+
+    @Test
+    void onMetadataUpdated_whenListedAsNeighbour_markListingProductStaleWithoutQuery() {
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related(2L));
+        relatedProductCache.getRelatedProducts(1L);
+
+        relatedProductCache.onMetadataUpdated(2L);
+
+        verify(relatedProductQuery, never()).similaritySearch(2L);
+        relatedProductCache.getRelatedProducts(1L);
+        verify(relatedProductQuery, times(2)).similaritySearch(1L);
+    }
+
+    @Test
+    void onVectorUpserted_whenListedAsNeighbour_recomputeListingProduct() {
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related(2L));
+        when(relatedProductQuery.similaritySearch(2L)).thenReturn(related(4L));
+        relatedProductCache.getRelatedProducts(1L);
+
+        relatedProductCache.onVectorUpserted(2L);
+
+        verify(relatedProductQuery, times(1)).similaritySearch(2L);
+        relatedProductCache.getRelatedProducts(1L);
+        relatedProductCache.getRelatedProducts(2L);
+        verify(relatedProductQuery, times(2)).similaritySearch(1L);
+        verify(relatedProductQuery, times(1)).similaritySearch(2L);
+    }
+
+    @Test
+    void onVectorUpserted_whenCloseToCachedProduct_markItStale() {
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related(3L));
+        when(relatedProductQuery.similaritySearch(2L)).thenReturn(related(1L));
+        relatedProductCache.getRelatedProducts(1L);
+
+        relatedProductCache.onVectorUpserted(2L);
+        relatedProductCache.getRelatedProducts(1L);
+
+        verify(relatedProductQuery, times(2)).similaritySearch(1L);
+    }
+
+    @Test
+    void onVectorDeleted_whenListedAsNeighbour_dropAndMarkStale() {
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related(2L));
+        when(relatedProductQuery.similaritySearch(2L)).thenReturn(related(1L));
+        relatedProductCache.getRelatedProducts(1L);
+        relatedProductCache.getRelatedProducts(2L);
+
+        relatedProductCache.onVectorDeleted(2L);
+        relatedProductCache.getRelatedProducts(1L);
+
+        verify(relatedProductQuery, times(2)).similaritySearch(1L);
+        verify(relatedProductQuery, times(1)).similaritySearch(2L);
+    }
+
+    @Test
+    void getRelatedProducts_whenFull_evictLeastRecentlyUsed() {
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related());
+        when(relatedProductQuery.similaritySearch(2L)).thenReturn(related());
+        when(relatedProductQuery.similaritySearch(3L)).thenReturn(related());
+
+        relatedProductCache.getRelatedProducts(1L);
+        relatedProductCache.getRelatedProducts(2L);
+        relatedProductCache.getRelatedProducts(1L);
+        relatedProductCache.getRelatedProducts(3L);
+        relatedProductCache.getRelatedProducts(1L);
+        relatedProductCache.getRelatedProducts(2L);
+
+        verify(relatedProductQuery, times(1)).similaritySearch(1L);
+        verify(relatedProductQuery, times(2)).similaritySearch(2L);
+    }
+
+    @Test
+    void getRelatedProducts_whenDisabled_alwaysQuery() {
+        relatedProductCache = new RelatedProductCache(relatedProductQuery,
+            new RelatedProductCacheConfig(false, 2, TTL), clock);
+        when(relatedProductQuery.similaritySearch(1L)).thenReturn(related(2L));
+
+        relatedProductCache.getRelatedProducts(1L);
+        relatedProductCache.getRelatedProducts(1L);
+        relatedProductCache.onVectorUpserted(1L);
+
+        verify(relatedProductQuery, times(2)).similaritySearch(1L);
+        verify(relatedProductQuery, never()).similaritySearch(2L);
+    }
+
+    private static List<RelatedProductVm> related(Long... productIds) {
+        return Arrays.stream(productIds).map(productId -> {
+            RelatedProductVm relatedProductVm = new RelatedProductVm();
+            relatedProductVm.setProductId(productId);
+            return relatedProductVm;
+        }).toList();
+    }
+}
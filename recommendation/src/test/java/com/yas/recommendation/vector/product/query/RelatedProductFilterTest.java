@@ -0,0 +1,31 @@
+package com.yas.recommendation.vector.product.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+
+class RelatedProductFilterTest {
+
+    private final FilterExpressionBuilder b = new FilterExpressionBuilder();
+
+    @Test
+    void toExpression_whenNoCriteria_returnNull() {
+        assertThat(new RelatedProductFilter(null, null, null, null, null, null).toExpression()).isNull();
+    }
+
+    @Test
+    void toExpression_whenSingleCriterion_returnIt() {
+        assertThat(new RelatedProductFilter(3L, null, null, null, null, null).toExpression())
+            .isEqualTo(b.eq("categories[*].id", 3L).build());
+    }
+
+    @Test
+    void toExpression_whenSeveralCriteria_combineWithAnd() {
+        RelatedProductFilter filter = new RelatedProductFilter(null, 7L, 10.0, 50.0, true, null);
+
+        assertThat(filter.toExpression()).isEqualTo(
+            b.and(b.and(b.and(b.eq("brandId", 7L), b.gte("price", 10.0)), b.lte("price", 50.0)),
+                b.eq("isPublished", true)).build());
+    }
+}
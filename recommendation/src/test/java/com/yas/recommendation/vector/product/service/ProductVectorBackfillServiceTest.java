@@ -0,0 +1,131 @@
+package com.yas.recommendation.vector.product.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yas.recommendation.configuration.BackfillConfig;
+import com.yas.recommendation.configuration.EmbeddingBatchConfig;
+import com.yas.recommendation.constant.BackfillStatus;
+import com.yas.recommendation.service.ProductService;
+import com.yas.recommendation.vector.common.store.BackfillCheckpoint;
+import com.yas.recommendation.vector.common.store.BackfillCheckpointRepository;
+import com.yas.recommendation.vector.common.store.EmbeddingBatchWriter;
+import com.yas.recommendation.vector.product.query.ProductVectorIndex;
+import com.yas.recommendation.vector.product.query.RelatedProductCache;
+import com.yas.recommendation.vector.product.store.ProductVectorRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.document.Document;
+import org.springframework.web.client.RestClientException;
+
+class ProductVectorBackfillServiceTest {
+
+    private ProductService productService;
+
+    private ProductVectorRepository productVectorRepository;
+
+    private EmbeddingBatchWriter embeddingBatchWriter;
+
+    private BackfillCheckpointRepository checkpointRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ProductVectorBackfillService backfillService;
+
+    private final List<BackfillCheckpoint> savedCheckpoints = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        productVectorRepository = mock(ProductVectorRepository.class);
+        embeddingBatchWriter = mock(EmbeddingBatchWriter.class);
+        checkpointRepository = mock(BackfillCheckpointRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        backfillService = new ProductVectorBackfillService(productService, productVectorRepository,
+            embeddingBatchWriter, checkpointRepository, mock(RelatedProductCache.class),
+            mock(ProductVectorIndex.class), new BackfillConfig(3, 4, 2, 0, false), new EmbeddingBatchConfig(2),
+            meterRegistry);
+
+        doAnswer(invocation -> savedCheckpoints.add(invocation.getArgument(0)))
+            .when(checkpointRepository).save(any(BackfillCheckpoint.class));
+        when(productVectorRepository.buildDocument(any())).thenAnswer(invocation ->
+            new Document("product " + invocation.getArgument(0), Map.of("id", invocation.getArgument(0))));
+        when(embeddingBatchWriter.upsert(anyList(), anyBoolean()))
+            .thenAnswer(invocation -> ((List<Document>) invocation.getArgument(0)).stream()
+                .map(Document::getId)
+                .collect(Collectors.toSet()));
+    }
+
+    @Test
+    void run_whenCatalogHasPages_embedInBatchesAndCheckpointEachPage() {
+        when(productService.getPublishedProductIds(0, 3)).thenReturn(List.of(1L, 2L, 3L));
+        when(productService.getPublishedProductIds(3, 3)).thenReturn(List.of(4L));
+        when(productService.getPublishedProductIds(4, 3)).thenReturn(List.of());
+
+        backfillService.run(BackfillCheckpoint.start(ProductVectorBackfillService.JOB_NAME, false));
+
+        verify(embeddingBatchWriter, times(3)).upsert(anyList(), anyBoolean());
+        assertThat(savedCheckpoints).extracting(BackfillCheckpoint::lastId).containsExactly(3L, 4L, 4L);
+        BackfillCheckpoint last = savedCheckpoints.getLast();
+        assertThat(last.status()).isEqualTo(BackfillStatus.COMPLETED);
+        assertThat(last.processed()).isEqualTo(4);
+        assertThat(last.embedded()).isEqualTo(4);
+        assertThat(meterRegistry.get("yas.recommendation.backfill.products").tag("outcome", "embedded").counter()
+            .count()).isEqualTo(4);
+    }
+
+    @Test
+    void run_whenResumed_readAfterLastCheckpointedProduct() {
+        BackfillCheckpoint resumed = BackfillCheckpoint.start(ProductVectorBackfillService.JOB_NAME, true)
+            .advance(3L, 3, 3, 0);
+        when(productService.getPublishedProductIds(3, 3)).thenReturn(List.of());
+
+        backfillService.run(resumed);
+
+        verify(productService, never()).getPublishedProductIds(0, 3);
+        assertThat(savedCheckpoints.getLast().status()).isEqualTo(BackfillStatus.COMPLETED);
+        assertThat(savedCheckpoints.getLast().processed()).isEqualTo(3);
+    }
+
+    @Test
+    void run_whenProductCannotBeFetched_skipAndCountIt() {
+        when(productService.getPublishedProductIds(0, 3)).thenReturn(List.of(1L, 2L));
+        when(productService.getPublishedProductIds(2, 3)).thenReturn(List.of());
+        when(productVectorRepository.buildDocument(2L)).thenThrow(new RestClientException("not found"));
+
+        backfillService.run(BackfillCheckpoint.start(ProductVectorBackfillService.JOB_NAME, true));
+
+        ArgumentCaptor<List<Document>> batch = ArgumentCaptor.forClass(List.class);
+        verify(embeddingBatchWriter).upsert(batch.capture(), eq(true));
+        assertThat(batch.getValue()).hasSize(1);
+        assertThat(savedCheckpoints.getLast().failed()).isEqualTo(1);
+        assertThat(savedCheckpoints.getLast().embedded()).isEqualTo(1);
+    }
+
+    @Test
+    void run_whenEmbeddingFails_keepLastCheckpointAndMarkFailed() {
+        when(productService.getPublishedProductIds(0, 3)).thenReturn(List.of(1L));
+        when(embeddingBatchWriter.upsert(anyList(), anyBoolean())).thenThrow(new IllegalStateException("quota"));
+
+        backfillService.run(BackfillCheckpoint.start(ProductVectorBackfillService.JOB_NAME, false));
+
+        assertThat(savedCheckpoints).hasSize(1);
+        assertThat(savedCheckpoints.getFirst().status()).isEqualTo(BackfillStatus.FAILED);
+        assertThat(savedCheckpoints.getFirst().lastId()).isZero();
+    }
+}
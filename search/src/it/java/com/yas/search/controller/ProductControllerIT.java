@@ -18,6 +18,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.data.elasticsearch.core.RefreshPolicy;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 import org.springframework.http.HttpStatus;
 
 @Import(SearchTestConfig.class)
@@ -34,6 +35,7 @@ public class ProductControllerIT extends AbstractControllerIT {
         Product product = new Product();
         product.setId(1L);
         product.setName("Macbook M1");
+        product.setNameSuggest(new Completion(new String[]{"Macbook M1"}));
         product.setBrand("Apple");
         product.setCategories(List.of("Laptop", "Macbook"));
         product.setAttributes(List.of("CPU", "RAM", "SSD"));
@@ -224,6 +224,10 @@ public class ProductCdcConsumerTest extends CdcConsumerTest<ProductMsgKey, Produ
             true,
             false,
             501L,
+            "http://api.yas.local/media/medias/501/file/thumbnail.png",
+            true,
+            10L,
+            3L,
             "SoundWave",
             List.of("Electronics", "Audio"),
             List.of("Bluetooth 5.0", "10-hour battery life")
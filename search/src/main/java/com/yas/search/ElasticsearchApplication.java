@@ -1,12 +1,14 @@
 package com.yas.search;
 
+import com.yas.search.config.FacetConfig;
 import com.yas.search.config.ServiceUrlConfig;
+import com.yas.search.config.SuggestConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
-@EnableConfigurationProperties(ServiceUrlConfig.class)
+@EnableConfigurationProperties({ServiceUrlConfig.class, SuggestConfig.class, FacetConfig.class})
 @SpringBootApplication(scanBasePackages = {"com.yas.search", "com.yas.commonlibrary"})
 @Configuration
 public class ElasticsearchApplication {
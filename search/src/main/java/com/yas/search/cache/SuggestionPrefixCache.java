@@ -0,0 +1,70 @@
+package com.yas.search.cache;
+
+import com.yas.search.config.SuggestConfig;
+import java.time.Clock;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Small in-process LRU cache for short autocomplete prefixes.
+ *
+ * <p>The first two or three keystrokes hit the same handful of prefixes for every user, so they are
+ * answered from memory instead of going to Elasticsearch. Longer keywords are never cached.
+ */
+@Component
+public class SuggestionPrefixCache {
+
+    private final SuggestConfig suggestConfig;
+    private final Clock clock;
+    private final Map<String, CachedSuggestions> entries;
+
+    public SuggestionPrefixCache(SuggestConfig suggestConfig) {
+        this(suggestConfig, Clock.systemUTC());
+    }
+
+    SuggestionPrefixCache(SuggestConfig suggestConfig, Clock clock) {
+        this.suggestConfig = suggestConfig;
+        this.clock = clock;
+        int maxEntries = suggestConfig.cacheMaxEntries();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSuggestions> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public boolean isCacheable(String keyword) {
+        return keyword != null && !keyword.isBlank() && keyword.length() <= suggestConfig.cachedPrefixLength();
+    }
+
+    /**
+     * Returns the cached suggestions for the prefix/size pair, loading and caching them when missing or expired.
+     */
+    public List<String> get(String keyword, int size, Supplier<List<String>> loader) {
+        if (!isCacheable(keyword)) {
+            return loader.get();
+        }
+        String key = keyword.toLowerCase(Locale.ROOT) + '#' + size;
+        long now = clock.millis();
+        CachedSuggestions cached = entries.get(key);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.suggestions();
+        }
+        List<String> suggestions = List.copyOf(loader.get());
+        entries.put(key, new CachedSuggestions(suggestions, now + suggestConfig.cacheTtl().toMillis()));
+        return suggestions;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private record CachedSuggestions(List<String> suggestions, long expiresAt) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.yas.search.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Bucket sizes for catalog search facets.
+ *
+ * @param size     number of buckets returned per facet when the client does not ask for a size
+ * @param maxSize  upper bound a client may ask for
+ */
+@ConfigurationProperties(prefix = "yas.search.facet")
+public record FacetConfig(@DefaultValue("10") int size,
+                          @DefaultValue("100") int maxSize) {
+}
@@ -0,0 +1,22 @@
+package com.yas.search.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the product name completion suggester.
+ *
+ * @param size                default number of suggestions returned per request
+ * @param maxSize             upper bound a client may ask for
+ * @param cachedPrefixLength  keywords up to this length are served from the in-process prefix cache
+ * @param cacheMaxEntries     maximum number of cached prefixes
+ * @param cacheTtl            how long a cached prefix stays valid
+ */
+@ConfigurationProperties(prefix = "yas.search.suggest")
+public record SuggestConfig(@DefaultValue("10") int size,
+                            @DefaultValue("20") int maxSize,
+                            @DefaultValue("3") int cachedPrefixLength,
+                            @DefaultValue("2000") int cacheMaxEntries,
+                            @DefaultValue("PT1M") Duration cacheTtl) {
+}
@@ -5,4 +5,5 @@ public final class MessageCode {
     private MessageCode() {}
 
     public static final String PRODUCT_NOT_FOUND = "PRODUCT_NOT_FOUND";
+    public static final String FACET_NOT_SUPPORTED = "FACET_NOT_SUPPORTED";
 }
@@ -2,9 +2,11 @@ package com.yas.search.constant;
 
 public class ProductField {
     public static final String NAME = "name";
+    public static final String NAME_SUGGEST = "nameSuggest";
     public static final String BRAND = "brand";
     public static final String PRICE = "price";
     public static final String IS_PUBLISHED = "isPublished";
+    public static final String IS_IN_STOCK = "isInStock";
     public static final String CATEGORIES = "categories";
     public static final String ATTRIBUTES = "attributes";
     public static final String CREATE_ON = "createdOn";
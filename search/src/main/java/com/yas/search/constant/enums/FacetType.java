@@ -0,0 +1,36 @@
+package com.yas.search.constant.enums;
+
+import com.yas.search.constant.ProductField;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+import lombok.Getter;
+
+@Getter
+public enum FacetType {
+    CATEGORY("categories", ProductField.CATEGORIES),
+    ATTRIBUTE("attributes", ProductField.ATTRIBUTES),
+    BRAND("brands", ProductField.BRAND);
+
+    /**
+     * Key of the facet in the aggregations map returned to clients.
+     */
+    private final String aggregationName;
+    private final String field;
+
+    FacetType(String aggregationName, String field) {
+        this.aggregationName = aggregationName;
+        this.field = field;
+    }
+
+    /**
+     * Resolves a facet from either its singular name ({@code brand}) or its aggregation name ({@code brands}).
+     */
+    public static Optional<FacetType> fromValue(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+            .filter(type -> type.name().toLowerCase(Locale.ROOT).equals(normalized)
+                || type.aggregationName.equals(normalized))
+            .findFirst();
+    }
+}
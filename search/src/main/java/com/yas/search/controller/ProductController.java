@@ -3,6 +3,7 @@ package com.yas.search.controller;
 import com.yas.search.constant.enums.SortType;
 import com.yas.search.model.ProductCriteriaDto;
 import com.yas.search.service.ProductService;
+import com.yas.search.viewmodel.ProductFacetsVm;
 import com.yas.search.viewmodel.ProductListGetVm;
 import com.yas.search.viewmodel.ProductNameListVm;
 import org.springframework.http.ResponseEntity;
@@ -28,14 +29,33 @@ public class ProductController {
                                                                @RequestParam(required = false) Double minPrice,
                                                                @RequestParam(required = false) Double maxPrice,
                                                                @RequestParam(defaultValue = "DEFAULT")
-                                                               SortType sortType) {
+                                                               SortType sortType,
+                                                               @RequestParam(required = false) String facets,
+                                                               @RequestParam(required = false) Integer facetSize) {
         return ResponseEntity.ok(productService.findProductAdvance(
-            new ProductCriteriaDto(keyword, page, size, brand, category, attribute, minPrice, maxPrice, sortType)
+            new ProductCriteriaDto(keyword, page, size, brand, category, attribute, minPrice, maxPrice, sortType),
+            productService.toFacetCriteria(facets, facetSize)
+        ));
+    }
+
+    @GetMapping("/storefront/catalog-search/facets")
+    public ResponseEntity<ProductFacetsVm> findProductFacets(@RequestParam(defaultValue = "") String keyword,
+                                                             @RequestParam(required = false) String brand,
+                                                             @RequestParam(required = false) String category,
+                                                             @RequestParam(required = false) String attribute,
+                                                             @RequestParam(required = false) Double minPrice,
+                                                             @RequestParam(required = false) Double maxPrice,
+                                                             @RequestParam(required = false) String facets,
+                                                             @RequestParam(required = false) Integer facetSize) {
+        return ResponseEntity.ok(productService.findProductFacets(
+            new ProductCriteriaDto(keyword, 0, 0, brand, category, attribute, minPrice, maxPrice, SortType.DEFAULT),
+            productService.toFacetCriteria(facets, facetSize)
         ));
     }
 
     @GetMapping("/storefront/search_suggest")
-    public ResponseEntity<ProductNameListVm> productSearchAutoComplete(@RequestParam String keyword) {
-        return ResponseEntity.ok(productService.autoCompleteProductName(keyword));
+    public ResponseEntity<ProductNameListVm> productSearchAutoComplete(@RequestParam String keyword,
+                                                                       @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(productService.autoCompleteProductName(keyword, size));
     }
 }
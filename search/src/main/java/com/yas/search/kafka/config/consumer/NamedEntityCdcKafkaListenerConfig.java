@@ -0,0 +1,31 @@
+package com.yas.search.kafka.config.consumer;
+
+import com.yas.commonlibrary.kafka.cdc.config.BaseKafkaListenerConfig;
+import com.yas.search.kafka.message.CdcMsgKey;
+import com.yas.search.kafka.message.NamedEntityCdcMessage;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+
+/**
+ * Brand, category and product attribute CDC kafka listener.
+ */
+@EnableKafka
+@Configuration
+public class NamedEntityCdcKafkaListenerConfig extends BaseKafkaListenerConfig<CdcMsgKey, NamedEntityCdcMessage> {
+
+    public static final String NAMED_ENTITY_CDC_LISTENER_CONTAINER_FACTORY = "namedEntityCdcListenerContainerFactory";
+
+    public NamedEntityCdcKafkaListenerConfig(KafkaProperties kafkaProperties) {
+        super(CdcMsgKey.class, NamedEntityCdcMessage.class, kafkaProperties);
+    }
+
+    @Bean(name = NAMED_ENTITY_CDC_LISTENER_CONTAINER_FACTORY)
+    @Override
+    public ConcurrentKafkaListenerContainerFactory<CdcMsgKey, NamedEntityCdcMessage> listenerContainerFactory() {
+        return super.kafkaListenerContainerFactory();
+    }
+
+}
@@ -1,8 +1,10 @@
 package com.yas.search.kafka.config.consumer;
 
+import com.yas.commonlibrary.kafka.cdc.KeyHashedExecutor;
 import com.yas.commonlibrary.kafka.cdc.config.BaseKafkaListenerConfig;
 import com.yas.commonlibrary.kafka.cdc.message.ProductMsgKey;
 import com.yas.commonlibrary.kafka.cdc.message.ProductCdcMessage;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,12 +13,16 @@ import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 
 /**
  * Product CDC kafka listener, support convert product cdc message to java object.
+ *
+ * <p>The listener receives whole polls and syncs them on {@link #PRODUCT_SYNC_EXECUTOR}, in parallel across
+ * products and in order for each product.
  */
 @EnableKafka
 @Configuration
 public class ProductCdcKafkaListenerConfig extends BaseKafkaListenerConfig<ProductMsgKey, ProductCdcMessage> {
 
     public static final String PRODUCT_CDC_LISTENER_CONTAINER_FACTORY = "productCdcListenerContainerFactory";
+    public static final String PRODUCT_SYNC_EXECUTOR = "productSyncExecutor";
 
     public ProductCdcKafkaListenerConfig(KafkaProperties kafkaProperties) {
         super(ProductMsgKey.class, ProductCdcMessage.class, kafkaProperties);
@@ -25,7 +31,12 @@ public class ProductCdcKafkaListenerConfig extends BaseKafkaListenerConfig<Produ
     @Bean(name = PRODUCT_CDC_LISTENER_CONTAINER_FACTORY)
     @Override
     public ConcurrentKafkaListenerContainerFactory<ProductMsgKey, ProductCdcMessage> listenerContainerFactory() {
-        return super.kafkaListenerContainerFactory();
+        return super.batchKafkaListenerContainerFactory();
     }
 
-}
\ No newline at end of file
+    @Bean(name = PRODUCT_SYNC_EXECUTOR)
+    public KeyHashedExecutor productSyncExecutor(@Value("${product.sync.lanes:8}") int lanes) {
+        return new KeyHashedExecutor(lanes);
+    }
+
+}
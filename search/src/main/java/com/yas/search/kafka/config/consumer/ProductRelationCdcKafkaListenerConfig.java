@@ -0,0 +1,33 @@
+package com.yas.search.kafka.config.consumer;
+
+import com.yas.commonlibrary.kafka.cdc.config.BaseKafkaListenerConfig;
+import com.yas.search.kafka.message.CdcMsgKey;
+import com.yas.search.kafka.message.ProductRelationCdcMessage;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+
+/**
+ * Product category and product attribute value CDC kafka listener.
+ */
+@EnableKafka
+@Configuration
+public class ProductRelationCdcKafkaListenerConfig
+    extends BaseKafkaListenerConfig<CdcMsgKey, ProductRelationCdcMessage> {
+
+    public static final String PRODUCT_RELATION_CDC_LISTENER_CONTAINER_FACTORY =
+        "productRelationCdcListenerContainerFactory";
+
+    public ProductRelationCdcKafkaListenerConfig(KafkaProperties kafkaProperties) {
+        super(CdcMsgKey.class, ProductRelationCdcMessage.class, kafkaProperties);
+    }
+
+    @Bean(name = PRODUCT_RELATION_CDC_LISTENER_CONTAINER_FACTORY)
+    @Override
+    public ConcurrentKafkaListenerContainerFactory<CdcMsgKey, ProductRelationCdcMessage> listenerContainerFactory() {
+        return super.kafkaListenerContainerFactory();
+    }
+
+}
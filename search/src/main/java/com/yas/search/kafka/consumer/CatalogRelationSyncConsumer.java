@@ -0,0 +1,149 @@
+package com.yas.search.kafka.consumer;
+
+import static com.yas.search.kafka.config.consumer.NamedEntityCdcKafkaListenerConfig.NAMED_ENTITY_CDC_LISTENER_CONTAINER_FACTORY;
+import static com.yas.search.kafka.config.consumer.ProductRelationCdcKafkaListenerConfig.PRODUCT_RELATION_CDC_LISTENER_CONTAINER_FACTORY;
+
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
+import com.yas.search.kafka.message.CdcMsgKey;
+import com.yas.search.kafka.message.NamedEntityCdcMessage;
+import com.yas.search.kafka.message.ProductRelation;
+import com.yas.search.kafka.message.ProductRelationCdcMessage;
+import com.yas.search.service.ProductSyncDataService;
+import com.yas.search.store.CatalogStateStore;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-joins indexed product documents when a brand, category, product attribute or one of the product join
+ * rows changes. The joined names are read from the {@link CatalogStateStore}, so each record is only handled
+ * once the local tailer has applied it; the wait is retried in place by the container's error handler to keep
+ * the per-partition order.
+ */
+@Slf4j
+@Service
+public class CatalogRelationSyncConsumer {
+
+    private static final Duration STATE_STORE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ProductSyncDataService productSyncDataService;
+    private final CatalogStateStore catalogStateStore;
+    private final String brandTopic;
+    private final String categoryTopic;
+    private final String productAttributeTopic;
+    private final String productCategoryTopic;
+
+    public CatalogRelationSyncConsumer(
+        ProductSyncDataService productSyncDataService,
+        CatalogStateStore catalogStateStore,
+        @Value("${brand.topic.name}") String brandTopic,
+        @Value("${category.topic.name}") String categoryTopic,
+        @Value("${product-attribute.topic.name}") String productAttributeTopic,
+        @Value("${product-category.topic.name}") String productCategoryTopic
+    ) {
+        this.productSyncDataService = productSyncDataService;
+        this.catalogStateStore = catalogStateStore;
+        this.brandTopic = brandTopic;
+        this.categoryTopic = categoryTopic;
+        this.productAttributeTopic = productAttributeTopic;
+        this.productCategoryTopic = productCategoryTopic;
+    }
+
+    @KafkaListener(
+        id = "catalog-named-entity-sync-es",
+        groupId = "catalog-sync-search",
+        topics = {"${brand.topic.name}", "${category.topic.name}", "${product-attribute.topic.name}"},
+        containerFactory = NAMED_ENTITY_CDC_LISTENER_CONTAINER_FACTORY
+    )
+    public void processNamedEntity(
+        @Header(KafkaHeaders.RECEIVED_KEY) CdcMsgKey key,
+        @Payload(required = false) NamedEntityCdcMessage message,
+        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset
+    ) {
+        awaitStateStore(topic, partition, offset);
+        syncNamedEntity(topic, key, message);
+    }
+
+    @KafkaListener(
+        id = "catalog-product-relation-sync-es",
+        groupId = "catalog-sync-search",
+        topics = {"${product-category.topic.name}", "${product-attribute-value.topic.name}"},
+        containerFactory = PRODUCT_RELATION_CDC_LISTENER_CONTAINER_FACTORY
+    )
+    public void processProductRelation(
+        @Header(KafkaHeaders.RECEIVED_KEY) CdcMsgKey key,
+        @Payload(required = false) ProductRelationCdcMessage message,
+        @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
+        @Header(KafkaHeaders.OFFSET) long offset
+    ) {
+        awaitStateStore(topic, partition, offset);
+        syncProductRelation(topic, key, message);
+    }
+
+    /**
+     * Only renames matter here: a new brand, category or attribute is not linked to any product yet, and
+     * a linked one cannot be deleted while the join rows reference it.
+     */
+    public void syncNamedEntity(String topic, CdcMsgKey key, NamedEntityCdcMessage message) {
+        if (message == null || !Operation.UPDATE.equals(message.getOp())) {
+            log.debug("Skipping {} event for {} on {}", message == null ? null : message.getOp(), key.getId(), topic);
+            return;
+        }
+        long id = key.getId();
+        if (brandTopic.equals(topic)) {
+            productSyncDataService.refreshBrand(id);
+        } else if (categoryTopic.equals(topic)) {
+            productSyncDataService.refreshProductRelations(catalogStateStore.getProductIdsByCategory(id));
+        } else if (productAttributeTopic.equals(topic)) {
+            productSyncDataService.refreshProductRelations(catalogStateStore.getProductIdsByProductAttribute(id));
+        }
+    }
+
+    public void syncProductRelation(String topic, CdcMsgKey key, ProductRelationCdcMessage message) {
+        boolean isProductCategory = productCategoryTopic.equals(topic);
+        Set<Long> productIds = new HashSet<>();
+        if (message != null) {
+            addProductId(productIds, message.getBefore());
+            addProductId(productIds, message.getAfter());
+        }
+        if (productIds.isEmpty()) {
+            // Delete events only carry the row id, the store remembers which product the row belonged to
+            productIds.addAll(isProductCategory
+                ? catalogStateStore.getProductIdsByProductCategoryRow(key.getId())
+                : catalogStateStore.getProductIdsByProductAttributeValueRow(key.getId()));
+        }
+        productSyncDataService.refreshProductRelations(productIds);
+
+        if (message == null || Operation.DELETE.equals(message.getOp())) {
+            if (isProductCategory) {
+                catalogStateStore.forgetProductCategoryRow(key.getId());
+            } else {
+                catalogStateStore.forgetProductAttributeValueRow(key.getId());
+            }
+        }
+    }
+
+    private void awaitStateStore(String topic, int partition, long offset) {
+        if (!catalogStateStore.awaitApplied(new TopicPartition(topic, partition), offset, STATE_STORE_TIMEOUT)) {
+            throw new IllegalStateException(
+                "Catalog state store did not apply %s-%d@%d in time".formatted(topic, partition, offset));
+        }
+    }
+
+    private static void addProductId(Set<Long> productIds, ProductRelation relation) {
+        if (relation != null && relation.getProductId() != null) {
+            productIds.add(relation.getProductId());
+        }
+    }
+}
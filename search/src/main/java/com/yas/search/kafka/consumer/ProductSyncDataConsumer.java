@@ -1,34 +1,41 @@
 package com.yas.search.kafka.consumer;
 
+import static com.yas.commonlibrary.kafka.cdc.message.Operation.CREATE;
 import static com.yas.commonlibrary.kafka.cdc.message.Operation.DELETE;
+import static com.yas.commonlibrary.kafka.cdc.message.Operation.READ;
+import static com.yas.commonlibrary.kafka.cdc.message.Operation.UPDATE;
 import static com.yas.search.kafka.config.consumer.ProductCdcKafkaListenerConfig.PRODUCT_CDC_LISTENER_CONTAINER_FACTORY;
+import static com.yas.search.kafka.config.consumer.ProductCdcKafkaListenerConfig.PRODUCT_SYNC_EXECUTOR;
 
 import com.yas.commonlibrary.kafka.cdc.BaseCdcConsumer;
-import com.yas.commonlibrary.kafka.cdc.RetrySupportDql;
+import com.yas.commonlibrary.kafka.cdc.KeyHashedExecutor;
 import com.yas.commonlibrary.kafka.cdc.message.ProductCdcMessage;
 import com.yas.commonlibrary.kafka.cdc.message.ProductMsgKey;
 import com.yas.search.service.ProductSyncDataService;
-import jakarta.validation.Valid;
+import java.util.List;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.MessageHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Headers;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
 /**
  * Product synchronize data consumer for elasticsearch.
+ *
+ * <p>Each poll is synced in parallel across products and in order for each product. A failing record is
+ * retried in place and then sent to the dead letter topic by the container's error handler.
  */
 @Slf4j
 @Service
 public class ProductSyncDataConsumer extends BaseCdcConsumer<ProductMsgKey, ProductCdcMessage> {
 
     private final ProductSyncDataService productSyncDataService;
+    private final KeyHashedExecutor productSyncExecutor;
 
-    public ProductSyncDataConsumer(ProductSyncDataService productSyncDataService) {
+    public ProductSyncDataConsumer(ProductSyncDataService productSyncDataService,
+                                   @Qualifier(PRODUCT_SYNC_EXECUTOR) KeyHashedExecutor productSyncExecutor) {
         this.productSyncDataService = productSyncDataService;
+        this.productSyncExecutor = productSyncExecutor;
     }
 
     @KafkaListener(
@@ -37,13 +44,8 @@ public class ProductSyncDataConsumer extends BaseCdcConsumer<ProductMsgKey, Prod
         topics = "${product.topic.name}",
         containerFactory = PRODUCT_CDC_LISTENER_CONTAINER_FACTORY
     )
-    @RetrySupportDql(listenerContainerFactory = PRODUCT_CDC_LISTENER_CONTAINER_FACTORY)
-    public void processMessage(
-        @Header(KafkaHeaders.RECEIVED_KEY) ProductMsgKey key,
-        @Payload(required = false) @Valid ProductCdcMessage productCdcMessage,
-        @Headers MessageHeaders headers
-    ) {
-        processMessage(key, productCdcMessage, headers, this::sync);
+    public void processMessages(List<ConsumerRecord<ProductMsgKey, ProductCdcMessage>> records) {
+        processMessages(records, productSyncExecutor, this::sync);
     }
 
     public void sync(ProductMsgKey key, ProductCdcMessage productCdcMessage) {
@@ -54,6 +56,12 @@ public class ProductSyncDataConsumer extends BaseCdcConsumer<ProductMsgKey, Prod
         } else {
             var operation = productCdcMessage.getOp();
             var productId = key.getId();
+            boolean isUpsert = operation == CREATE || operation == READ || operation == UPDATE;
+            if (isUpsert && productSyncDataService.canUpsertFromCdc(productCdcMessage.getAfter())) {
+                productSyncDataService.upsertProduct(productCdcMessage.getAfter());
+                return;
+            }
+            // Fall back to the product service while the catalog state store is warming up
             switch (operation) {
                 case CREATE, READ -> productSyncDataService.createProduct(productId);
                 case UPDATE -> productSyncDataService.updateProduct(productId);
@@ -0,0 +1,18 @@
+package com.yas.search.kafka.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+/**
+ * Debezium key of a catalog table row identified by a single {@code id} column.
+ */
+@lombok.Getter
+@lombok.Setter
+@lombok.EqualsAndHashCode
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CdcMsgKey {
+    private Long id;
+}
@@ -0,0 +1,21 @@
+package com.yas.search.kafka.message;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of a catalog lookup table (brand, category, product_attribute) reduced to the columns search needs.
+ */
+@lombok.Getter
+@lombok.Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NamedEntity {
+
+    private long id;
+
+    private String name;
+
+}
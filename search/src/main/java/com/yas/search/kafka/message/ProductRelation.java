@@ -0,0 +1,30 @@
+package com.yas.search.kafka.message;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+/**
+ * Row of a product join table. {@code product_category} rows carry a category id,
+ * {@code product_attribute_value} rows carry a product attribute id.
+ */
+@lombok.Getter
+@lombok.Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRelation {
+
+    private long id;
+
+    @JsonProperty("product_id")
+    private Long productId;
+
+    @JsonProperty("category_id")
+    private Long categoryId;
+
+    @JsonProperty("product_attribute_id")
+    private Long productAttributeId;
+
+}
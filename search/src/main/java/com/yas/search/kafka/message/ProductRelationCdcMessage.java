@@ -0,0 +1,21 @@
+package com.yas.search.kafka.message;
+
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+
+@lombok.Getter
+@lombok.Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRelationCdcMessage {
+
+    private ProductRelation after;
+
+    private ProductRelation before;
+
+    private Operation op;
+
+}
@@ -0,0 +1,14 @@
+package com.yas.search.model;
+
+import com.yas.search.constant.enums.FacetType;
+import java.util.Set;
+
+/**
+ * Which terms aggregations to compute for a catalog search and how many buckets each should return.
+ */
+public record FacetCriteriaDto(Set<FacetType> facets, int size) {
+
+    public boolean isEmpty() {
+        return facets == null || facets.isEmpty();
+    }
+}
@@ -8,10 +8,12 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.elasticsearch.annotations.CompletionField;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 import org.springframework.data.elasticsearch.annotations.Setting;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 
 @Document(indexName = "product")
 @Setting(settingPath = "esconfig/elastic-analyzer.json")
@@ -25,6 +27,8 @@ public class Product {
     private Long id;
     @Field(type = FieldType.Text, analyzer = "autocomplete_index", searchAnalyzer = "autocomplete_search")
     private String name;
+    @CompletionField(maxInputLength = 100)
+    private Completion nameSuggest;
     private String slug;
     @Field(type = FieldType.Double)
     private Double price;
@@ -33,6 +37,13 @@ public class Product {
     private Boolean isAllowedToOrder;
     private Boolean isFeatured;
     private Long thumbnailMediaId;
+    @Field(type = FieldType.Keyword, index = false)
+    private String thumbnailUrl;
+    @Field(type = FieldType.Long)
+    private Long stockQuantity;
+    private Boolean isInStock;
+    @Field(type = FieldType.Long)
+    private Long brandId;
     @Field(type = FieldType.Text, fielddata = true)
     private String brand;
     @Field(type = FieldType.Keyword)
@@ -1,9 +1,12 @@
 package com.yas.search.repository;
 
 import com.yas.search.model.Product;
+import java.util.List;
 import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface ProductRepository extends ElasticsearchRepository<Product, Long> {
+
+    List<Product> findAllByBrandId(Long brandId);
 }
@@ -1,22 +1,33 @@
 package com.yas.search.service;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
 import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
-import co.elastic.clients.elasticsearch._types.aggregations.StringTermsAggregate;
 import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.FieldSuggester;
+import co.elastic.clients.elasticsearch.core.search.Suggester;
+import com.yas.commonlibrary.exception.BadRequestException;
+import com.yas.search.cache.SuggestionPrefixCache;
+import com.yas.search.config.FacetConfig;
+import com.yas.search.config.SuggestConfig;
+import com.yas.search.constant.MessageCode;
 import com.yas.search.constant.ProductField;
+import com.yas.search.constant.enums.FacetType;
 import com.yas.search.constant.enums.SortType;
+import com.yas.search.model.FacetCriteriaDto;
 import com.yas.search.model.Product;
 import com.yas.search.model.ProductCriteriaDto;
+import com.yas.search.viewmodel.ProductFacetsVm;
 import com.yas.search.viewmodel.ProductGetVm;
 import com.yas.search.viewmodel.ProductListGetVm;
 import com.yas.search.viewmodel.ProductNameGetVm;
 import com.yas.search.viewmodel.ProductNameListVm;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.elasticsearch.common.unit.Fuzziness;
 import org.springframework.data.domain.PageRequest;
@@ -25,54 +36,38 @@ import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregatio
 import org.springframework.data.elasticsearch.client.elc.NativeQuery;
 import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
-import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHitSupport;
 import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.query.FetchSourceFilter;
+import org.springframework.data.elasticsearch.core.suggest.response.CompletionSuggestion;
+import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ProductService {
+    private static final String NAME_SUGGESTION = "name-suggestion";
+    private static final String NO_FACETS = "none";
+
     private final ElasticsearchOperations elasticsearchOperations;
+    private final SuggestConfig suggestConfig;
+    private final SuggestionPrefixCache suggestionPrefixCache;
+    private final FacetConfig facetConfig;
 
-    public ProductService(ElasticsearchOperations elasticsearchOperations) {
+    public ProductService(ElasticsearchOperations elasticsearchOperations,
+                          SuggestConfig suggestConfig,
+                          SuggestionPrefixCache suggestionPrefixCache,
+                          FacetConfig facetConfig) {
         this.elasticsearchOperations = elasticsearchOperations;
+        this.suggestConfig = suggestConfig;
+        this.suggestionPrefixCache = suggestionPrefixCache;
+        this.facetConfig = facetConfig;
     }
 
-    public ProductListGetVm findProductAdvance(ProductCriteriaDto productCriteria) {
-        NativeQueryBuilder nativeQuery = NativeQuery.builder()
-                .withAggregation("categories", Aggregation.of(a -> a
-                        .terms(ta -> ta.field(ProductField.CATEGORIES))))
-                .withAggregation("attributes", Aggregation.of(a -> a
-                        .terms(ta -> ta.field(ProductField.ATTRIBUTES))))
-                .withAggregation("brands", Aggregation.of(a -> a
-                        .terms(ta -> ta.field(ProductField.BRAND))))
-                .withQuery(q -> q
-                        .bool(b -> b
-                                .should(s -> s
-                                        .multiMatch(m -> m
-                                                .fields(ProductField.NAME, ProductField.BRAND, ProductField.CATEGORIES)
-                                                .query(productCriteria.keyword())
-                                                .fuzziness(Fuzziness.ONE.asString())
-                                        )
-                                )
-                        )
-                )
+    public ProductListGetVm findProductAdvance(ProductCriteriaDto productCriteria, FacetCriteriaDto facetCriteria) {
+        NativeQueryBuilder nativeQuery = buildCatalogQuery(productCriteria, facetCriteria)
                 .withPageable(PageRequest.of(productCriteria.page(), productCriteria.size()));
 
-
-        nativeQuery.withFilter(f -> f
-                .bool(b -> {
-                    extractedTermsFilter(productCriteria.brand(), ProductField.BRAND, b);
-                    extractedTermsFilter(productCriteria.category(), ProductField.CATEGORIES, b);
-                    extractedTermsFilter(productCriteria.attribute(), ProductField.ATTRIBUTES, b);
-                    extractedRange(productCriteria.minPrice(), productCriteria.maxPrice(), b);
-                    b.must(m -> m.term(t -> t.field(ProductField.IS_PUBLISHED).value(true)));
-                    return b;
-                })
-        );
-
         if (productCriteria.sortType() == SortType.PRICE_ASC) {
             nativeQuery.withSort(Sort.by(Sort.Direction.ASC, ProductField.PRICE));
         } else if (productCriteria.sortType() == SortType.PRICE_DESC) {
@@ -97,6 +92,75 @@ public class ProductService {
                 getAggregations(searchHitsResult));
     }
 
+    /**
+     * Computes only the requested facets for a catalog search, without fetching any hits.
+     */
+    public ProductFacetsVm findProductFacets(ProductCriteriaDto productCriteria, FacetCriteriaDto facetCriteria) {
+        if (facetCriteria.isEmpty()) {
+            return new ProductFacetsVm(Map.of());
+        }
+        NativeQuery nativeQuery = buildCatalogQuery(productCriteria, facetCriteria)
+                .withMaxResults(0)
+                .withTrackTotalHits(false)
+                .build();
+        return new ProductFacetsVm(getAggregations(elasticsearchOperations.search(nativeQuery, Product.class)));
+    }
+
+    /**
+     * Parses the {@code facets} request parameter. A missing parameter selects every facet, {@code none} or
+     * an empty value selects none.
+     */
+    public FacetCriteriaDto toFacetCriteria(String facets, Integer facetSize) {
+        int size = facetSize == null || facetSize <= 0
+                ? facetConfig.size()
+                : Math.min(facetSize, facetConfig.maxSize());
+        if (facets == null) {
+            return new FacetCriteriaDto(EnumSet.allOf(FacetType.class), size);
+        }
+        Set<FacetType> facetTypes = EnumSet.noneOf(FacetType.class);
+        for (String facet : facets.split(",")) {
+            if (StringUtils.isBlank(facet) || NO_FACETS.equalsIgnoreCase(facet.trim())) {
+                continue;
+            }
+            facetTypes.add(FacetType.fromValue(facet)
+                    .orElseThrow(() -> new BadRequestException(MessageCode.FACET_NOT_SUPPORTED, facet)));
+        }
+        return new FacetCriteriaDto(facetTypes, size);
+    }
+
+    private NativeQueryBuilder buildCatalogQuery(ProductCriteriaDto productCriteria,
+                                                 FacetCriteriaDto facetCriteria) {
+        NativeQueryBuilder nativeQuery = NativeQuery.builder()
+                .withQuery(q -> q
+                        .bool(b -> b
+                                .should(s -> s
+                                        .multiMatch(m -> m
+                                                .fields(ProductField.NAME, ProductField.BRAND, ProductField.CATEGORIES)
+                                                .query(productCriteria.keyword())
+                                                .fuzziness(Fuzziness.ONE.asString())
+                                        )
+                                )
+                        )
+                );
+
+        if (!facetCriteria.isEmpty()) {
+            facetCriteria.facets().forEach(facet -> nativeQuery.withAggregation(facet.getAggregationName(),
+                    Aggregation.of(a -> a.terms(ta -> ta.field(facet.getField()).size(facetCriteria.size())))));
+        }
+
+        nativeQuery.withFilter(f -> f
+                .bool(b -> {
+                    extractedTermsFilter(productCriteria.brand(), ProductField.BRAND, b);
+                    extractedTermsFilter(productCriteria.category(), ProductField.CATEGORIES, b);
+                    extractedTermsFilter(productCriteria.attribute(), ProductField.ATTRIBUTES, b);
+                    extractedRange(productCriteria.minPrice(), productCriteria.maxPrice(), b);
+                    b.must(m -> m.term(t -> t.field(ProductField.IS_PUBLISHED).value(true)));
+                    return b;
+                })
+        );
+        return nativeQuery;
+    }
+
     private void extractedTermsFilter(String fieldValues, String productField, BoolQuery.Builder b) {
         if (StringUtils.isBlank(fieldValues)) {
             return;
@@ -130,40 +194,75 @@ public class ProductService {
     }
 
     private Map<String, Map<String, Long>> getAggregations(SearchHits<Product> searchHits) {
-        List<org.springframework.data.elasticsearch.client.elc.Aggregation> aggregations = new ArrayList<>();
-        if (searchHits.hasAggregations()) {
-            ((List<ElasticsearchAggregation>) searchHits.getAggregations().aggregations()) //NOSONAR
-                    .forEach(elsAgg -> aggregations.add(elsAgg.aggregation()));
+        Map<String, Map<String, Long>> aggregationsMap = new LinkedHashMap<>();
+        if (!searchHits.hasAggregations()) {
+            return aggregationsMap;
         }
 
-        Map<String, Map<String, Long>> aggregationsMap = new HashMap<>();
-        aggregations.forEach(agg -> {
-            Map<String, Long> aggregation = new HashMap<>();
-            StringTermsAggregate stringTermsAggregate = (StringTermsAggregate) agg.getAggregate()._get();
-            List<StringTermsBucket> stringTermsBuckets
-                    = (List<StringTermsBucket>) stringTermsAggregate.buckets()._get();
-            stringTermsBuckets.forEach(bucket -> aggregation.put(bucket.key()._get().toString(), bucket.docCount()));
-            aggregationsMap.put(agg.getName(), aggregation);
-        });
+        ((List<ElasticsearchAggregation>) searchHits.getAggregations().aggregations()) //NOSONAR
+                .forEach(elsAgg -> {
+                    org.springframework.data.elasticsearch.client.elc.Aggregation agg = elsAgg.aggregation();
+                    Aggregate aggregate = agg.getAggregate();
+                    if (!aggregate.isSterms()) {
+                        return;
+                    }
+                    List<StringTermsBucket> buckets = aggregate.sterms().buckets().array();
+                    Map<String, Long> aggregation = new LinkedHashMap<>(buckets.size() * 2);
+                    buckets.forEach(bucket -> aggregation.put(bucket.key().stringValue(), bucket.docCount()));
+                    aggregationsMap.put(agg.getName(), aggregation);
+                });
 
         return aggregationsMap;
     }
 
-    public ProductNameListVm autoCompleteProductName(final String keyword) {
-        NativeQuery matchQuery = NativeQuery.builder()
-                .withQuery(
-                        q -> q.matchPhrasePrefix(
-                                matchPhrasePrefix -> matchPhrasePrefix.field("name").query(keyword)
-                        )
-                )
-                .withSourceFilter(new FetchSourceFilter(
-                        new String[]{"name"},
-                        null)
-                )
+    public ProductNameListVm autoCompleteProductName(final String keyword, final Integer size) {
+        int suggestSize = size == null || size <= 0
+                ? suggestConfig.size()
+                : Math.min(size, suggestConfig.maxSize());
+        String prefix = StringUtils.trimToEmpty(keyword);
+        if (prefix.isEmpty()) {
+            return new ProductNameListVm(List.of());
+        }
+        List<String> names = suggestionPrefixCache.get(prefix, suggestSize,
+                () -> suggestProductNames(prefix, suggestSize));
+        return new ProductNameListVm(names.stream().map(ProductNameGetVm::new).toList());
+    }
+
+    private List<String> suggestProductNames(String prefix, int size) {
+        NativeQuery suggestQuery = NativeQuery.builder()
+                .withSuggester(Suggester.of(s -> s
+                        .suggesters(NAME_SUGGESTION, FieldSuggester.of(fs -> fs
+                                .prefix(prefix)
+                                .completion(c -> c
+                                        .field(ProductField.NAME_SUGGEST)
+                                        .size(size)
+                                        .skipDuplicates(true)
+                                )
+                        ))
+                ))
+                .withSourceFilter(new FetchSourceFilter(new String[]{ProductField.NAME}, null))
+                .withMaxResults(0)
                 .build();
-        SearchHits<Product> result = elasticsearchOperations.search(matchQuery, Product.class);
-        List<Product> products = result.stream().map(SearchHit::getContent).toList();
+        SearchHits<Product> result = elasticsearchOperations.search(suggestQuery, Product.class);
+        Suggest suggest = result.getSuggest();
+        if (suggest == null || suggest.getSuggestion(NAME_SUGGESTION) == null) {
+            return List.of();
+        }
+        // an option holds the matched input, which may be a suffix of the name, so the name is read from the hit
+        return suggest.getSuggestion(NAME_SUGGESTION).getEntries().stream()
+                .flatMap(entry -> entry.getOptions().stream())
+                .map(ProductService::getSuggestedName)
+                .distinct()
+                .toList();
+    }
 
-        return new ProductNameListVm(products.stream().map(ProductNameGetVm::fromModel).toList());
+    private static String getSuggestedName(Suggest.Suggestion.Entry.Option option) {
+        if (option instanceof CompletionSuggestion.Entry.Option<?> completionOption
+                && completionOption.getSearchHit() != null
+                && completionOption.getSearchHit().getContent() instanceof Product product
+                && product.getName() != null) {
+            return product.getName();
+        }
+        return option.getText();
     }
 }
@@ -5,11 +5,26 @@ import com.yas.search.config.ServiceUrlConfig;
 import com.yas.search.constant.MessageCode;
 import com.yas.search.model.Product;
 import com.yas.search.repository.ProductRepository;
+import com.yas.search.store.CatalogStateStore;
 import com.yas.search.viewmodel.ProductEsDetailVm;
 import java.net.URI;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.data.elasticsearch.core.suggest.Completion;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -18,11 +33,18 @@ import org.springframework.web.util.UriComponentsBuilder;
 @RequiredArgsConstructor
 public class ProductSyncDataService {
 
+    private static final int UPDATE_RETRY_ON_CONFLICT = 3;
+    private static final String FIELD_BRAND = "brand";
+    private static final String FIELD_CATEGORIES = "categories";
+    private static final String FIELD_ATTRIBUTES = "attributes";
+
     private final Logger log = LoggerFactory.getLogger(ProductSyncDataService.class);
 
     private final RestClient restClient;
     private final ServiceUrlConfig serviceUrlConfig;
     private final ProductRepository productRepository;
+    private final CatalogStateStore catalogStateStore;
+    private final ElasticsearchOperations elasticsearchOperations;
 
     public ProductEsDetailVm getProductEsDetailById(Long id) {
         final URI url = UriComponentsBuilder.fromHttpUrl(
@@ -44,6 +66,7 @@ public class ProductSyncDataService {
         }
 
         product.setName(productEsDetailVm.name());
+        product.setNameSuggest(toNameSuggest(productEsDetailVm.name()));
         product.setSlug(productEsDetailVm.slug());
         product.setPrice(productEsDetailVm.price());
         product.setIsPublished(true);
@@ -51,6 +74,10 @@ public class ProductSyncDataService {
         product.setIsAllowedToOrder(productEsDetailVm.isAllowedToOrder());
         product.setIsFeatured(productEsDetailVm.isFeatured());
         product.setThumbnailMediaId(productEsDetailVm.thumbnailMediaId());
+        product.setThumbnailUrl(productEsDetailVm.thumbnailUrl());
+        product.setStockQuantity(productEsDetailVm.stockQuantity());
+        product.setIsInStock(productEsDetailVm.isInStock());
+        product.setBrandId(productEsDetailVm.brandId());
         product.setBrand(productEsDetailVm.brand());
         product.setCategories(productEsDetailVm.categories());
         product.setAttributes(productEsDetailVm.attributes());
@@ -63,6 +90,7 @@ public class ProductSyncDataService {
         Product product = Product.builder()
                 .id(id)
                 .name(productEsDetailVm.name())
+                .nameSuggest(toNameSuggest(productEsDetailVm.name()))
                 .slug(productEsDetailVm.slug())
                 .price(productEsDetailVm.price())
                 .isPublished(productEsDetailVm.isPublished())
@@ -70,6 +98,10 @@ public class ProductSyncDataService {
                 .isAllowedToOrder(productEsDetailVm.isAllowedToOrder())
                 .isFeatured(productEsDetailVm.isFeatured())
                 .thumbnailMediaId(productEsDetailVm.thumbnailMediaId())
+                .thumbnailUrl(productEsDetailVm.thumbnailUrl())
+                .stockQuantity(productEsDetailVm.stockQuantity())
+                .isInStock(productEsDetailVm.isInStock())
+                .brandId(productEsDetailVm.brandId())
                 .brand(productEsDetailVm.brand())
                 .categories(productEsDetailVm.categories())
                 .attributes(productEsDetailVm.attributes())
@@ -78,6 +110,106 @@ public class ProductSyncDataService {
         productRepository.save(product);
     }
 
+    /**
+     * Whether the document can be assembled from the CDC row and the local catalog state alone. This is not
+     * the case while the state store is still replaying, for events published before the connector
+     * captured the full product row, or while a linked brand, category or attribute is not in the store yet.
+     */
+    public boolean canUpsertFromCdc(com.yas.commonlibrary.kafka.cdc.message.Product cdcProduct) {
+        return cdcProduct != null
+            && cdcProduct.getName() != null
+            && catalogStateStore.isReady()
+            && catalogStateStore.hasBrand(cdcProduct.getBrandId())
+            && catalogStateStore.hasRelationNames(cdcProduct.getId());
+    }
+
+    /**
+     * Creates or updates the document from the scalar columns carried by the CDC event, joined with brand,
+     * category and attribute names from the {@link CatalogStateStore}. No call to the product service is made.
+     *
+     * <p>The thumbnail URL is owned by the media service and is not part of the event; it is kept as long as
+     * the thumbnail media id does not change, and otherwise resolved through the product service.
+     *
+     * <p>The relation names are read from the store again after the save. A product_category or
+     * product_attribute_value change applied in between was skipped by {@link #refreshProductRelations} while
+     * the document did not exist yet, so it is re-joined here.
+     */
+    public void upsertProduct(com.yas.commonlibrary.kafka.cdc.message.Product cdcProduct) {
+        long id = cdcProduct.getId();
+        if (!cdcProduct.isPublished()) {
+            deleteProduct(id);
+            return;
+        }
+
+        Product product = productRepository.findById(id).orElseGet(() -> Product.builder().id(id).build());
+        if (!Objects.equals(product.getThumbnailMediaId(), cdcProduct.getThumbnailMediaId())) {
+            product.setThumbnailUrl(cdcProduct.getThumbnailMediaId() == null
+                ? null
+                : getProductEsDetailById(id).thumbnailUrl());
+        }
+        List<String> categoryNames = catalogStateStore.getCategoryNames(id);
+        List<String> attributeNames = catalogStateStore.getAttributeNames(id);
+        product.setName(cdcProduct.getName());
+        product.setNameSuggest(toNameSuggest(cdcProduct.getName()));
+        product.setSlug(cdcProduct.getSlug());
+        product.setPrice(cdcProduct.getPrice());
+        product.setIsPublished(true);
+        product.setIsVisibleIndividually(cdcProduct.getIsVisibleIndividually());
+        product.setIsAllowedToOrder(cdcProduct.getIsAllowedToOrder());
+        product.setIsFeatured(cdcProduct.getIsFeatured());
+        product.setThumbnailMediaId(cdcProduct.getThumbnailMediaId());
+        product.setStockQuantity(cdcProduct.getStockQuantity());
+        product.setIsInStock(!Boolean.TRUE.equals(cdcProduct.getStockTrackingEnabled())
+            || (cdcProduct.getStockQuantity() != null && cdcProduct.getStockQuantity() > 0));
+        product.setBrandId(cdcProduct.getBrandId());
+        product.setBrand(catalogStateStore.getBrandName(cdcProduct.getBrandId()));
+        product.setCategories(categoryNames);
+        product.setAttributes(attributeNames);
+        product.setCreatedOn(toZonedDateTime(cdcProduct.getCreatedOn()));
+        productRepository.save(product);
+
+        if (!categoryNames.equals(catalogStateStore.getCategoryNames(id))
+            || !attributeNames.equals(catalogStateStore.getAttributeNames(id))) {
+            refreshProductRelations(List.of(id));
+        }
+    }
+
+    /**
+     * Re-joins category and attribute names of already indexed products after a product_category,
+     * product_attribute_value, category or product attribute change. Products not in the index are skipped.
+     *
+     * <p>Only the two fields are written, as a partial update, so a concurrent {@link #upsertProduct} of the same
+     * document is not overwritten with the state read here.
+     */
+    public void refreshProductRelations(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<UpdateQuery> updates = new ArrayList<>();
+        productRepository.findAllById(productIds).forEach(product -> updates.add(partialUpdate(product.getId(),
+            Document.create()
+                .append(FIELD_CATEGORIES, catalogStateStore.getCategoryNames(product.getId()))
+                .append(FIELD_ATTRIBUTES, catalogStateStore.getAttributeNames(product.getId())))));
+        if (!updates.isEmpty()) {
+            elasticsearchOperations.bulkUpdate(updates, Product.class);
+        }
+    }
+
+    /**
+     * Renames the brand of the indexed products referencing it, as a partial update of the brand field only.
+     */
+    public void refreshBrand(long brandId) {
+        List<Product> products = productRepository.findAllByBrandId(brandId);
+        if (products.isEmpty()) {
+            return;
+        }
+        String brandName = catalogStateStore.getBrandName(brandId);
+        List<UpdateQuery> updates = products.stream()
+            .map(product -> partialUpdate(product.getId(), Document.create().append(FIELD_BRAND, brandName)))
+            .toList();
+        elasticsearchOperations.bulkUpdate(updates, Product.class);
+    }
+
     public void deleteProduct(Long id) {
         final boolean isProductExisted = productRepository.existsById(id);
         if (isProductExisted) {
@@ -86,4 +218,40 @@ public class ProductSyncDataService {
             log.warn("Product {} doesn't exist in Elasticsearch.", id);
         }
     }
+
+    private static UpdateQuery partialUpdate(Long id, Document fields) {
+        return UpdateQuery.builder(String.valueOf(id))
+            .withDocument(fields)
+            .withRetryOnConflict(UPDATE_RETRY_ON_CONFLICT)
+            .build();
+    }
+
+    private static ZonedDateTime toZonedDateTime(Long epochMicros) {
+        return epochMicros == null
+            ? null
+            : Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS).atZone(ZoneOffset.UTC);
+    }
+
+    /**
+     * Completion inputs for the name and each of its suffixes starting at a word, so that a keyword matches a word
+     * in the middle of the name too. Words also start at a lower to upper case change, e.g. "phone" in "iPhone".
+     */
+    static Completion toNameSuggest(String name) {
+        if (name == null) {
+            return null;
+        }
+        Set<String> inputs = new LinkedHashSet<>();
+        inputs.add(name);
+        for (int i = 1; i < name.length(); i++) {
+            char previous = name.charAt(i - 1);
+            char current = name.charAt(i);
+            boolean wordStart = Character.isLetterOrDigit(current)
+                && (!Character.isLetterOrDigit(previous)
+                    || Character.isLowerCase(previous) && Character.isUpperCase(current));
+            if (wordStart) {
+                inputs.add(name.substring(i));
+            }
+        }
+        return new Completion(inputs.toArray(String[]::new));
+    }
 }
@@ -0,0 +1,263 @@
+package com.yas.search.store;
+
+import com.yas.search.kafka.message.ProductRelation;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process copy of the catalog tables that product documents are joined with: brand, category and product
+ * attribute names plus the product_category and product_attribute_value join rows.
+ *
+ * <p>The store is fed by {@link CatalogStateTailer}, which replays the compacted CDC topics from the beginning
+ * on startup and keeps tailing them. It also remembers the last applied offset per partition so that
+ * listeners can wait until a record they received has been applied before reading from the store.
+ */
+@Component
+public class CatalogStateStore {
+
+    // deleted join rows whose delete event no listener of this instance handled, e.g. on another replica
+    private static final int MAX_REMOVED_ROWS = 10_000;
+
+    private final Map<Long, String> brands = new ConcurrentHashMap<>();
+    private final Map<Long, String> categories = new ConcurrentHashMap<>();
+    private final Map<Long, String> productAttributes = new ConcurrentHashMap<>();
+    private final RelationTable productCategories = new RelationTable(ProductRelation::getCategoryId);
+    private final RelationTable productAttributeValues = new RelationTable(ProductRelation::getProductAttributeId);
+    private final Map<TopicPartition, Long> appliedOffsets = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        this.ready = true;
+    }
+
+    public void putBrand(long id, String name) {
+        putName(brands, id, name);
+    }
+
+    public void removeBrand(long id) {
+        brands.remove(id);
+    }
+
+    public String getBrandName(Long brandId) {
+        return brandId == null ? null : brands.get(brandId);
+    }
+
+    public boolean hasBrand(Long brandId) {
+        return brandId == null || brands.containsKey(brandId);
+    }
+
+    public void putCategory(long id, String name) {
+        putName(categories, id, name);
+    }
+
+    public void removeCategory(long id) {
+        categories.remove(id);
+    }
+
+    public void putProductAttribute(long id, String name) {
+        putName(productAttributes, id, name);
+    }
+
+    public void removeProductAttribute(long id) {
+        productAttributes.remove(id);
+    }
+
+    public void putProductCategory(ProductRelation relation) {
+        productCategories.put(relation);
+    }
+
+    public void removeProductCategory(long rowId) {
+        productCategories.remove(rowId);
+    }
+
+    public void putProductAttributeValue(ProductRelation relation) {
+        productAttributeValues.put(relation);
+    }
+
+    public void removeProductAttributeValue(long rowId) {
+        productAttributeValues.remove(rowId);
+    }
+
+    public List<String> getCategoryNames(long productId) {
+        return resolveNames(productCategories.targetIdsOf(productId), categories);
+    }
+
+    public List<String> getAttributeNames(long productId) {
+        return resolveNames(productAttributeValues.targetIdsOf(productId), productAttributes);
+    }
+
+    /**
+     * Whether every category and product attribute the product is linked to has a known name, i.e. whether
+     * {@link #getCategoryNames(long)} and {@link #getAttributeNames(long)} are complete for it.
+     */
+    public boolean hasRelationNames(long productId) {
+        return categories.keySet().containsAll(productCategories.targetIdsOf(productId))
+            && productAttributes.keySet().containsAll(productAttributeValues.targetIdsOf(productId));
+    }
+
+    public Set<Long> getProductIdsByCategory(long categoryId) {
+        return productCategories.productIdsOf(categoryId);
+    }
+
+    public Set<Long> getProductIdsByProductAttribute(long productAttributeId) {
+        return productAttributeValues.productIdsOf(productAttributeId);
+    }
+
+    /**
+     * Product id linked through the product_category row, also after the row was deleted until
+     * {@link #forgetProductCategoryRow(long)}. Empty when the row was never seen.
+     */
+    public Set<Long> getProductIdsByProductCategoryRow(long rowId) {
+        return productCategories.productIdOfRow(rowId);
+    }
+
+    public Set<Long> getProductIdsByProductAttributeValueRow(long rowId) {
+        return productAttributeValues.productIdOfRow(rowId);
+    }
+
+    /**
+     * Drops the product id remembered for a deleted product_category row once its delete event was handled.
+     */
+    public void forgetProductCategoryRow(long rowId) {
+        productCategories.forgetRemoved(rowId);
+    }
+
+    public void forgetProductAttributeValueRow(long rowId) {
+        productAttributeValues.forgetRemoved(rowId);
+    }
+
+    public void markApplied(TopicPartition topicPartition, long offset) {
+        appliedOffsets.merge(topicPartition, offset, Math::max);
+    }
+
+    public long getAppliedOffset(TopicPartition topicPartition) {
+        return appliedOffsets.getOrDefault(topicPartition, -1L);
+    }
+
+    /**
+     * Waits until the record at {@code offset} has been applied to the store.
+     *
+     * @return {@code false} when the store did not catch up within {@code timeout}
+     */
+    public boolean awaitApplied(TopicPartition topicPartition, long offset, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (getAppliedOffset(topicPartition) < offset) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putName(Map<Long, String> names, long id, String name) {
+        if (name == null) {
+            names.remove(id);
+        } else {
+            names.put(id, name);
+        }
+    }
+
+    private static List<String> resolveNames(Collection<Long> ids, Map<Long, String> names) {
+        return ids.stream().map(names::get).filter(Objects::nonNull).distinct().toList();
+    }
+
+    /**
+     * A product join table indexed by row id, by product id and by the joined entity id.
+     */
+    private static final class RelationTable {
+
+        private final Function<ProductRelation, Long> targetId;
+        private final Map<Long, ProductRelation> rows = new HashMap<>();
+        private final Map<Long, Set<Long>> rowIdsByProduct = new HashMap<>();
+        private final Map<Long, Set<Long>> rowIdsByTarget = new HashMap<>();
+        // Debezium delete events only carry the row id, so the product of a removed row is kept until
+        // the delete was handled, oldest first dropped past MAX_REMOVED_ROWS
+        private final Map<Long, Long> removedProductIdByRow = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > MAX_REMOVED_ROWS;
+            }
+        };
+
+        RelationTable(Function<ProductRelation, Long> targetId) {
+            this.targetId = targetId;
+        }
+
+        synchronized void put(ProductRelation relation) {
+            remove(relation.getId());
+            if (relation.getProductId() == null || targetId.apply(relation) == null) {
+                return;
+            }
+            removedProductIdByRow.remove(relation.getId());
+            rows.put(relation.getId(), relation);
+            rowIdsByProduct.computeIfAbsent(relation.getProductId(), k -> new HashSet<>()).add(relation.getId());
+            rowIdsByTarget.computeIfAbsent(targetId.apply(relation), k -> new HashSet<>()).add(relation.getId());
+        }
+
+        synchronized void remove(long rowId) {
+            ProductRelation previous = rows.remove(rowId);
+            if (previous == null) {
+                return;
+            }
+            removedProductIdByRow.put(rowId, previous.getProductId());
+            removeIndex(rowIdsByProduct, previous.getProductId(), rowId);
+            removeIndex(rowIdsByTarget, targetId.apply(previous), rowId);
+        }
+
+        synchronized List<Long> targetIdsOf(long productId) {
+            return rowIdsByProduct.getOrDefault(productId, Set.of()).stream()
+                .sorted()
+                .map(rows::get)
+                .map(targetId)
+                .toList();
+        }
+
+        synchronized Set<Long> productIdsOf(long target) {
+            Set<Long> productIds = new HashSet<>();
+            rowIdsByTarget.getOrDefault(target, Set.of())
+                .forEach(rowId -> productIds.add(rows.get(rowId).getProductId()));
+            return productIds;
+        }
+
+        synchronized Set<Long> productIdOfRow(long rowId) {
+            ProductRelation row = rows.get(rowId);
+            Long productId = row != null ? row.getProductId() : removedProductIdByRow.get(rowId);
+            return productId == null ? Set.of() : Set.of(productId);
+        }
+
+        synchronized void forgetRemoved(long rowId) {
+            removedProductIdByRow.remove(rowId);
+        }
+
+        private static void removeIndex(Map<Long, Set<Long>> index, Long key, long rowId) {
+            Set<Long> rowIds = index.get(key);
+            if (rowIds != null) {
+                rowIds.remove(rowId);
+                if (rowIds.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+}
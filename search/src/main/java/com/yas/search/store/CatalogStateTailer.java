@@ -0,0 +1,233 @@
+package com.yas.search.store;
+
+import static com.yas.search.kafka.config.consumer.NamedEntityCdcKafkaListenerConfig.NAMED_ENTITY_CDC_LISTENER_CONTAINER_FACTORY;
+import static com.yas.search.kafka.config.consumer.ProductRelationCdcKafkaListenerConfig.PRODUCT_RELATION_CDC_LISTENER_CONTAINER_FACTORY;
+
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
+import com.yas.search.kafka.message.CdcMsgKey;
+import com.yas.search.kafka.message.NamedEntityCdcMessage;
+import com.yas.search.kafka.message.ProductRelationCdcMessage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replays the brand, category, product attribute, product_category and product_attribute_value CDC topics
+ * into the {@link CatalogStateStore} and keeps tailing them.
+ *
+ * <p>Every instance reads all partitions from the beginning with manually assigned consumers, so the store is
+ * a full local copy regardless of how the shared consumer groups are balanced. The store is marked ready
+ * once both consumers reached the end offsets observed at startup.
+ */
+@Slf4j
+@Component
+public class CatalogStateTailer implements SmartLifecycle {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration RESTART_DELAY = Duration.ofSeconds(5);
+
+    private final CatalogStateStore store;
+    private final ConsumerFactory<CdcMsgKey, NamedEntityCdcMessage> namedEntityConsumerFactory;
+    private final ConsumerFactory<CdcMsgKey, ProductRelationCdcMessage> productRelationConsumerFactory;
+    private final String brandTopic;
+    private final String categoryTopic;
+    private final String productAttributeTopic;
+    private final String productCategoryTopic;
+    private final String productAttributeValueTopic;
+    private final List<Consumer<?, ?>> consumers = new CopyOnWriteArrayList<>();
+    private final AtomicInteger pendingCatchUps = new AtomicInteger(2);
+    private volatile boolean running;
+
+    public CatalogStateTailer(
+        CatalogStateStore store,
+        @Qualifier(NAMED_ENTITY_CDC_LISTENER_CONTAINER_FACTORY)
+        ConcurrentKafkaListenerContainerFactory<CdcMsgKey, NamedEntityCdcMessage> namedEntityFactory,
+        @Qualifier(PRODUCT_RELATION_CDC_LISTENER_CONTAINER_FACTORY)
+        ConcurrentKafkaListenerContainerFactory<CdcMsgKey, ProductRelationCdcMessage> productRelationFactory,
+        @Value("${brand.topic.name}") String brandTopic,
+        @Value("${category.topic.name}") String categoryTopic,
+        @Value("${product-attribute.topic.name}") String productAttributeTopic,
+        @Value("${product-category.topic.name}") String productCategoryTopic,
+        @Value("${product-attribute-value.topic.name}") String productAttributeValueTopic
+    ) {
+        this.store = store;
+        this.namedEntityConsumerFactory = consumerFactoryOf(namedEntityFactory);
+        this.productRelationConsumerFactory = consumerFactoryOf(productRelationFactory);
+        this.brandTopic = brandTopic;
+        this.categoryTopic = categoryTopic;
+        this.productAttributeTopic = productAttributeTopic;
+        this.productCategoryTopic = productCategoryTopic;
+        this.productAttributeValueTopic = productAttributeValueTopic;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.ofVirtual().name("catalog-state-named-entity").start(() -> run(namedEntityConsumerFactory,
+            List.of(brandTopic, categoryTopic, productAttributeTopic), this::applyNamedEntity));
+        Thread.ofVirtual().name("catalog-state-product-relation").start(() -> run(productRelationConsumerFactory,
+            List.of(productCategoryTopic, productAttributeValueTopic), this::applyProductRelation));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        consumers.forEach(Consumer::wakeup);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void applyNamedEntity(ConsumerRecord<CdcMsgKey, NamedEntityCdcMessage> consumerRecord) {
+        NamedEntityCdcMessage message = consumerRecord.value();
+        long id = consumerRecord.key().getId();
+        boolean isDelete = message == null || Operation.DELETE.equals(message.getOp()) || message.getAfter() == null;
+        String name = isDelete ? null : message.getAfter().getName();
+        String topic = consumerRecord.topic();
+        if (brandTopic.equals(topic)) {
+            if (isDelete) {
+                store.removeBrand(id);
+            } else {
+                store.putBrand(id, name);
+            }
+        } else if (categoryTopic.equals(topic)) {
+            if (isDelete) {
+                store.removeCategory(id);
+            } else {
+                store.putCategory(id, name);
+            }
+        } else if (productAttributeTopic.equals(topic)) {
+            if (isDelete) {
+                store.removeProductAttribute(id);
+            } else {
+                store.putProductAttribute(id, name);
+            }
+        }
+    }
+
+    void applyProductRelation(ConsumerRecord<CdcMsgKey, ProductRelationCdcMessage> consumerRecord) {
+        ProductRelationCdcMessage message = consumerRecord.value();
+        long rowId = consumerRecord.key().getId();
+        boolean isDelete = message == null || Operation.DELETE.equals(message.getOp()) || message.getAfter() == null;
+        String topic = consumerRecord.topic();
+        if (productCategoryTopic.equals(topic)) {
+            if (isDelete) {
+                store.removeProductCategory(rowId);
+            } else {
+                store.putProductCategory(message.getAfter());
+            }
+        } else if (productAttributeValueTopic.equals(topic)) {
+            if (isDelete) {
+                store.removeProductAttributeValue(rowId);
+            } else {
+                store.putProductAttributeValue(message.getAfter());
+            }
+        }
+    }
+
+    private <V> void run(ConsumerFactory<CdcMsgKey, V> consumerFactory, List<String> topics,
+                         java.util.function.Consumer<ConsumerRecord<CdcMsgKey, V>> applier) {
+        boolean caughtUp = false;
+        while (running) {
+            Consumer<CdcMsgKey, V> consumer = createConsumer(consumerFactory);
+            consumers.add(consumer);
+            try (consumer) {
+                caughtUp = tail(consumer, topics, applier, caughtUp);
+            } catch (WakeupException e) {
+                log.debug("Catalog state tailer for {} stopped", topics);
+            } catch (Exception e) {
+                log.error("Catalog state tailer for {} failed, restarting in {}", topics, RESTART_DELAY, e);
+                sleep(RESTART_DELAY);
+            } finally {
+                consumers.remove(consumer);
+            }
+        }
+    }
+
+    private <V> boolean tail(Consumer<CdcMsgKey, V> consumer, List<String> topics,
+                             java.util.function.Consumer<ConsumerRecord<CdcMsgKey, V>> applier, boolean caughtUp) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (String topic : topics) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos == null || infos.isEmpty()) {
+                log.warn("Topic {} does not exist yet, catalog state will not include it", topic);
+                continue;
+            }
+            infos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+        }
+        if (partitions.isEmpty()) {
+            caughtUp = markCaughtUp(topics, caughtUp);
+            sleep(RESTART_DELAY);
+            return caughtUp;
+        }
+        consumer.assign(partitions);
+        consumer.seekToBeginning(partitions);
+        Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+        while (running) {
+            for (ConsumerRecord<CdcMsgKey, V> consumerRecord : consumer.poll(POLL_TIMEOUT)) {
+                if (consumerRecord.key() != null) {
+                    applier.accept(consumerRecord);
+                }
+                store.markApplied(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+                    consumerRecord.offset());
+            }
+            if (!caughtUp && endOffsets.entrySet().stream()
+                .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue())) {
+                caughtUp = markCaughtUp(topics, false);
+            }
+        }
+        return caughtUp;
+    }
+
+    private boolean markCaughtUp(List<String> topics, boolean caughtUp) {
+        if (!caughtUp) {
+            log.info("Catalog state for {} caught up", topics);
+            if (pendingCatchUps.decrementAndGet() == 0) {
+                store.markReady();
+            }
+        }
+        return true;
+    }
+
+    private <V> Consumer<CdcMsgKey, V> createConsumer(ConsumerFactory<CdcMsgKey, V> consumerFactory) {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return consumerFactory.createConsumer("search-catalog-state-" + UUID.randomUUID(), null, null, overrides);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> ConsumerFactory<CdcMsgKey, V> consumerFactoryOf(
+        ConcurrentKafkaListenerContainerFactory<CdcMsgKey, V> containerFactory) {
+        return (ConsumerFactory<CdcMsgKey, V>) containerFactory.getConsumerFactory();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -13,7 +13,18 @@ public record ProductEsDetailVm(
         boolean isAllowedToOrder,
         boolean isFeatured,
         Long thumbnailMediaId,
+        String thumbnailUrl,
+        boolean stockTrackingEnabled,
+        Long stockQuantity,
+        Long brandId,
         String brand,
         List<String> categories,
         List<String> attributes) {
+
+    /**
+     * A product is orderable from stock when stock is not tracked, or when there is at least one item left.
+     */
+    public boolean isInStock() {
+        return !stockTrackingEnabled || (stockQuantity != null && stockQuantity > 0);
+    }
 }
@@ -0,0 +1,6 @@
+package com.yas.search.viewmodel;
+
+import java.util.Map;
+
+public record ProductFacetsVm(Map<String, Map<String, Long>> aggregations) {
+}
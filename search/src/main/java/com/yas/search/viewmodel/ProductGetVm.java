@@ -7,8 +7,10 @@ public record ProductGetVm(Long id,
                            String name,
                            String slug,
                            Long thumbnailId,
+                           String thumbnailUrl,
                            Double price,
                            Boolean isAllowedToOrder,
+                           Boolean isInStock,
                            Boolean isPublished,
                            Boolean isFeatured,
                            Boolean isVisibleIndividually,
@@ -19,8 +21,10 @@ public record ProductGetVm(Long id,
                 product.getName(),
                 product.getSlug(),
                 product.getThumbnailMediaId(),
+                product.getThumbnailUrl(),
                 product.getPrice(),
                 product.getIsAllowedToOrder(),
+                product.getIsInStock(),
                 product.getIsPublished(),
                 product.getIsFeatured(),
                 product.getIsVisibleIndividually(),
@@ -3,20 +3,32 @@ package com.yas.search.consumer;
 import static com.yas.commonlibrary.kafka.cdc.message.Operation.CREATE;
 import static com.yas.commonlibrary.kafka.cdc.message.Operation.DELETE;
 import static com.yas.commonlibrary.kafka.cdc.message.Operation.UPDATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import com.yas.commonlibrary.kafka.cdc.KeyHashedExecutor;
+import com.yas.commonlibrary.kafka.cdc.message.Operation;
 import com.yas.commonlibrary.kafka.cdc.message.ProductCdcMessage;
 import com.yas.commonlibrary.kafka.cdc.message.ProductMsgKey;
 import com.yas.search.kafka.consumer.ProductSyncDataConsumer;
 import com.yas.commonlibrary.kafka.cdc.message.Product;
 import com.yas.search.service.ProductSyncDataService;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
 
 class ProductSyncDataConsumerTest {
 
@@ -63,6 +75,62 @@ class ProductSyncDataConsumerTest {
         verify(productSyncDataService, times(1)).updateProduct(productId);
     }
 
+    @Test
+    void testSync_whenCatalogStateReady_upsertFromCdcPayload() {
+        // Given
+        long productId = 4L;
+        Product after = Product.builder().id(productId).name("Speaker").isPublished(true).build();
+        when(productSyncDataService.canUpsertFromCdc(after)).thenReturn(true);
+
+        // When
+        productSyncDataConsumer.sync(
+            ProductMsgKey.builder().id(productId).build(),
+            ProductCdcMessage.builder().after(after).op(UPDATE).build()
+        );
+
+        // Then
+        verify(productSyncDataService, times(1)).upsertProduct(after);
+        verify(productSyncDataService, never()).updateProduct(anyLong());
+    }
+
+    @Test
+    void testProcessMessages_whenBatch_syncEveryRecord() {
+        try (KeyHashedExecutor executor = new KeyHashedExecutor(4)) {
+            ProductSyncDataConsumer consumer = new ProductSyncDataConsumer(productSyncDataService, executor);
+
+            consumer.processMessages(List.of(record(1L, CREATE), record(2L, UPDATE), record(1L, UPDATE)));
+
+            verify(productSyncDataService, times(1)).createProduct(1L);
+            verify(productSyncDataService, times(1)).updateProduct(1L);
+            verify(productSyncDataService, times(1)).updateProduct(2L);
+        }
+    }
+
+    @Test
+    void testProcessMessages_whenValueNotDeserialized_failRecordWithoutDelete() {
+        ConsumerRecord<ProductMsgKey, ProductCdcMessage> failed =
+            new ConsumerRecord<>("product", 0, 1, ProductMsgKey.builder().id(2L).build(), null);
+        try (var deserializer = new ErrorHandlingDeserializer<>(new JsonDeserializer<>(ProductCdcMessage.class))) {
+            // adds the failure header the container would
+            deserializer.deserialize("product", failed.headers(), "not json".getBytes());
+        }
+
+        try (KeyHashedExecutor executor = new KeyHashedExecutor(4)) {
+            ProductSyncDataConsumer consumer = new ProductSyncDataConsumer(productSyncDataService, executor);
+
+            BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.processMessages(List.of(record(1L, CREATE), failed)));
+
+            verify(productSyncDataService, never()).deleteProduct(anyLong());
+            assertEquals(1, exception.getIndex());
+        }
+    }
+
+    private static ConsumerRecord<ProductMsgKey, ProductCdcMessage> record(long productId, Operation op) {
+        return new ConsumerRecord<>("product", 0, productId, ProductMsgKey.builder().id(productId).build(),
+            ProductCdcMessage.builder().after(Product.builder().id(productId).build()).op(op).build());
+    }
+
     @Disabled("Handle later once elasticsearch sync delete complete")
     @Test
     void testSync_whenDeleteAction_deleteProduct() {
@@ -11,6 +11,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.yas.search.ElasticsearchApplication;
 import com.yas.search.model.ProductCriteriaDto;
 import com.yas.search.service.ProductService;
+import com.yas.search.viewmodel.ProductFacetsVm;
 import com.yas.search.viewmodel.ProductGetVm;
 import com.yas.search.viewmodel.ProductListGetVm;
 import com.yas.search.viewmodel.ProductNameGetVm;
@@ -49,9 +50,11 @@ class ProductControllerTest {
             "Sample Product",
             "sample-product",
             123L,
+            "http://api.yas.local/media/medias/123/file/sample.png",
             29.99,
             true,
             true,
+            true,
             false,
             true,
             ZonedDateTime.now()
@@ -63,7 +66,7 @@ class ProductControllerTest {
 
 
 
-        when(productService.findProductAdvance(any(ProductCriteriaDto.class)))
+        when(productService.findProductAdvance(any(ProductCriteriaDto.class), any()))
             .thenReturn(mockResponse);
 
         mockMvc.perform(get("/storefront/catalog-search")
@@ -79,13 +82,28 @@ class ProductControllerTest {
             .andExpect(jsonPath("$.products[0].slug").value(productGetVm.slug()));
     }
 
+    @Test
+    void testFindProductFacets_whenFacetsRequested_thenReturnProductFacetsVm() throws Exception {
+
+        ProductFacetsVm mockResponse = new ProductFacetsVm(Map.of("brands", Map.of("Apple", 3L)));
+        when(productService.findProductFacets(any(ProductCriteriaDto.class), any())).thenReturn(mockResponse);
+
+        mockMvc.perform(get("/storefront/catalog-search/facets")
+                .param("keyword", "test")
+                .param("facets", "brand")
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.aggregations.brands.Apple").value(3));
+    }
+
     @Test
     void testProductSearchAutoComplete_whenProductNameList_thenReturnProductNameListVm() throws Exception {
 
         ProductNameListVm mockResponse = new ProductNameListVm(
             List.of(new ProductNameGetVm("Product1"))
         );
-        when(productService.autoCompleteProductName(anyString())).thenReturn(mockResponse);
+        when(productService.autoCompleteProductName(anyString(), any())).thenReturn(mockResponse);
 
         mockMvc.perform(get("/storefront/search_suggest")
                 .param("keyword", "test")
@@ -2,25 +2,36 @@ package com.yas.search.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import com.yas.commonlibrary.exception.BadRequestException;
+import com.yas.search.cache.SuggestionPrefixCache;
+import com.yas.search.config.FacetConfig;
+import com.yas.search.config.SuggestConfig;
 import com.yas.search.constant.enums.SortType;
 import com.yas.search.model.Product;
 import com.yas.search.model.ProductCriteriaDto;
 import com.yas.search.viewmodel.ProductListGetVm;
 import com.yas.search.viewmodel.ProductNameGetVm;
 import com.yas.search.viewmodel.ProductNameListVm;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,6 +44,7 @@ import org.springframework.data.elasticsearch.core.SearchHits;
 import org.springframework.data.elasticsearch.core.SearchPage;
 import org.springframework.data.elasticsearch.core.SearchShardStatistics;
 import org.springframework.data.elasticsearch.core.TotalHitsRelation;
+import org.springframework.data.elasticsearch.core.suggest.response.CompletionSuggestion;
 import org.springframework.data.elasticsearch.core.suggest.response.Suggest;
 
 class ProductServiceTest {
@@ -44,7 +56,9 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         elasticsearchOperations = mock(ElasticsearchOperations.class);
-        productService = new ProductService(elasticsearchOperations);
+        SuggestConfig suggestConfig = new SuggestConfig(10, 20, 3, 100, Duration.ofMinutes(1));
+        productService = new ProductService(elasticsearchOperations, suggestConfig,
+            new SuggestionPrefixCache(suggestConfig), new FacetConfig(10, 100));
     }
 
     @Test
@@ -70,7 +84,8 @@ class ProductServiceTest {
         ProductCriteriaDto criteriaDto = new ProductCriteriaDto(
             "test", 0, 10, "testBrand", "testCategory",
             "testAttribute", 10.0, 100.0, SortType.PRICE_ASC);
-        ProductListGetVm result = productService.findProductAdvance(criteriaDto);
+        ProductListGetVm result = productService.findProductAdvance(criteriaDto,
+            productService.toFacetCriteria(null, null));
 
         verify(elasticsearchOperations, times(1))
             .search(captor.capture(), eq(Product.class));
@@ -106,7 +121,7 @@ class ProductServiceTest {
 
         ProductCriteriaDto criteriaDto = new ProductCriteriaDto("test", 0, 10, "testBrand", "testCategory",
             "testAttribute", 10.0, 100.0, SortType.PRICE_DESC);
-        productService.findProductAdvance(criteriaDto);
+        productService.findProductAdvance(criteriaDto, productService.toFacetCriteria(null, null));
 
         verify(elasticsearchOperations, times(1))
             .search(captor.capture(), eq(Product.class));
@@ -134,7 +149,7 @@ class ProductServiceTest {
         ProductCriteriaDto criteriaDto = new ProductCriteriaDto(
             "test", 0, 10, "testBrand", "testCategory",
             "testAttribute", 10.0, 100.0, SortType.DEFAULT);
-        productService.findProductAdvance(criteriaDto);
+        productService.findProductAdvance(criteriaDto, productService.toFacetCriteria(null, null));
 
         verify(elasticsearchOperations, times(1))
             .search(captor.capture(), eq(Product.class));
@@ -142,23 +157,148 @@ class ProductServiceTest {
         assertEquals("createdOn: DESC", Objects.requireNonNull(captor.getValue().getSort()).toString());
     }
 
+    @Test
+    void testFindProductAdvance_whenFacetsSelected_thenOnlyRequestSelectedAggregations() {
+
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(Product.class))).thenReturn(getSearchHits());
+
+        ProductCriteriaDto criteriaDto = new ProductCriteriaDto(
+            "test", 0, 10, null, null, null, null, null, SortType.DEFAULT);
+        productService.findProductAdvance(criteriaDto, productService.toFacetCriteria("brand,category", 5));
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(Product.class));
+        Map<String, Aggregation> aggregations = captor.getValue().getAggregations();
+        assertEquals(Set.of("brands", "categories"), aggregations.keySet());
+        assertEquals(5, aggregations.get("brands").terms().size());
+    }
+
+    @Test
+    void testFindProductAdvance_whenFacetsIsNone_thenRequestNoAggregation() {
+
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(Product.class))).thenReturn(getSearchHits());
+
+        ProductCriteriaDto criteriaDto = new ProductCriteriaDto(
+            "test", 0, 10, null, null, null, null, null, SortType.DEFAULT);
+        ProductListGetVm result = productService.findProductAdvance(criteriaDto,
+            productService.toFacetCriteria("none", null));
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(Product.class));
+        assertTrue(captor.getValue().getAggregations().isEmpty());
+        assertTrue(result.aggregations().isEmpty());
+    }
+
+    @Test
+    void testFindProductFacets_whenFacetsSelected_thenSkipHits() {
+
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(Product.class))).thenReturn(getSearchHits());
+
+        ProductCriteriaDto criteriaDto = new ProductCriteriaDto(
+            "test", 0, 0, null, null, null, null, null, SortType.DEFAULT);
+        productService.findProductFacets(criteriaDto, productService.toFacetCriteria("attributes", 500));
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(Product.class));
+        assertEquals(0, captor.getValue().getMaxResults());
+        assertEquals(100, captor.getValue().getAggregations().get("attributes").terms().size());
+    }
+
+    @Test
+    void testToFacetCriteria_whenFacetIsUnknown_thenThrowBadRequestException() {
+        assertThrows(BadRequestException.class, () -> productService.toFacetCriteria("colour", null));
+    }
+
     @Test
     void testAutoCompleteProductName_whenExistsProducts_returnProductNameListVm() {
 
-        SearchHits<Product> searchHits =
-            getSearchHits();
+        SearchHits<Product> searchHits = getSuggestSearchHits("Test Product");
 
         when(elasticsearchOperations.search(any(NativeQuery.class), eq(Product.class)))
             .thenReturn(searchHits);
 
-        ProductNameListVm result = productService.autoCompleteProductName("Product");
+        ProductNameListVm result = productService.autoCompleteProductName("Product", null);
 
         assertNotNull(result);
         assertEquals(1, result.productNames().size());
         ProductNameGetVm productNameGetVm = result.productNames().getFirst();
         assertEquals("Test Product", productNameGetVm.name());
 
-        verify(elasticsearchOperations).search(any(NativeQuery.class), eq(Product.class));
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(Product.class));
+        assertNotNull(captor.getValue().getSuggester());
+        assertEquals(0, captor.getValue().getMaxResults());
+    }
+
+    @Test
+    void testAutoCompleteProductName_whenShortPrefixRequestedTwice_thenHitElasticsearchOnce() {
+
+        SearchHits<Product> searchHits = getSuggestSearchHits("Test Product");
+
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(Product.class)))
+            .thenReturn(searchHits);
+
+        productService.autoCompleteProductName("te", 5);
+        ProductNameListVm result = productService.autoCompleteProductName("TE", 5);
+
+        assertEquals("Test Product", result.productNames().getFirst().name());
+        verify(elasticsearchOperations, times(1)).search(any(NativeQuery.class), eq(Product.class));
+    }
+
+    @Test
+    void testAutoCompleteProductName_whenLongKeywordRequestedTwice_thenHitElasticsearchEachTime() {
+
+        SearchHits<Product> searchHits = getSuggestSearchHits("Test Product");
+
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(Product.class)))
+            .thenReturn(searchHits);
+
+        productService.autoCompleteProductName("test pro", 5);
+        productService.autoCompleteProductName("test pro", 5);
+
+        verify(elasticsearchOperations, times(2)).search(any(NativeQuery.class), eq(Product.class));
+    }
+
+    @Test
+    void testAutoCompleteProductName_whenSuffixMatched_returnFullName() {
+
+        CompletionSuggestion.Entry.Option<Product> option = new CompletionSuggestion.Entry.Option<>(
+            "phone X", null, 1.0, null, null, null, null, null);
+        SearchHit<Product> hit = mock(SearchHit.class);
+        when(hit.getContent()).thenReturn(Product.builder().name("Smart phone X").build());
+        option.updateSearchHit((document, entity) -> hit);
+        CompletionSuggestion<Product> suggestion = new CompletionSuggestion<>("name-suggestion", 1,
+            List.of(new CompletionSuggestion.Entry<>("phone", 0, 5, List.of(option))));
+        SearchHits<Product> searchHits = mock(SearchHits.class);
+        when(searchHits.getSuggest()).thenReturn(new Suggest(List.of(suggestion), false));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(Product.class)))
+            .thenReturn(searchHits);
+
+        ProductNameListVm result = productService.autoCompleteProductName("phone", 5);
+
+        assertEquals(List.of(new ProductNameGetVm("Smart phone X")), result.productNames());
+    }
+
+    @Test
+    void testAutoCompleteProductName_whenKeywordIsBlank_returnEmptyList() {
+
+        ProductNameListVm result = productService.autoCompleteProductName("  ", null);
+
+        assertTrue(result.productNames().isEmpty());
+        verify(elasticsearchOperations, never()).search(any(NativeQuery.class), eq(Product.class));
+    }
+
+    private static SearchHits<Product> getSuggestSearchHits(String... names) {
+        List<CompletionSuggestion.Entry.Option<Product>> options = Arrays.stream(names)
+            .map(name -> new CompletionSuggestion.Entry.Option<Product>(
+                name, null, 1.0, null, null, null, null, null))
+            .toList();
+        CompletionSuggestion<Product> suggestion = new CompletionSuggestion<>("name-suggestion", names.length,
+            List.of(new CompletionSuggestion.Entry<>("te", 0, 2, options)));
+
+        SearchHits<Product> searchHits = mock(SearchHits.class);
+        when(searchHits.getSuggest()).thenReturn(new Suggest(List.of(suggestion), false));
+        return searchHits;
     }
 
     private static SearchHits<Product> getSearchHits() {
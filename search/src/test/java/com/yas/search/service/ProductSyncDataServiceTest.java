@@ -2,6 +2,8 @@ package com.yas.search.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -10,7 +12,9 @@ import static org.mockito.Mockito.when;
 import com.yas.commonlibrary.exception.NotFoundException;
 import com.yas.search.config.ServiceUrlConfig;
 import com.yas.search.model.Product;
+import com.yas.search.kafka.message.ProductRelation;
 import com.yas.search.repository.ProductRepository;
+import com.yas.search.store.CatalogStateStore;
 import com.yas.search.viewmodel.ProductEsDetailVm;
 import java.net.URI;
 import java.util.List;
@@ -19,6 +23,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -35,6 +41,10 @@ class ProductSyncDataServiceTest {
 
     RestClient.ResponseSpec responseSpec;
 
+    private CatalogStateStore catalogStateStore;
+
+    private ElasticsearchOperations elasticsearchOperations;
+
     private ProductSyncDataService productSyncDataService;
 
     private static final Long ID = 1L;
@@ -45,7 +55,10 @@ class ProductSyncDataServiceTest {
         productRepository = mock(ProductRepository.class);
         restClient = mock(RestClient.class);
         serviceUrlConfig = mock(ServiceUrlConfig.class);
-        productSyncDataService = new ProductSyncDataService(restClient, serviceUrlConfig, productRepository);
+        catalogStateStore = new CatalogStateStore();
+        elasticsearchOperations = mock(ElasticsearchOperations.class);
+        productSyncDataService = new ProductSyncDataService(restClient, serviceUrlConfig, productRepository,
+            catalogStateStore, elasticsearchOperations);
         requestHeadersUriSpec = mock(RestClient.RequestHeadersUriSpec.class);
         responseSpec = mock(RestClient.ResponseSpec.class);
 
@@ -75,6 +88,10 @@ class ProductSyncDataServiceTest {
             true,
             false,
             456L,
+            "http://api.yas.local/media/medias/456/file/thumbnail.png",
+            true,
+            10L,
+            3L,
             "BrandName",
             List.of("Electronics", "Mobile Phones"),
             List.of("Color: Black", "Storage: 128GB", "RAM: 6GB")
@@ -95,6 +112,8 @@ class ProductSyncDataServiceTest {
         assertThat(productEsDetailVm.isAllowedToOrder()).isTrue();
         assertThat(productEsDetailVm.isFeatured()).isFalse();
         assertThat(productEsDetailVm.thumbnailMediaId()).isEqualTo(456L);
+        assertThat(productEsDetailVm.thumbnailUrl()).endsWith("/medias/456/file/thumbnail.png");
+        assertThat(productEsDetailVm.isInStock()).isTrue();
         assertThat(productEsDetailVm.brand()).isEqualTo("BrandName");
         assertThat(productEsDetailVm.categories().getFirst()).isEqualTo("Electronics");
         assertThat(productEsDetailVm.categories().getLast()).isEqualTo("Mobile Phones");
@@ -124,6 +143,9 @@ class ProductSyncDataServiceTest {
         assertThat(existingProduct.getIsAllowedToOrder()).isEqualTo(productEsDetailVm.isAllowedToOrder());
         assertThat(existingProduct.getIsFeatured()).isEqualTo(productEsDetailVm.isFeatured());
         assertThat(existingProduct.getThumbnailMediaId()).isEqualTo(productEsDetailVm.thumbnailMediaId());
+        assertThat(existingProduct.getThumbnailUrl()).isEqualTo(productEsDetailVm.thumbnailUrl());
+        assertThat(existingProduct.getStockQuantity()).isEqualTo(productEsDetailVm.stockQuantity());
+        assertThat(existingProduct.getIsInStock()).isTrue();
         assertThat(existingProduct.getBrand()).isEqualTo(productEsDetailVm.brand());
         assertThat(existingProduct.getCategories()).isEqualTo(productEsDetailVm.categories());
         assertThat(existingProduct.getAttributes()).isEqualTo(productEsDetailVm.attributes());
@@ -148,6 +170,10 @@ class ProductSyncDataServiceTest {
             true,
             false,
             456L,
+            "http://api.yas.local/media/medias/456/file/thumbnail.png",
+            true,
+            10L,
+            3L,
             "BrandName",
             List.of("Electronics", "Mobile Phones"),
             List.of("Color: Black", "Storage: 128GB", "RAM: 6GB")
@@ -232,4 +258,173 @@ class ProductSyncDataServiceTest {
 
         verify(productRepository, never()).deleteById(id);
     }
-}
\ No newline at end of file
+
+    @Test
+    void canUpsertFromCdc_whenStoreNotReady_returnFalse() {
+        catalogStateStore.putBrand(3L, "BrandName");
+
+        assertThat(productSyncDataService.canUpsertFromCdc(getCdcProduct(true))).isFalse();
+
+        catalogStateStore.markReady();
+        assertThat(productSyncDataService.canUpsertFromCdc(getCdcProduct(true))).isTrue();
+    }
+
+    @Test
+    void canUpsertFromCdc_whenBrandUnknown_returnFalse() {
+        catalogStateStore.markReady();
+
+        assertThat(productSyncDataService.canUpsertFromCdc(getCdcProduct(true))).isFalse();
+    }
+
+    @Test
+    void canUpsertFromCdc_whenCategoryOrAttributeUnknown_returnFalse() {
+        catalogStateStore.markReady();
+        catalogStateStore.putBrand(3L, "BrandName");
+        catalogStateStore.putProductCategory(ProductRelation.builder().id(100L).productId(ID).categoryId(10L).build());
+        catalogStateStore.putProductAttributeValue(
+            ProductRelation.builder().id(200L).productId(ID).productAttributeId(20L).build());
+
+        assertThat(productSyncDataService.canUpsertFromCdc(getCdcProduct(true))).isFalse();
+
+        catalogStateStore.putCategory(10L, "Electronics");
+        assertThat(productSyncDataService.canUpsertFromCdc(getCdcProduct(true))).isFalse();
+
+        catalogStateStore.putProductAttribute(20L, "Color");
+        assertThat(productSyncDataService.canUpsertFromCdc(getCdcProduct(true))).isTrue();
+    }
+
+    @Test
+    void toNameSuggest_whenSeveralWords_addSuffixFromEachWord() {
+        assertThat(ProductSyncDataService.toNameSuggest("Smart phone X").getInput())
+            .containsExactly("Smart phone X", "phone X", "X");
+        assertThat(ProductSyncDataService.toNameSuggest("iPhone 15").getInput())
+            .containsExactly("iPhone 15", "Phone 15", "15");
+    }
+
+    @Test
+    void upsertProduct_whenPublished_buildDocumentFromCdcAndStore() {
+        catalogStateStore.putBrand(3L, "BrandName");
+        catalogStateStore.putCategory(10L, "Electronics");
+        catalogStateStore.putProductAttribute(20L, "Color");
+        catalogStateStore.putProductCategory(ProductRelation.builder().id(100L).productId(ID).categoryId(10L).build());
+        catalogStateStore.putProductAttributeValue(
+            ProductRelation.builder().id(200L).productId(ID).productAttributeId(20L).build());
+        Product existingProduct = Product.builder().id(ID).thumbnailMediaId(456L)
+            .thumbnailUrl("http://api.yas.local/media/medias/456/file/thumbnail.png").build();
+        when(productRepository.findById(ID)).thenReturn(Optional.of(existingProduct));
+
+        productSyncDataService.upsertProduct(getCdcProduct(true));
+
+        assertThat(existingProduct.getName()).isEqualTo("Smartphone XYZ");
+        assertThat(existingProduct.getNameSuggest().getInput()).containsExactly("Smartphone XYZ", "XYZ");
+        assertThat(existingProduct.getPrice()).isEqualTo(299.99);
+        assertThat(existingProduct.getIsPublished()).isTrue();
+        assertThat(existingProduct.getThumbnailUrl()).endsWith("/medias/456/file/thumbnail.png");
+        assertThat(existingProduct.getIsInStock()).isFalse();
+        assertThat(existingProduct.getBrandId()).isEqualTo(3L);
+        assertThat(existingProduct.getBrand()).isEqualTo("BrandName");
+        assertThat(existingProduct.getCategories()).containsExactly("Electronics");
+        assertThat(existingProduct.getAttributes()).containsExactly("Color");
+        assertThat(existingProduct.getCreatedOn()).hasToString("2024-01-01T00:00Z");
+        verify(productRepository).save(existingProduct);
+        verify(restClient, never()).get();
+        verify(elasticsearchOperations, never()).bulkUpdate(any(), eq(Product.class));
+    }
+
+    @Test
+    void upsertProduct_whenThumbnailChanged_resolveThumbnailUrl() {
+        mockProductThumbnailVmsByUri();
+        Product existingProduct = Product.builder().id(ID).thumbnailMediaId(1L).thumbnailUrl("old").build();
+        when(productRepository.findById(ID)).thenReturn(Optional.of(existingProduct));
+
+        productSyncDataService.upsertProduct(getCdcProduct(true));
+
+        assertThat(existingProduct.getThumbnailMediaId()).isEqualTo(456L);
+        assertThat(existingProduct.getThumbnailUrl()).endsWith("/medias/456/file/thumbnail.png");
+    }
+
+    @Test
+    void upsertProduct_whenRelationAppliedDuringSave_rejoinNames() {
+        catalogStateStore.putCategory(10L, "Electronics");
+        Product existingProduct = Product.builder().id(ID).thumbnailMediaId(456L).build();
+        when(productRepository.findById(ID)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.findAllById(List.of(ID))).thenReturn(List.of(existingProduct));
+        when(productRepository.save(existingProduct)).then(invocation -> {
+            catalogStateStore.putProductCategory(
+                ProductRelation.builder().id(100L).productId(ID).categoryId(10L).build());
+            return existingProduct;
+        });
+
+        productSyncDataService.upsertProduct(getCdcProduct(true));
+
+        assertThat(existingProduct.getCategories()).isEmpty();
+        assertThat(captureSingleUpdate().getDocument()).containsEntry("categories", List.of("Electronics"));
+    }
+
+    @Test
+    void upsertProduct_whenNotPublished_deleteProduct() {
+        when(productRepository.existsById(ID)).thenReturn(true);
+
+        productSyncDataService.upsertProduct(getCdcProduct(false));
+
+        verify(productRepository).deleteById(ID);
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void refreshProductRelations_whenIndexed_rejoinNames() {
+        catalogStateStore.putCategory(10L, "Audio");
+        catalogStateStore.putProductCategory(ProductRelation.builder().id(100L).productId(ID).categoryId(10L).build());
+        Product existingProduct = Product.builder().id(ID).categories(List.of("Electronics")).build();
+        when(productRepository.findAllById(List.of(ID))).thenReturn(List.of(existingProduct));
+
+        productSyncDataService.refreshProductRelations(List.of(ID));
+
+        UpdateQuery update = captureSingleUpdate();
+        assertThat(update.getId()).isEqualTo(String.valueOf(ID));
+        assertThat(update.getDocument()).containsEntry("categories", List.of("Audio"))
+            .containsEntry("attributes", List.of())
+            .doesNotContainKey("brand");
+        verify(productRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void refreshBrand_whenProductsReferenceBrand_renameBrand() {
+        catalogStateStore.putBrand(3L, "NewBrand");
+        Product existingProduct = Product.builder().id(ID).brandId(3L).brand("OldBrand").build();
+        when(productRepository.findAllByBrandId(3L)).thenReturn(List.of(existingProduct));
+
+        productSyncDataService.refreshBrand(3L);
+
+        UpdateQuery update = captureSingleUpdate();
+        assertThat(update.getId()).isEqualTo(String.valueOf(ID));
+        assertThat(update.getDocument()).containsOnlyKeys("brand").containsEntry("brand", "NewBrand");
+        verify(productRepository, never()).saveAll(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private UpdateQuery captureSingleUpdate() {
+        ArgumentCaptor<List<UpdateQuery>> captor = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(captor.capture(), eq(Product.class));
+        assertThat(captor.getValue()).hasSize(1);
+        return captor.getValue().getFirst();
+    }
+
+    private static com.yas.commonlibrary.kafka.cdc.message.Product getCdcProduct(boolean isPublished) {
+        return com.yas.commonlibrary.kafka.cdc.message.Product.builder()
+            .id(ID)
+            .isPublished(isPublished)
+            .name("Smartphone XYZ")
+            .slug("smartphone-xyz")
+            .price(299.99)
+            .isVisibleIndividually(true)
+            .isAllowedToOrder(true)
+            .isFeatured(false)
+            .thumbnailMediaId(456L)
+            .brandId(3L)
+            .stockTrackingEnabled(true)
+            .stockQuantity(0L)
+            .createdOn(1_704_067_200_000_000L)
+            .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.yas.search.store;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.yas.search.kafka.message.ProductRelation;
+import java.time.Duration;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CatalogStateStoreTest {
+
+    private CatalogStateStore catalogStateStore;
+
+    @BeforeEach
+    void setUp() {
+        catalogStateStore = new CatalogStateStore();
+    }
+
+    @Test
+    void getCategoryNames_whenRelationsChange_followRelations() {
+        catalogStateStore.putCategory(10L, "Electronics");
+        catalogStateStore.putCategory(11L, "Audio");
+        catalogStateStore.putProductCategory(relation(100L, 1L, 10L));
+        catalogStateStore.putProductCategory(relation(101L, 1L, 11L));
+
+        assertThat(catalogStateStore.getCategoryNames(1L)).containsExactly("Electronics", "Audio");
+        assertThat(catalogStateStore.getProductIdsByCategory(11L)).containsExactly(1L);
+
+        catalogStateStore.putProductCategory(relation(101L, 2L, 11L));
+
+        assertThat(catalogStateStore.getCategoryNames(1L)).containsExactly("Electronics");
+        assertThat(catalogStateStore.getProductIdsByCategory(11L)).containsExactly(2L);
+    }
+
+    @Test
+    void removeProductCategory_whenRowDeleted_keepProductOfRow() {
+        catalogStateStore.putCategory(10L, "Electronics");
+        catalogStateStore.putProductCategory(relation(100L, 1L, 10L));
+
+        catalogStateStore.removeProductCategory(100L);
+
+        assertThat(catalogStateStore.getCategoryNames(1L)).isEmpty();
+        assertThat(catalogStateStore.getProductIdsByCategory(10L)).isEmpty();
+        assertThat(catalogStateStore.getProductIdsByProductCategoryRow(100L)).containsExactly(1L);
+
+        catalogStateStore.forgetProductCategoryRow(100L);
+
+        assertThat(catalogStateStore.getProductIdsByProductCategoryRow(100L)).isEmpty();
+    }
+
+    @Test
+    void getCategoryNames_whenCategoryRenamed_returnNewName() {
+        catalogStateStore.putCategory(10L, "Electronics");
+        catalogStateStore.putProductCategory(relation(100L, 1L, 10L));
+
+        catalogStateStore.putCategory(10L, "Devices");
+
+        assertThat(catalogStateStore.getCategoryNames(1L)).containsExactly("Devices");
+    }
+
+    @Test
+    void hasBrand_whenBrandIdNull_returnTrue() {
+        assertThat(catalogStateStore.hasBrand(null)).isTrue();
+        assertThat(catalogStateStore.hasBrand(3L)).isFalse();
+
+        catalogStateStore.putBrand(3L, "BrandName");
+
+        assertThat(catalogStateStore.hasBrand(3L)).isTrue();
+        assertThat(catalogStateStore.getBrandName(3L)).isEqualTo("BrandName");
+    }
+
+    @Test
+    void awaitApplied_whenOffsetApplied_returnTrue() {
+        TopicPartition topicPartition = new TopicPartition("dbproduct.public.brand", 0);
+        catalogStateStore.markApplied(topicPartition, 5L);
+        catalogStateStore.markApplied(topicPartition, 3L);
+
+        assertThat(catalogStateStore.getAppliedOffset(topicPartition)).isEqualTo(5L);
+        assertThat(catalogStateStore.awaitApplied(topicPartition, 5L, Duration.ZERO)).isTrue();
+        assertThat(catalogStateStore.awaitApplied(topicPartition, 6L, Duration.ofMillis(20))).isFalse();
+    }
+
+    private static ProductRelation relation(long id, long productId, long categoryId) {
+        return ProductRelation.builder().id(id).productId(productId).categoryId(categoryId).build();
+    }
+}
@@ -5,4 +5,12 @@ curl -i -X PUT -H  "Content-Type:application/json" \
 
 curl -i -X PUT -H  "Content-Type:application/json" \
     http://localhost:8083/connectors/order-connector/config \
-    -d @kafka/connects/debezium-order.json
\ No newline at end of file
+    -d @kafka/connects/debezium-order.json
+
+curl -i -X PUT -H  "Content-Type:application/json" \
+    http://localhost:8083/connectors/cart-connector/config \
+    -d @kafka/connects/debezium-cart.json
+
+curl -i -X PUT -H  "Content-Type:application/json" \
+    http://localhost:8083/connectors/webhook-connector/config \
+    -d @kafka/connects/debezium-webhook.json
\ No newline at end of file
@@ -3,5 +3,7 @@ export type ProductSearchResult = {
   name: string;
   slug: string;
   thumbnailId: number;
+  thumbnailUrl?: string;
+  isInStock?: boolean;
   price: number;
 };
@@ -0,0 +1,5 @@
+import { Aggregations } from './Aggregations';
+
+export type SearchFacetsResponse = {
+  aggregations: Aggregations;
+};
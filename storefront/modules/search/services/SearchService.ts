@@ -1,4 +1,5 @@
 import { ProductSearchSuggestions } from '../models/ProductSearchSuggestions';
+import { SearchFacetsResponse } from '../models/SearchFacetsResponse';
 import { SearchParams } from '../models/SearchParams';
 import { SearchProductResponse } from '../models/SearchProductResponse';
 import apiClientService from '@/common/services/ApiClientService';
@@ -14,23 +15,29 @@ export async function getSuggestions(keyword: string): Promise<ProductSearchSugg
   throw new Error(response.statusText);
 }
 
-export async function searchProducts(params: SearchParams): Promise<SearchProductResponse> {
-  let url = `api/search/storefront/catalog-search?keyword=${params.keyword}`;
+const buildFilterQuery = (params: SearchParams) => {
+  let query = '';
   if (params.category) {
-    url += `&category=${params.category}`;
+    query += `&category=${params.category}`;
   }
   if (params.brand) {
-    url += `&brand=${params.brand}`;
+    query += `&brand=${params.brand}`;
   }
   if (params.attribute) {
-    url += `&attribute=${params.attribute}`;
+    query += `&attribute=${params.attribute}`;
   }
   if (params.minPrice) {
-    url += `&minPrice=${params.minPrice}`;
+    query += `&minPrice=${params.minPrice}`;
   }
   if (params.maxPrice) {
-    url += `&maxPrice=${params.maxPrice}`;
+    query += `&maxPrice=${params.maxPrice}`;
   }
+  return query;
+};
+
+export async function searchProducts(params: SearchParams): Promise<SearchProductResponse> {
+  let url = `api/search/storefront/catalog-search?keyword=${params.keyword}&facets=none`;
+  url += buildFilterQuery(params);
   if (params.sortType) {
     url += `&sortType=${params.sortType}`;
   }
@@ -46,3 +53,13 @@ export async function searchProducts(params: SearchParams): Promise<SearchProduc
   }
   throw new Error(response.statusText);
 }
+
+export async function searchFacets(params: SearchParams): Promise<SearchFacetsResponse> {
+  let url = `api/search/storefront/catalog-search/facets?keyword=${params.keyword}&facets=category,brand`;
+  url += buildFilterQuery(params);
+  const response = await apiClientService.get(url);
+  if (response.status >= 200 && response.status < 300) {
+    return await response.json();
+  }
+  throw new Error(response.statusText);
+}
@@ -11,7 +11,7 @@ import { Aggregations } from '@/modules/search/models/Aggregations';
 import { ProductSearchResult } from '@/modules/search/models/ProductSearchResult';
 import { SearchParams } from '@/modules/search/models/SearchParams';
 import { ESortType, SortType } from '@/modules/search/models/SortType';
-import { searchProducts } from '@/modules/search/services/SearchService';
+import { searchFacets, searchProducts } from '@/modules/search/services/SearchService';
 
 import SearchResultLayout from '@/modules/search/components/SearchResultLayout';
 import styles from '@/styles/modules/search/SearchPage.module.css';
@@ -74,17 +74,21 @@ const SearchPage = () => {
   }, [searchParams]);
 
   const fetchSearchResult = (data: SearchParams) => {
-    searchProducts({ ...data, keyword: data.keyword.trim().toLowerCase() })
+    const params = { ...data, keyword: data.keyword.trim().toLowerCase() };
+    searchProducts(params)
       .then((res) => {
         setProducts(res.products);
         setPageNo(res.pageNo);
         setTotalPage(res.totalPages);
         setTotalElements(res.totalElements);
-        setAggregations(res.aggregations);
       })
       .catch((_error) => {
         toast.error('Something went wrong, please try again later');
       });
+    // Facets are loaded separately so the first results are not held back by the aggregations
+    searchFacets(params)
+      .then((res) => setAggregations(res.aggregations))
+      .catch((_error) => setAggregations({}));
   };
 
   const crumb: BreadcrumbModel[] = [
@@ -108,10 +112,10 @@ const SearchPage = () => {
               id: product.id,
               name: product.name,
               price: product.price,
-              thumbnailUrl: '',
+              thumbnailUrl: product.thumbnailUrl ?? '',
               slug: product.slug,
             }}
-            thumbnailId={product.thumbnailId}
+            thumbnailId={product.thumbnailUrl ? undefined : product.thumbnailId}
           />
         </Col>
       ))}
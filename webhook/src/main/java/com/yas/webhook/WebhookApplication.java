@@ -2,12 +2,17 @@ package com.yas.webhook;
 
 import com.yas.commonlibrary.config.CorsConfig;
 import com.yas.webhook.config.ServiceUrlConfig;
+import com.yas.webhook.config.WebhookDeliveryConfig;
+import com.yas.webhook.config.WebhookRetentionConfig;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.yas.webhook", "com.yas.commonlibrary"})
-@EnableConfigurationProperties({ServiceUrlConfig.class, CorsConfig.class})
+@EnableConfigurationProperties({ServiceUrlConfig.class, CorsConfig.class, WebhookDeliveryConfig.class,
+    WebhookRetentionConfig.class})
+@EnableScheduling
 public class WebhookApplication {
 
     public static void main(String[] args) {
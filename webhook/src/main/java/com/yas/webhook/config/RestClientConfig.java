@@ -1,5 +1,7 @@
 package com.yas.webhook.config;
 
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestClient;
@@ -8,7 +10,12 @@ import org.springframework.web.client.RestClient;
 public class RestClientConfig {
 
     @Bean
-    public RestClient restClient() {
-        return RestClient.builder().build();
+    public RestClient restClient(WebhookDeliveryConfig webhookDeliveryConfig) {
+        ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.DEFAULTS
+            .withConnectTimeout(webhookDeliveryConfig.connectTimeout())
+            .withReadTimeout(webhookDeliveryConfig.readTimeout());
+        return RestClient.builder()
+            .requestFactory(ClientHttpRequestFactories.get(settings))
+            .build();
     }
 }
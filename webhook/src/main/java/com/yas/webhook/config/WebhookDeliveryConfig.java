@@ -0,0 +1,40 @@
+package com.yas.webhook.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Webhook delivery settings.
+ *
+ * @param enabled                  whether this instance claims and sends notifications
+ * @param pollInterval             delay between two claims of due notifications
+ * @param batchSize                maximum number of notifications claimed at once
+ * @param maxInFlight              maximum number of notifications claimed and not yet sent by this instance
+ * @param maxConcurrencyPerWebhook maximum number of requests sent to one webhook at the same time
+ * @param maxQueuedPerWebhook      maximum number of notifications of one webhook claimed and not yet sent, a
+ *                                 webhook at this limit is left out of the next claims
+ * @param lease                    how long a claimed notification is hidden from other claims, it must cover the
+ *                                 queueing and the timeouts, a notification whose instance died is sent again
+ *                                 after it
+ * @param connectTimeout           connect timeout of a webhook request
+ * @param readTimeout              read timeout of a webhook request
+ * @param maxAttempts              number of attempts after which a notification is marked dead
+ * @param initialBackoff           delay before the first retry, doubled on every further retry
+ * @param maxBackoff               upper bound of the delay between two retries
+ */
+@ConfigurationProperties(prefix = "webhook.delivery")
+public record WebhookDeliveryConfig(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("PT0.5S") Duration pollInterval,
+    @DefaultValue("100") int batchSize,
+    @DefaultValue("1000") int maxInFlight,
+    @DefaultValue("4") int maxConcurrencyPerWebhook,
+    @DefaultValue("32") int maxQueuedPerWebhook,
+    @DefaultValue("PT5M") Duration lease,
+    @DefaultValue("PT5S") Duration connectTimeout,
+    @DefaultValue("PT10S") Duration readTimeout,
+    @DefaultValue("8") int maxAttempts,
+    @DefaultValue("PT10S") Duration initialBackoff,
+    @DefaultValue("PT1H") Duration maxBackoff
+) {}
@@ -0,0 +1,25 @@
+package com.yas.webhook.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Retention of the webhook notifications, which are stored in daily partitions.
+ *
+ * @param enabled         whether this instance creates and drops the partitions, several instances may
+ * @param interval        delay between two maintenance runs
+ * @param retention       how long delivered notifications are kept, a partition is dropped once all of its day is
+ *                        older; undelivered and {@code DEAD} notifications are kept until delivered
+ * @param deadRetention   how long {@code DEAD} notifications stay replayable after their last attempt, once their
+ *                        partition is dropped
+ * @param partitionsAhead number of daily partitions created ahead of today
+ */
+@ConfigurationProperties(prefix = "webhook.retention")
+public record WebhookRetentionConfig(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("PT1H") Duration interval,
+    @DefaultValue("P30D") Duration retention,
+    @DefaultValue("P90D") Duration deadRetention,
+    @DefaultValue("7") int partitionsAhead
+) {}
@@ -4,6 +4,8 @@ public final class MessageCode {
 
     public static final String WEBHOOK_NOT_FOUND = "WEBHOOK_NOT_FOUND";
     public static final String EVENT_NOT_FOUND = "EVENT_NOT_FOUND";
+    public static final String WEBHOOK_EVENT_NOTIFICATION_NOT_FOUND = "WEBHOOK_EVENT_NOTIFICATION_NOT_FOUND";
+    public static final String WEBHOOK_EVENT_NOTIFICATION_NOT_REPLAYABLE = "WEBHOOK_EVENT_NOTIFICATION_NOT_REPLAYABLE";
 
     private MessageCode() {
     }
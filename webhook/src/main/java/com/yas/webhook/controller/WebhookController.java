@@ -2,8 +2,10 @@ package com.yas.webhook.controller;
 
 import com.yas.webhook.config.constants.ApiConstant;
 import com.yas.webhook.config.constants.PageableConstant;
+import com.yas.webhook.model.enums.NotificationStatus;
 import com.yas.webhook.model.viewmodel.error.ErrorVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookDetailVm;
+import com.yas.webhook.model.viewmodel.webhook.WebhookEventNotificationListGetVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookListGetVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookPostVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookVm;
@@ -102,4 +104,47 @@ public class WebhookController {
         webhookService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/{id}/notifications")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = ApiConstant.CODE_200, description = ApiConstant.OK,
+            content = @Content(schema = @Schema(implementation = WebhookEventNotificationListGetVm.class))),
+        @ApiResponse(responseCode = ApiConstant.CODE_404, description = ApiConstant.NOT_FOUND,
+            content = @Content(schema = @Schema(implementation = ErrorVm.class)))})
+    public ResponseEntity<WebhookEventNotificationListGetVm> getPageableNotifications(
+        @PathVariable("id") final Long id,
+        @RequestParam(value = "status", defaultValue = "DEAD", required = false) final NotificationStatus status,
+        @RequestParam(value = "pageNo",
+            defaultValue = PageableConstant.DEFAULT_PAGE_NUMBER, required = false) final int pageNo,
+        @RequestParam(value = "pageSize",
+            defaultValue = PageableConstant.DEFAULT_PAGE_SIZE, required = false) final int pageSize) {
+        return ResponseEntity.ok(webhookService.getPageableNotifications(id, status, pageNo, pageSize));
+    }
+
+    @PostMapping("/{id}/notifications/replay")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = ApiConstant.CODE_200, description = ApiConstant.OK,
+            content = @Content(schema = @Schema(implementation = Integer.class))),
+        @ApiResponse(responseCode = ApiConstant.CODE_404, description = ApiConstant.NOT_FOUND,
+            content = @Content(schema = @Schema(implementation = ErrorVm.class))),
+        @ApiResponse(responseCode = ApiConstant.CODE_400, description = ApiConstant.BAD_REQUEST,
+            content = @Content(schema = @Schema(implementation = ErrorVm.class)))})
+    public ResponseEntity<Integer> replayNotifications(
+        @PathVariable("id") final Long id,
+        @RequestParam(value = "status", defaultValue = "DEAD", required = false) final NotificationStatus status) {
+        return ResponseEntity.ok(webhookService.replayNotifications(id, status));
+    }
+
+    @PostMapping("/{id}/notifications/{notificationId}/replay")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = ApiConstant.CODE_204, description = ApiConstant.NO_CONTENT, content = @Content()),
+        @ApiResponse(responseCode = ApiConstant.CODE_404, description = ApiConstant.NOT_FOUND,
+            content = @Content(schema = @Schema(implementation = ErrorVm.class))),
+        @ApiResponse(responseCode = ApiConstant.CODE_400, description = ApiConstant.BAD_REQUEST,
+            content = @Content(schema = @Schema(implementation = ErrorVm.class)))})
+    public ResponseEntity<Void> replayNotification(@PathVariable("id") final Long id,
+                                                   @PathVariable("notificationId") final Long notificationId) {
+        webhookService.replayNotification(id, notificationId);
+        return ResponseEntity.noContent().build();
+    }
 }
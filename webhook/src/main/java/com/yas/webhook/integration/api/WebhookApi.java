@@ -1,35 +1,124 @@
 package com.yas.webhook.integration.api;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yas.webhook.utils.HmacUtils;
-import lombok.RequiredArgsConstructor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestClient.RequestBodySpec;
 
+/**
+ * Posts notifications to webhooks.
+ *
+ * <p>The stored payloads are already JSON, so they are written as raw values into a pooled buffer; the signature
+ * is computed over the buffer and the same bytes are streamed as the request body.
+ */
 @Component
-@RequiredArgsConstructor
 public class WebhookApi {
 
     public static final String X_HUB_SIGNATURE_256 = "X-Hub-Signature-256";
 
+    private static final int MAX_POOLED_BUFFERS = 64;
+    // a buffer grown by an unusually large batch is left to the garbage collector rather than kept
+    private static final int MAX_POOLED_BUFFER_SIZE = 1024 * 1024;
+
     private final RestClient restClient;
+    private final JsonFactory jsonFactory;
+    private final BlockingQueue<BodyBuffer> buffers = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+    public WebhookApi(RestClient restClient, ObjectMapper objectMapper) {
+        this.restClient = restClient;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /**
+     * Posts one notification, the body is the payload itself.
+     */
+    public void notify(String url, String secret, String payload) {
+        post(url, secret, List.of(payload), false);
+    }
+
+    /**
+     * Posts several notifications at once, the body is the array of their payloads.
+     */
+    public void notify(String url, String secret, List<String> payloads) {
+        post(url, secret, payloads, true);
+    }
 
     @SneakyThrows
-    public void notify(String url, String secret, JsonNode jsonNode) {
+    private void post(String url, String secret, List<String> payloads, boolean asArray) {
+        BodyBuffer body = acquireBuffer();
+        try {
+            write(body, payloads, asArray);
+
+            RequestBodySpec requestBodySpec = restClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.size());
+
+            if (StringUtils.isNoneEmpty(secret)) {
+                String secretToken = HmacUtils.hash(body.bytes(), 0, body.size(), secret);
+                requestBodySpec.header(X_HUB_SIGNATURE_256, secretToken);
+            }
 
-        RequestBodySpec requestBodySpec = restClient.post()
-            .uri(url);
+            requestBodySpec.body(body::writeTo)
+                .retrieve()
+                .toBodilessEntity();
+        } finally {
+            releaseBuffer(body);
+        }
+    }
 
-        if (StringUtils.isNoneEmpty(secret)) {
-            String secretToken = HmacUtils.hash(jsonNode.toString(), secret);
-            requestBodySpec.header(X_HUB_SIGNATURE_256, secretToken);
+    private void write(BodyBuffer body, List<String> payloads, boolean asArray) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(body)) {
+            if (asArray) {
+                generator.writeStartArray();
+            }
+            for (String payload : payloads) {
+                generator.writeRawValue(payload);
+            }
+            if (asArray) {
+                generator.writeEndArray();
+            }
         }
+    }
 
-        requestBodySpec.body(jsonNode)
-            .retrieve()
-            .toBodilessEntity();
+    private BodyBuffer acquireBuffer() {
+        BodyBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new BodyBuffer();
+    }
+
+    private void releaseBuffer(BodyBuffer buffer) {
+        if (buffer.capacity() <= MAX_POOLED_BUFFER_SIZE) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * Gives access to the written bytes without copying them.
+     */
+    private static final class BodyBuffer extends ByteArrayOutputStream {
+
+        private BodyBuffer() {
+            super(8192);
+        }
+
+        private byte[] bytes() {
+            return buf;
+        }
+
+        private int capacity() {
+            return buf.length;
+        }
     }
 }
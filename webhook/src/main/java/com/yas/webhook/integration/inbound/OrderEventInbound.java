@@ -1,7 +1,10 @@
 package com.yas.webhook.integration.inbound;
 
+import static com.yas.webhook.config.KafkaConfig.BATCH_LISTENER_CONTAINER_FACTORY;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import com.yas.webhook.service.OrderEventService;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
@@ -13,9 +16,10 @@ public class OrderEventInbound {
     private final OrderEventService orderEventService;
 
     @KafkaListener(topics = {
-        "${webhook.integration.kafka.order.topic-name}"}, groupId = "${spring.kafka.consumer.group-id}")
-    public void onOrderEvent(JsonNode productEvent) {
-        orderEventService.onOrderEvent(productEvent);
+        "${webhook.integration.kafka.order.topic-name}"}, groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = BATCH_LISTENER_CONTAINER_FACTORY)
+    public void onOrderEvents(List<JsonNode> orderEvents) {
+        orderEventService.onOrderEvents(orderEvents);
     }
 
 }
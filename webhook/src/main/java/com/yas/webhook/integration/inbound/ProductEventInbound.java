@@ -1,7 +1,10 @@
 package com.yas.webhook.integration.inbound;
 
+import static com.yas.webhook.config.KafkaConfig.BATCH_LISTENER_CONTAINER_FACTORY;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import com.yas.webhook.service.ProductEventService;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
@@ -13,8 +16,9 @@ public class ProductEventInbound {
     private final ProductEventService productEventService;
 
     @KafkaListener(topics = {
-        "${webhook.integration.kafka.product.topic-name}"}, groupId = "${spring.kafka.consumer.group-id}")
-    public void onProductEvent(JsonNode productEvent) {
-        productEventService.onProductEvent(productEvent);
+        "${webhook.integration.kafka.product.topic-name}"}, groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = BATCH_LISTENER_CONTAINER_FACTORY)
+    public void onProductEvents(List<JsonNode> productEvents) {
+        productEventService.onProductEvents(productEvents);
     }
 }
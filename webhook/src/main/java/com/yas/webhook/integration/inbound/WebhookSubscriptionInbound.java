@@ -0,0 +1,126 @@
+package com.yas.webhook.integration.inbound;
+
+import com.yas.webhook.service.WebhookSubscriptionRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached subscriptions when webhooks or webhook events change.
+ *
+ * <p>Every instance holds its own copy, so every instance reads all partitions of the webhook topics. It does so
+ * with a manually assigned consumer that never commits, rather than a consumer group per instance, which would
+ * leave a group behind on the broker after each restart. The consumer starts at the end of the topics and drops
+ * the copy once assigned, since changes made while it was not reading are not replayed.
+ */
+@Slf4j
+@Component
+public class WebhookSubscriptionInbound implements SmartLifecycle {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration RESTART_DELAY = Duration.ofSeconds(5);
+
+    private final WebhookSubscriptionRegistry webhookSubscriptionRegistry;
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final List<String> topics;
+    private volatile Consumer<Object, Object> consumer;
+    private volatile boolean running;
+
+    public WebhookSubscriptionInbound(
+        WebhookSubscriptionRegistry webhookSubscriptionRegistry,
+        ConsumerFactory<Object, Object> consumerFactory,
+        @Value("${webhook.integration.kafka.webhook.topic-name}") String webhookTopic,
+        @Value("${webhook.integration.kafka.webhook-event.topic-name}") String webhookEventTopic
+    ) {
+        this.webhookSubscriptionRegistry = webhookSubscriptionRegistry;
+        this.consumerFactory = consumerFactory;
+        this.topics = List.of(webhookTopic, webhookEventTopic);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread.ofVirtual().name("webhook-subscription-inbound").start(this::run);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Consumer<Object, Object> current = consumer;
+        if (current != null) {
+            current.wakeup();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            Consumer<Object, Object> current = createConsumer();
+            consumer = current;
+            try (current) {
+                tail(current);
+            } catch (WakeupException e) {
+                log.debug("Webhook subscription consumer stopped");
+            } catch (Exception e) {
+                log.error("Webhook subscription consumer failed, restarting in {}", RESTART_DELAY, e);
+                sleep(RESTART_DELAY);
+            } finally {
+                consumer = null;
+            }
+        }
+    }
+
+    private void tail(Consumer<Object, Object> consumer) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (String topic : topics) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos == null || infos.isEmpty()) {
+                log.warn("Topic {} does not exist yet, retrying in {}", topic, RESTART_DELAY);
+                sleep(RESTART_DELAY);
+                return;
+            }
+            infos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+        }
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+        // resolves the end offsets now, so that nothing changed after the drop below is skipped
+        partitions.forEach(consumer::position);
+        webhookSubscriptionRegistry.invalidate();
+
+        while (running) {
+            if (!consumer.poll(POLL_TIMEOUT).isEmpty()) {
+                webhookSubscriptionRegistry.invalidate();
+            }
+        }
+    }
+
+    private Consumer<Object, Object> createConsumer() {
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        return consumerFactory.createConsumer(null, "webhook-subscription", null, overrides);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -12,6 +12,8 @@ import java.util.List;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "webhook")
@@ -32,5 +34,14 @@ public class Webhook extends AbstractAuditEntity {
     private String secret;
     @Column(name = "is_active")
     private Boolean isActive;
+    @Column(name = "coalesce_window_seconds")
+    private Integer coalesceWindowSeconds;
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "ignored_fields", columnDefinition = "text[]")
+    private List<String> ignoredFields;
+    @Column(name = "batch_size")
+    private Integer batchSize;
+    @Column(name = "batch_linger_millis")
+    private Integer batchLingerMillis;
 
 }
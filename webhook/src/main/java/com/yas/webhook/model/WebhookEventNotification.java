@@ -3,6 +3,8 @@ package com.yas.webhook.model;
 import com.yas.webhook.model.enums.NotificationStatus;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -35,9 +37,25 @@ public class WebhookEventNotification {
     @Column(name = "payload", columnDefinition = "jsonb")
     private String payload;
 
+    @Enumerated(EnumType.STRING)
     @Column(name = "notification_status")
     private NotificationStatus notificationStatus;
 
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Column(name = "next_attempt_on")
+    private ZonedDateTime nextAttemptOn;
+
+    @Column(name = "last_attempt_on")
+    private ZonedDateTime lastAttemptOn;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "coalesce_key")
+    private String coalesceKey;
+
     @CreationTimestamp
     @Column(name = "created_on")
     private ZonedDateTime createdOn;
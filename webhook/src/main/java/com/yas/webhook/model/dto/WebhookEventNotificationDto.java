@@ -1,6 +1,7 @@
 package com.yas.webhook.model.dto;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.yas.webhook.model.enums.EventName;
+import java.time.Duration;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -9,7 +10,19 @@ import lombok.Getter;
 public class WebhookEventNotificationDto {
 
     private Long notificationId;
+    private Long webhookId;
+    private EventName eventName;
     private String url;
     private String secret;
-    private JsonNode payload;
+    private String payload;
+    private int attempts;
+    private int batchSize;
+    private Duration batchLinger;
+
+    /**
+     * Whether the webhook receives arrays of notifications rather than one notification per request.
+     */
+    public boolean isBatched() {
+        return batchSize > 1;
+    }
 }
@@ -0,0 +1,41 @@
+package com.yas.webhook.model.dto;
+
+import com.yas.webhook.model.enums.EventName;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A webhook subscribed to an event.
+ *
+ * @param coalesceWindow notifications with the same coalesce key are merged into the latest one during this
+ *                       window, {@link Duration#ZERO} sends every notification right away
+ * @param ignoredFields  payload fields whose changes alone do not notify the webhook
+ */
+public record WebhookSubscription(EventName eventName, Long webhookEventId, Long webhookId,
+                                  Duration coalesceWindow, Set<String> ignoredFields) {
+
+    public WebhookSubscription(EventName eventName, Long webhookEventId, Long webhookId) {
+        this(eventName, webhookEventId, webhookId, Duration.ZERO, Set.of());
+    }
+
+    public WebhookSubscription(EventName eventName, Long webhookEventId, Long webhookId,
+                               Integer coalesceWindowSeconds, List<String> ignoredFields) {
+        this(eventName, webhookEventId, webhookId,
+            coalesceWindowSeconds == null ? Duration.ZERO : Duration.ofSeconds(coalesceWindowSeconds),
+            ignoredFields == null ? Set.of() : Set.copyOf(ignoredFields));
+    }
+
+    public boolean isCoalesced() {
+        return coalesceWindow.isPositive();
+    }
+
+    /**
+     * Whether a change of the given fields is worth a notification, that is whether any of them is not ignored.
+     * An unknown set of changed fields, {@code null}, always is.
+     */
+    public boolean isNotifiedOf(Collection<String> changedFields) {
+        return changedFields == null || ignoredFields.isEmpty() || !ignoredFields.containsAll(changedFields);
+    }
+}
@@ -2,5 +2,13 @@ package com.yas.webhook.model.enums;
 
 public enum NotificationStatus {
     NOTIFYING,
-    NOTIFIED
+    NOTIFIED,
+    /**
+     * The last attempt failed, another one is scheduled.
+     */
+    FAILED,
+    /**
+     * Every attempt failed, the notification is only sent again when replayed.
+     */
+    DEAD
 }
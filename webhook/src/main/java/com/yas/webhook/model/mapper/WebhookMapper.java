@@ -2,8 +2,11 @@ package com.yas.webhook.model.mapper;
 
 import com.yas.webhook.model.Webhook;
 import com.yas.webhook.model.WebhookEvent;
+import com.yas.webhook.model.WebhookEventNotification;
 import com.yas.webhook.model.viewmodel.webhook.EventVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookDetailVm;
+import com.yas.webhook.model.viewmodel.webhook.WebhookEventNotificationListGetVm;
+import com.yas.webhook.model.viewmodel.webhook.WebhookEventNotificationVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookListGetVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookPostVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookVm;
@@ -62,4 +65,18 @@ public interface WebhookMapper {
     @Mapping(target = "events", source = "webhookEvents", qualifiedByName = "toWebhookEventVms")
     @Mapping(target = "secret", ignore = true)
     WebhookDetailVm toWebhookDetailVm(Webhook createdWebhook);
+
+    @Mapping(target = "eventName", source = "webhookEvent.event.name")
+    WebhookEventNotificationVm toWebhookEventNotificationVm(WebhookEventNotification notification);
+
+    default WebhookEventNotificationListGetVm toWebhookEventNotificationListGetVm(
+        Page<WebhookEventNotification> notifications, int pageNo, int pageSize) {
+        return WebhookEventNotificationListGetVm.builder()
+            .notifications(notifications.stream().map(this::toWebhookEventNotificationVm).toList())
+            .pageNo(pageNo)
+            .pageSize(pageSize)
+            .totalPages(notifications.getTotalPages())
+            .totalElements(notifications.getTotalElements())
+            .isLast(notifications.isLast()).build();
+    }
 }
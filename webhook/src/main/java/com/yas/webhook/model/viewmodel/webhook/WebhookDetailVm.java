@@ -11,4 +11,8 @@ public class WebhookDetailVm {
     String contentType;
     Boolean isActive;
     List<EventVm> events;
+    Integer coalesceWindowSeconds;
+    List<String> ignoredFields;
+    Integer batchSize;
+    Integer batchLingerMillis;
 }
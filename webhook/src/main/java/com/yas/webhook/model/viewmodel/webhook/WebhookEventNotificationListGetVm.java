@@ -0,0 +1,16 @@
+package com.yas.webhook.model.viewmodel.webhook;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class WebhookEventNotificationListGetVm {
+    List<WebhookEventNotificationVm> notifications;
+    int pageNo;
+    int pageSize;
+    long totalElements;
+    long totalPages;
+    boolean isLast;
+}
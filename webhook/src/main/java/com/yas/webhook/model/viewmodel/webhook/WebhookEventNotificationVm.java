@@ -0,0 +1,21 @@
+package com.yas.webhook.model.viewmodel.webhook;
+
+import com.yas.webhook.model.enums.EventName;
+import com.yas.webhook.model.enums.NotificationStatus;
+import java.time.ZonedDateTime;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class WebhookEventNotificationVm {
+    Long id;
+    EventName eventName;
+    NotificationStatus notificationStatus;
+    int attempts;
+    ZonedDateTime lastAttemptOn;
+    ZonedDateTime nextAttemptOn;
+    String lastError;
+    ZonedDateTime createdOn;
+    String payload;
+}
@@ -10,4 +10,8 @@ public class WebhookPostVm {
     String contentType;
     Boolean isActive;
     List<EventVm> events;
+    Integer coalesceWindowSeconds;
+    List<String> ignoredFields;
+    Integer batchSize;
+    Integer batchLingerMillis;
 }
@@ -0,0 +1,16 @@
+package com.yas.webhook.repository;
+
+import com.yas.webhook.model.WebhookEventNotification;
+import java.util.List;
+
+public interface WebhookEventNotificationBatchRepository {
+
+    /**
+     * Inserts the notifications with a single statement. Generated ids are not read back.
+     *
+     * <p>A notification whose coalesce key is already held by a stored notification of the same webhook event
+     * only replaces its payload, the stored one keeps its place in the queue. Keys must be unique in the batch;
+     * batches holding the same key are serialized, so this also holds across instances.
+     */
+    void insertAll(List<WebhookEventNotification> notifications);
+}
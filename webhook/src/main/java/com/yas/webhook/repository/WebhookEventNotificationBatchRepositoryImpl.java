@@ -0,0 +1,81 @@
+package com.yas.webhook.repository;
+
+import com.yas.webhook.model.WebhookEventNotification;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+@RequiredArgsConstructor
+class WebhookEventNotificationBatchRepositoryImpl implements WebhookEventNotificationBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertAll(List<WebhookEventNotification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        // The table is partitioned by creation time, which a unique coalesce key index would have to include, so it
+        // could not tell two notifications of an entity created at different times apart. Batches holding the same
+        // keys are serialized with a lock per key instead, held until commit, so the statement below sees the
+        // notification a concurrent batch stored for the key. Locks are taken in order to avoid deadlocks.
+        Object[] coalesceLocks = notifications.stream()
+            .filter(notification -> notification.getCoalesceKey() != null)
+            .map(notification -> notification.getWebhookEventId() + ":" + notification.getCoalesceKey())
+            .toArray();
+        if (coalesceLocks.length > 0) {
+            jdbcTemplate.query("""
+                    SELECT pg_advisory_xact_lock(l.h)
+                    FROM (SELECT DISTINCT hashtext(k) AS h FROM unnest(?::text[]) AS k ORDER BY h) l
+                    """,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("text", coalesceLocks)),
+                rs -> { });
+        }
+        // one row per array element, so the whole batch is one statement and one round trip. Coalescing updates
+        // the pending notification holding the key first and only inserts the rest
+        jdbcTemplate.update("""
+            WITH n AS (
+                SELECT * FROM unnest(?::bigint[], ?::text[], ?::varchar[], ?::timestamp[], ?::timestamp[], ?::varchar[])
+                    AS n(webhook_event_id, payload, notification_status, created_on, next_attempt_on, coalesce_key)
+            ), coalesced AS (
+                UPDATE webhook_event_notification t SET payload = n.payload::jsonb
+                FROM n
+                WHERE t.webhook_event_id = n.webhook_event_id AND t.coalesce_key = n.coalesce_key
+                RETURNING t.webhook_event_id, t.coalesce_key
+            )
+            INSERT INTO webhook_event_notification
+                (webhook_event_id, payload, notification_status, attempts, created_on, next_attempt_on, coalesce_key)
+            SELECT n.webhook_event_id, n.payload::jsonb, n.notification_status, 0, n.created_on, n.next_attempt_on,
+                n.coalesce_key
+            FROM n
+            WHERE NOT EXISTS (SELECT 1 FROM coalesced c
+                WHERE c.webhook_event_id = n.webhook_event_id AND c.coalesce_key = n.coalesce_key)
+            """,
+            ps -> {
+                setArray(ps, 1, "bigint", notifications, WebhookEventNotification::getWebhookEventId);
+                setArray(ps, 2, "text", notifications, WebhookEventNotification::getPayload);
+                setArray(ps, 3, "varchar", notifications, notification -> notification.getNotificationStatus().name());
+                setArray(ps, 4, "timestamp", notifications, notification -> toTimestamp(notification.getCreatedOn()));
+                setArray(ps, 5, "timestamp", notifications,
+                    notification -> toTimestamp(notification.getNextAttemptOn()));
+                setArray(ps, 6, "varchar", notifications, WebhookEventNotification::getCoalesceKey);
+            });
+    }
+
+    private static void setArray(PreparedStatement ps, int index, String type,
+                                 List<WebhookEventNotification> notifications,
+                                 Function<WebhookEventNotification, Object> column) throws SQLException {
+        ps.setArray(index, ps.getConnection().createArrayOf(type, notifications.stream().map(column).toArray()));
+    }
+
+    private static Timestamp toTimestamp(ZonedDateTime dateTime) {
+        return Timestamp.from(dateTime.toInstant());
+    }
+}
@@ -0,0 +1,147 @@
+package com.yas.webhook.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Creates and drops the daily partitions of {@code webhook_event_notification}. Every method must run within a
+ * transaction.
+ *
+ * <p>Notifications that outlive their partition, because they are not delivered yet or are {@code DEAD} and may
+ * still be replayed, are kept in the default partition until they are delivered, or until the {@code DEAD} ones
+ * are past their own retention.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WebhookEventNotificationPartitionRepository {
+
+    static final String TABLE = "webhook_event_notification";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    // listed explicitly, the legacy partition has the same columns in another order
+    private static final String COLUMNS = "id, webhook_event_id, payload, notification_status, created_on, attempts, "
+        + "next_attempt_on, last_attempt_on, last_error, coalesce_key";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter BOUND_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the maintenance lock of the table until the end of the transaction, so that instances do not create
+     * the same partition at once, and bounds the wait of the following DDL on the table lock.
+     *
+     * @return whether the lock was free
+     */
+    public boolean tryLock() {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '10s'");
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, TABLE));
+    }
+
+    /**
+     * Lists the partitions, the default one included with no upper bound.
+     */
+    public List<Partition> findPartitions() {
+        return jdbcTemplate.query("""
+                SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = ?::regclass
+                """,
+            (rs, rowNum) -> new Partition(rs.getString("relname"), parseUpperBound(rs.getString("bound"))),
+            TABLE);
+    }
+
+    /**
+     * Creates the partition holding the notifications created on the given day. Notifications of that day already
+     * in the default partition, which would make attaching it fail, are moved into it first.
+     *
+     * @return the number of notifications moved from the default partition
+     */
+    public int createPartition(LocalDate day) {
+        // identifiers and literals built from a date, DDL takes no bind parameters
+        String partition = "%s_p%s".formatted(TABLE, PARTITION_SUFFIX.format(day));
+        // no notification of the day may reach the default partition until the new one is attached
+        jdbcTemplate.execute("LOCK TABLE %s IN EXCLUSIVE MODE".formatted(DEFAULT_PARTITION));
+        jdbcTemplate.execute("CREATE TABLE %s (LIKE %s INCLUDING ALL)".formatted(partition, TABLE));
+        int moved = jdbcTemplate.update("""
+            WITH moved AS (
+                DELETE FROM %s WHERE created_on >= ? AND created_on < ? RETURNING %s
+            )
+            INSERT INTO %s (%s) SELECT %s FROM moved
+            """.formatted(DEFAULT_PARTITION, COLUMNS, partition, COLUMNS, COLUMNS),
+            day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')"
+            .formatted(TABLE, partition, day, day.plusDays(1)));
+        return moved;
+    }
+
+    /**
+     * Drops a partition. Its notifications that are not {@code NOTIFIED} are moved to the default partition
+     * first, so pending notifications are still delivered and {@code DEAD} ones can still be replayed.
+     *
+     * @return the number of notifications kept
+     */
+    public int dropPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE %s DETACH PARTITION %s".formatted(TABLE, quote(name)));
+        // no partition covers the detached range any more, the rows are routed to the default partition
+        int kept = jdbcTemplate.update("""
+            INSERT INTO %s (%s) SELECT %s FROM %s WHERE notification_status IS DISTINCT FROM 'NOTIFIED'
+            """.formatted(TABLE, COLUMNS, COLUMNS, quote(name)));
+        jdbcTemplate.execute("DROP TABLE %s".formatted(quote(name)));
+        return kept;
+    }
+
+    /**
+     * Deletes the {@code NOTIFIED} notifications created before the cutoff from the default partition, i.e.
+     * those kept by {@link #dropPartition(String)} and delivered since.
+     *
+     * @return the number of notifications deleted
+     */
+    public int deleteNotifiedFromDefaultPartition(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM %s WHERE created_on < ? AND notification_status = 'NOTIFIED'"
+            .formatted(DEFAULT_PARTITION), cutoff);
+    }
+
+    /**
+     * Deletes the {@code DEAD} notifications last attempted before the cutoff from the default partition, which are
+     * no longer replayed.
+     *
+     * @return the number of notifications deleted
+     */
+    public int deleteDeadFromDefaultPartition(LocalDateTime cutoff) {
+        return jdbcTemplate.update("""
+            DELETE FROM %s WHERE COALESCE(last_attempt_on, created_on) < ? AND notification_status = 'DEAD'
+            """.formatted(DEFAULT_PARTITION), cutoff);
+    }
+
+    /**
+     * Reads the upper bound of a range partition from its bound expression, such as
+     * {@code FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-01-02 00:00:00')}.
+     *
+     * @return the upper bound, or {@code null} for the default partition
+     */
+    static LocalDateTime parseUpperBound(String bound) {
+        Matcher matcher = UPPER_BOUND.matcher(bound);
+        return matcher.find() ? LocalDateTime.parse(matcher.group(1), BOUND_FORMAT) : null;
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * A partition of the table.
+     *
+     * @param upperBound exclusive upper bound of the creation times held, {@code null} for the default partition
+     */
+    public record Partition(String name, LocalDateTime upperBound) {
+    }
+}
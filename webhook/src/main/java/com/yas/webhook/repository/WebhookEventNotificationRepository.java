@@ -1,9 +1,98 @@
 package com.yas.webhook.repository;
 
 import com.yas.webhook.model.WebhookEventNotification;
+import com.yas.webhook.model.enums.NotificationStatus;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface WebhookEventNotificationRepository extends JpaRepository<WebhookEventNotification, Long> {
+public interface WebhookEventNotificationRepository extends JpaRepository<WebhookEventNotification, Long>,
+    WebhookEventNotificationBatchRepository {
+
+    /**
+     * Locks due notifications that no other instance holds, oldest first. Webhooks in {@code excludedWebhookIds}
+     * are skipped so that a subscriber with a backlog does not fill every claim; the list must not be empty.
+     */
+    @Query(value = """
+        SELECT n.* FROM webhook_event_notification n
+        JOIN webhook_event we ON we.id = n.webhook_event_id
+        WHERE n.notification_status IN ('NOTIFYING', 'FAILED')
+          AND n.next_attempt_on <= :now
+          AND we.webhook_id NOT IN (:excludedWebhookIds)
+        ORDER BY n.next_attempt_on, n.id
+        LIMIT :limit
+        FOR UPDATE OF n SKIP LOCKED
+        """, nativeQuery = true)
+    List<WebhookEventNotification> lockDueNotifications(ZonedDateTime now, Collection<Long> excludedWebhookIds,
+                                                        int limit);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE WebhookEventNotification n
+        SET n.notificationStatus = com.yas.webhook.model.enums.NotificationStatus.NOTIFIED,
+            n.attempts = n.attempts + 1, n.lastAttemptOn = :now, n.lastError = null
+        WHERE n.id IN :ids
+        """)
+    void markNotified(Collection<Long> ids, ZonedDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE WebhookEventNotification n
+        SET n.notificationStatus = com.yas.webhook.model.enums.NotificationStatus.FAILED,
+            n.attempts = n.attempts + 1, n.lastAttemptOn = :now, n.nextAttemptOn = :nextAttemptOn,
+            n.lastError = :error
+        WHERE n.id = :id
+        """)
+    void scheduleRetry(Long id, ZonedDateTime now, ZonedDateTime nextAttemptOn, String error);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE WebhookEventNotification n
+        SET n.notificationStatus = com.yas.webhook.model.enums.NotificationStatus.DEAD,
+            n.attempts = n.attempts + 1, n.lastAttemptOn = :now, n.lastError = :error
+        WHERE n.id = :id
+        """)
+    void markDead(Long id, ZonedDateTime now, String error);
+
+    @EntityGraph(attributePaths = {"webhookEvent.event"})
+    Page<WebhookEventNotification> findByWebhookEventWebhookIdAndNotificationStatus(
+        Long webhookId, NotificationStatus notificationStatus, Pageable pageable);
+
+    /**
+     * Sends the notifications of the webhook in the given status again, with a fresh attempt count.
+     *
+     * @return the number of notifications replayed
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE WebhookEventNotification n
+        SET n.notificationStatus = com.yas.webhook.model.enums.NotificationStatus.NOTIFYING,
+            n.attempts = 0, n.nextAttemptOn = :now
+        WHERE n.notificationStatus = :notificationStatus
+          AND n.webhookEventId IN (SELECT we.id FROM WebhookEvent we WHERE we.webhookId = :webhookId)
+        """)
+    int replay(Long webhookId, NotificationStatus notificationStatus, ZonedDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        UPDATE WebhookEventNotification n
+        SET n.notificationStatus = com.yas.webhook.model.enums.NotificationStatus.NOTIFYING,
+            n.attempts = 0, n.nextAttemptOn = :now
+        WHERE n.id IN :ids
+        """)
+    void replay(Collection<Long> ids, ZonedDateTime now);
 }
@@ -1,11 +1,21 @@
 package com.yas.webhook.repository;
 
 import com.yas.webhook.model.WebhookEvent;
+import com.yas.webhook.model.dto.WebhookSubscription;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
 
     void deleteByWebhookId(Long webhookId);
+
+    @Query("""
+        SELECT new com.yas.webhook.model.dto.WebhookSubscription(
+            e.name, we.id, we.webhookId, w.coalesceWindowSeconds, w.ignoredFields)
+        FROM WebhookEvent we JOIN we.event e JOIN we.webhook w
+        """)
+    List<WebhookSubscription> findAllSubscriptions();
 }
@@ -1,37 +1,84 @@
 package com.yas.webhook.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.yas.webhook.model.WebhookEvent;
 import com.yas.webhook.model.WebhookEventNotification;
-import com.yas.webhook.model.dto.WebhookEventNotificationDto;
+import com.yas.webhook.model.enums.EventName;
 import com.yas.webhook.model.enums.NotificationStatus;
 import com.yas.webhook.repository.WebhookEventNotificationRepository;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 abstract class AbstractWebhookEventNotificationService {
 
     protected abstract WebhookEventNotificationRepository getWebhookEventNotificationRepository();
 
-    protected Long persistNotification(Long webhookEventId, JsonNode payload) {
-        WebhookEventNotification notification = new WebhookEventNotification();
-        notification.setWebhookEventId(webhookEventId);
-        notification.setPayload(payload.toString());
-        notification.setNotificationStatus(NotificationStatus.NOTIFYING);
-        notification.setCreatedOn(ZonedDateTime.now());
-        WebhookEventNotification persistedNotification = getWebhookEventNotificationRepository().save(notification);
-        return persistedNotification.getId();
+    protected abstract WebhookSubscriptionRegistry getWebhookSubscriptionRegistry();
+
+    protected List<WebhookEventNotification> createNotifications(EventName eventName, JsonNode payload,
+                                                                 ZonedDateTime now) {
+        return createNotifications(eventName, payload, null, null, now);
+    }
+
+    /**
+     * Creates the notifications of the webhooks subscribed to the event.
+     *
+     * @param coalesceKey   identifies the entity of the payload, a webhook with a coalesce window only gets the
+     *                      latest payload of an entity within the window; {@code null} never coalesces
+     * @param changedFields the fields changed by the event, webhooks ignoring all of them are not notified;
+     *                      {@code null} when unknown
+     */
+    protected List<WebhookEventNotification> createNotifications(EventName eventName, JsonNode payload,
+                                                                 String coalesceKey,
+                                                                 Collection<String> changedFields,
+                                                                 ZonedDateTime now) {
+        String serializedPayload = payload.toString();
+        return getWebhookSubscriptionRegistry().getSubscriptions(eventName).stream()
+            .filter(subscription -> subscription.isNotifiedOf(changedFields))
+            .map(subscription -> {
+                WebhookEventNotification notification = new WebhookEventNotification();
+                notification.setWebhookEventId(subscription.webhookEventId());
+                notification.setPayload(serializedPayload);
+                notification.setNotificationStatus(NotificationStatus.NOTIFYING);
+                notification.setCreatedOn(now);
+                notification.setNextAttemptOn(now);
+                if (coalesceKey != null && subscription.isCoalesced()) {
+                    // held back until the window ends, later payloads of the entity replace this one
+                    notification.setCoalesceKey(coalesceKey);
+                    notification.setNextAttemptOn(now.plus(subscription.coalesceWindow()));
+                }
+                return notification;
+            })
+            .toList();
+    }
+
+    protected void persistNotifications(List<WebhookEventNotification> notifications) {
+        getWebhookEventNotificationRepository().insertAll(coalesce(notifications));
     }
 
-    protected WebhookEventNotificationDto createNotificationDto(WebhookEvent webhookEvent, JsonNode payload,
-                                                                Long notificationId) {
-        String url = webhookEvent.getWebhook().getPayloadUrl();
-        String secret = webhookEvent.getWebhook().getSecret();
-
-        return WebhookEventNotificationDto.builder()
-            .secret(secret)
-            .payload(payload)
-            .url(url)
-            .notificationId(notificationId)
-            .build();
+    /**
+     * Merges the notifications of the batch sharing a webhook and a coalesce key into the first one, carrying the
+     * latest payload. The insert merges them with the stored notification the same way.
+     */
+    private static List<WebhookEventNotification> coalesce(List<WebhookEventNotification> notifications) {
+        List<WebhookEventNotification> coalesced = new ArrayList<>(notifications.size());
+        Map<List<Object>, WebhookEventNotification> byCoalesceKey = new LinkedHashMap<>();
+        for (WebhookEventNotification notification : notifications) {
+            if (notification.getCoalesceKey() == null) {
+                coalesced.add(notification);
+                continue;
+            }
+            WebhookEventNotification first = byCoalesceKey.putIfAbsent(
+                List.of(notification.getWebhookEventId(), notification.getCoalesceKey()), notification);
+            if (first == null) {
+                coalesced.add(notification);
+            } else {
+                first.setPayload(notification.getPayload());
+            }
+        }
+        return coalesced;
     }
 }
@@ -1,15 +1,12 @@
 package com.yas.webhook.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.yas.commonlibrary.exception.NotFoundException;
-import com.yas.webhook.config.constants.MessageCode;
-import com.yas.webhook.model.Event;
-import com.yas.webhook.model.WebhookEvent;
-import com.yas.webhook.model.dto.WebhookEventNotificationDto;
+import com.yas.webhook.model.WebhookEventNotification;
 import com.yas.webhook.model.enums.EventName;
 import com.yas.webhook.model.enums.Operation;
-import com.yas.webhook.repository.EventRepository;
 import com.yas.webhook.repository.WebhookEventNotificationRepository;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -20,25 +17,17 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class OrderEventService extends AbstractWebhookEventNotificationService {
 
-    private final EventRepository eventRepository;
-    private final WebhookService webhookService;
+    private final WebhookSubscriptionRegistry webhookSubscriptionRegistry;
     private final WebhookEventNotificationRepository webhookEventNotificationRepository;
 
-    public void onOrderEvent(JsonNode updatedEvent) {
-        Optional<EventName> optionalEventName = getEventName(updatedEvent);
-        if (optionalEventName.isPresent()) {
-            Event event = eventRepository.findByName(optionalEventName.get())
-                .orElseThrow(() -> new NotFoundException(MessageCode.EVENT_NOT_FOUND, optionalEventName.get()));
-            List<WebhookEvent> hookEvents = event.getWebhookEvents();
-            hookEvents.forEach(hookEvent -> {
-                JsonNode payload = updatedEvent.get("after");
-                Long notificationId = super.persistNotification(hookEvent.getId(), payload);
-
-                WebhookEventNotificationDto dto = super.createNotificationDto(hookEvent, payload,
-                    notificationId);
-                webhookService.notifyToWebhook(dto);
-            });
-        }
+    public void onOrderEvents(List<JsonNode> orderEvents) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<WebhookEventNotification> notifications = new ArrayList<>();
+        orderEvents.stream()
+            .filter(Objects::nonNull)
+            .forEach(orderEvent -> getEventName(orderEvent).ifPresent(eventName ->
+                notifications.addAll(super.createNotifications(eventName, orderEvent.get("after"), now))));
+        super.persistNotifications(notifications);
     }
 
     private Optional<EventName> getEventName(JsonNode updatedEvent) {
@@ -60,4 +49,9 @@ public class OrderEventService extends AbstractWebhookEventNotificationService {
     protected WebhookEventNotificationRepository getWebhookEventNotificationRepository() {
         return webhookEventNotificationRepository;
     }
+
+    @Override
+    protected WebhookSubscriptionRegistry getWebhookSubscriptionRegistry() {
+        return webhookSubscriptionRegistry;
+    }
 }
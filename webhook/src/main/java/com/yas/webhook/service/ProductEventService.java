@@ -1,17 +1,16 @@
 package com.yas.webhook.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.yas.commonlibrary.exception.NotFoundException;
-import com.yas.webhook.config.constants.MessageCode;
-import com.yas.webhook.model.Event;
-import com.yas.webhook.model.WebhookEvent;
-import com.yas.webhook.model.dto.WebhookEventNotificationDto;
+import com.yas.webhook.model.WebhookEventNotification;
 import com.yas.webhook.model.enums.EventName;
 import com.yas.webhook.model.enums.Operation;
-import com.yas.webhook.repository.EventRepository;
 import com.yas.webhook.repository.WebhookEventNotificationRepository;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -19,30 +18,54 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class ProductEventService extends AbstractWebhookEventNotificationService {
 
-    private final EventRepository eventRepository;
-    private final WebhookService webhookService;
+    private final WebhookSubscriptionRegistry webhookSubscriptionRegistry;
     private final WebhookEventNotificationRepository webhookEventNotificationRepository;
 
-    public void onProductEvent(JsonNode updatedEvent) {
-        String operation = updatedEvent.get("op").asText();
-        if (!Objects.equals(operation, Operation.UPDATE.getName())) {
-            return;
-        }
-        Event event = eventRepository.findByName(EventName.ON_PRODUCT_UPDATED)
-            .orElseThrow(() -> new NotFoundException(MessageCode.EVENT_NOT_FOUND, EventName.ON_PRODUCT_UPDATED));
-        List<WebhookEvent> hookEvents = event.getWebhookEvents();
-        hookEvents.forEach(hookEvent -> {
-            JsonNode payload = updatedEvent.get("after");
-            Long notificationId = super.persistNotification(hookEvent.getId(), payload);
+    public void onProductEvents(List<JsonNode> productEvents) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<WebhookEventNotification> notifications = new ArrayList<>();
+        productEvents.stream()
+            .filter(Objects::nonNull)
+            .filter(productEvent -> Objects.equals(productEvent.get("op").asText(), Operation.UPDATE.getName()))
+            .forEach(productEvent -> {
+                JsonNode after = productEvent.get("after");
+                notifications.addAll(super.createNotifications(EventName.ON_PRODUCT_UPDATED, after,
+                    after.path("id").asText(null), getChangedFields(productEvent), now));
+            });
+        super.persistNotifications(notifications);
+    }
 
-            WebhookEventNotificationDto dto = super.createNotificationDto(hookEvent, payload,
-                notificationId);
-            webhookService.notifyToWebhook(dto);
+    /**
+     * Columns whose value differs between {@code before} and {@code after}, or {@code null} when the record has
+     * no {@code before} state.
+     */
+    static Set<String> getChangedFields(JsonNode productEvent) {
+        JsonNode before = productEvent.path("before");
+        JsonNode after = productEvent.path("after");
+        if (!before.isObject() || !after.isObject()) {
+            return null;
+        }
+        Set<String> changedFields = new HashSet<>();
+        after.fieldNames().forEachRemaining(field -> {
+            if (!after.get(field).equals(before.get(field))) {
+                changedFields.add(field);
+            }
+        });
+        before.fieldNames().forEachRemaining(field -> {
+            if (!after.has(field)) {
+                changedFields.add(field);
+            }
         });
+        return changedFields;
     }
 
     @Override
     protected WebhookEventNotificationRepository getWebhookEventNotificationRepository() {
         return webhookEventNotificationRepository;
     }
+
+    @Override
+    protected WebhookSubscriptionRegistry getWebhookSubscriptionRegistry() {
+        return webhookSubscriptionRegistry;
+    }
 }
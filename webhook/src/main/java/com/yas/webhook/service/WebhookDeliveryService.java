@@ -0,0 +1,343 @@
+package com.yas.webhook.service;
+
+import com.yas.webhook.config.WebhookDeliveryConfig;
+import com.yas.webhook.integration.api.WebhookApi;
+import com.yas.webhook.model.Webhook;
+import com.yas.webhook.model.WebhookEventNotification;
+import com.yas.webhook.model.dto.WebhookEventNotificationDto;
+import com.yas.webhook.model.enums.EventName;
+import com.yas.webhook.repository.WebhookEventNotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sends the {@code NOTIFYING} notifications stored by the event services.
+ *
+ * <p>Due notifications are claimed with {@code FOR UPDATE SKIP LOCKED}, so several instances can poll the same
+ * table, and leased by moving their next attempt forward; a notification whose instance dies before recording
+ * the outcome is claimed again once the lease ends. Every request runs on its own virtual thread behind a
+ * semaphore of its webhook, and a webhook with too many claimed notifications is left out of the next claims,
+ * so a slow subscriber only delays its own notifications. Failed requests are retried with an exponential,
+ * jittered backoff until {@link WebhookDeliveryConfig#maxAttempts()}, after which the notification is
+ * {@code DEAD} until replayed.
+ *
+ * <p>A webhook with a batch size above one gets arrays: its notifications are buffered until the batch is full
+ * or its linger time has passed since the first one, then sent in one request. The lease has to cover the
+ * linger time too.
+ *
+ * <p>Requests are timed in {@value #REQUEST_TIMER} and outcomes counted in {@value #NOTIFICATION_COUNTER}, both
+ * tagged with the webhook id and the event name.
+ */
+@Slf4j
+@Service
+public class WebhookDeliveryService implements DisposableBean {
+
+    // NOT IN () is not valid SQL, webhook ids start at 1
+    private static final Long NO_WEBHOOK_ID = 0L;
+    private static final int MAX_ERROR_LENGTH = 1000;
+    static final String REQUEST_TIMER = "webhook.delivery.requests";
+    static final String NOTIFICATION_COUNTER = "webhook.delivery.notifications";
+    static final String IN_FLIGHT_GAUGE = "webhook.delivery.in.flight";
+    // tag of a batch holding notifications of several events
+    static final String MIXED_EVENTS = "MIXED";
+
+    private final WebhookEventNotificationRepository webhookEventNotificationRepository;
+    private final WebhookApi webhookApi;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookDeliveryConfig config;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public WebhookDeliveryService(WebhookEventNotificationRepository webhookEventNotificationRepository,
+                                  WebhookApi webhookApi,
+                                  TransactionTemplate transactionTemplate,
+                                  WebhookDeliveryConfig config,
+                                  MeterRegistry meterRegistry) {
+        this.webhookEventNotificationRepository = webhookEventNotificationRepository;
+        this.webhookApi = webhookApi;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge(IN_FLIGHT_GAUGE, inFlight);
+    }
+
+    @Scheduled(fixedDelayString = "${webhook.delivery.poll-interval:PT0.5S}")
+    public void dispatchDueNotifications() {
+        if (!config.enabled()) {
+            return;
+        }
+        // keep claiming while full batches come back, a backlog should not wait for the next poll
+        while (dispatchBatch() == config.batchSize()) {
+            log.debug("Claimed a full batch of notifications, claiming again");
+        }
+    }
+
+    /**
+     * Claims due notifications up to the free capacity and hands them to the executor.
+     *
+     * @return the number of notifications dispatched
+     */
+    int dispatchBatch() {
+        int limit = Math.min(config.batchSize(), config.maxInFlight() - inFlight.get());
+        if (limit <= 0) {
+            return 0;
+        }
+        Map<Long, Integer> claimedPerWebhook = new HashMap<>();
+        List<WebhookEventNotificationDto> claimed = transactionTemplate.execute(
+            status -> claim(limit, claimedPerWebhook));
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        // counted once the lease is committed, a rolled back claim must not hold queue slots
+        claimedPerWebhook.forEach((webhookId, count) -> lane(webhookId).queued.addAndGet(count));
+        inFlight.addAndGet(claimed.size());
+        claimed.forEach(this::dispatch);
+        return claimed.size();
+    }
+
+    private List<WebhookEventNotificationDto> claim(int limit, Map<Long, Integer> claimedPerWebhook) {
+        ZonedDateTime now = ZonedDateTime.now();
+        List<WebhookEventNotification> due = webhookEventNotificationRepository.lockDueNotifications(
+            now, saturatedWebhookIds(), limit);
+        List<WebhookEventNotificationDto> claimed = new ArrayList<>(due.size());
+        for (WebhookEventNotification notification : due) {
+            Webhook webhook = notification.getWebhookEvent().getWebhook();
+            Lane lane = lane(webhook.getId());
+            // a batch has to fit in the queue, or it would only ever be sent after the linger time
+            lane.queueLimit = Math.max(config.maxQueuedPerWebhook(), batchSize(webhook));
+            int queued = lane.queued.get() + claimedPerWebhook.getOrDefault(webhook.getId(), 0);
+            if (queued >= lane.queueLimit) {
+                // left due, the row lock is released on commit
+                continue;
+            }
+            notification.setNextAttemptOn(now.plus(config.lease()));
+            // being sent, later payloads of the entity go into a new notification
+            notification.setCoalesceKey(null);
+            claimedPerWebhook.merge(webhook.getId(), 1, Integer::sum);
+            claimed.add(toDto(notification, webhook));
+        }
+        return claimed;
+    }
+
+    private void dispatch(WebhookEventNotificationDto notification) {
+        Lane lane = lane(notification.getWebhookId());
+        if (!notification.isBatched()) {
+            executor.execute(() -> deliver(lane, List.of(notification)));
+            return;
+        }
+        List<WebhookEventNotificationDto> fullBatch = null;
+        long bufferEpoch = -1;
+        synchronized (lane) {
+            lane.buffer.add(notification);
+            if (lane.buffer.size() >= notification.getBatchSize()) {
+                fullBatch = lane.drainBuffer();
+            } else if (lane.buffer.size() == 1) {
+                bufferEpoch = lane.bufferEpoch;
+            }
+        }
+        if (fullBatch != null) {
+            List<WebhookEventNotificationDto> batch = fullBatch;
+            executor.execute(() -> deliver(lane, batch));
+        } else if (bufferEpoch >= 0) {
+            long epoch = bufferEpoch;
+            executor.execute(() -> deliverAfterLinger(lane, epoch, notification.getBatchLinger()));
+        }
+    }
+
+    private void deliverAfterLinger(Lane lane, long bufferEpoch, Duration linger) {
+        try {
+            Thread.sleep(linger);
+        } catch (InterruptedException e) {
+            // shutting down, the buffered notifications are claimed again when their lease ends
+            Thread.currentThread().interrupt();
+            return;
+        }
+        List<WebhookEventNotificationDto> batch;
+        synchronized (lane) {
+            // the buffer may have been sent full meanwhile, the next one has its own timer
+            batch = lane.bufferEpoch == bufferEpoch ? lane.drainBuffer() : List.of();
+        }
+        if (!batch.isEmpty()) {
+            deliver(lane, batch);
+        }
+    }
+
+    private void deliver(Lane lane, List<WebhookEventNotificationDto> notifications) {
+        try {
+            lane.permits.acquire();
+            try {
+                send(notifications);
+            } finally {
+                lane.permits.release();
+            }
+        } catch (InterruptedException e) {
+            // shutting down, the notifications are claimed again when their lease ends
+            Thread.currentThread().interrupt();
+        } finally {
+            lane.queued.addAndGet(-notifications.size());
+            inFlight.addAndGet(-notifications.size());
+        }
+    }
+
+    private void send(List<WebhookEventNotificationDto> notifications) {
+        WebhookEventNotificationDto first = notifications.getFirst();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (first.isBatched()) {
+                webhookApi.notify(first.getUrl(), first.getSecret(),
+                    notifications.stream().map(WebhookEventNotificationDto::getPayload).toList());
+            } else {
+                webhookApi.notify(first.getUrl(), first.getSecret(), first.getPayload());
+            }
+        } catch (RuntimeException e) {
+            sample.stop(requestTimer(notifications, "failure"));
+            notifications.forEach(notification -> onFailure(notification, e));
+            return;
+        }
+        sample.stop(requestTimer(notifications, "success"));
+        notifications.forEach(notification -> count(notification, "notified"));
+        webhookEventNotificationRepository.markNotified(
+            notifications.stream().map(WebhookEventNotificationDto::getNotificationId).toList(), ZonedDateTime.now());
+    }
+
+    private void onFailure(WebhookEventNotificationDto notification, RuntimeException e) {
+        ZonedDateTime now = ZonedDateTime.now();
+        int attempts = notification.getAttempts() + 1;
+        String error = StringUtils.abbreviate(e.toString(), MAX_ERROR_LENGTH);
+        if (attempts >= config.maxAttempts()) {
+            log.warn("Giving up notification {} to webhook {} after {} attempts: {}",
+                notification.getNotificationId(), notification.getWebhookId(), attempts, error);
+            count(notification, "dead");
+            webhookEventNotificationRepository.markDead(notification.getNotificationId(), now, error);
+            return;
+        }
+        Duration backoff = backoff(attempts);
+        log.debug("Attempt {} of notification {} to webhook {} failed, retrying in {}: {}",
+            attempts, notification.getNotificationId(), notification.getWebhookId(), backoff, error);
+        count(notification, "retried");
+        webhookEventNotificationRepository.scheduleRetry(
+            notification.getNotificationId(), now, now.plus(backoff), error);
+    }
+
+    private Timer requestTimer(List<WebhookEventNotificationDto> notifications, String outcome) {
+        EventName eventName = notifications.getFirst().getEventName();
+        boolean mixed = notifications.stream().anyMatch(notification -> notification.getEventName() != eventName);
+        return Timer.builder(REQUEST_TIMER)
+            .tag("webhook", String.valueOf(notifications.getFirst().getWebhookId()))
+            .tag("event", mixed ? MIXED_EVENTS : String.valueOf(eventName))
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private void count(WebhookEventNotificationDto notification, String outcome) {
+        Counter.builder(NOTIFICATION_COUNTER)
+            .tag("webhook", String.valueOf(notification.getWebhookId()))
+            .tag("event", String.valueOf(notification.getEventName()))
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Delay before the retry following the given number of failed attempts: the initial backoff doubled on
+     * every attempt and capped, of which a random half is taken so that failed notifications spread out.
+     */
+    Duration backoff(int attempts) {
+        long maxMillis = config.maxBackoff().toMillis();
+        long millis = config.initialBackoff().toMillis();
+        for (int attempt = 1; attempt < attempts && millis < maxMillis; attempt++) {
+            millis *= 2;
+        }
+        millis = Math.min(millis, maxMillis);
+        long half = millis / 2;
+        return Duration.ofMillis(half + ThreadLocalRandom.current().nextLong(half + 1));
+    }
+
+    private List<Long> saturatedWebhookIds() {
+        List<Long> saturated = new ArrayList<>();
+        saturated.add(NO_WEBHOOK_ID);
+        lanes.forEach((webhookId, lane) -> {
+            if (lane.queued.get() >= lane.queueLimit) {
+                saturated.add(webhookId);
+            }
+        });
+        return saturated;
+    }
+
+    private Lane lane(Long webhookId) {
+        return lanes.computeIfAbsent(webhookId,
+            id -> new Lane(config.maxConcurrencyPerWebhook(), config.maxQueuedPerWebhook()));
+    }
+
+    private WebhookEventNotificationDto toDto(WebhookEventNotification notification, Webhook webhook) {
+        return WebhookEventNotificationDto.builder()
+            .notificationId(notification.getId())
+            .webhookId(webhook.getId())
+            .eventName(notification.getWebhookEvent().getEvent().getName())
+            .url(webhook.getPayloadUrl())
+            .secret(webhook.getSecret())
+            .payload(notification.getPayload())
+            .attempts(notification.getAttempts())
+            .batchSize(batchSize(webhook))
+            .batchLinger(Duration.ofMillis(Objects.requireNonNullElse(webhook.getBatchLingerMillis(), 0)))
+            .build();
+    }
+
+    private static int batchSize(Webhook webhook) {
+        return Objects.requireNonNullElse(webhook.getBatchSize(), 1);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        Duration timeout = config.connectTimeout().plus(config.readTimeout());
+        if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Lane {
+        private final Semaphore permits;
+        // claimed and not yet sent, including the buffered ones and the requests in progress
+        private final AtomicInteger queued = new AtomicInteger();
+        private volatile int queueLimit;
+        // guarded by the lane
+        private List<WebhookEventNotificationDto> buffer = new ArrayList<>();
+        private long bufferEpoch;
+
+        private Lane(int maxConcurrency, int queueLimit) {
+            this.permits = new Semaphore(maxConcurrency);
+            this.queueLimit = queueLimit;
+        }
+
+        private List<WebhookEventNotificationDto> drainBuffer() {
+            List<WebhookEventNotificationDto> drained = buffer;
+            buffer = new ArrayList<>();
+            bufferEpoch++;
+            return drained;
+        }
+    }
+}
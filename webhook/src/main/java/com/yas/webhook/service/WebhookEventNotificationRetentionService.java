@@ -0,0 +1,97 @@
+package com.yas.webhook.service;
+
+import com.yas.webhook.config.WebhookRetentionConfig;
+import com.yas.webhook.repository.WebhookEventNotificationPartitionRepository;
+import com.yas.webhook.repository.WebhookEventNotificationPartitionRepository.Partition;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps {@code webhook_event_notification} bounded: the table is partitioned by creation day, partitions are
+ * created a few days ahead and dropped as a whole once older than the retention, which costs no row deletes and
+ * no vacuum for delivered notifications.
+ *
+ * <p>The default partition holds what does not fit a daily partition: notifications not yet delivered, or
+ * {@code DEAD}, when their partition is dropped, where they wait for delivery or replay, and notifications created
+ * past the last partition, which are moved into the partition of their day when it is created. {@code DEAD}
+ * notifications that were not replayed are deleted from it after their own retention.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WebhookEventNotificationRetentionService {
+
+    private final WebhookEventNotificationPartitionRepository partitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WebhookRetentionConfig config;
+
+    @Scheduled(fixedDelayString = "${webhook.retention.interval:PT1H}")
+    public void maintainPartitions() {
+        if (!config.enabled()) {
+            return;
+        }
+        // separate transactions, a partition that cannot be created must not keep old ones from being dropped
+        inLockedTransaction(this::dropExpiredPartitions);
+        inLockedTransaction(this::createUpcomingPartitions);
+    }
+
+    void dropExpiredPartitions(List<Partition> partitions) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(config.retention());
+        partitions.stream()
+            .filter(partition -> partition.upperBound() != null && !partition.upperBound().isAfter(cutoff))
+            .forEach(partition -> {
+                int kept = partitionRepository.dropPartition(partition.name());
+                log.info("Dropped webhook notification partition {}, {} undelivered notifications kept",
+                    partition.name(), kept);
+            });
+        int deleted = partitionRepository.deleteNotifiedFromDefaultPartition(cutoff);
+        if (deleted > 0) {
+            log.info("Deleted {} expired webhook notifications from the default partition", deleted);
+        }
+        int deletedDead = partitionRepository.deleteDeadFromDefaultPartition(
+            LocalDateTime.now().minus(config.deadRetention()));
+        if (deletedDead > 0) {
+            log.info("Deleted {} expired dead webhook notifications from the default partition", deletedDead);
+        }
+    }
+
+    void createUpcomingPartitions(List<Partition> partitions) {
+        LocalDate today = LocalDate.now();
+        // partitions are contiguous, the first missing day is the end of the last one
+        LocalDate day = partitions.stream()
+            .map(Partition::upperBound)
+            .filter(Objects::nonNull)
+            .max(Comparator.naturalOrder())
+            .map(LocalDateTime::toLocalDate)
+            .filter(end -> end.isAfter(today))
+            .orElse(today);
+        for (; !day.isAfter(today.plusDays(config.partitionsAhead())); day = day.plusDays(1)) {
+            int moved = partitionRepository.createPartition(day);
+            log.info("Created webhook notification partition of {}, {} notifications moved from the default partition",
+                day, moved);
+        }
+    }
+
+    private void inLockedTransaction(Consumer<List<Partition>> maintenance) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!partitionRepository.tryLock()) {
+                    log.debug("Webhook notification partitions are maintained by another instance");
+                    return;
+                }
+                maintenance.accept(partitionRepository.findPartitions());
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to maintain the webhook notification partitions", e);
+        }
+    }
+}
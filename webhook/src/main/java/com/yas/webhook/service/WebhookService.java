@@ -1,16 +1,16 @@
 package com.yas.webhook.service;
 
+import com.yas.commonlibrary.exception.BadRequestException;
 import com.yas.commonlibrary.exception.NotFoundException;
 import com.yas.webhook.config.constants.MessageCode;
-import com.yas.webhook.integration.api.WebhookApi;
 import com.yas.webhook.model.Webhook;
 import com.yas.webhook.model.WebhookEvent;
 import com.yas.webhook.model.WebhookEventNotification;
-import com.yas.webhook.model.dto.WebhookEventNotificationDto;
 import com.yas.webhook.model.enums.NotificationStatus;
 import com.yas.webhook.model.mapper.WebhookMapper;
 import com.yas.webhook.model.viewmodel.webhook.EventVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookDetailVm;
+import com.yas.webhook.model.viewmodel.webhook.WebhookEventNotificationListGetVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookListGetVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookPostVm;
 import com.yas.webhook.model.viewmodel.webhook.WebhookVm;
@@ -18,12 +18,12 @@ import com.yas.webhook.repository.EventRepository;
 import com.yas.webhook.repository.WebhookEventNotificationRepository;
 import com.yas.webhook.repository.WebhookEventRepository;
 import com.yas.webhook.repository.WebhookRepository;
+import java.time.ZonedDateTime;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -37,7 +37,7 @@ public class WebhookService {
     private final WebhookEventRepository webhookEventRepository;
     private final WebhookEventNotificationRepository webhookEventNotificationRepository;
     private final WebhookMapper webhookMapper;
-    private final WebhookApi webHookApi;
+    private final WebhookSubscriptionRegistry webhookSubscriptionRegistry;
 
     public WebhookListGetVm getPageableWebhooks(int pageNo, int pageSize) {
         PageRequest pageRequest = PageRequest.of(pageNo, pageSize, Sort.by(Sort.Direction.DESC, "id"));
@@ -63,6 +63,7 @@ public class WebhookService {
                 = initializeWebhookEvents(createdWebhook.getId(), webhookPostVm.getEvents());
             webhookEvents = webhookEventRepository.saveAll(webhookEvents);
             createdWebhook.setWebhookEvents(webhookEvents);
+            webhookSubscriptionRegistry.invalidate();
         }
         return webhookMapper.toWebhookDetailVm(createdWebhook);
     }
@@ -77,6 +78,7 @@ public class WebhookService {
             List<WebhookEvent> webhookEvents = initializeWebhookEvents(id, webhookPostVm.getEvents());
             webhookEventRepository.saveAll(webhookEvents);
         }
+        webhookSubscriptionRegistry.invalidate();
     }
 
     @Transactional
@@ -86,17 +88,50 @@ public class WebhookService {
         }
         webhookEventRepository.deleteByWebhookId(id);
         webhookRepository.deleteById(id);
+        webhookSubscriptionRegistry.invalidate();
     }
 
-    @Async
-    public void notifyToWebhook(WebhookEventNotificationDto notificationDto) {
+    public WebhookEventNotificationListGetVm getPageableNotifications(Long webhookId, NotificationStatus status,
+                                                                      int pageNo, int pageSize) {
+        checkWebhookExists(webhookId);
+        PageRequest pageRequest = PageRequest.of(pageNo, pageSize, Sort.by(Sort.Direction.DESC, "id"));
+        Page<WebhookEventNotification> notifications = webhookEventNotificationRepository
+            .findByWebhookEventWebhookIdAndNotificationStatus(webhookId, status, pageRequest);
+        return webhookMapper.toWebhookEventNotificationListGetVm(notifications, pageNo, pageSize);
+    }
+
+    /**
+     * Queues every notification of the webhook in the given status for delivery again. Only {@code DEAD} and
+     * {@code NOTIFIED} notifications can be replayed, the others are still scheduled for delivery.
+     *
+     * @return the number of notifications replayed
+     */
+    public int replayNotifications(Long webhookId, NotificationStatus status) {
+        checkWebhookExists(webhookId);
+        checkReplayable(status);
+        return webhookEventNotificationRepository.replay(webhookId, status, ZonedDateTime.now());
+    }
+
+    public void replayNotification(Long webhookId, Long notificationId) {
+        WebhookEventNotification notification = webhookEventNotificationRepository.findById(notificationId)
+            .filter(found -> webhookId.equals(found.getWebhookEvent().getWebhookId()))
+            .orElseThrow(() -> new NotFoundException(MessageCode.WEBHOOK_EVENT_NOTIFICATION_NOT_FOUND,
+                notificationId));
+        checkReplayable(notification.getNotificationStatus());
+        webhookEventNotificationRepository.replay(List.of(notificationId), ZonedDateTime.now());
+    }
 
-        webHookApi.notify(notificationDto.getUrl(), notificationDto.getSecret(), notificationDto.getPayload());
-        WebhookEventNotification notification = webhookEventNotificationRepository.findById(
-                notificationDto.getNotificationId())
-            .orElseThrow();
-        notification.setNotificationStatus(NotificationStatus.NOTIFIED);
-        webhookEventNotificationRepository.save(notification);
+    private void checkWebhookExists(Long webhookId) {
+        if (!webhookRepository.existsById(webhookId)) {
+            throw new NotFoundException(MessageCode.WEBHOOK_NOT_FOUND, webhookId);
+        }
+    }
+
+    private static void checkReplayable(NotificationStatus status) {
+        // NOTIFYING and FAILED rows are still picked up by the dispatcher, replaying them could send them twice
+        if (status != NotificationStatus.DEAD && status != NotificationStatus.NOTIFIED) {
+            throw new BadRequestException(MessageCode.WEBHOOK_EVENT_NOTIFICATION_NOT_REPLAYABLE, status);
+        }
     }
 
     private List<WebhookEvent> initializeWebhookEvents(Long webhookId, List<EventVm> events) {
@@ -0,0 +1,82 @@
+package com.yas.webhook.service;
+
+import com.yas.webhook.model.dto.WebhookSubscription;
+import com.yas.webhook.model.enums.EventName;
+import com.yas.webhook.repository.WebhookEventRepository;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory copy of the webhook subscriptions per event, so that fanning out an event does not query the
+ * subscriptions every time.
+ *
+ * <p>The copy is loaded on first use and dropped by {@link #invalidate()}, which is called on local webhook
+ * changes and on the webhook CDC events, so that changes made through another instance are seen too.
+ */
+@Slf4j
+@Component
+public class WebhookSubscriptionRegistry {
+
+    private final WebhookEventRepository webhookEventRepository;
+    private volatile Map<EventName, List<WebhookSubscription>> subscriptions;
+    // bumped on every invalidation, so that a load racing with a webhook change is not kept
+    private long generation;
+
+    public WebhookSubscriptionRegistry(WebhookEventRepository webhookEventRepository) {
+        this.webhookEventRepository = webhookEventRepository;
+    }
+
+    public List<WebhookSubscription> getSubscriptions(EventName eventName) {
+        Map<EventName, List<WebhookSubscription>> current = subscriptions;
+        if (current == null) {
+            current = load();
+        }
+        return current.getOrDefault(eventName, List.of());
+    }
+
+    /**
+     * Drops the cached subscriptions, after the commit when called within a transaction.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop();
+                }
+            });
+            return;
+        }
+        drop();
+    }
+
+    private void drop() {
+        synchronized (this) {
+            generation++;
+            subscriptions = null;
+        }
+        log.debug("Webhook subscriptions invalidated");
+    }
+
+    private Map<EventName, List<WebhookSubscription>> load() {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        Map<EventName, List<WebhookSubscription>> loaded = webhookEventRepository.findAllSubscriptions().stream()
+            .collect(Collectors.groupingBy(WebhookSubscription::eventName, () -> new EnumMap<>(EventName.class),
+                Collectors.toUnmodifiableList()));
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                subscriptions = loaded;
+            }
+        }
+        return loaded;
+    }
+}
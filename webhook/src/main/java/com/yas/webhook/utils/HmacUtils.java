@@ -1,7 +1,9 @@
 package com.yas.webhook.utils;
 
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import lombok.experimental.UtilityClass;
@@ -10,12 +12,25 @@ import lombok.experimental.UtilityClass;
 public class HmacUtils {
 
     public static final String HMAC_SHA_256 = "HmacSHA256";
+    public static final String SIGNATURE_PREFIX = "sha256=";
 
     public static String hash(String data, String key) throws NoSuchAlgorithmException, InvalidKeyException {
-        SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(), HMAC_SHA_256);
+        byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        return hash(bytes, 0, bytes.length, key);
+    }
+
+    /**
+     * Signs the given range of bytes, e.g. a request body exactly as it is sent.
+     *
+     * @return {@value #SIGNATURE_PREFIX} followed by the hex encoded HMAC-SHA256
+     */
+    public static String hash(byte[] data, int offset, int length, String key)
+        throws NoSuchAlgorithmException, InvalidKeyException {
+        SecretKeySpec secretKeySpec = new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), HMAC_SHA_256);
         Mac mac = Mac.getInstance(HMAC_SHA_256);
         mac.init(secretKeySpec);
+        mac.update(data, offset, length);
 
-        return new String(mac.doFinal(data.getBytes()));
+        return SIGNATURE_PREFIX + HexFormat.of().formatHex(mac.doFinal());
     }
 }
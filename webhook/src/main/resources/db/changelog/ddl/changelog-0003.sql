@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset webhook:issue-004
+update webhook_event_notification set notification_status = case notification_status when '0' then 'NOTIFYING' when '1' then 'NOTIFIED' else notification_status end;
+alter table webhook_event_notification add column attempts int not null default 0, add column next_attempt_on timestamp, add column last_attempt_on timestamp, add column last_error text;
+update webhook_event_notification set next_attempt_on = coalesce(created_on, now());
+alter table webhook_event_notification alter column next_attempt_on set not null, alter column next_attempt_on set default now();
+create index idx_webhook_event_notification_due on webhook_event_notification (next_attempt_on, id) where notification_status = 'NOTIFYING';
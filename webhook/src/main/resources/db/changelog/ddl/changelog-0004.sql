@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset webhook:issue-005
+alter table webhook add column coalesce_window_seconds int, add column ignored_fields text[];
+alter table webhook_event_notification add column coalesce_key varchar(255);
+create unique index uk_webhook_event_notification_coalesce_key on webhook_event_notification (webhook_event_id, coalesce_key) where coalesce_key is not null;
\ No newline at end of file
@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset webhook:issue-006
+alter table webhook add column batch_size int, add column batch_linger_millis int;
\ No newline at end of file
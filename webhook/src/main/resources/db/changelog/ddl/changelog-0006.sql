@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset webhook:issue-007
+update webhook_event_notification set notification_status = 'DEAD' where notification_status = 'FAILED';
+drop index idx_webhook_event_notification_due;
+create index idx_webhook_event_notification_due on webhook_event_notification (next_attempt_on, id) where notification_status in ('NOTIFYING', 'FAILED');
+create index idx_webhook_event_notification_status on webhook_event_notification (webhook_event_id, notification_status, id);
\ No newline at end of file
@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset webhook:issue-008 splitStatements:false
+do $$
+declare
+    boundary timestamp := date_trunc('day', localtimestamp) + interval '1 day';
+begin
+    update webhook_event_notification set created_on = localtimestamp where created_on is null;
+    alter table webhook_event_notification alter column created_on set not null;
+    alter table webhook_event_notification drop constraint webhook_event_notification_pkey;
+    drop index idx_webhook_event_notification_due;
+    drop index idx_webhook_event_notification_status;
+    drop index uk_webhook_event_notification_coalesce_key;
+    alter table webhook_event_notification rename to webhook_event_notification_legacy;
+
+    create table webhook_event_notification (id bigint not null default nextval('webhook_event_notification_id_seq'), webhook_event_id bigint references webhook_event(id), payload jsonb compression lz4, notification_status varchar(128), created_on timestamp not null default localtimestamp, attempts int not null default 0, next_attempt_on timestamp not null default now(), last_attempt_on timestamp, last_error text, coalesce_key varchar(255), primary key (id, created_on)) partition by range (created_on);
+    alter sequence webhook_event_notification_id_seq owned by webhook_event_notification.id;
+    execute format('alter table webhook_event_notification attach partition webhook_event_notification_legacy for values from (minvalue) to (%L)', boundary);
+    create table webhook_event_notification_default partition of webhook_event_notification default;
+
+    create index idx_webhook_event_notification_due on webhook_event_notification (next_attempt_on, id) where notification_status in ('NOTIFYING', 'FAILED');
+    create index idx_webhook_event_notification_status on webhook_event_notification (webhook_event_id, notification_status, id);
+    create index idx_webhook_event_notification_coalesce_key on webhook_event_notification (webhook_event_id, coalesce_key) where coalesce_key is not null;
+end $$;
\ No newline at end of file
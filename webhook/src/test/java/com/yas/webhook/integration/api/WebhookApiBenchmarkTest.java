@@ -0,0 +1,112 @@
+package com.yas.webhook.integration.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Delivery throughput against a local stub subscriber, one request per notification versus batches. Run with
+ * {@code mvn test -pl webhook -Dtest=WebhookApiBenchmarkTest -Dbenchmark=true}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class WebhookApiBenchmarkTest {
+
+    private static final int NOTIFICATIONS = 20_000;
+    private static final int CONCURRENCY = 4;
+    private static final String PAYLOAD = """
+        {"id":1,"name":"Smartphone","slug":"smartphone","sku":"SKU-1","gtin":"1234567890123","price":799.0,\
+        "is_published":true,"is_allowed_to_order":true,"stock_quantity":42,"brand_id":3,\
+        "short_description":"A phone with a screen, a battery and a few cameras"}""";
+
+    private HttpServer server;
+    private String url;
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private WebhookApi webhookApi;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/hook", exchange -> {
+            receivedBytes.addAndGet(exchange.getRequestBody().readAllBytes().length);
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+        ClientHttpRequestFactorySettings settings = ClientHttpRequestFactorySettings.DEFAULTS
+            .withConnectTimeout(Duration.ofSeconds(5))
+            .withReadTimeout(Duration.ofSeconds(10));
+        webhookApi = new WebhookApi(
+            RestClient.builder().requestFactory(ClientHttpRequestFactories.get(settings)).build(),
+            new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void benchmark_singleVersusBatchedDelivery() throws Exception {
+        // warm up connections and JIT
+        run(1);
+        run(100);
+
+        Map<Integer, Double> throughputs = new HashMap<>();
+        for (int batchSize : new int[]{1, 10, 100}) {
+            receivedBytes.set(0);
+            long start = System.nanoTime();
+            run(batchSize);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            throughputs.put(batchSize, NOTIFICATIONS / seconds);
+            log.info("batch size {}: {} notifications/s, {} requests, {} bytes", batchSize,
+                Math.round(NOTIFICATIONS / seconds), NOTIFICATIONS / batchSize, receivedBytes.get());
+            assertThat(receivedBytes.get()).isGreaterThanOrEqualTo((long) NOTIFICATIONS * PAYLOAD.length());
+        }
+
+        assertThat(throughputs.get(100)).isGreaterThan(throughputs.get(1));
+    }
+
+    private void run(int batchSize) throws Exception {
+        List<String> batch = Collections.nCopies(batchSize, PAYLOAD);
+        int requests = NOTIFICATIONS / batchSize;
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY)) {
+            List<Future<?>> results = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                results.add(executor.submit(() -> {
+                    if (batchSize == 1) {
+                        webhookApi.notify(url, "secret", PAYLOAD);
+                    } else {
+                        webhookApi.notify(url, "secret", batch);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        }
+    }
+}
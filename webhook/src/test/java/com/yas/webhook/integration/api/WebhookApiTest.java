@@ -0,0 +1,72 @@
+package com.yas.webhook.integration.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import com.yas.webhook.utils.HmacUtils;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+class WebhookApiTest {
+
+    private HttpServer server;
+    private String url;
+    private byte[] receivedBody;
+    private Headers receivedHeaders;
+    private WebhookApi webhookApi;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hook", exchange -> {
+            receivedBody = exchange.getRequestBody().readAllBytes();
+            receivedHeaders = exchange.getRequestHeaders();
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort() + "/hook";
+        webhookApi = new WebhookApi(RestClient.builder().build(), new ObjectMapper());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void test_notify_shouldSendPayloadSignedOverSentBytes() throws Exception {
+        webhookApi.notify(url, "secret", "{\"id\":1,\"name\":\"Café\"}");
+
+        assertThat(new String(receivedBody, StandardCharsets.UTF_8)).isEqualTo("{\"id\":1,\"name\":\"Café\"}");
+        assertThat(receivedHeaders.getFirst("Content-Type")).startsWith("application/json");
+        assertThat(receivedHeaders.getFirst(WebhookApi.X_HUB_SIGNATURE_256))
+            .isEqualTo(HmacUtils.hash(receivedBody, 0, receivedBody.length, "secret"));
+    }
+
+    @Test
+    void test_notify_whenBatched_shouldSendArrayOfPayloads() throws Exception {
+        webhookApi.notify(url, "secret", List.of("{\"id\":1}", "{\"id\":2}"));
+        webhookApi.notify(url, "secret", List.of("{\"id\":3}"));
+
+        assertThat(new String(receivedBody, StandardCharsets.UTF_8)).isEqualTo("[{\"id\":3}]");
+        assertThat(receivedHeaders.getFirst(WebhookApi.X_HUB_SIGNATURE_256))
+            .isEqualTo(HmacUtils.hash(receivedBody, 0, receivedBody.length, "secret"));
+    }
+
+    @Test
+    void test_notify_whenNoSecret_shouldNotSign() {
+        webhookApi.notify(url, null, List.of("{\"id\":1}", "{\"id\":2}"));
+
+        assertThat(new String(receivedBody, StandardCharsets.UTF_8)).isEqualTo("[{\"id\":1},{\"id\":2}]");
+        assertThat(receivedHeaders.containsKey(WebhookApi.X_HUB_SIGNATURE_256)).isFalse();
+    }
+}
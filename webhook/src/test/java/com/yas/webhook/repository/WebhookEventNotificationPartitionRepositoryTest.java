@@ -0,0 +1,24 @@
+package com.yas.webhook.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class WebhookEventNotificationPartitionRepositoryTest {
+
+    @Test
+    void test_parseUpperBound_shouldReadEndOfRange() {
+        assertThat(WebhookEventNotificationPartitionRepository.parseUpperBound(
+            "FOR VALUES FROM ('2024-01-01 00:00:00') TO ('2024-01-02 00:00:00')"))
+            .isEqualTo(LocalDateTime.of(2024, 1, 2, 0, 0));
+        assertThat(WebhookEventNotificationPartitionRepository.parseUpperBound(
+            "FOR VALUES FROM (MINVALUE) TO ('2024-01-01 00:00:00')"))
+            .isEqualTo(LocalDateTime.of(2024, 1, 1, 0, 0));
+    }
+
+    @Test
+    void test_parseUpperBound_whenDefaultPartition_shouldReturnNull() {
+        assertThat(WebhookEventNotificationPartitionRepository.parseUpperBound("DEFAULT")).isNull();
+    }
+}
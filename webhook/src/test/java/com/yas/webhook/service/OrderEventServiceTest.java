@@ -1,24 +1,22 @@
 package com.yas.webhook.service;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.times;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.yas.webhook.integration.api.WebhookApi;
-import com.yas.webhook.model.Event;
-import com.yas.webhook.model.Webhook;
-import com.yas.webhook.model.WebhookEvent;
 import com.yas.webhook.model.WebhookEventNotification;
+import com.yas.webhook.model.dto.WebhookSubscription;
 import com.yas.webhook.model.enums.EventName;
-import com.yas.webhook.repository.EventRepository;
+import com.yas.webhook.model.enums.NotificationStatus;
 import com.yas.webhook.repository.WebhookEventNotificationRepository;
 import java.util.List;
-import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -27,102 +25,87 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class OrderEventServiceTest {
 
     @Mock
-    EventRepository eventRepository;
+    WebhookSubscriptionRegistry webhookSubscriptionRegistry;
     @Mock
     WebhookEventNotificationRepository webhookEventNotificationRepository;
-    @Mock
-    WebhookService webhookService;
-    @Mock
-    WebhookApi webHookApi;
     @InjectMocks
     OrderEventService orderEventService;
+    @Captor
+    ArgumentCaptor<List<WebhookEventNotification>> notificationsCaptor;
 
-    @Test
-    void test_onOrderEvent_shouldNotException() {
-        ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Test
+    void test_onOrderEvents_shouldNotException() {
         ObjectNode objectNode = objectMapper.createObjectNode();
         objectNode.put("op", "c");
-        objectNode.set("after", objectMapper.createObjectNode());
-
-        Event event = new Event();
-        WebhookEvent webhookEvent = new WebhookEvent();
-        Webhook webhook = new Webhook();
-        List<WebhookEvent> webhookEvents = List.of(webhookEvent);
-
-        event.setWebhookEvents(webhookEvents);
-        webhookEvent.setWebhook(webhook);
-
-        WebhookEventNotification notification = new WebhookEventNotification();
-        notification.setWebhookEventId(1L);
-
-        when(eventRepository.findByName(EventName.ON_ORDER_CREATED)).thenReturn(Optional.of(event));
-        when(webhookEventNotificationRepository.save(any(WebhookEventNotification.class))).thenReturn(notification);
-
-        orderEventService.onOrderEvent(objectNode);
-
-        verify(webhookEventNotificationRepository).save(any(WebhookEventNotification.class));
+        objectNode.set("after", objectMapper.createObjectNode().put("id", 1));
+
+        when(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_ORDER_CREATED)).thenReturn(List.of(
+            new WebhookSubscription(EventName.ON_ORDER_CREATED, 1L, 10L),
+            new WebhookSubscription(EventName.ON_ORDER_CREATED, 2L, 20L)));
+
+        orderEventService.onOrderEvents(List.of(objectNode));
+
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue())
+            .extracting(WebhookEventNotification::getWebhookEventId)
+            .containsExactly(1L, 2L);
+        assertThat(notificationsCaptor.getValue()).allSatisfy(notification -> {
+            assertThat(notification.getPayload()).isEqualTo("{\"id\":1}");
+            assertThat(notification.getNotificationStatus()).isEqualTo(NotificationStatus.NOTIFYING);
+            assertThat(notification.getNextAttemptOn()).isNotNull();
+        });
     }
 
     @Test
-    void test_onOrderEvent_shouldNotExceptionForUpdateOrderStatus() {
-        ObjectMapper objectMapper = new ObjectMapper();
+    void test_onOrderEvents_shouldNotExceptionForUpdateOrderStatus() {
+        when(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_ORDER_STATUS_UPDATED)).thenReturn(List.of(
+            new WebhookSubscription(EventName.ON_ORDER_STATUS_UPDATED, 1L, 10L)));
 
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("op", "u");
-        ObjectNode before = objectMapper.createObjectNode();
-        before.put("order_status", "NEW");
-        objectNode.set("before", before);
-        ObjectNode after = objectMapper.createObjectNode();
-        after.put("order_status", "PAID");
-        objectNode.set("after", after);
-
-        Event event = new Event();
-        WebhookEvent webhookEvent = new WebhookEvent();
-        Webhook webhook = new Webhook();
-        List<WebhookEvent> webhookEvents = List.of(webhookEvent);
-
-        event.setWebhookEvents(webhookEvents);
-        webhookEvent.setWebhook(webhook);
+        orderEventService.onOrderEvents(List.of(orderUpdate("NEW", "PAID")));
 
-        WebhookEventNotification notification = new WebhookEventNotification();
-        notification.setWebhookEventId(1L);
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue()).hasSize(1);
+    }
 
-        when(eventRepository.findByName(EventName.ON_ORDER_STATUS_UPDATED)).thenReturn(Optional.of(event));
-        when(webhookEventNotificationRepository.save(any(WebhookEventNotification.class))).thenReturn(notification);
+    @Test
+    void test_onOrderEvents_shouldInsertWholeBatchAtOnce() {
+        when(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_ORDER_STATUS_UPDATED)).thenReturn(List.of(
+            new WebhookSubscription(EventName.ON_ORDER_STATUS_UPDATED, 1L, 10L),
+            new WebhookSubscription(EventName.ON_ORDER_STATUS_UPDATED, 2L, 20L)));
 
-        orderEventService.onOrderEvent(objectNode);
+        orderEventService.onOrderEvents(List.of(orderUpdate("NEW", "PAID"), orderUpdate("NEW", "NEW"),
+            orderUpdate("PAID", "SHIPPING")));
 
-        verify(webhookEventNotificationRepository).save(any(WebhookEventNotification.class));
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue()).hasSize(4);
     }
 
     @Test
-    void test_onOrderEvent_shouldNotNotifyWhenOpIsUnknown() {
-        ObjectMapper objectMapper = new ObjectMapper();
-
+    void test_onOrderEvents_shouldNotNotifyWhenOpIsUnknown() {
         ObjectNode objectNode = objectMapper.createObjectNode();
         objectNode.put("op", "k");
 
-        orderEventService.onOrderEvent(objectNode);
+        orderEventService.onOrderEvents(List.of(objectNode));
 
-        verify(webhookEventNotificationRepository, times(0)).save(any(WebhookEventNotification.class));
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue()).isEmpty();
     }
 
     @Test
-    void test_onOrderEvent_shouldNotNotifyWhenOpIsUpdateButOrderStatusNotChange() {
-        ObjectMapper objectMapper = new ObjectMapper();
+    void test_onOrderEvents_shouldNotNotifyWhenOpIsUpdateButOrderStatusNotChange() {
+        orderEventService.onOrderEvents(List.of(orderUpdate("NEW", "NEW")));
+
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue()).isEmpty();
+    }
 
+    private JsonNode orderUpdate(String orderStatusBefore, String orderStatusAfter) {
         ObjectNode objectNode = objectMapper.createObjectNode();
         objectNode.put("op", "u");
-        ObjectNode before = objectMapper.createObjectNode();
-        before.put("order_status", "NEW");
-        objectNode.set("before", before);
-        ObjectNode after = objectMapper.createObjectNode();
-        after.put("order_status", "NEW");
-        objectNode.set("after", after);
-
-        orderEventService.onOrderEvent(objectNode);
-
-        verify(webhookEventNotificationRepository, times(0)).save(any(WebhookEventNotification.class));
+        objectNode.set("before", objectMapper.createObjectNode().put("order_status", orderStatusBefore));
+        objectNode.set("after", objectMapper.createObjectNode().put("order_status", orderStatusAfter));
+        return objectNode;
     }
 }
@@ -1,24 +1,21 @@
 package com.yas.webhook.service;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.times;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.yas.webhook.model.Event;
-import com.yas.webhook.model.Webhook;
-import com.yas.webhook.model.WebhookEvent;
 import com.yas.webhook.model.WebhookEventNotification;
-import com.yas.webhook.model.dto.WebhookEventNotificationDto;
+import com.yas.webhook.model.dto.WebhookSubscription;
 import com.yas.webhook.model.enums.EventName;
-import com.yas.webhook.repository.EventRepository;
 import com.yas.webhook.repository.WebhookEventNotificationRepository;
 import java.util.List;
-import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -27,52 +24,100 @@ import org.mockito.junit.jupiter.MockitoExtension;
 class ProductEventServiceTest {
 
     @Mock
-    EventRepository eventRepository;
+    WebhookSubscriptionRegistry webhookSubscriptionRegistry;
     @Mock
     WebhookEventNotificationRepository webhookEventNotificationRepository;
-    @Mock
-    WebhookService webhookService;
     @InjectMocks
     ProductEventService productEventService;
+    @Captor
+    ArgumentCaptor<List<WebhookEventNotification>> notificationsCaptor;
 
     @Test
-    void test_onProductEvent_shouldNotException() {
+    void test_onProductEvents_shouldNotException() {
         ObjectMapper objectMapper = new ObjectMapper();
 
         ObjectNode objectNode = objectMapper.createObjectNode();
         objectNode.put("op", "u");
         objectNode.set("after", objectMapper.createObjectNode());
 
-        Event event = new Event();
-        WebhookEvent webhookEvent = new WebhookEvent();
-        Webhook webhook = new Webhook();
-        List<WebhookEvent> webhookEvents = List.of(webhookEvent);
-
-        event.setWebhookEvents(webhookEvents);
-        webhookEvent.setWebhook(webhook);
-
-        WebhookEventNotification notification = new WebhookEventNotification();
-        notification.setWebhookEventId(1L);
+        when(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_PRODUCT_UPDATED)).thenReturn(List.of(
+            new WebhookSubscription(EventName.ON_PRODUCT_UPDATED, 1L, 10L)));
 
-        when(eventRepository.findByName(EventName.ON_PRODUCT_UPDATED)).thenReturn(Optional.of(event));
-        when(webhookEventNotificationRepository.save(any(WebhookEventNotification.class))).thenReturn(notification);
+        productEventService.onProductEvents(List.of(objectNode, objectNode));
 
-        productEventService.onProductEvent(objectNode);
-
-        verify(webhookEventNotificationRepository).save(any(WebhookEventNotification.class));
-        verify(webhookService).notifyToWebhook(any(WebhookEventNotificationDto.class));
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue()).hasSize(2);
     }
 
     @Test
-    void test_onProductEvent_shouldNotDoAnythingWhenOpUnknown() {
+    void test_onProductEvents_shouldNotDoAnythingWhenOpUnknown() {
         ObjectMapper objectMapper = new ObjectMapper();
 
         ObjectNode objectNode = objectMapper.createObjectNode();
         objectNode.put("op", "k");
 
-        productEventService.onProductEvent(objectNode);
+        productEventService.onProductEvents(List.of(objectNode));
+
+        verifyNoInteractions(webhookSubscriptionRegistry);
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue()).isEmpty();
+    }
+
+    @Test
+    void test_onProductEvents_whenWebhookCoalesces_shouldKeepLatestPayloadPerProduct() {
+        when(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_PRODUCT_UPDATED)).thenReturn(List.of(
+            new WebhookSubscription(EventName.ON_PRODUCT_UPDATED, 1L, 10L, 30, null),
+            new WebhookSubscription(EventName.ON_PRODUCT_UPDATED, 2L, 20L)));
+
+        productEventService.onProductEvents(List.of(productUpdate(1, 10.0, 9.0, 5, 5),
+            productUpdate(2, 20.0, 19.0, 5, 5), productUpdate(1, 9.0, 8.0, 5, 5)));
+
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        List<WebhookEventNotification> coalesced = notificationsCaptor.getValue().stream()
+            .filter(notification -> notification.getWebhookEventId() == 1L)
+            .toList();
+        assertThat(coalesced).extracting(WebhookEventNotification::getCoalesceKey).containsExactly("1", "2");
+        assertThat(coalesced.getFirst().getPayload()).contains("8.0");
+        assertThat(coalesced.getFirst().getNextAttemptOn())
+            .isAfter(coalesced.getFirst().getCreatedOn().plusSeconds(29));
+        assertThat(notificationsCaptor.getValue().stream()
+            .filter(notification -> notification.getWebhookEventId() == 2L))
+            .hasSize(3)
+            .allSatisfy(notification -> assertThat(notification.getCoalesceKey()).isNull());
+    }
+
+    @Test
+    void test_onProductEvents_whenOnlyIgnoredFieldsChange_shouldNotNotify() {
+        when(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_PRODUCT_UPDATED)).thenReturn(List.of(
+            new WebhookSubscription(EventName.ON_PRODUCT_UPDATED, 1L, 10L, null, List.of("stock_quantity"))));
 
-        verify(webhookEventNotificationRepository, times(0)).save(any(WebhookEventNotification.class));
-        verify(webhookService, times(0)).notifyToWebhook(any(WebhookEventNotificationDto.class));
+        productEventService.onProductEvents(List.of(productUpdate(1, 10.0, 10.0, 5, 4),
+            productUpdate(1, 10.0, 9.0, 4, 3)));
+
+        verify(webhookEventNotificationRepository).insertAll(notificationsCaptor.capture());
+        assertThat(notificationsCaptor.getValue()).hasSize(1);
+        assertThat(notificationsCaptor.getValue().getFirst().getPayload()).contains("9.0");
+    }
+
+    @Test
+    void test_getChangedFields_shouldListDifferingColumnsOrNullWithoutBefore() {
+        assertThat(ProductEventService.getChangedFields(productUpdate(1, 10.0, 9.0, 5, 4)))
+            .containsExactlyInAnyOrder("price", "stock_quantity");
+
+        ObjectNode withoutBefore = productUpdate(1, 10.0, 9.0, 5, 4);
+        withoutBefore.putNull("before");
+        assertThat(ProductEventService.getChangedFields(withoutBefore)).isNull();
+    }
+
+    private static ObjectNode productUpdate(long id, double priceBefore, double priceAfter,
+                                            int stockBefore, int stockAfter) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode objectNode = objectMapper.createObjectNode();
+        objectNode.put("op", "u");
+        objectNode.set("before", objectMapper.createObjectNode()
+            .put("id", id).put("price", priceBefore).put("stock_quantity", stockBefore));
+        objectNode.set("after", objectMapper.createObjectNode()
+            .put("id", id).put("price", priceAfter).put("stock_quantity", stockAfter));
+        return objectNode;
     }
 }
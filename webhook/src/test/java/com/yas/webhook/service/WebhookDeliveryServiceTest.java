@@ -0,0 +1,230 @@
+package com.yas.webhook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yas.webhook.config.WebhookDeliveryConfig;
+import com.yas.webhook.integration.api.WebhookApi;
+import com.yas.webhook.model.Event;
+import com.yas.webhook.model.Webhook;
+import com.yas.webhook.model.WebhookEvent;
+import com.yas.webhook.model.WebhookEventNotification;
+import com.yas.webhook.model.enums.EventName;
+import com.yas.webhook.repository.WebhookEventNotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookDeliveryServiceTest {
+
+    private static final long VERIFY_TIMEOUT_MILLIS = 5000;
+
+    @Mock
+    WebhookEventNotificationRepository webhookEventNotificationRepository;
+    @Mock
+    WebhookApi webhookApi;
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    WebhookDeliveryService webhookDeliveryService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (webhookDeliveryService != null) {
+            webhookDeliveryService.destroy();
+        }
+    }
+
+    @Test
+    void test_dispatchBatch_shouldSendAndMarkNotified() {
+        webhookDeliveryService = createService(config(8, 32));
+        WebhookEventNotification notification = notification(1L, 10L, 0);
+        runInTransaction();
+        when(webhookEventNotificationRepository.lockDueNotifications(any(), anyCollection(), anyInt()))
+            .thenReturn(List.of(notification));
+
+        assertThat(webhookDeliveryService.dispatchBatch()).isEqualTo(1);
+
+        assertThat(notification.getNextAttemptOn()).isAfter(ZonedDateTime.now().plusMinutes(4));
+        verify(webhookApi, timeout(VERIFY_TIMEOUT_MILLIS)).notify("http://hook/10", "secret", "{\"id\":1}");
+        verify(webhookEventNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS)).markNotified(eq(List.of(1L)), any());
+        assertThat(meterRegistry.get(WebhookDeliveryService.REQUEST_TIMER)
+            .tags("webhook", "10", "event", "ON_PRODUCT_UPDATED", "outcome", "success").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get(WebhookDeliveryService.NOTIFICATION_COUNTER)
+            .tags("webhook", "10", "outcome", "notified").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_dispatchBatch_whenRequestFails_shouldScheduleRetry() {
+        webhookDeliveryService = createService(config(8, 32));
+        runInTransaction();
+        when(webhookEventNotificationRepository.lockDueNotifications(any(), anyCollection(), anyInt()))
+            .thenReturn(List.of(notification(1L, 10L, 2)));
+        doThrow(new ResourceAccessException("Read timed out"))
+            .when(webhookApi).notify(anyString(), any(), anyString());
+
+        webhookDeliveryService.dispatchBatch();
+
+        ArgumentCaptor<ZonedDateTime> nextAttemptOn = ArgumentCaptor.forClass(ZonedDateTime.class);
+        verify(webhookEventNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS))
+            .scheduleRetry(eq(1L), any(), nextAttemptOn.capture(), anyString());
+        // third attempt failed, 40s backoff of which the random half is taken
+        assertThat(nextAttemptOn.getValue()).isAfter(ZonedDateTime.now().plusSeconds(15));
+        verify(webhookEventNotificationRepository, never()).markNotified(any(), any());
+        assertThat(meterRegistry.get(WebhookDeliveryService.NOTIFICATION_COUNTER)
+            .tags("webhook", "10", "outcome", "retried").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_dispatchBatch_whenLastAttemptFails_shouldMarkDead() {
+        webhookDeliveryService = createService(config(8, 32));
+        runInTransaction();
+        when(webhookEventNotificationRepository.lockDueNotifications(any(), anyCollection(), anyInt()))
+            .thenReturn(List.of(notification(1L, 10L, 7)));
+        doThrow(new ResourceAccessException("Connection refused"))
+            .when(webhookApi).notify(anyString(), any(), anyString());
+
+        webhookDeliveryService.dispatchBatch();
+
+        verify(webhookEventNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS))
+            .markDead(eq(1L), any(), anyString());
+        verify(webhookEventNotificationRepository, never()).scheduleRetry(any(), any(), any(), any());
+        assertThat(meterRegistry.get(WebhookDeliveryService.REQUEST_TIMER)
+            .tags("webhook", "10", "outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void test_dispatchBatch_whenWebhookQueueIsFull_shouldLeaveItsNotificationsOut() throws InterruptedException {
+        webhookDeliveryService = createService(config(1, 1));
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch releaseRequest = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            requestStarted.countDown();
+            releaseRequest.await();
+            return null;
+        }).when(webhookApi).notify(eq("http://hook/10"), any(), anyString());
+        runInTransaction();
+        WebhookEventNotification skipped = notification(2L, 10L, 0);
+        when(webhookEventNotificationRepository.lockDueNotifications(any(), anyCollection(), anyInt()))
+            .thenReturn(List.of(notification(1L, 10L, 0), skipped))
+            .thenReturn(List.of(notification(3L, 20L, 0)));
+
+        assertThat(webhookDeliveryService.dispatchBatch()).isEqualTo(1);
+        assertThat(skipped.getNextAttemptOn()).isBefore(ZonedDateTime.now().plusSeconds(1));
+        requestStarted.await();
+
+        assertThat(webhookDeliveryService.dispatchBatch()).isEqualTo(1);
+        verify(webhookApi, timeout(VERIFY_TIMEOUT_MILLIS)).notify(eq("http://hook/20"), any(), anyString());
+        verify(webhookEventNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS)).markNotified(eq(List.of(3L)), any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> excluded = ArgumentCaptor.forClass(Collection.class);
+        verify(webhookEventNotificationRepository, times(2))
+            .lockDueNotifications(any(), excluded.capture(), anyInt());
+        assertThat(excluded.getAllValues().get(1)).contains(10L);
+
+        releaseRequest.countDown();
+        verify(webhookEventNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS)).markNotified(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void test_dispatchBatch_whenWebhookBatches_shouldSendFullBatchesAndRestAfterLinger() {
+        webhookDeliveryService = createService(config(8, 32));
+        runInTransaction();
+        List<WebhookEventNotification> notifications = List.of(batchedNotification(1L), batchedNotification(2L),
+            batchedNotification(3L));
+        when(webhookEventNotificationRepository.lockDueNotifications(any(), anyCollection(), anyInt()))
+            .thenReturn(notifications);
+
+        assertThat(webhookDeliveryService.dispatchBatch()).isEqualTo(3);
+
+        verify(webhookApi, timeout(VERIFY_TIMEOUT_MILLIS))
+            .notify("http://hook/10", "secret", List.of("{\"id\":1}", "{\"id\":2}"));
+        verify(webhookEventNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS))
+            .markNotified(eq(List.of(1L, 2L)), any());
+        verify(webhookApi, timeout(VERIFY_TIMEOUT_MILLIS))
+            .notify("http://hook/10", "secret", List.of("{\"id\":3}"));
+        verify(webhookEventNotificationRepository, timeout(VERIFY_TIMEOUT_MILLIS))
+            .markNotified(eq(List.of(3L)), any());
+        verify(webhookApi, never()).notify(anyString(), any(), anyString());
+    }
+
+    @Test
+    void test_backoff_shouldDoubleUpToMaxBackoff() {
+        webhookDeliveryService = createService(config(8, 32));
+
+        assertThat(webhookDeliveryService.backoff(1)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+        assertThat(webhookDeliveryService.backoff(4)).isBetween(Duration.ofSeconds(40), Duration.ofSeconds(80));
+        assertThat(webhookDeliveryService.backoff(60)).isBetween(Duration.ofMinutes(30), Duration.ofHours(1));
+    }
+
+    private WebhookDeliveryService createService(WebhookDeliveryConfig config) {
+        return new WebhookDeliveryService(webhookEventNotificationRepository, webhookApi, transactionTemplate,
+            config, meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runInTransaction() {
+        when(transactionTemplate.execute(any())).thenAnswer(
+            invocation -> ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+    }
+
+    private static WebhookDeliveryConfig config(int maxConcurrencyPerWebhook, int maxQueuedPerWebhook) {
+        return new WebhookDeliveryConfig(true, Duration.ofMillis(500), 100, 1000, maxConcurrencyPerWebhook,
+            maxQueuedPerWebhook, Duration.ofMinutes(5), Duration.ofSeconds(5), Duration.ofSeconds(10), 8,
+            Duration.ofSeconds(10), Duration.ofHours(1));
+    }
+
+    private static WebhookEventNotification notification(Long id, Long webhookId, int attempts) {
+        Webhook webhook = new Webhook();
+        webhook.setId(webhookId);
+        webhook.setPayloadUrl("http://hook/" + webhookId);
+        webhook.setSecret("secret");
+        Event event = new Event();
+        event.setName(EventName.ON_PRODUCT_UPDATED);
+        WebhookEvent webhookEvent = new WebhookEvent();
+        webhookEvent.setWebhook(webhook);
+        webhookEvent.setEvent(event);
+        WebhookEventNotification notification = new WebhookEventNotification();
+        notification.setId(id);
+        notification.setWebhookEvent(webhookEvent);
+        notification.setPayload("{\"id\":1}");
+        notification.setAttempts(attempts);
+        notification.setNextAttemptOn(ZonedDateTime.now());
+        return notification;
+    }
+
+    private static WebhookEventNotification batchedNotification(Long id) {
+        WebhookEventNotification notification = notification(id, 10L, 0);
+        notification.setPayload("{\"id\":" + id + "}");
+        Webhook webhook = notification.getWebhookEvent().getWebhook();
+        webhook.setBatchSize(2);
+        webhook.setBatchLingerMillis(100);
+        return notification;
+    }
+}
@@ -0,0 +1,126 @@
+package com.yas.webhook.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yas.webhook.config.WebhookRetentionConfig;
+import com.yas.webhook.repository.WebhookEventNotificationPartitionRepository;
+import com.yas.webhook.repository.WebhookEventNotificationPartitionRepository.Partition;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookEventNotificationRetentionServiceTest {
+
+    @Mock
+    WebhookEventNotificationPartitionRepository partitionRepository;
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void test_maintainPartitions_shouldDropExpiredAndCreateUpcomingPartitions() {
+        LocalDate today = LocalDate.now();
+        runInTransaction();
+        when(partitionRepository.tryLock()).thenReturn(true);
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            partition("webhook_event_notification_legacy", today.minusDays(40)),
+            partition("webhook_event_notification_p1", today.minusDays(30)),
+            partition("webhook_event_notification_p2", today.minusDays(29)),
+            partition("webhook_event_notification_p3", today.plusDays(1)),
+            new Partition("webhook_event_notification_default", null)));
+
+        createService(
+            new WebhookRetentionConfig(true, Duration.ofHours(1), Duration.ofDays(30), Duration.ofDays(90), 2))
+            .maintainPartitions();
+
+        verify(partitionRepository).dropPartition("webhook_event_notification_legacy");
+        verify(partitionRepository).dropPartition("webhook_event_notification_p1");
+        verify(partitionRepository, times(2)).dropPartition(any());
+        verify(partitionRepository).deleteNotifiedFromDefaultPartition(any());
+        verify(partitionRepository).deleteDeadFromDefaultPartition(
+            argThat(cutoff -> cutoff.isBefore(LocalDateTime.now().minusDays(89))
+                && cutoff.isAfter(LocalDateTime.now().minusDays(91))));
+        verify(partitionRepository).createPartition(today.plusDays(1));
+        verify(partitionRepository).createPartition(today.plusDays(2));
+        verify(partitionRepository, times(2)).createPartition(any());
+    }
+
+    @Test
+    void test_maintainPartitions_whenNoPartitionIsAhead_shouldStartAtToday() {
+        LocalDate today = LocalDate.now();
+        runInTransaction();
+        when(partitionRepository.tryLock()).thenReturn(true);
+        when(partitionRepository.findPartitions()).thenReturn(
+            List.of(partition("webhook_event_notification_p1", today.minusDays(2))));
+
+        createService(
+            new WebhookRetentionConfig(true, Duration.ofHours(1), Duration.ofDays(30), Duration.ofDays(90), 0))
+            .maintainPartitions();
+
+        verify(partitionRepository).createPartition(today);
+        verify(partitionRepository, times(1)).createPartition(any());
+        verify(partitionRepository, never()).dropPartition(any());
+    }
+
+    @Test
+    void test_maintainPartitions_whenLockIsHeld_shouldDoNothing() {
+        runInTransaction();
+        when(partitionRepository.tryLock()).thenReturn(false);
+
+        createService(
+            new WebhookRetentionConfig(true, Duration.ofHours(1), Duration.ofDays(30), Duration.ofDays(90), 7))
+            .maintainPartitions();
+
+        verify(partitionRepository, never()).findPartitions();
+    }
+
+    @Test
+    void test_maintainPartitions_whenDropFails_shouldStillCreatePartitions() {
+        LocalDate today = LocalDate.now();
+        runInTransaction();
+        when(partitionRepository.tryLock()).thenReturn(true);
+        when(partitionRepository.findPartitions()).thenReturn(List.of(
+            partition("webhook_event_notification_p1", today.minusDays(31)),
+            partition("webhook_event_notification_p2", today.plusDays(1))));
+        doThrow(new CannotAcquireLockException("lock timeout"))
+            .when(partitionRepository).dropPartition("webhook_event_notification_p1");
+
+        createService(
+            new WebhookRetentionConfig(true, Duration.ofHours(1), Duration.ofDays(30), Duration.ofDays(90), 1))
+            .maintainPartitions();
+
+        verify(partitionRepository).createPartition(today.plusDays(1));
+    }
+
+    private WebhookEventNotificationRetentionService createService(WebhookRetentionConfig config) {
+        return new WebhookEventNotificationRetentionService(partitionRepository, transactionTemplate, config);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runInTransaction() {
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static Partition partition(String name, LocalDate end) {
+        return new Partition(name, end.atStartOfDay());
+    }
+}
@@ -1,47 +1,131 @@
 package com.yas.webhook.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.yas.webhook.integration.api.WebhookApi;
+import com.yas.commonlibrary.exception.BadRequestException;
+import com.yas.commonlibrary.exception.NotFoundException;
+import com.yas.webhook.model.WebhookEvent;
 import com.yas.webhook.model.WebhookEventNotification;
-import com.yas.webhook.model.dto.WebhookEventNotificationDto;
+import com.yas.webhook.model.enums.NotificationStatus;
+import com.yas.webhook.model.mapper.WebhookMapper;
+import com.yas.webhook.model.viewmodel.webhook.WebhookEventNotificationListGetVm;
 import com.yas.webhook.repository.WebhookEventNotificationRepository;
+import com.yas.webhook.repository.WebhookRepository;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 class WebhookServiceTest {
 
+    @Mock
+    WebhookRepository webhookRepository;
     @Mock
     WebhookEventNotificationRepository webhookEventNotificationRepository;
     @Mock
-    WebhookApi webHookApi;
+    WebhookMapper webhookMapper;
 
     @InjectMocks
     WebhookService webhookService;
 
     @Test
-    void test_notifyToWebhook_ShouldNotException() {
+    void test_getPageableNotifications_shouldReturnNotificationsOfWebhookInStatus() {
+        PageRequest pageRequest = PageRequest.of(1, 20, Sort.by(Sort.Direction.DESC, "id"));
+        Page<WebhookEventNotification> page = new PageImpl<>(List.of(notification(5L, 1L, NotificationStatus.DEAD)));
+        WebhookEventNotificationListGetVm listGetVm = WebhookEventNotificationListGetVm.builder().build();
+        when(webhookRepository.existsById(1L)).thenReturn(true);
+        when(webhookEventNotificationRepository.findByWebhookEventWebhookIdAndNotificationStatus(
+            1L, NotificationStatus.DEAD, pageRequest)).thenReturn(page);
+        when(webhookMapper.toWebhookEventNotificationListGetVm(page, 1, 20)).thenReturn(listGetVm);
 
-        WebhookEventNotificationDto notificationDto = WebhookEventNotificationDto
-            .builder()
-            .notificationId(1L)
-            .url("")
-            .secret("")
-            .build();
+        assertThat(webhookService.getPageableNotifications(1L, NotificationStatus.DEAD, 1, 20)).isSameAs(listGetVm);
+    }
 
-        WebhookEventNotification notification = new WebhookEventNotification();
-        when(webhookEventNotificationRepository.findById(notificationDto.getNotificationId()))
-            .thenReturn(Optional.of(notification));
+    @Test
+    void test_replayNotifications_shouldReplayNotificationsOfWebhookInStatus() {
+        when(webhookRepository.existsById(1L)).thenReturn(true);
+        when(webhookEventNotificationRepository.replay(eq(1L), eq(NotificationStatus.DEAD), any())).thenReturn(3);
+
+        assertThat(webhookService.replayNotifications(1L, NotificationStatus.DEAD)).isEqualTo(3);
+    }
+
+    @Test
+    void test_replayNotifications_whenStatusIsNotifying_shouldThrowBadRequest() {
+        when(webhookRepository.existsById(1L)).thenReturn(true);
 
-        webhookService.notifyToWebhook(notificationDto);
+        assertThatThrownBy(() -> webhookService.replayNotifications(1L, NotificationStatus.NOTIFYING))
+            .isInstanceOf(BadRequestException.class);
+        verify(webhookEventNotificationRepository, never()).replay(any(Long.class), any(), any());
+    }
+
+    @Test
+    void test_replayNotifications_whenStatusIsFailed_shouldThrowBadRequest() {
+        when(webhookRepository.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> webhookService.replayNotifications(1L, NotificationStatus.FAILED))
+            .isInstanceOf(BadRequestException.class);
+        verify(webhookEventNotificationRepository, never()).replay(any(Long.class), any(), any());
+    }
+
+    @Test
+    void test_replayNotifications_whenWebhookDoesNotExist_shouldThrowNotFound() {
+        when(webhookRepository.existsById(1L)).thenReturn(false);
 
-        verify(webhookEventNotificationRepository).save(notification);
-        verify(webHookApi).notify(notificationDto.getUrl(), notificationDto.getSecret(), notificationDto.getPayload());
+        assertThatThrownBy(() -> webhookService.replayNotifications(1L, NotificationStatus.DEAD))
+            .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void test_replayNotification_shouldReplayIt() {
+        when(webhookEventNotificationRepository.findById(5L))
+            .thenReturn(Optional.of(notification(5L, 1L, NotificationStatus.DEAD)));
+
+        webhookService.replayNotification(1L, 5L);
+
+        verify(webhookEventNotificationRepository).replay(eq(List.of(5L)), any());
+    }
+
+    @Test
+    void test_replayNotification_whenItIsFailed_shouldThrowBadRequest() {
+        when(webhookEventNotificationRepository.findById(5L))
+            .thenReturn(Optional.of(notification(5L, 1L, NotificationStatus.FAILED)));
+
+        assertThatThrownBy(() -> webhookService.replayNotification(1L, 5L))
+            .isInstanceOf(BadRequestException.class);
+        verify(webhookEventNotificationRepository, never()).replay(any(), any());
+    }
+
+    @Test
+    void test_replayNotification_whenItBelongsToAnotherWebhook_shouldThrowNotFound() {
+        when(webhookEventNotificationRepository.findById(5L))
+            .thenReturn(Optional.of(notification(5L, 2L, NotificationStatus.DEAD)));
+
+        assertThatThrownBy(() -> webhookService.replayNotification(1L, 5L))
+            .isInstanceOf(NotFoundException.class);
+        verify(webhookEventNotificationRepository, never()).replay(any(), any());
+    }
+
+    private static WebhookEventNotification notification(Long id, Long webhookId, NotificationStatus status) {
+        WebhookEvent webhookEvent = new WebhookEvent();
+        webhookEvent.setWebhookId(webhookId);
+        WebhookEventNotification notification = new WebhookEventNotification();
+        notification.setId(id);
+        notification.setWebhookEvent(webhookEvent);
+        notification.setNotificationStatus(status);
+        return notification;
     }
 }
@@ -0,0 +1,55 @@
+package com.yas.webhook.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.yas.webhook.model.dto.WebhookSubscription;
+import com.yas.webhook.model.enums.EventName;
+import com.yas.webhook.repository.WebhookEventRepository;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookSubscriptionRegistryTest {
+
+    @Mock
+    WebhookEventRepository webhookEventRepository;
+    @InjectMocks
+    WebhookSubscriptionRegistry webhookSubscriptionRegistry;
+
+    @Test
+    void test_getSubscriptions_shouldLoadOnceAndGroupByEvent() {
+        WebhookSubscription orderCreated = new WebhookSubscription(EventName.ON_ORDER_CREATED, 1L, 10L);
+        WebhookSubscription productUpdated = new WebhookSubscription(EventName.ON_PRODUCT_UPDATED, 2L, 10L);
+        when(webhookEventRepository.findAllSubscriptions()).thenReturn(List.of(orderCreated, productUpdated));
+
+        assertThat(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_ORDER_CREATED))
+            .containsExactly(orderCreated);
+        assertThat(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_PRODUCT_UPDATED))
+            .containsExactly(productUpdated);
+        assertThat(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_ORDER_STATUS_UPDATED)).isEmpty();
+
+        verify(webhookEventRepository).findAllSubscriptions();
+    }
+
+    @Test
+    void test_invalidate_shouldReloadOnNextRead() {
+        WebhookSubscription orderCreated = new WebhookSubscription(EventName.ON_ORDER_CREATED, 1L, 10L);
+        when(webhookEventRepository.findAllSubscriptions())
+            .thenReturn(List.of())
+            .thenReturn(List.of(orderCreated));
+
+        assertThat(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_ORDER_CREATED)).isEmpty();
+        webhookSubscriptionRegistry.invalidate();
+
+        assertThat(webhookSubscriptionRegistry.getSubscriptions(EventName.ON_ORDER_CREATED))
+            .containsExactly(orderCreated);
+        verify(webhookEventRepository, times(2)).findAllSubscriptions();
+    }
+}